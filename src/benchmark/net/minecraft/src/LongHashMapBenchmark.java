@@ -0,0 +1,225 @@
+package net.minecraft.src;
+
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * Measures LongHashMap with the access patterns of the chunk maps, against java.util.HashMap with boxed keys. Only
+ * uses the public map methods, so the same class can be run against older versions of LongHashMap.
+ */
+public class LongHashMapBenchmark
+{
+    /** Chunk radius of the keys, about the chunks loaded around a few players */
+    private static final int RADIUS = 40;
+    private static final int ROUNDS = 10;
+
+    /** Passes over the keys per measurement, so the short loops over the keys are compiled and timed together */
+    private static final int PASSES = 100;
+    private static Object sink;
+
+    public static void main(String[] par0ArrayOfStr)
+    {
+        int var1 = par0ArrayOfStr.length > 0 ? Integer.parseInt(par0ArrayOfStr[0]) : 2000000;
+        long[] var2 = createKeys();
+        long[] var3 = createLookups(new Random(2L), var1);
+
+        for (int var4 = 0; var4 < ROUNDS; ++var4)
+        {
+            boolean var5 = var4 == ROUNDS - 1;
+            report(var5, "LongHashMap add", benchmarkAdd(var2), var2.length * PASSES);
+            report(var5, "HashMap put", benchmarkPut(var2), var2.length * PASSES);
+            report(var5, "LongHashMap getValueByKey", benchmarkGet(var2, var3), var3.length);
+            report(var5, "HashMap get", benchmarkHashMapGet(var2, var3), var3.length);
+            report(var5, "LongHashMap add/remove", benchmarkChurn(var2), var2.length * 2 * PASSES);
+            report(var5, "HashMap put/remove", benchmarkHashMapChurn(var2), var2.length * 2 * PASSES);
+        }
+    }
+
+    /**
+     * Returns the keys of all chunks in the radius in the order chunks are loaded around a player, spiraling out
+     */
+    private static long[] createKeys()
+    {
+        int var1 = RADIUS * 2 + 1;
+        long[] var2 = new long[var1 * var1];
+        int var3 = 0;
+
+        for (int var4 = 0; var4 <= RADIUS; ++var4)
+        {
+            for (int var5 = -var4; var5 <= var4; ++var5)
+            {
+                for (int var6 = -var4; var6 <= var4; ++var6)
+                {
+                    if (Math.max(Math.abs(var5), Math.abs(var6)) == var4)
+                    {
+                        var2[var3++] = ChunkCoordIntPair.chunkXZ2Int(var5, var6);
+                    }
+                }
+            }
+        }
+
+        return var2;
+    }
+
+    /**
+     * Returns lookups which mostly hit chunks near the center, like block reads of entities, with some misses outside
+     */
+    private static long[] createLookups(Random par0Random, int par1)
+    {
+        long[] var2 = new long[par1];
+
+        for (int var3 = 0; var3 < par1; ++var3)
+        {
+            int var4 = (int)(par0Random.nextGaussian() * (double)RADIUS / 2.0D);
+            int var5 = (int)(par0Random.nextGaussian() * (double)RADIUS / 2.0D);
+            var2[var3] = ChunkCoordIntPair.chunkXZ2Int(var4, var5);
+        }
+
+        return var2;
+    }
+
+    private static long benchmarkAdd(long[] par0ArrayOfLong)
+    {
+        long var1 = System.nanoTime();
+
+        for (int var3 = 0; var3 < PASSES; ++var3)
+        {
+            LongHashMap var4 = new LongHashMap();
+
+            for (int var5 = 0; var5 < par0ArrayOfLong.length; ++var5)
+            {
+                var4.add(par0ArrayOfLong[var5], Boolean.TRUE);
+            }
+
+            sink = var4;
+        }
+
+        return System.nanoTime() - var1;
+    }
+
+    private static long benchmarkPut(long[] par0ArrayOfLong)
+    {
+        long var1 = System.nanoTime();
+
+        for (int var3 = 0; var3 < PASSES; ++var3)
+        {
+            HashMap var4 = new HashMap();
+
+            for (int var5 = 0; var5 < par0ArrayOfLong.length; ++var5)
+            {
+                var4.put(Long.valueOf(par0ArrayOfLong[var5]), Boolean.TRUE);
+            }
+
+            sink = var4;
+        }
+
+        return System.nanoTime() - var1;
+    }
+
+    private static long benchmarkGet(long[] par0ArrayOfLong, long[] par1ArrayOfLong)
+    {
+        LongHashMap var2 = new LongHashMap();
+
+        for (int var3 = 0; var3 < par0ArrayOfLong.length; ++var3)
+        {
+            var2.add(par0ArrayOfLong[var3], Boolean.TRUE);
+        }
+
+        long var4 = System.nanoTime();
+        int var6 = 0;
+
+        for (int var7 = 0; var7 < par1ArrayOfLong.length; ++var7)
+        {
+            if (var2.getValueByKey(par1ArrayOfLong[var7]) != null)
+            {
+                ++var6;
+            }
+        }
+
+        sink = Integer.valueOf(var6);
+        return System.nanoTime() - var4;
+    }
+
+    private static long benchmarkHashMapGet(long[] par0ArrayOfLong, long[] par1ArrayOfLong)
+    {
+        HashMap var2 = new HashMap();
+
+        for (int var3 = 0; var3 < par0ArrayOfLong.length; ++var3)
+        {
+            var2.put(Long.valueOf(par0ArrayOfLong[var3]), Boolean.TRUE);
+        }
+
+        long var4 = System.nanoTime();
+        int var6 = 0;
+
+        for (int var7 = 0; var7 < par1ArrayOfLong.length; ++var7)
+        {
+            if (var2.get(Long.valueOf(par1ArrayOfLong[var7])) != null)
+            {
+                ++var6;
+            }
+        }
+
+        sink = Integer.valueOf(var6);
+        return System.nanoTime() - var4;
+    }
+
+    /**
+     * Removes every key and adds it again, like chunks unloading and loading as players move
+     */
+    private static long benchmarkChurn(long[] par0ArrayOfLong)
+    {
+        LongHashMap var1 = new LongHashMap();
+
+        for (int var2 = 0; var2 < par0ArrayOfLong.length; ++var2)
+        {
+            var1.add(par0ArrayOfLong[var2], Boolean.TRUE);
+        }
+
+        long var3 = System.nanoTime();
+
+        for (int var5 = 0; var5 < PASSES; ++var5)
+        {
+            for (int var7 = 0; var7 < par0ArrayOfLong.length; ++var7)
+            {
+                var1.remove(par0ArrayOfLong[var7]);
+                var1.add(par0ArrayOfLong[par0ArrayOfLong.length - 1 - var7], Boolean.TRUE);
+            }
+        }
+
+        sink = var1;
+        return System.nanoTime() - var3;
+    }
+
+    private static long benchmarkHashMapChurn(long[] par0ArrayOfLong)
+    {
+        HashMap var1 = new HashMap();
+
+        for (int var2 = 0; var2 < par0ArrayOfLong.length; ++var2)
+        {
+            var1.put(Long.valueOf(par0ArrayOfLong[var2]), Boolean.TRUE);
+        }
+
+        long var3 = System.nanoTime();
+
+        for (int var5 = 0; var5 < PASSES; ++var5)
+        {
+            for (int var7 = 0; var7 < par0ArrayOfLong.length; ++var7)
+            {
+                var1.remove(Long.valueOf(par0ArrayOfLong[var7]));
+                var1.put(Long.valueOf(par0ArrayOfLong[par0ArrayOfLong.length - 1 - var7]), Boolean.TRUE);
+            }
+        }
+
+        sink = var1;
+        return System.nanoTime() - var3;
+    }
+
+    private static void report(boolean par0, String par1Str, long par2, int par4)
+    {
+        if (par0)
+        {
+            System.out.println(String.format("%-28s %8.2f ns/op", new Object[] {par1Str, Double.valueOf((double)par2 / (double)par4)}));
+        }
+    }
+}
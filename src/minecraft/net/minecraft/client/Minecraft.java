@@ -2018,7 +2018,7 @@ public abstract class Minecraft implements Runnable, IPlayerUsage
      */
     public String getWorldProviderName()
     {
-        return this.theWorld.getProviderName();
+        return this.theWorld.getProviderName() + ", " + this.theWorld.getDebugLighting();
     }
 
     /**
@@ -44,6 +44,7 @@ import net.minecraft.src.ServerConfigurationManager;
 import net.minecraft.src.StringTranslate;
 import net.minecraft.src.StringUtils;
 import net.minecraft.src.ThreadMinecraftServer;
+import net.minecraft.src.ThreadedFileIOBase;
 import net.minecraft.src.World;
 import net.minecraft.src.WorldInfo;
 import net.minecraft.src.WorldManager;
@@ -361,6 +362,12 @@ public abstract class MinecraftServer implements ICommandSender, Runnable, IPlay
                     }
                 }
             }
+
+            if (!par1)
+            {
+                ThreadedFileIOBase var8 = ThreadedFileIOBase.threadedIOInstance;
+                this.getLogAgent().logInfo("Chunk writes: " + var8.getWriteCount() + " done, " + var8.getQueueDepth() + " queued, " + String.format("%.2f", new Object[] {Double.valueOf(var8.getAverageWriteTime())}) + " ms average, " + String.format("%.2f", new Object[] {Double.valueOf(var8.getMaxWriteTime())}) + " ms max");
+            }
         }
     }
 
@@ -557,6 +564,9 @@ public abstract class MinecraftServer implements ICommandSender, Runnable, IPlay
 
         this.theProfiler.startSection("root");
         this.updateTimeLightAndEntities();
+        this.theProfiler.startSection("flush");
+        this.getNetworkThread().flushSendQueues();
+        this.theProfiler.endSection();
 
         if (this.tickCounter % 900 == 0)
         {
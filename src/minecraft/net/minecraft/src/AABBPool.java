@@ -1,7 +1,6 @@
 package net.minecraft.src;
 
 import java.util.ArrayList;
-import java.util.List;
 
 public class AABBPool
 {
@@ -15,8 +14,14 @@ public class AABBPool
      */
     private final int numEntriesToRemove;
 
+    /**
+     * Number of AABBs kept at most between ticks, a burst of allocations (such as an explosion) does not stay retained
+     * beyond this
+     */
+    private static final int MAX_RETAINED_SIZE = 16384;
+
     /** List of AABB stored in this Pool */
-    private final List listAABB = new ArrayList();
+    private final ArrayList listAABB = new ArrayList();
 
     /** Next index to use when adding a Pool Entry. */
     private int nextPoolIndex = 0;
@@ -72,19 +77,27 @@ public class AABBPool
         if (this.numCleans++ == this.maxNumCleans)
         {
             int var1 = Math.max(this.maxPoolIndex, this.listAABB.size() - this.numEntriesToRemove);
-
-            while (this.listAABB.size() > var1)
-            {
-                this.listAABB.remove(var1);
-            }
-
+            this.truncatePool(var1);
             this.maxPoolIndex = 0;
             this.numCleans = 0;
         }
 
+        this.truncatePool(MAX_RETAINED_SIZE);
         this.nextPoolIndex = 0;
     }
 
+    /**
+     * Removes the entries beyond the given size and releases the unused capacity of the list
+     */
+    private void truncatePool(int par1)
+    {
+        if (this.listAABB.size() > par1)
+        {
+            this.listAABB.subList(par1, this.listAABB.size()).clear();
+            this.listAABB.trimToSize();
+        }
+    }
+
     /**
      * Clears the AABBPool
      */
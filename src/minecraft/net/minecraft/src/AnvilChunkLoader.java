@@ -4,17 +4,20 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
-public class AnvilChunkLoader implements IChunkLoader, IThreadedFileIO
+public class AnvilChunkLoader implements IChunkLoader
 {
-    private List chunksToRemove = new ArrayList();
-    private Set pendingAnvilChunksCoordinates = new HashSet();
-    private Object syncLockObject = new Object();
+    /** The write queues of the region files, mapped by the region coordinates */
+    private ConcurrentHashMap regionWriteQueues = new ConcurrentHashMap();
+
+    /**
+     * The latest unwritten data of each chunk waiting to be saved, mapped by its ChunkCoordIntPair. Saving a chunk
+     * again before it has been written replaces its data without queueing another write.
+     */
+    private ConcurrentHashMap pendingChunkSaves = new ConcurrentHashMap();
 
     /** Save directory for chunks using the Anvil format */
     private final File chunkSaveLocation;
@@ -29,44 +32,59 @@ public class AnvilChunkLoader implements IChunkLoader, IThreadedFileIO
      */
     public Chunk loadChunk(World par1World, int par2, int par3) throws IOException
     {
-        NBTTagCompound var4 = null;
-        ChunkCoordIntPair var5 = new ChunkCoordIntPair(par2, par3);
-        Object var6 = this.syncLockObject;
+        NBTTagCompound var4 = this.readChunkNBT(par2, par3);
+        return var4 == null ? null : this.checkedReadChunkFromNBT(par1World, par2, par3, var4);
+    }
 
-        synchronized (this.syncLockObject)
+    /**
+     * Returns the saved data of the specified chunk, from the pending writes or the region file, or null if the chunk
+     * has not been saved. May be called from any thread.
+     */
+    public NBTTagCompound readChunkNBT(int par1, int par2) throws IOException
+    {
+        NBTTagCompound var3 = null;
+        AnvilChunkLoaderPending var4 = (AnvilChunkLoaderPending)this.pendingChunkSaves.get(new ChunkCoordIntPair(par1, par2));
+
+        if (var4 != null)
         {
-            if (this.pendingAnvilChunksCoordinates.contains(var5))
-            {
-                for (int var7 = 0; var7 < this.chunksToRemove.size(); ++var7)
-                {
-                    if (((AnvilChunkLoaderPending)this.chunksToRemove.get(var7)).chunkCoordinate.equals(var5))
-                    {
-                        var4 = ((AnvilChunkLoaderPending)this.chunksToRemove.get(var7)).nbtTags;
-                        break;
-                    }
-                }
-            }
+            var3 = var4.nbtTags;
         }
 
-        if (var4 == null)
+        if (var3 == null)
         {
-            DataInputStream var10 = RegionFileCache.getChunkInputStream(this.chunkSaveLocation, par2, par3);
+            DataInputStream var5 = RegionFileCache.getChunkInputStream(this.chunkSaveLocation, par1, par2);
 
-            if (var10 == null)
+            if (var5 == null)
             {
                 return null;
             }
 
-            var4 = CompressedStreamTools.read(var10);
+            var3 = CompressedStreamTools.read(var5);
         }
 
-        return this.checkedReadChunkFromNBT(par1World, par2, par3, var4);
+        return var3;
     }
 
     /**
-     * Wraps readChunkFromNBT. Checks the coordinates and several NBT tags.
+     * Checks the coordinates and several NBT tags.
      */
     protected Chunk checkedReadChunkFromNBT(World par1World, int par2, int par3, NBTTagCompound par4NBTTagCompound)
+    {
+        Chunk var5 = this.checkedReadChunkBlocksFromNBT(par1World, par2, par3, par4NBTTagCompound);
+
+        if (var5 != null)
+        {
+            this.readChunkEntitiesFromNBT(par1World, var5, par4NBTTagCompound.getCompoundTag("Level"));
+        }
+
+        return var5;
+    }
+
+    /**
+     * Checks the coordinates and several NBT tags and reads the blocks of the chunk. Does not touch the world, so it
+     * may be called from a chunk loading thread, the entities are added by readChunkEntitiesFromNBT afterwards.
+     */
+    public Chunk checkedReadChunkBlocksFromNBT(World par1World, int par2, int par3, NBTTagCompound par4NBTTagCompound)
     {
         if (!par4NBTTagCompound.hasKey("Level"))
         {
@@ -80,14 +98,14 @@ public class AnvilChunkLoader implements IChunkLoader, IThreadedFileIO
         }
         else
         {
-            Chunk var5 = this.readChunkFromNBT(par1World, par4NBTTagCompound.getCompoundTag("Level"));
+            Chunk var5 = this.readChunkBlocksFromNBT(par1World, par4NBTTagCompound.getCompoundTag("Level"));
 
             if (!var5.isAtLocation(par2, par3))
             {
                 par1World.getWorldLogAgent().func_98232_c("Chunk file at " + par2 + "," + par3 + " is in the wrong location; relocating. (Expected " + par2 + ", " + par3 + ", got " + var5.xPosition + ", " + var5.zPosition + ")");
                 par4NBTTagCompound.setInteger("xPos", par2);
                 par4NBTTagCompound.setInteger("zPos", par3);
-                var5 = this.readChunkFromNBT(par1World, par4NBTTagCompound.getCompoundTag("Level"));
+                var5 = this.readChunkBlocksFromNBT(par1World, par4NBTTagCompound.getCompoundTag("Level"));
             }
 
             return var5;
@@ -104,77 +122,116 @@ public class AnvilChunkLoader implements IChunkLoader, IThreadedFileIO
             NBTTagCompound var4 = new NBTTagCompound();
             var3.setTag("Level", var4);
             this.writeChunkToNBT(par2Chunk, par1World, var4);
+
+            try
+            {
+                ThreadedFileIOBase.threadedIOInstance.waitForQueueSpace();
+            }
+            catch (InterruptedException var6)
+            {
+                Thread.currentThread().interrupt();
+            }
+
             this.func_75824_a(par2Chunk.getChunkCoordIntPair(), var3);
         }
-        catch (Exception var5)
+        catch (Exception var7)
         {
-            var5.printStackTrace();
+            var7.printStackTrace();
         }
     }
 
     protected void func_75824_a(ChunkCoordIntPair par1ChunkCoordIntPair, NBTTagCompound par2NBTTagCompound)
     {
-        Object var3 = this.syncLockObject;
+        AnvilChunkLoaderPending var3 = new AnvilChunkLoaderPending(par1ChunkCoordIntPair, par2NBTTagCompound);
 
-        synchronized (this.syncLockObject)
+        if (this.pendingChunkSaves.put(par1ChunkCoordIntPair, var3) == null)
         {
-            if (this.pendingAnvilChunksCoordinates.contains(par1ChunkCoordIntPair))
-            {
-                for (int var4 = 0; var4 < this.chunksToRemove.size(); ++var4)
-                {
-                    if (((AnvilChunkLoaderPending)this.chunksToRemove.get(var4)).chunkCoordinate.equals(par1ChunkCoordIntPair))
-                    {
-                        this.chunksToRemove.set(var4, new AnvilChunkLoaderPending(par1ChunkCoordIntPair, par2NBTTagCompound));
-                        return;
-                    }
-                }
-            }
-
-            this.chunksToRemove.add(new AnvilChunkLoaderPending(par1ChunkCoordIntPair, par2NBTTagCompound));
-            this.pendingAnvilChunksCoordinates.add(par1ChunkCoordIntPair);
-            ThreadedFileIOBase.threadedIOInstance.queueIO(this);
+            this.queueChunkWrite(par1ChunkCoordIntPair);
         }
     }
 
     /**
-     * Returns a boolean stating if the write was unsuccessful.
+     * Adds the chunk to the end of the write queue of its region file
      */
-    public boolean writeNextIO()
+    private void queueChunkWrite(ChunkCoordIntPair par1ChunkCoordIntPair)
     {
-        AnvilChunkLoaderPending var1 = null;
-        Object var2 = this.syncLockObject;
+        AnvilChunkLoaderRegion var2 = this.getRegionWriteQueue(par1ChunkCoordIntPair);
+        ThreadedFileIOBase.threadedIOInstance.addQueuedWrite();
+        var2.chunksToWrite.add(par1ChunkCoordIntPair);
+        ThreadedFileIOBase.threadedIOInstance.queueIO(var2);
+    }
 
-        synchronized (this.syncLockObject)
+    /**
+     * Returns the write queue of the region file containing the given chunk
+     */
+    private AnvilChunkLoaderRegion getRegionWriteQueue(ChunkCoordIntPair par1ChunkCoordIntPair)
+    {
+        Long var2 = Long.valueOf(ChunkCoordIntPair.chunkXZ2Int(par1ChunkCoordIntPair.chunkXPos >> 5, par1ChunkCoordIntPair.chunkZPos >> 5));
+        AnvilChunkLoaderRegion var3 = (AnvilChunkLoaderRegion)this.regionWriteQueues.get(var2);
+
+        if (var3 == null)
         {
-            if (this.chunksToRemove.isEmpty())
+            var3 = new AnvilChunkLoaderRegion(this);
+            AnvilChunkLoaderRegion var4 = (AnvilChunkLoaderRegion)this.regionWriteQueues.putIfAbsent(var2, var3);
+
+            if (var4 != null)
             {
-                return false;
+                var3 = var4;
             }
-
-            var1 = (AnvilChunkLoaderPending)this.chunksToRemove.remove(0);
-            this.pendingAnvilChunksCoordinates.remove(var1.chunkCoordinate);
         }
 
-        if (var1 != null)
+        return var3;
+    }
+
+    /**
+     * Writes the oldest queued chunk of the given region file. Returns false if there was nothing to write. The chunk
+     * stays readable from the pending saves until it is on disk, if it was saved again meanwhile it is queued again.
+     */
+    boolean writeNextIO(AnvilChunkLoaderRegion par1AnvilChunkLoaderRegion)
+    {
+        ChunkCoordIntPair var2 = (ChunkCoordIntPair)par1AnvilChunkLoaderRegion.chunksToWrite.poll();
+
+        if (var2 == null)
         {
-            try
-            {
-                this.writeChunkNBTTags(var1);
-            }
-            catch (Exception var4)
+            return false;
+        }
+        else
+        {
+            AnvilChunkLoaderPending var3 = (AnvilChunkLoaderPending)this.pendingChunkSaves.get(var2);
+
+            if (var3 != null)
             {
-                var4.printStackTrace();
+                try
+                {
+                    this.writeChunkNBTTags(var3);
+                }
+                catch (Exception var5)
+                {
+                    var5.printStackTrace();
+                }
+
+                if (!this.pendingChunkSaves.remove(var2, var3))
+                {
+                    this.queueChunkWrite(var2);
+                }
             }
-        }
 
-        return true;
+            return true;
+        }
     }
 
     private void writeChunkNBTTags(AnvilChunkLoaderPending par1AnvilChunkLoaderPending) throws IOException
     {
         DataOutputStream var2 = RegionFileCache.getChunkOutputStream(this.chunkSaveLocation, par1AnvilChunkLoaderPending.chunkCoordinate.chunkXPos, par1AnvilChunkLoaderPending.chunkCoordinate.chunkZPos);
-        CompressedStreamTools.write(par1AnvilChunkLoaderPending.nbtTags, var2);
-        var2.close();
+
+        try
+        {
+            CompressedStreamTools.write(par1AnvilChunkLoaderPending.nbtTags, var2);
+        }
+        finally
+        {
+            var2.close();
+        }
     }
 
     /**
@@ -305,10 +362,9 @@ public class AnvilChunkLoader implements IChunkLoader, IThreadedFileIO
     }
 
     /**
-     * Reads the data stored in the passed NBTTagCompound and creates a Chunk with that data in the passed World.
-     * Returns the created Chunk.
+     * Creates a Chunk with the blocks, light and biomes stored in the passed NBTTagCompound
      */
-    private Chunk readChunkFromNBT(World par1World, NBTTagCompound par2NBTTagCompound)
+    private Chunk readChunkBlocksFromNBT(World par1World, NBTTagCompound par2NBTTagCompound)
     {
         int var3 = par2NBTTagCompound.getInteger("xPos");
         int var4 = par2NBTTagCompound.getInteger("zPos");
@@ -351,67 +407,74 @@ public class AnvilChunkLoader implements IChunkLoader, IThreadedFileIO
             var5.setBiomeArray(par2NBTTagCompound.getByteArray("Biomes"));
         }
 
-        NBTTagList var18 = par2NBTTagCompound.getTagList("Entities");
+        return var5;
+    }
+
+    /**
+     * Adds the entities, tile entities and scheduled block updates stored in the passed NBTTagCompound to the chunk
+     * and the world. Must be called from the server thread.
+     */
+    public void readChunkEntitiesFromNBT(World par1World, Chunk par2Chunk, NBTTagCompound par3NBTTagCompound)
+    {
+        NBTTagList var4 = par3NBTTagCompound.getTagList("Entities");
 
-        if (var18 != null)
+        if (var4 != null)
         {
-            for (int var17 = 0; var17 < var18.tagCount(); ++var17)
+            for (int var5 = 0; var5 < var4.tagCount(); ++var5)
             {
-                NBTTagCompound var19 = (NBTTagCompound)var18.tagAt(var17);
-                Entity var25 = EntityList.createEntityFromNBT(var19, par1World);
-                var5.hasEntities = true;
+                NBTTagCompound var6 = (NBTTagCompound)var4.tagAt(var5);
+                Entity var7 = EntityList.createEntityFromNBT(var6, par1World);
+                par2Chunk.hasEntities = true;
 
-                if (var25 != null)
+                if (var7 != null)
                 {
-                    var5.addEntity(var25);
-                    Entity var14 = var25;
+                    par2Chunk.addEntity(var7);
+                    Entity var8 = var7;
 
-                    for (NBTTagCompound var15 = var19; var15.hasKey("Riding"); var15 = var15.getCompoundTag("Riding"))
+                    for (NBTTagCompound var9 = var6; var9.hasKey("Riding"); var9 = var9.getCompoundTag("Riding"))
                     {
-                        Entity var16 = EntityList.createEntityFromNBT(var15.getCompoundTag("Riding"), par1World);
+                        Entity var10 = EntityList.createEntityFromNBT(var9.getCompoundTag("Riding"), par1World);
 
-                        if (var16 != null)
+                        if (var10 != null)
                         {
-                            var5.addEntity(var16);
-                            var14.mountEntity(var16);
+                            par2Chunk.addEntity(var10);
+                            var8.mountEntity(var10);
                         }
 
-                        var14 = var16;
+                        var8 = var10;
                     }
                 }
             }
         }
 
-        NBTTagList var21 = par2NBTTagCompound.getTagList("TileEntities");
+        NBTTagList var11 = par3NBTTagCompound.getTagList("TileEntities");
 
-        if (var21 != null)
+        if (var11 != null)
         {
-            for (int var20 = 0; var20 < var21.tagCount(); ++var20)
+            for (int var12 = 0; var12 < var11.tagCount(); ++var12)
             {
-                NBTTagCompound var22 = (NBTTagCompound)var21.tagAt(var20);
-                TileEntity var27 = TileEntity.createAndLoadEntity(var22);
+                NBTTagCompound var13 = (NBTTagCompound)var11.tagAt(var12);
+                TileEntity var14 = TileEntity.createAndLoadEntity(var13);
 
-                if (var27 != null)
+                if (var14 != null)
                 {
-                    var5.addTileEntity(var27);
+                    par2Chunk.addTileEntity(var14);
                 }
             }
         }
 
-        if (par2NBTTagCompound.hasKey("TileTicks"))
+        if (par3NBTTagCompound.hasKey("TileTicks"))
         {
-            NBTTagList var24 = par2NBTTagCompound.getTagList("TileTicks");
+            NBTTagList var15 = par3NBTTagCompound.getTagList("TileTicks");
 
-            if (var24 != null)
+            if (var15 != null)
             {
-                for (int var23 = 0; var23 < var24.tagCount(); ++var23)
+                for (int var16 = 0; var16 < var15.tagCount(); ++var16)
                 {
-                    NBTTagCompound var26 = (NBTTagCompound)var24.tagAt(var23);
-                    par1World.scheduleBlockUpdateFromLoad(var26.getInteger("x"), var26.getInteger("y"), var26.getInteger("z"), var26.getInteger("i"), var26.getInteger("t"), var26.getInteger("p"));
+                    NBTTagCompound var17 = (NBTTagCompound)var15.tagAt(var16);
+                    par1World.scheduleBlockUpdateFromLoad(var17.getInteger("x"), var17.getInteger("y"), var17.getInteger("z"), var17.getInteger("i"), var17.getInteger("t"), var17.getInteger("p"));
                 }
             }
         }
-
-        return var5;
     }
 }
@@ -0,0 +1,25 @@
+package net.minecraft.src;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+class AnvilChunkLoaderRegion implements IThreadedFileIO
+{
+    /** Coordinates of the chunks in this region file waiting to be written, in the order they were queued */
+    public final Queue chunksToWrite = new ConcurrentLinkedQueue();
+
+    final AnvilChunkLoader chunkLoader;
+
+    public AnvilChunkLoaderRegion(AnvilChunkLoader par1AnvilChunkLoader)
+    {
+        this.chunkLoader = par1AnvilChunkLoader;
+    }
+
+    /**
+     * Returns a boolean stating if the write was unsuccessful.
+     */
+    public boolean writeNextIO()
+    {
+        return this.chunkLoader.writeNextIO(this);
+    }
+}
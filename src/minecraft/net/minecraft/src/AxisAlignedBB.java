@@ -2,6 +2,9 @@ package net.minecraft.src;
 
 public class AxisAlignedBB
 {
+    /** Sides hit by calculateIntercept, for the min and max planes of x, y and z */
+    private static final int[] INTERCEPT_SIDES = new int[] {4, 5, 0, 1, 2, 3};
+
     /** ThreadLocal AABBPool */
     private static final ThreadLocal theAABBLocalPool = new AABBLocalPool();
     public double minX;
@@ -323,141 +326,82 @@ public class AxisAlignedBB
 
     public MovingObjectPosition calculateIntercept(Vec3 par1Vec3, Vec3 par2Vec3)
     {
-        Vec3 var3 = par1Vec3.getIntermediateWithXValue(par2Vec3, this.minX);
-        Vec3 var4 = par1Vec3.getIntermediateWithXValue(par2Vec3, this.maxX);
-        Vec3 var5 = par1Vec3.getIntermediateWithYValue(par2Vec3, this.minY);
-        Vec3 var6 = par1Vec3.getIntermediateWithYValue(par2Vec3, this.maxY);
-        Vec3 var7 = par1Vec3.getIntermediateWithZValue(par2Vec3, this.minZ);
-        Vec3 var8 = par1Vec3.getIntermediateWithZValue(par2Vec3, this.maxZ);
-
-        if (!this.isVecInYZ(var3))
-        {
-            var3 = null;
-        }
-
-        if (!this.isVecInYZ(var4))
-        {
-            var4 = null;
-        }
-
-        if (!this.isVecInXZ(var5))
-        {
-            var5 = null;
-        }
-
-        if (!this.isVecInXZ(var6))
-        {
-            var6 = null;
-        }
-
-        if (!this.isVecInXY(var7))
-        {
-            var7 = null;
-        }
-
-        if (!this.isVecInXY(var8))
-        {
-            var8 = null;
-        }
-
-        Vec3 var9 = null;
+        return calculateIntercept(par1Vec3.myVec3LocalPool, this.minX, this.minY, this.minZ, this.maxX, this.maxY, this.maxZ, par1Vec3.xCoord, par1Vec3.yCoord, par1Vec3.zCoord, par2Vec3.xCoord, par2Vec3.yCoord, par2Vec3.zCoord, 0, 0, 0);
+    }
 
-        if (var3 != null && (var9 == null || par1Vec3.squareDistanceTo(var3) < par1Vec3.squareDistanceTo(var9)))
+    /**
+     * Scalar version of calculateIntercept returning the side of the box the segment hits first, the hit point is moved
+     * by the block coordinates which are also set on the result. Only the hit vector is taken from the pool. Args: pool,
+     * minX, minY, minZ, maxX, maxY, maxZ, start x, y, z, end x, y, z, block x, y, z
+     */
+    public static MovingObjectPosition calculateIntercept(Vec3Pool par0Vec3Pool, double par1, double par3, double par5, double par7, double par9, double par11, double par13, double par15, double par17, double par19, double par21, double par23, int par25, int par26, int par27)
+    {
+        double var28 = par19 - par13;
+        double var30 = par21 - par15;
+        double var32 = par23 - par17;
+        int var34 = -1;
+        double var35 = 0.0D;
+        double var37 = 0.0D;
+        double var39 = 0.0D;
+        double var41 = 0.0D;
+
+        for (int var43 = 0; var43 < 6; ++var43)
         {
-            var9 = var3;
-        }
+            int var44 = var43 >> 1;
+            double var45 = var44 == 0 ? var28 : (var44 == 1 ? var30 : var32);
 
-        if (var4 != null && (var9 == null || par1Vec3.squareDistanceTo(var4) < par1Vec3.squareDistanceTo(var9)))
-        {
-            var9 = var4;
-        }
+            if (var45 * var45 >= 1.0000000116860974E-7D)
+            {
+                double var47;
 
-        if (var5 != null && (var9 == null || par1Vec3.squareDistanceTo(var5) < par1Vec3.squareDistanceTo(var9)))
-        {
-            var9 = var5;
-        }
+                if (var44 == 0)
+                {
+                    var47 = ((var43 & 1) == 0 ? par1 : par7) - par13;
+                }
+                else if (var44 == 1)
+                {
+                    var47 = ((var43 & 1) == 0 ? par3 : par9) - par15;
+                }
+                else
+                {
+                    var47 = ((var43 & 1) == 0 ? par5 : par11) - par17;
+                }
 
-        if (var6 != null && (var9 == null || par1Vec3.squareDistanceTo(var6) < par1Vec3.squareDistanceTo(var9)))
-        {
-            var9 = var6;
-        }
+                double var49 = var47 / var45;
 
-        if (var7 != null && (var9 == null || par1Vec3.squareDistanceTo(var7) < par1Vec3.squareDistanceTo(var9)))
-        {
-            var9 = var7;
-        }
+                if (var49 >= 0.0D && var49 <= 1.0D)
+                {
+                    double var51 = par13 + var28 * var49;
+                    double var53 = par15 + var30 * var49;
+                    double var55 = par17 + var32 * var49;
 
-        if (var8 != null && (var9 == null || par1Vec3.squareDistanceTo(var8) < par1Vec3.squareDistanceTo(var9)))
-        {
-            var9 = var8;
+                    if ((var44 == 0 || var51 >= par1 && var51 <= par7) && (var44 == 1 || var53 >= par3 && var53 <= par9) && (var44 == 2 || var55 >= par5 && var55 <= par11))
+                    {
+                        double var57 = (var51 - par13) * (var51 - par13) + (var53 - par15) * (var53 - par15) + (var55 - par17) * (var55 - par17);
+
+                        if (var34 < 0 || var57 < var41)
+                        {
+                            var34 = var43;
+                            var35 = var51;
+                            var37 = var53;
+                            var39 = var55;
+                            var41 = var57;
+                        }
+                    }
+                }
+            }
         }
 
-        if (var9 == null)
+        if (var34 < 0)
         {
             return null;
         }
         else
         {
-            byte var10 = -1;
-
-            if (var9 == var3)
-            {
-                var10 = 4;
-            }
-
-            if (var9 == var4)
-            {
-                var10 = 5;
-            }
-
-            if (var9 == var5)
-            {
-                var10 = 0;
-            }
-
-            if (var9 == var6)
-            {
-                var10 = 1;
-            }
-
-            if (var9 == var7)
-            {
-                var10 = 2;
-            }
-
-            if (var9 == var8)
-            {
-                var10 = 3;
-            }
-
-            return new MovingObjectPosition(0, 0, 0, var10, var9);
+            return new MovingObjectPosition(par25, par26, par27, INTERCEPT_SIDES[var34], par0Vec3Pool.getVecFromPool(var35 + (double)par25, var37 + (double)par26, var39 + (double)par27));
         }
     }
 
-    /**
-     * Checks if the specified vector is within the YZ dimensions of the bounding box. Args: Vec3D
-     */
-    private boolean isVecInYZ(Vec3 par1Vec3)
-    {
-        return par1Vec3 == null ? false : par1Vec3.yCoord >= this.minY && par1Vec3.yCoord <= this.maxY && par1Vec3.zCoord >= this.minZ && par1Vec3.zCoord <= this.maxZ;
-    }
-
-    /**
-     * Checks if the specified vector is within the XZ dimensions of the bounding box. Args: Vec3D
-     */
-    private boolean isVecInXZ(Vec3 par1Vec3)
-    {
-        return par1Vec3 == null ? false : par1Vec3.xCoord >= this.minX && par1Vec3.xCoord <= this.maxX && par1Vec3.zCoord >= this.minZ && par1Vec3.zCoord <= this.maxZ;
-    }
-
-    /**
-     * Checks if the specified vector is within the XY dimensions of the bounding box. Args: Vec3D
-     */
-    private boolean isVecInXY(Vec3 par1Vec3)
-    {
-        return par1Vec3 == null ? false : par1Vec3.xCoord >= this.minX && par1Vec3.xCoord <= this.maxX && par1Vec3.yCoord >= this.minY && par1Vec3.yCoord <= this.maxY;
-    }
-
     /**
      * Sets the bounding box to the same bounds as the bounding box passed in. Args: axisAlignedBB
      */
@@ -30,6 +30,12 @@ public class Block
      */
     public static final boolean[] opaqueCubeLookup = new boolean[4096];
 
+    /**
+     * Block IDs whose collision box is always the full cube, World.getCollidingBoxes writes their boxes without calling
+     * the block
+     */
+    public static final boolean[] fullCubeCollisionLookup = new boolean[4096];
+
     /** How much light is subtracted for going through this block */
     public static final int[] lightOpacity = new int[4096];
 
@@ -430,6 +436,14 @@ public class Block
      */
     protected final void setBlockBounds(float par1, float par2, float par3, float par4, float par5, float par6)
     {
+        Thread var7 = Thread.currentThread();
+
+        if (var7 instanceof WrUpdateThread)
+        {
+            ((WrUpdateThread)var7).setBlockBounds(this, (double)par1, (double)par2, (double)par3, (double)par4, (double)par5, (double)par6);
+            return;
+        }
+
         this.minX = (double)par1;
         this.minY = (double)par2;
         this.minZ = (double)par3;
@@ -460,7 +474,7 @@ public class Block
      */
     public boolean shouldSideBeRendered(IBlockAccess par1IBlockAccess, int par2, int par3, int par4, int par5)
     {
-        return par5 == 0 && this.minY > 0.0D ? true : (par5 == 1 && this.maxY < 1.0D ? true : (par5 == 2 && this.minZ > 0.0D ? true : (par5 == 3 && this.maxZ < 1.0D ? true : (par5 == 4 && this.minX > 0.0D ? true : (par5 == 5 && this.maxX < 1.0D ? true : !par1IBlockAccess.isBlockOpaqueCube(par2, par3, par4))))));
+        return par5 == 0 && this.getBlockBoundsMinY() > 0.0D ? true : (par5 == 1 && this.getBlockBoundsMaxY() < 1.0D ? true : (par5 == 2 && this.getBlockBoundsMinZ() > 0.0D ? true : (par5 == 3 && this.getBlockBoundsMaxZ() < 1.0D ? true : (par5 == 4 && this.getBlockBoundsMinX() > 0.0D ? true : (par5 == 5 && this.getBlockBoundsMaxX() < 1.0D ? true : !par1IBlockAccess.isBlockOpaqueCube(par2, par3, par4))))));
     }
 
     /**
@@ -518,6 +532,44 @@ public class Block
         }
     }
 
+    /**
+     * Adds the collision boxes of the block intersecting the mask to the buffer, by default through
+     * addCollisionBoxesToList. Args: world, x, y, z, mask, buffer, colliding entity
+     */
+    public void addCollisionBoxesToBuffer(World par1World, int par2, int par3, int par4, AxisAlignedBB par5AxisAlignedBB, CollisionBoxBuffer par6CollisionBoxBuffer, Entity par7Entity)
+    {
+        List var8 = par6CollisionBoxBuffer.getScratchList();
+        this.addCollisionBoxesToList(par1World, par2, par3, par4, par5AxisAlignedBB, var8, par7Entity);
+        par6CollisionBoxBuffer.addBoxes(var8);
+    }
+
+    /**
+     * Adds the current bounds of the block at the given position to the buffer if they intersect the mask, the buffer
+     * counterpart of the default addCollisionBoxesToList. Args: x, y, z, mask, buffer
+     */
+    protected void addBlockBoundsToBuffer(int par1, int par2, int par3, AxisAlignedBB par4AxisAlignedBB, CollisionBoxBuffer par5CollisionBoxBuffer)
+    {
+        double var6 = (double)par1 + this.minX;
+        double var8 = (double)par2 + this.minY;
+        double var10 = (double)par3 + this.minZ;
+        double var12 = (double)par1 + this.maxX;
+        double var14 = (double)par2 + this.maxY;
+        double var16 = (double)par3 + this.maxZ;
+
+        if (par4AxisAlignedBB.maxX > var6 && par4AxisAlignedBB.minX < var12 && par4AxisAlignedBB.maxY > var8 && par4AxisAlignedBB.minY < var14 && par4AxisAlignedBB.maxZ > var10 && par4AxisAlignedBB.minZ < var16)
+        {
+            par5CollisionBoxBuffer.addBox(var6, var8, var10, var12, var14, var16);
+        }
+    }
+
+    /**
+     * Returns true if the collision box of the block is the full cube whatever its metadata and neighbours
+     */
+    public boolean hasFullCubeCollision()
+    {
+        return this.isOpaqueCube() && this.minX == 0.0D && this.minY == 0.0D && this.minZ == 0.0D && this.maxX == 1.0D && this.maxY == 1.0D && this.maxZ == 1.0D;
+    }
+
     /**
      * Returns a bounding box from the pool of bounding boxes (this means this box can change after the pool has been
      * cleared to be reused)
@@ -705,141 +757,7 @@ public class Block
     public MovingObjectPosition collisionRayTrace(World par1World, int par2, int par3, int par4, Vec3 par5Vec3, Vec3 par6Vec3)
     {
         this.setBlockBoundsBasedOnState(par1World, par2, par3, par4);
-        par5Vec3 = par5Vec3.addVector((double)(-par2), (double)(-par3), (double)(-par4));
-        par6Vec3 = par6Vec3.addVector((double)(-par2), (double)(-par3), (double)(-par4));
-        Vec3 var7 = par5Vec3.getIntermediateWithXValue(par6Vec3, this.minX);
-        Vec3 var8 = par5Vec3.getIntermediateWithXValue(par6Vec3, this.maxX);
-        Vec3 var9 = par5Vec3.getIntermediateWithYValue(par6Vec3, this.minY);
-        Vec3 var10 = par5Vec3.getIntermediateWithYValue(par6Vec3, this.maxY);
-        Vec3 var11 = par5Vec3.getIntermediateWithZValue(par6Vec3, this.minZ);
-        Vec3 var12 = par5Vec3.getIntermediateWithZValue(par6Vec3, this.maxZ);
-
-        if (!this.isVecInsideYZBounds(var7))
-        {
-            var7 = null;
-        }
-
-        if (!this.isVecInsideYZBounds(var8))
-        {
-            var8 = null;
-        }
-
-        if (!this.isVecInsideXZBounds(var9))
-        {
-            var9 = null;
-        }
-
-        if (!this.isVecInsideXZBounds(var10))
-        {
-            var10 = null;
-        }
-
-        if (!this.isVecInsideXYBounds(var11))
-        {
-            var11 = null;
-        }
-
-        if (!this.isVecInsideXYBounds(var12))
-        {
-            var12 = null;
-        }
-
-        Vec3 var13 = null;
-
-        if (var7 != null && (var13 == null || par5Vec3.squareDistanceTo(var7) < par5Vec3.squareDistanceTo(var13)))
-        {
-            var13 = var7;
-        }
-
-        if (var8 != null && (var13 == null || par5Vec3.squareDistanceTo(var8) < par5Vec3.squareDistanceTo(var13)))
-        {
-            var13 = var8;
-        }
-
-        if (var9 != null && (var13 == null || par5Vec3.squareDistanceTo(var9) < par5Vec3.squareDistanceTo(var13)))
-        {
-            var13 = var9;
-        }
-
-        if (var10 != null && (var13 == null || par5Vec3.squareDistanceTo(var10) < par5Vec3.squareDistanceTo(var13)))
-        {
-            var13 = var10;
-        }
-
-        if (var11 != null && (var13 == null || par5Vec3.squareDistanceTo(var11) < par5Vec3.squareDistanceTo(var13)))
-        {
-            var13 = var11;
-        }
-
-        if (var12 != null && (var13 == null || par5Vec3.squareDistanceTo(var12) < par5Vec3.squareDistanceTo(var13)))
-        {
-            var13 = var12;
-        }
-
-        if (var13 == null)
-        {
-            return null;
-        }
-        else
-        {
-            byte var14 = -1;
-
-            if (var13 == var7)
-            {
-                var14 = 4;
-            }
-
-            if (var13 == var8)
-            {
-                var14 = 5;
-            }
-
-            if (var13 == var9)
-            {
-                var14 = 0;
-            }
-
-            if (var13 == var10)
-            {
-                var14 = 1;
-            }
-
-            if (var13 == var11)
-            {
-                var14 = 2;
-            }
-
-            if (var13 == var12)
-            {
-                var14 = 3;
-            }
-
-            return new MovingObjectPosition(par2, par3, par4, var14, var13.addVector((double)par2, (double)par3, (double)par4));
-        }
-    }
-
-    /**
-     * Checks if a vector is within the Y and Z bounds of the block.
-     */
-    private boolean isVecInsideYZBounds(Vec3 par1Vec3)
-    {
-        return par1Vec3 == null ? false : par1Vec3.yCoord >= this.minY && par1Vec3.yCoord <= this.maxY && par1Vec3.zCoord >= this.minZ && par1Vec3.zCoord <= this.maxZ;
-    }
-
-    /**
-     * Checks if a vector is within the X and Z bounds of the block.
-     */
-    private boolean isVecInsideXZBounds(Vec3 par1Vec3)
-    {
-        return par1Vec3 == null ? false : par1Vec3.xCoord >= this.minX && par1Vec3.xCoord <= this.maxX && par1Vec3.zCoord >= this.minZ && par1Vec3.zCoord <= this.maxZ;
-    }
-
-    /**
-     * Checks if a vector is within the X and Y bounds of the block.
-     */
-    private boolean isVecInsideXYBounds(Vec3 par1Vec3)
-    {
-        return par1Vec3 == null ? false : par1Vec3.xCoord >= this.minX && par1Vec3.xCoord <= this.maxX && par1Vec3.yCoord >= this.minY && par1Vec3.yCoord <= this.maxY;
+        return AxisAlignedBB.calculateIntercept(par5Vec3.myVec3LocalPool, this.minX, this.minY, this.minZ, this.maxX, this.maxY, this.maxZ, par5Vec3.xCoord - (double)par2, par5Vec3.yCoord - (double)par3, par5Vec3.zCoord - (double)par4, par6Vec3.xCoord - (double)par2, par6Vec3.yCoord - (double)par3, par6Vec3.zCoord - (double)par4, par2, par3, par4);
     }
 
     /**
@@ -918,7 +836,8 @@ public class Block
      */
     public final double getBlockBoundsMinX()
     {
-        return this.minX;
+        double[] var1 = this.getThreadBlockBounds();
+        return var1 != null ? var1[0] : this.minX;
     }
 
     /**
@@ -926,7 +845,8 @@ public class Block
      */
     public final double getBlockBoundsMaxX()
     {
-        return this.maxX;
+        double[] var1 = this.getThreadBlockBounds();
+        return var1 != null ? var1[3] : this.maxX;
     }
 
     /**
@@ -934,7 +854,8 @@ public class Block
      */
     public final double getBlockBoundsMinY()
     {
-        return this.minY;
+        double[] var1 = this.getThreadBlockBounds();
+        return var1 != null ? var1[1] : this.minY;
     }
 
     /**
@@ -942,7 +863,8 @@ public class Block
      */
     public final double getBlockBoundsMaxY()
     {
-        return this.maxY;
+        double[] var1 = this.getThreadBlockBounds();
+        return var1 != null ? var1[4] : this.maxY;
     }
 
     /**
@@ -950,7 +872,8 @@ public class Block
      */
     public final double getBlockBoundsMinZ()
     {
-        return this.minZ;
+        double[] var1 = this.getThreadBlockBounds();
+        return var1 != null ? var1[2] : this.minZ;
     }
 
     /**
@@ -958,7 +881,18 @@ public class Block
      */
     public final double getBlockBoundsMaxZ()
     {
-        return this.maxZ;
+        double[] var1 = this.getThreadBlockBounds();
+        return var1 != null ? var1[5] : this.maxZ;
+    }
+
+    /**
+     * Returns the bounds set for this block on the current chunk builder thread, or null to use the shared bounds.
+     * Chunk builder threads keep their own bounds so they never change the bounds used by collisions and ray traces.
+     */
+    private double[] getThreadBlockBounds()
+    {
+        Thread var1 = Thread.currentThread();
+        return var1 instanceof WrUpdateThread ? ((WrUpdateThread)var1).getBlockBounds(this) : null;
     }
 
     public int getBlockColor()
@@ -1363,6 +1297,7 @@ public class Block
                 }
 
                 useNeighborBrightness[var0] = var1;
+                fullCubeCollisionLookup[var0] = blocksList[var0].hasFullCubeCollision();
             }
         }
 
@@ -58,6 +58,18 @@ public class BlockBrewingStand extends BlockContainer
         super.addCollisionBoxesToList(par1World, par2, par3, par4, par5AxisAlignedBB, par6List, par7Entity);
     }
 
+    /**
+     * Adds the collision boxes of the block intersecting the mask to the buffer without going through the pooled boxes
+     * of addCollisionBoxesToList. Args: world, x, y, z, mask, buffer, colliding entity
+     */
+    public void addCollisionBoxesToBuffer(World par1World, int par2, int par3, int par4, AxisAlignedBB par5AxisAlignedBB, CollisionBoxBuffer par6CollisionBoxBuffer, Entity par7Entity)
+    {
+        this.setBlockBounds(0.4375F, 0.0F, 0.4375F, 0.5625F, 0.875F, 0.5625F);
+        this.addBlockBoundsToBuffer(par2, par3, par4, par5AxisAlignedBB, par6CollisionBoxBuffer);
+        this.setBlockBoundsForItemRender();
+        this.addBlockBoundsToBuffer(par2, par3, par4, par5AxisAlignedBB, par6CollisionBoxBuffer);
+    }
+
     /**
      * Sets the block's bounds for rendering it as an item
      */
@@ -59,6 +59,26 @@ public class BlockCauldron extends Block
         this.setBlockBoundsForItemRender();
     }
 
+    /**
+     * Adds the collision boxes of the block intersecting the mask to the buffer without going through the pooled boxes
+     * of addCollisionBoxesToList. Args: world, x, y, z, mask, buffer, colliding entity
+     */
+    public void addCollisionBoxesToBuffer(World par1World, int par2, int par3, int par4, AxisAlignedBB par5AxisAlignedBB, CollisionBoxBuffer par6CollisionBoxBuffer, Entity par7Entity)
+    {
+        this.setBlockBounds(0.0F, 0.0F, 0.0F, 1.0F, 0.3125F, 1.0F);
+        this.addBlockBoundsToBuffer(par2, par3, par4, par5AxisAlignedBB, par6CollisionBoxBuffer);
+        float var8 = 0.125F;
+        this.setBlockBounds(0.0F, 0.0F, 0.0F, var8, 1.0F, 1.0F);
+        this.addBlockBoundsToBuffer(par2, par3, par4, par5AxisAlignedBB, par6CollisionBoxBuffer);
+        this.setBlockBounds(0.0F, 0.0F, 0.0F, 1.0F, 1.0F, var8);
+        this.addBlockBoundsToBuffer(par2, par3, par4, par5AxisAlignedBB, par6CollisionBoxBuffer);
+        this.setBlockBounds(1.0F - var8, 0.0F, 0.0F, 1.0F, 1.0F, 1.0F);
+        this.addBlockBoundsToBuffer(par2, par3, par4, par5AxisAlignedBB, par6CollisionBoxBuffer);
+        this.setBlockBounds(0.0F, 0.0F, 1.0F - var8, 1.0F, 1.0F, 1.0F);
+        this.addBlockBoundsToBuffer(par2, par3, par4, par5AxisAlignedBB, par6CollisionBoxBuffer);
+        this.setBlockBoundsForItemRender();
+    }
+
     /**
      * Sets the block's bounds for rendering it as an item
      */
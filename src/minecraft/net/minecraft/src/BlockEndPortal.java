@@ -48,6 +48,12 @@ public class BlockEndPortal extends BlockContainer
      */
     public void addCollisionBoxesToList(World par1World, int par2, int par3, int par4, AxisAlignedBB par5AxisAlignedBB, List par6List, Entity par7Entity) {}
 
+    /**
+     * Adds the collision boxes of the block intersecting the mask to the buffer without going through the pooled boxes
+     * of addCollisionBoxesToList. Args: world, x, y, z, mask, buffer, colliding entity
+     */
+    public void addCollisionBoxesToBuffer(World par1World, int par2, int par3, int par4, AxisAlignedBB par5AxisAlignedBB, CollisionBoxBuffer par6CollisionBoxBuffer, Entity par7Entity) {}
+
     /**
      * Is this block (a) opaque and (b) a full 1m cube?  This determines whether or not to render the shared face of two
      * adjacent blocks and also whether the player can attach torches, redstone wire, etc to this block.
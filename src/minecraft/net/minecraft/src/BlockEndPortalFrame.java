@@ -81,6 +81,25 @@ public class BlockEndPortalFrame extends Block
         this.setBlockBoundsForItemRender();
     }
 
+    /**
+     * Adds the collision boxes of the block intersecting the mask to the buffer without going through the pooled boxes
+     * of addCollisionBoxesToList. Args: world, x, y, z, mask, buffer, colliding entity
+     */
+    public void addCollisionBoxesToBuffer(World par1World, int par2, int par3, int par4, AxisAlignedBB par5AxisAlignedBB, CollisionBoxBuffer par6CollisionBoxBuffer, Entity par7Entity)
+    {
+        this.setBlockBounds(0.0F, 0.0F, 0.0F, 1.0F, 0.8125F, 1.0F);
+        this.addBlockBoundsToBuffer(par2, par3, par4, par5AxisAlignedBB, par6CollisionBoxBuffer);
+        int var8 = par1World.getBlockMetadata(par2, par3, par4);
+
+        if (isEnderEyeInserted(var8))
+        {
+            this.setBlockBounds(0.3125F, 0.8125F, 0.3125F, 0.6875F, 1.0F, 0.6875F);
+            this.addBlockBoundsToBuffer(par2, par3, par4, par5AxisAlignedBB, par6CollisionBoxBuffer);
+        }
+
+        this.setBlockBoundsForItemRender();
+    }
+
     /**
      * checks if an ender eye has been inserted into the frame block. parameters: metadata
      */
@@ -40,7 +40,7 @@ public class BlockPistonBase extends Block
     public Icon getBlockTextureFromSideAndMetadata(int par1, int par2)
     {
         int var3 = getOrientation(par2);
-        return var3 > 5 ? this.field_94497_cO : (par1 == var3 ? (!isExtended(par2) && this.minX <= 0.0D && this.minY <= 0.0D && this.minZ <= 0.0D && this.maxX >= 1.0D && this.maxY >= 1.0D && this.maxZ >= 1.0D ? this.field_94497_cO : this.field_94498_b) : (par1 == Facing.faceToSide[var3] ? this.field_94499_c : this.blockIcon));
+        return var3 > 5 ? this.field_94497_cO : (par1 == var3 ? (!isExtended(par2) && this.getBlockBoundsMinX() <= 0.0D && this.getBlockBoundsMinY() <= 0.0D && this.getBlockBoundsMinZ() <= 0.0D && this.getBlockBoundsMaxX() >= 1.0D && this.getBlockBoundsMaxY() >= 1.0D && this.getBlockBoundsMaxZ() >= 1.0D ? this.field_94497_cO : this.field_94498_b) : (par1 == Facing.faceToSide[var3] ? this.field_94499_c : this.blockIcon));
     }
 
     public static Icon func_94496_b(String par0Str)
@@ -312,6 +312,16 @@ public class BlockPistonBase extends Block
         super.addCollisionBoxesToList(par1World, par2, par3, par4, par5AxisAlignedBB, par6List, par7Entity);
     }
 
+    /**
+     * Adds the collision boxes of the block intersecting the mask to the buffer without going through the pooled boxes
+     * of addCollisionBoxesToList. Args: world, x, y, z, mask, buffer, colliding entity
+     */
+    public void addCollisionBoxesToBuffer(World par1World, int par2, int par3, int par4, AxisAlignedBB par5AxisAlignedBB, CollisionBoxBuffer par6CollisionBoxBuffer, Entity par7Entity)
+    {
+        this.setBlockBoundsBasedOnState(par1World, par2, par3, par4);
+        this.addBlockBoundsToBuffer(par2, par3, par4, par5AxisAlignedBB, par6CollisionBoxBuffer);
+    }
+
     /**
      * Returns a bounding box from the pool of bounding boxes (this means this box can change after the pool has been
      * cleared to be reused)
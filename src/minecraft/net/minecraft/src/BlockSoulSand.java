@@ -18,6 +18,14 @@ public class BlockSoulSand extends Block
         return AxisAlignedBB.getAABBPool().getAABB((double)par2, (double)par3, (double)par4, (double)(par2 + 1), (double)((float)(par3 + 1) - var5), (double)(par4 + 1));
     }
 
+    /**
+     * Returns true if the collision box of the block is the full cube whatever its metadata and neighbours
+     */
+    public boolean hasFullCubeCollision()
+    {
+        return false;
+    }
+
     /**
      * Triggered whenever an entity collides with this block (enters into the block). Args: world, x, y, z, entity
      */
@@ -199,9 +199,9 @@ public class BlockStem extends BlockFlower
      */
     public void setBlockBoundsBasedOnState(IBlockAccess par1IBlockAccess, int par2, int par3, int par4)
     {
-        this.maxY = (double)((float)(par1IBlockAccess.getBlockMetadata(par2, par3, par4) * 2 + 2) / 16.0F);
-        float var5 = 0.125F;
-        this.setBlockBounds(0.5F - var5, 0.0F, 0.5F - var5, 0.5F + var5, (float)this.maxY, 0.5F + var5);
+        float var5 = (float)(par1IBlockAccess.getBlockMetadata(par2, par3, par4) * 2 + 2) / 16.0F;
+        float var6 = 0.125F;
+        this.setBlockBounds(0.5F - var6, 0.0F, 0.5F - var6, 0.5F + var6, var5, 0.5F + var6);
     }
 
     /**
@@ -116,6 +116,17 @@ public class BlockWall extends Block
         return super.getCollisionBoundingBoxFromPool(par1World, par2, par3, par4);
     }
 
+    /**
+     * Adds the collision boxes of the block intersecting the mask to the buffer without going through the pooled boxes
+     * of addCollisionBoxesToList. Args: world, x, y, z, mask, buffer, colliding entity
+     */
+    public void addCollisionBoxesToBuffer(World par1World, int par2, int par3, int par4, AxisAlignedBB par5AxisAlignedBB, CollisionBoxBuffer par6CollisionBoxBuffer, Entity par7Entity)
+    {
+        this.setBlockBoundsBasedOnState(par1World, par2, par3, par4);
+        this.maxY = 1.5D;
+        this.addBlockBoundsToBuffer(par2, par3, par4, par5AxisAlignedBB, par6CollisionBoxBuffer);
+    }
+
     /**
      * Return whether an adjacent block can connect to a wall.
      */
@@ -7,6 +7,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 
 public class Chunk
 {
@@ -48,6 +51,9 @@ public class Chunk
     public final int zPosition;
     private boolean isGapLightingUpdated;
 
+    /** Set while the light of the chunk is computed by the chunk lighting threads */
+    public boolean isLightPending;
+
     /** A Map of ChunkPositions to TileEntities in this chunk */
     public Map chunkTileEntityMap;
 
@@ -56,6 +62,18 @@ public class Chunk
      */
     public List[] entityLists;
 
+    /**
+     * The entities of this chunk by 4 block cells of their position, indexed by y << 4 | z << 2 | x of the cell. Created
+     * with the first entity, entity queries only test the cells around the box.
+     */
+    private ArrayList[] entityCells;
+
+    /** How far the bounding box of an entity may reach from its position for the entity to be kept in a cell */
+    private static final double MAX_CELL_ENTITY_EXTENT = 2.0D;
+
+    /** Index of the list of the entities whose bounding box reaches further, which every entity query tests */
+    private static final int LARGE_ENTITY_CELL = 1024;
+
     /** Boolean value indicating if the terrain is populated. */
     public boolean isTerrainPopulated;
 
@@ -64,6 +82,15 @@ public class Chunk
      */
     public boolean isModified;
 
+    /** Source of the modification stamps, unique across all chunks */
+    private static final AtomicLong nextModificationStamp = new AtomicLong();
+
+    /**
+     * Changes whenever the blocks, light or biomes of the chunk change, including the chunk being replaced by another
+     * instance. Unlike isModified it is not reset by saving.
+     */
+    public long modificationStamp;
+
     /**
      * Whether this Chunk has any Entities and thus requires saving on every tick
      */
@@ -94,10 +121,12 @@ public class Chunk
         this.precipitationHeightMap = new int[256];
         this.updateSkylightColumns = new boolean[256];
         this.isGapLightingUpdated = false;
+        this.isLightPending = false;
         this.chunkTileEntityMap = new HashMap();
         this.isTerrainPopulated = false;
         this.isModified = false;
         this.hasEntities = false;
+        this.modificationStamp = nextModificationStamp.incrementAndGet();
         this.lastSaveTime = 0L;
         this.sendUpdates = false;
         this.heightMapMinimum = 0;
@@ -224,7 +253,7 @@ public class Chunk
             }
         }
 
-        this.isModified = true;
+        this.setChunkModified();
     }
 
     /**
@@ -295,7 +324,7 @@ public class Chunk
             }
         }
 
-        this.isModified = true;
+        this.setChunkModified();
 
         for (var2 = 0; var2 < 16; ++var2)
         {
@@ -395,7 +424,7 @@ public class Chunk
                 this.worldObj.updateLightByType(EnumSkyBlock.Sky, par1, var5, par2);
             }
 
-            this.isModified = true;
+            this.setChunkModified();
         }
     }
 
@@ -509,7 +538,7 @@ public class Chunk
                 this.updateSkylightNeighborHeight(var6, var7, var12, var13);
             }
 
-            this.isModified = true;
+            this.setChunkModified();
         }
     }
 
@@ -672,7 +701,7 @@ public class Chunk
                     }
                 }
 
-                this.isModified = true;
+                this.setChunkModified();
                 return true;
             }
         }
@@ -699,7 +728,7 @@ public class Chunk
             }
             else
             {
-                this.isModified = true;
+                this.setChunkModified();
                 var5.setExtBlockMetadata(par1, par2 & 15, par3, par4);
                 int var7 = var5.getExtBlockID(par1, par2 & 15, par3);
 
@@ -742,7 +771,7 @@ public class Chunk
             this.generateSkylightMap();
         }
 
-        this.isModified = true;
+        this.setChunkModified();
 
         if (par1EnumSkyBlock == EnumSkyBlock.Sky)
         {
@@ -821,6 +850,7 @@ public class Chunk
         par1Entity.chunkCoordY = var4;
         par1Entity.chunkCoordZ = this.zPosition;
         this.entityLists[var4].add(par1Entity);
+        this.addEntityToCell(par1Entity);
     }
 
     /**
@@ -847,6 +877,82 @@ public class Chunk
         }
 
         this.entityLists[par2].remove(par1Entity);
+        this.removeEntityFromCell(par1Entity);
+    }
+
+    /**
+     * Moves the entity to the cell of its current position, called after the entity moved within this chunk
+     */
+    public void updateEntityCell(Entity par1Entity)
+    {
+        if (par1Entity.chunkCell != this.getEntityCellIndex(par1Entity))
+        {
+            this.removeEntityFromCell(par1Entity);
+            this.addEntityToCell(par1Entity);
+        }
+    }
+
+    private void addEntityToCell(Entity par1Entity)
+    {
+        if (this.entityCells == null)
+        {
+            this.entityCells = new ArrayList[LARGE_ENTITY_CELL + 1];
+        }
+
+        int var2 = this.getEntityCellIndex(par1Entity);
+        ArrayList var3 = this.entityCells[var2];
+
+        if (var3 == null)
+        {
+            var3 = new ArrayList(4);
+            this.entityCells[var2] = var3;
+        }
+
+        var3.add(par1Entity);
+        par1Entity.chunkCell = var2;
+    }
+
+    private void removeEntityFromCell(Entity par1Entity)
+    {
+        if (this.entityCells != null && par1Entity.chunkCell >= 0)
+        {
+            ArrayList var2 = this.entityCells[par1Entity.chunkCell];
+
+            if (var2 != null)
+            {
+                var2.remove(par1Entity);
+            }
+        }
+
+        par1Entity.chunkCell = -1;
+    }
+
+    /**
+     * Returns the index of the cell of this chunk containing the position of the entity, or LARGE_ENTITY_CELL if its
+     * bounding box reaches further from its position than the cells around a query box
+     */
+    private int getEntityCellIndex(Entity par1Entity)
+    {
+        AxisAlignedBB var5 = par1Entity.boundingBox;
+
+        if (par1Entity.posX - var5.minX > MAX_CELL_ENTITY_EXTENT || var5.maxX - par1Entity.posX > MAX_CELL_ENTITY_EXTENT || par1Entity.posY - var5.minY > MAX_CELL_ENTITY_EXTENT || var5.maxY - par1Entity.posY > MAX_CELL_ENTITY_EXTENT || par1Entity.posZ - var5.minZ > MAX_CELL_ENTITY_EXTENT || var5.maxZ - par1Entity.posZ > MAX_CELL_ENTITY_EXTENT)
+        {
+            return LARGE_ENTITY_CELL;
+        }
+
+        int var2 = getCellCoord(par1Entity.posX, this.xPosition << 4, 15);
+        int var3 = getCellCoord(par1Entity.posY, 0, 255);
+        int var4 = getCellCoord(par1Entity.posZ, this.zPosition << 4, 15);
+        return var3 << 4 | var4 << 2 | var2;
+    }
+
+    /**
+     * Returns the cell of the coordinate clamped to the chunk. Args: coordinate, chunk origin, chunk size - 1
+     */
+    private static int getCellCoord(double par0, int par2, int par3)
+    {
+        int var4 = MathHelper.floor_double(par0) - par2;
+        return (var4 < 0 ? 0 : (var4 > par3 ? par3 : var4)) >> 2;
     }
 
     /**
@@ -991,6 +1097,7 @@ public class Chunk
     public void setChunkModified()
     {
         this.isModified = true;
+        this.modificationStamp = nextModificationStamp.incrementAndGet();
     }
 
     /**
@@ -999,43 +1106,56 @@ public class Chunk
      */
     public void getEntitiesWithinAABBForEntity(Entity par1Entity, AxisAlignedBB par2AxisAlignedBB, List par3List, IEntitySelector par4IEntitySelector)
     {
-        int var5 = MathHelper.floor_double((par2AxisAlignedBB.minY - 2.0D) / 16.0D);
-        int var6 = MathHelper.floor_double((par2AxisAlignedBB.maxY + 2.0D) / 16.0D);
-
-        if (var5 < 0)
+        if (this.entityCells != null)
         {
-            var5 = 0;
-            var6 = Math.max(var5, var6);
-        }
+            int var5 = getCellCoord(par2AxisAlignedBB.minX - MAX_CELL_ENTITY_EXTENT, this.xPosition << 4, 15);
+            int var6 = getCellCoord(par2AxisAlignedBB.maxX + MAX_CELL_ENTITY_EXTENT, this.xPosition << 4, 15);
+            int var7 = getCellCoord(par2AxisAlignedBB.minY - MAX_CELL_ENTITY_EXTENT, 0, 255);
+            int var8 = getCellCoord(par2AxisAlignedBB.maxY + MAX_CELL_ENTITY_EXTENT, 0, 255);
+            int var9 = getCellCoord(par2AxisAlignedBB.minZ - MAX_CELL_ENTITY_EXTENT, this.zPosition << 4, 15);
+            int var10 = getCellCoord(par2AxisAlignedBB.maxZ + MAX_CELL_ENTITY_EXTENT, this.zPosition << 4, 15);
 
-        if (var6 >= this.entityLists.length)
-        {
-            var6 = this.entityLists.length - 1;
-            var5 = Math.min(var5, var6);
+            for (int var11 = var7; var11 <= var8; ++var11)
+            {
+                for (int var12 = var9; var12 <= var10; ++var12)
+                {
+                    for (int var13 = var5; var13 <= var6; ++var13)
+                    {
+                        getEntitiesWithinAABBForEntity(this.entityCells[var11 << 4 | var12 << 2 | var13], par1Entity, par2AxisAlignedBB, par3List, par4IEntitySelector);
+                    }
+                }
+            }
+
+            getEntitiesWithinAABBForEntity(this.entityCells[LARGE_ENTITY_CELL], par1Entity, par2AxisAlignedBB, par3List, par4IEntitySelector);
         }
+    }
 
-        for (int var7 = var5; var7 <= var6; ++var7)
+    /**
+     * Adds the entities of the cell and their parts which intersect the box and aren't the passed entity. Args: cell,
+     * entity, aabb, listToFill, selector
+     */
+    private static void getEntitiesWithinAABBForEntity(ArrayList par0ArrayList, Entity par1Entity, AxisAlignedBB par2AxisAlignedBB, List par3List, IEntitySelector par4IEntitySelector)
+    {
+        if (par0ArrayList != null)
         {
-            List var8 = this.entityLists[var7];
-
-            for (int var9 = 0; var9 < var8.size(); ++var9)
+            for (int var5 = 0; var5 < par0ArrayList.size(); ++var5)
             {
-                Entity var10 = (Entity)var8.get(var9);
+                Entity var6 = (Entity)par0ArrayList.get(var5);
 
-                if (var10 != par1Entity && var10.boundingBox.intersectsWith(par2AxisAlignedBB) && (par4IEntitySelector == null || par4IEntitySelector.isEntityApplicable(var10)))
+                if (var6 != par1Entity && var6.boundingBox.intersectsWith(par2AxisAlignedBB) && (par4IEntitySelector == null || par4IEntitySelector.isEntityApplicable(var6)))
                 {
-                    par3List.add(var10);
-                    Entity[] var11 = var10.getParts();
+                    par3List.add(var6);
+                    Entity[] var7 = var6.getParts();
 
-                    if (var11 != null)
+                    if (var7 != null)
                     {
-                        for (int var12 = 0; var12 < var11.length; ++var12)
+                        for (int var8 = 0; var8 < var7.length; ++var8)
                         {
-                            var10 = var11[var12];
+                            var6 = var7[var8];
 
-                            if (var10 != par1Entity && var10.boundingBox.intersectsWith(par2AxisAlignedBB) && (par4IEntitySelector == null || par4IEntitySelector.isEntityApplicable(var10)))
+                            if (var6 != par1Entity && var6.boundingBox.intersectsWith(par2AxisAlignedBB) && (par4IEntitySelector == null || par4IEntitySelector.isEntityApplicable(var6)))
                             {
-                                par3List.add(var10);
+                                par3List.add(var6);
                             }
                         }
                     }
@@ -1049,38 +1169,45 @@ public class Chunk
      */
     public void getEntitiesOfTypeWithinAAAB(Class par1Class, AxisAlignedBB par2AxisAlignedBB, List par3List, IEntitySelector par4IEntitySelector)
     {
-        int var5 = MathHelper.floor_double((par2AxisAlignedBB.minY - 2.0D) / 16.0D);
-        int var6 = MathHelper.floor_double((par2AxisAlignedBB.maxY + 2.0D) / 16.0D);
-
-        if (var5 < 0)
-        {
-            var5 = 0;
-        }
-        else if (var5 >= this.entityLists.length)
+        if (this.entityCells != null)
         {
-            var5 = this.entityLists.length - 1;
-        }
+            int var5 = getCellCoord(par2AxisAlignedBB.minX - MAX_CELL_ENTITY_EXTENT, this.xPosition << 4, 15);
+            int var6 = getCellCoord(par2AxisAlignedBB.maxX + MAX_CELL_ENTITY_EXTENT, this.xPosition << 4, 15);
+            int var7 = getCellCoord(par2AxisAlignedBB.minY - MAX_CELL_ENTITY_EXTENT, 0, 255);
+            int var8 = getCellCoord(par2AxisAlignedBB.maxY + MAX_CELL_ENTITY_EXTENT, 0, 255);
+            int var9 = getCellCoord(par2AxisAlignedBB.minZ - MAX_CELL_ENTITY_EXTENT, this.zPosition << 4, 15);
+            int var10 = getCellCoord(par2AxisAlignedBB.maxZ + MAX_CELL_ENTITY_EXTENT, this.zPosition << 4, 15);
 
-        if (var6 >= this.entityLists.length)
-        {
-            var6 = this.entityLists.length - 1;
-        }
-        else if (var6 < 0)
-        {
-            var6 = 0;
+            for (int var11 = var7; var11 <= var8; ++var11)
+            {
+                for (int var12 = var9; var12 <= var10; ++var12)
+                {
+                    for (int var13 = var5; var13 <= var6; ++var13)
+                    {
+                        getEntitiesOfTypeWithinAAAB(this.entityCells[var11 << 4 | var12 << 2 | var13], par1Class, par2AxisAlignedBB, par3List, par4IEntitySelector);
+                    }
+                }
+            }
+
+            getEntitiesOfTypeWithinAAAB(this.entityCells[LARGE_ENTITY_CELL], par1Class, par2AxisAlignedBB, par3List, par4IEntitySelector);
         }
+    }
 
-        for (int var7 = var5; var7 <= var6; ++var7)
+    /**
+     * Adds the entities of the cell which can be assigned to the class and intersect the box. Args: cell, entityClass,
+     * aabb, listToFill, selector
+     */
+    private static void getEntitiesOfTypeWithinAAAB(ArrayList par0ArrayList, Class par1Class, AxisAlignedBB par2AxisAlignedBB, List par3List, IEntitySelector par4IEntitySelector)
+    {
+        if (par0ArrayList != null)
         {
-            List var8 = this.entityLists[var7];
-
-            for (int var9 = 0; var9 < var8.size(); ++var9)
+            for (int var5 = 0; var5 < par0ArrayList.size(); ++var5)
             {
-                Entity var10 = (Entity)var8.get(var9);
+                Entity var6 = (Entity)par0ArrayList.get(var5);
 
-                if (par1Class.isAssignableFrom(var10.getClass()) && var10.boundingBox.intersectsWith(par2AxisAlignedBB) && (par4IEntitySelector == null || par4IEntitySelector.isEntityApplicable(var10)))
+                if (par1Class.isAssignableFrom(var6.getClass()) && var6.boundingBox.intersectsWith(par2AxisAlignedBB) && (par4IEntitySelector == null || par4IEntitySelector.isEntityApplicable(var6)))
                 {
-                    par3List.add(var10);
+                    par3List.add(var6);
                 }
             }
         }
@@ -1224,6 +1351,7 @@ public class Chunk
     public void setStorageArrays(ExtendedBlockStorage[] par1ArrayOfExtendedBlockStorage)
     {
         this.storageArrays = par1ArrayOfExtendedBlockStorage;
+        this.modificationStamp = nextModificationStamp.incrementAndGet();
     }
 
     /**
@@ -1340,6 +1468,115 @@ public class Chunk
         }
     }
 
+    /**
+     * Initialise this chunk with binary data inflated straight into the block storage arrays, in the same layout as
+     * fillChunk. Args: inflater positioned at the chunk's data, sections included, sections with add arrays, whole
+     * chunk
+     */
+    public void fillChunk(Inflater par1Inflater, int par2, int par3, boolean par4) throws DataFormatException
+    {
+        boolean var5 = !this.worldObj.provider.hasNoSky;
+        int var6;
+
+        for (var6 = 0; var6 < this.storageArrays.length; ++var6)
+        {
+            if ((par2 & 1 << var6) != 0)
+            {
+                if (this.storageArrays[var6] == null)
+                {
+                    this.storageArrays[var6] = new ExtendedBlockStorage(var6 << 4, var5);
+                }
+
+                byte[] var7 = this.storageArrays[var6].getBlockLSBArray();
+                CompressorPool.inflateFully(par1Inflater, var7, 0, var7.length);
+            }
+            else if (par4 && this.storageArrays[var6] != null)
+            {
+                this.storageArrays[var6] = null;
+            }
+        }
+
+        NibbleArray var8;
+
+        for (var6 = 0; var6 < this.storageArrays.length; ++var6)
+        {
+            if ((par2 & 1 << var6) != 0)
+            {
+                var8 = this.storageArrays[var6].getMetadataArray();
+                CompressorPool.inflateFully(par1Inflater, var8.data, 0, var8.data.length);
+            }
+        }
+
+        for (var6 = 0; var6 < this.storageArrays.length; ++var6)
+        {
+            if ((par2 & 1 << var6) != 0)
+            {
+                var8 = this.storageArrays[var6].getBlocklightArray();
+                CompressorPool.inflateFully(par1Inflater, var8.data, 0, var8.data.length);
+            }
+        }
+
+        if (var5)
+        {
+            for (var6 = 0; var6 < this.storageArrays.length; ++var6)
+            {
+                if ((par2 & 1 << var6) != 0)
+                {
+                    var8 = this.storageArrays[var6].getSkylightArray();
+                    CompressorPool.inflateFully(par1Inflater, var8.data, 0, var8.data.length);
+                }
+            }
+        }
+
+        for (var6 = 0; var6 < this.storageArrays.length; ++var6)
+        {
+            if ((par3 & 1 << var6) != 0)
+            {
+                if (this.storageArrays[var6] == null)
+                {
+                    CompressorPool.inflateFully(par1Inflater, new byte[2048], 0, 2048);
+                }
+                else
+                {
+                    var8 = this.storageArrays[var6].getBlockMSBArray();
+
+                    if (var8 == null)
+                    {
+                        var8 = this.storageArrays[var6].createBlockMSBArray();
+                    }
+
+                    CompressorPool.inflateFully(par1Inflater, var8.data, 0, var8.data.length);
+                }
+            }
+            else if (par4 && this.storageArrays[var6] != null && this.storageArrays[var6].getBlockMSBArray() != null)
+            {
+                this.storageArrays[var6].clearMSBArray();
+            }
+        }
+
+        if (par4)
+        {
+            CompressorPool.inflateFully(par1Inflater, this.blockBiomeArray, 0, this.blockBiomeArray.length);
+        }
+
+        for (var6 = 0; var6 < this.storageArrays.length; ++var6)
+        {
+            if (this.storageArrays[var6] != null && (par2 & 1 << var6) != 0)
+            {
+                this.storageArrays[var6].removeInvalidBlocks();
+            }
+        }
+
+        this.generateHeightMap();
+        Iterator var9 = this.chunkTileEntityMap.values().iterator();
+
+        while (var9.hasNext())
+        {
+            TileEntity var10 = (TileEntity)var9.next();
+            var10.updateContainingBlockInfo();
+        }
+    }
+
     /**
      * This method retrieves the biome at a set of coordinates
      */
@@ -1372,6 +1609,20 @@ public class Chunk
     public void setBiomeArray(byte[] par1ArrayOfByte)
     {
         this.blockBiomeArray = par1ArrayOfByte;
+        this.modificationStamp = nextModificationStamp.incrementAndGet();
+    }
+
+    /**
+     * Drops the delayed skylight updates, the light of the whole chunk is computed instead
+     */
+    public void resetSkylightGaps()
+    {
+        for (int var1 = 0; var1 < this.updateSkylightColumns.length; ++var1)
+        {
+            this.updateSkylightColumns[var1] = false;
+        }
+
+        this.isGapLightingUpdated = false;
     }
 
     /**
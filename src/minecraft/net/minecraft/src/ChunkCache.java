@@ -12,6 +12,9 @@ public class ChunkCache implements IBlockAccess
     /** Reference to the World object. */
     private World worldObj;
 
+    /** The chunk of the last block read, most reads are close to the previous one */
+    private Chunk lastChunk;
+
     public ChunkCache(World par1World, int par2, int par3, int par4, int par5, int par6, int par7, int par8)
     {
         this.worldObj = par1World;
@@ -75,17 +78,41 @@ public class ChunkCache implements IBlockAccess
         }
         else
         {
-            int var4 = (par1 >> 4) - this.chunkX;
-            int var5 = (par3 >> 4) - this.chunkZ;
+            Chunk var4 = this.getChunkAt(par1 >> 4, par3 >> 4);
+            return var4 == null ? 0 : var4.getBlockID(par1 & 15, par2, par3 & 15);
+        }
+    }
+
+    /**
+     * Returns the cached chunk at the chunk coordinates, or null if it is outside the cache
+     */
+    private Chunk getChunkAt(int par1, int par2)
+    {
+        Chunk var3 = this.lastChunk;
+
+        if (var3 != null && var3.xPosition == par1 && var3.zPosition == par2)
+        {
+            return var3;
+        }
+        else
+        {
+            int var4 = par1 - this.chunkX;
+            int var5 = par2 - this.chunkZ;
 
             if (var4 >= 0 && var4 < this.chunkArray.length && var5 >= 0 && var5 < this.chunkArray[var4].length)
             {
-                Chunk var6 = this.chunkArray[var4][var5];
-                return var6 == null ? 0 : var6.getBlockID(par1 & 15, par2, par3 & 15);
+                var3 = this.chunkArray[var4][var5];
+
+                if (var3 != null)
+                {
+                    this.lastChunk = var3;
+                }
+
+                return var3;
             }
             else
             {
-                return 0;
+                return null;
             }
         }
     }
@@ -234,9 +261,8 @@ public class ChunkCache implements IBlockAccess
         }
         else
         {
-            int var4 = (par1 >> 4) - this.chunkX;
-            int var5 = (par3 >> 4) - this.chunkZ;
-            return this.chunkArray[var4][var5].getBlockMetadata(par1 & 15, par2, par3 & 15);
+            Chunk var4 = this.getChunkAt(par1 >> 4, par3 >> 4);
+            return var4 == null ? 0 : var4.getBlockMetadata(par1 & 15, par2, par3 & 15);
         }
     }
 
@@ -0,0 +1,473 @@
+package net.minecraft.src;
+
+/**
+ * Copy of the blocks, light and biomes around a world renderer. The chunk builder threads read the copy while the main
+ * thread keeps changing the chunks.
+ */
+public class ChunkCacheSnapshot implements IBlockAccess
+{
+    /** Blocks copied on each side of the 16 block cube, the block renderers read up to two blocks around a block */
+    private static final int BORDER = 2;
+    private static final int SIZE = 16 + BORDER * 2;
+
+    /** Columns whose biome is copied on each side of the cube, the smooth biome colors blend over three blocks */
+    private static final int BIOME_BORDER = 4;
+    private static final int BIOME_SIZE = 16 + BIOME_BORDER * 2;
+
+    /** The lowest corner of the copied blocks */
+    private final int originX;
+    private final int originY;
+    private final int originZ;
+    private final short[] blockIds = new short[SIZE * SIZE * SIZE];
+    private final byte[] blockMetadata = new byte[SIZE * SIZE * SIZE];
+
+    /** The saved sky light in the high and the block light in the low four bits */
+    private final byte[] light = new byte[SIZE * SIZE * SIZE];
+
+    /** Set for the positions in sections which do not exist, which are lit like open sky */
+    private final boolean[] missingSection = new boolean[SIZE * SIZE * SIZE];
+    private final BiomeGenBase[] biomes = new BiomeGenBase[BIOME_SIZE * BIOME_SIZE];
+    private final boolean hasExtendedLevels;
+    private final boolean hasNoSky;
+    private final int skylightSubtracted;
+    private final float[] lightBrightnessTable;
+
+    /** Reference to the World object, only used for its Vec3Pool when no other is set */
+    private final World worldObj;
+
+    /** Vec3Pool handed out instead of the world's one, set when the snapshot is used off the main thread. */
+    private Vec3Pool vec3Pool;
+
+    /** Set when a light value with sky light was read, see WorldRenderer.isChunkLit */
+    private boolean isLit = false;
+
+    /**
+     * Copies the area around the 16 block cube at the given position, has to be called on the main thread. Args: world,
+     * x, y, z
+     */
+    public ChunkCacheSnapshot(World par1World, int par2, int par3, int par4)
+    {
+        this.worldObj = par1World;
+        this.originX = par2 - BORDER;
+        this.originY = par3 - BORDER;
+        this.originZ = par4 - BORDER;
+        this.hasNoSky = par1World.provider.hasNoSky;
+        this.skylightSubtracted = par1World.skylightSubtracted;
+        this.lightBrightnessTable = par1World.provider.lightBrightnessTable;
+        boolean var5 = true;
+        int var6 = Math.max(this.originY, 0);
+        int var7 = Math.min(this.originY + SIZE - 1, 255);
+
+        for (int var8 = this.originX >> 4; var8 <= this.originX + SIZE - 1 >> 4; ++var8)
+        {
+            for (int var9 = this.originZ >> 4; var9 <= this.originZ + SIZE - 1 >> 4; ++var9)
+            {
+                Chunk var10 = par1World.getChunkFromChunkCoords(var8, var9);
+
+                if (var10 != null && !var10.isEmpty())
+                {
+                    if (var8 >= par2 - 1 >> 4 && var8 <= par2 + 17 >> 4 && var9 >= par4 - 1 >> 4 && var9 <= par4 + 17 >> 4 && !var10.getAreLevelsEmpty(par3 - 1, par3 + 17))
+                    {
+                        var5 = false;
+                    }
+
+                    this.copyChunk(var10, Math.max(this.originX, var8 << 4), var6, Math.max(this.originZ, var9 << 4), Math.min(this.originX + SIZE - 1, (var8 << 4) + 15), var7, Math.min(this.originZ + SIZE - 1, (var9 << 4) + 15));
+                }
+            }
+        }
+
+        this.hasExtendedLevels = var5;
+
+        for (int var11 = 0; var11 < BIOME_SIZE; ++var11)
+        {
+            for (int var12 = 0; var12 < BIOME_SIZE; ++var12)
+            {
+                this.biomes[var11 * BIOME_SIZE + var12] = par1World.getBiomeGenForCoords(par2 - BIOME_BORDER + var12, par4 - BIOME_BORDER + var11);
+            }
+        }
+    }
+
+    /**
+     * Copies the blocks and light of the chunk inside the given world coordinates. Args: chunk, minX, minY, minZ, maxX,
+     * maxY, maxZ
+     */
+    private void copyChunk(Chunk par1Chunk, int par2, int par3, int par4, int par5, int par6, int par7)
+    {
+        ExtendedBlockStorage[] var8 = par1Chunk.getBlockStorageArray();
+
+        for (int var9 = par3; var9 <= par6; ++var9)
+        {
+            ExtendedBlockStorage var10 = var8[var9 >> 4];
+
+            for (int var11 = par4; var11 <= par7; ++var11)
+            {
+                int var12 = this.getIndex(par2, var9, var11);
+
+                for (int var13 = par2; var13 <= par5; ++var13)
+                {
+                    if (var10 != null)
+                    {
+                        int var14 = this.hasNoSky ? 0 : var10.getExtSkylightValue(var13 & 15, var9 & 15, var11 & 15);
+                        this.blockIds[var12] = (short)var10.getExtBlockID(var13 & 15, var9 & 15, var11 & 15);
+                        this.blockMetadata[var12] = (byte)var10.getExtBlockMetadata(var13 & 15, var9 & 15, var11 & 15);
+                        this.light[var12] = (byte)(var14 << 4 | var10.getExtBlocklightValue(var13 & 15, var9 & 15, var11 & 15));
+                    }
+                    else
+                    {
+                        this.light[var12] = (byte)(par1Chunk.getSavedLightValue(EnumSkyBlock.Sky, var13 & 15, var9, var11 & 15) << 4);
+                        this.missingSection[var12] = true;
+                    }
+
+                    ++var12;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the position in the copied arrays, or -1 outside the copied area
+     */
+    private int getIndex(int par1, int par2, int par3)
+    {
+        int var4 = par1 - this.originX;
+        int var5 = par2 - this.originY;
+        int var6 = par3 - this.originZ;
+        return var4 >= 0 && var4 < SIZE && var5 >= 0 && var5 < SIZE && var6 >= 0 && var6 < SIZE ? (var5 * SIZE + var6) * SIZE + var4 : -1;
+    }
+
+    /**
+     * set by !chunk.getAreLevelsEmpty
+     */
+    public boolean extendedLevelsInChunkCache()
+    {
+        return this.hasExtendedLevels;
+    }
+
+    /**
+     * Returns true if a light value with sky light was read since the snapshot was created
+     */
+    public boolean isLit()
+    {
+        return this.isLit;
+    }
+
+    /**
+     * Returns the block ID at coords x,y,z
+     */
+    public int getBlockId(int par1, int par2, int par3)
+    {
+        int var4 = this.getIndex(par1, par2, par3);
+        return var4 < 0 ? 0 : this.blockIds[var4];
+    }
+
+    /**
+     * Returns the TileEntity associated with a given block in X,Y,Z coordinates, or null if no TileEntity exists. Tile
+     * entities are not copied, they are looked up on the main thread once the renderer is built.
+     */
+    public TileEntity getBlockTileEntity(int par1, int par2, int par3)
+    {
+        return null;
+    }
+
+    public float getBrightness(int par1, int par2, int par3, int par4)
+    {
+        int var5 = this.getLightValue(par1, par2, par3);
+
+        if (var5 < par4)
+        {
+            var5 = par4;
+        }
+
+        return this.lightBrightnessTable[var5];
+    }
+
+    /**
+     * Any Light rendered on a 1.8 Block goes through here
+     */
+    public int getLightBrightnessForSkyBlocks(int par1, int par2, int par3, int par4)
+    {
+        int var5 = this.getSkyBlockTypeBrightness(EnumSkyBlock.Sky, par1, par2, par3);
+        int var6 = this.getSkyBlockTypeBrightness(EnumSkyBlock.Block, par1, par2, par3);
+
+        if (var6 < par4)
+        {
+            var6 = par4;
+        }
+
+        return var5 << 20 | var6 << 4;
+    }
+
+    /**
+     * Returns how bright the block is shown as which is the block's light value looked up in a lookup table (light
+     * values aren't linear for brightness). Args: x, y, z
+     */
+    public float getLightBrightness(int par1, int par2, int par3)
+    {
+        return this.lightBrightnessTable[this.getLightValue(par1, par2, par3)];
+    }
+
+    /**
+     * Gets the light value of the specified block coords. Args: x, y, z
+     */
+    public int getLightValue(int par1, int par2, int par3)
+    {
+        return this.getLightValueExt(par1, par2, par3, true);
+    }
+
+    /**
+     * Get light value with flag
+     */
+    public int getLightValueExt(int par1, int par2, int par3, boolean par4)
+    {
+        if (par4)
+        {
+            int var5 = this.getBlockId(par1, par2, par3);
+
+            if (var5 == Block.stoneSingleSlab.blockID || var5 == Block.woodSingleSlab.blockID || var5 == Block.tilledField.blockID || var5 == Block.stairsWoodOak.blockID || var5 == Block.stairsCobblestone.blockID)
+            {
+                int var6 = this.getLightValueExt(par1, par2 + 1, par3, false);
+                int var7 = this.getLightValueExt(par1 + 1, par2, par3, false);
+                int var8 = this.getLightValueExt(par1 - 1, par2, par3, false);
+                int var9 = this.getLightValueExt(par1, par2, par3 + 1, false);
+                int var10 = this.getLightValueExt(par1, par2, par3 - 1, false);
+
+                if (var7 > var6)
+                {
+                    var6 = var7;
+                }
+
+                if (var8 > var6)
+                {
+                    var6 = var8;
+                }
+
+                if (var9 > var6)
+                {
+                    var6 = var9;
+                }
+
+                if (var10 > var6)
+                {
+                    var6 = var10;
+                }
+
+                return var6;
+            }
+        }
+
+        if (par2 < 0)
+        {
+            return 0;
+        }
+        else if (par2 >= 256)
+        {
+            return Math.max(15 - this.skylightSubtracted, 0);
+        }
+        else
+        {
+            int var11 = this.getIndex(par1, par2, par3);
+
+            if (var11 < 0)
+            {
+                return 0;
+            }
+            else if (this.missingSection[var11])
+            {
+                return !this.hasNoSky && this.skylightSubtracted < EnumSkyBlock.Sky.defaultLightValue ? EnumSkyBlock.Sky.defaultLightValue - this.skylightSubtracted : 0;
+            }
+            else
+            {
+                int var12 = this.light[var11] >> 4 & 15;
+
+                if (var12 > 0)
+                {
+                    this.isLit = true;
+                }
+
+                var12 -= this.skylightSubtracted;
+                int var13 = this.light[var11] & 15;
+                return var13 > var12 ? var13 : var12;
+            }
+        }
+    }
+
+    /**
+     * Returns the block metadata at coords x,y,z
+     */
+    public int getBlockMetadata(int par1, int par2, int par3)
+    {
+        int var4 = this.getIndex(par1, par2, par3);
+        return var4 < 0 ? 0 : this.blockMetadata[var4];
+    }
+
+    /**
+     * Returns the block's material.
+     */
+    public Material getBlockMaterial(int par1, int par2, int par3)
+    {
+        int var4 = this.getBlockId(par1, par2, par3);
+        return var4 == 0 ? Material.air : Block.blocksList[var4].blockMaterial;
+    }
+
+    /**
+     * Gets the biome for a given set of x/z coordinates, columns outside the copied area use the nearest copied one
+     */
+    public BiomeGenBase getBiomeGenForCoords(int par1, int par2)
+    {
+        int var3 = MathHelper.clamp_int(par1 - this.originX - BORDER + BIOME_BORDER, 0, BIOME_SIZE - 1);
+        int var4 = MathHelper.clamp_int(par2 - this.originZ - BORDER + BIOME_BORDER, 0, BIOME_SIZE - 1);
+        return this.biomes[var4 * BIOME_SIZE + var3];
+    }
+
+    /**
+     * Returns true if the block at the specified coordinates is an opaque cube. Args: x, y, z
+     */
+    public boolean isBlockOpaqueCube(int par1, int par2, int par3)
+    {
+        Block var4 = Block.blocksList[this.getBlockId(par1, par2, par3)];
+        return var4 == null ? false : var4.isOpaqueCube();
+    }
+
+    /**
+     * Indicate if a material is a normal solid opaque cube.
+     */
+    public boolean isBlockNormalCube(int par1, int par2, int par3)
+    {
+        Block var4 = Block.blocksList[this.getBlockId(par1, par2, par3)];
+        return var4 == null ? false : var4.blockMaterial.blocksMovement() && var4.renderAsNormalBlock();
+    }
+
+    /**
+     * Returns true if the block at the given coordinate has a solid (buildable) top surface.
+     */
+    public boolean doesBlockHaveSolidTopSurface(int par1, int par2, int par3)
+    {
+        Block var4 = Block.blocksList[this.getBlockId(par1, par2, par3)];
+        return this.worldObj.func_102026_a(var4, this.getBlockMetadata(par1, par2, par3));
+    }
+
+    /**
+     * Return the Vec3Pool object for this world.
+     */
+    public Vec3Pool getWorldVec3Pool()
+    {
+        return this.vec3Pool != null ? this.vec3Pool : this.worldObj.getWorldVec3Pool();
+    }
+
+    /**
+     * Sets the Vec3Pool to use instead of the world's (which is not thread safe).
+     */
+    public void setWorldVec3Pool(Vec3Pool par1Vec3Pool)
+    {
+        this.vec3Pool = par1Vec3Pool;
+    }
+
+    /**
+     * Returns true if the block at the specified coordinates is empty
+     */
+    public boolean isAirBlock(int par1, int par2, int par3)
+    {
+        Block var4 = Block.blocksList[this.getBlockId(par1, par2, par3)];
+        return var4 == null;
+    }
+
+    /**
+     * Brightness for SkyBlock.Sky is clear white and (through color computing it is assumed) DEPENDENT ON DAYTIME.
+     * Brightness for SkyBlock.Block is yellowish and independent.
+     */
+    public int getSkyBlockTypeBrightness(EnumSkyBlock par1EnumSkyBlock, int par2, int par3, int par4)
+    {
+        if (par3 < 0)
+        {
+            par3 = 0;
+        }
+
+        if (par3 >= 256)
+        {
+            par3 = 255;
+        }
+
+        if (par1EnumSkyBlock == EnumSkyBlock.Sky && this.hasNoSky)
+        {
+            return 0;
+        }
+        else if (Block.useNeighborBrightness[this.getBlockId(par2, par3, par4)])
+        {
+            int var5 = this.getSpecialBlockBrightness(par1EnumSkyBlock, par2, par3 + 1, par4);
+            int var6 = this.getSpecialBlockBrightness(par1EnumSkyBlock, par2 + 1, par3, par4);
+            int var7 = this.getSpecialBlockBrightness(par1EnumSkyBlock, par2 - 1, par3, par4);
+            int var8 = this.getSpecialBlockBrightness(par1EnumSkyBlock, par2, par3, par4 + 1);
+            int var9 = this.getSpecialBlockBrightness(par1EnumSkyBlock, par2, par3, par4 - 1);
+
+            if (var6 > var5)
+            {
+                var5 = var6;
+            }
+
+            if (var7 > var5)
+            {
+                var5 = var7;
+            }
+
+            if (var8 > var5)
+            {
+                var5 = var8;
+            }
+
+            if (var9 > var5)
+            {
+                var5 = var9;
+            }
+
+            return var5;
+        }
+        else
+        {
+            return this.getSpecialBlockBrightness(par1EnumSkyBlock, par2, par3, par4);
+        }
+    }
+
+    /**
+     * is only used on stairs and tilled fields
+     */
+    public int getSpecialBlockBrightness(EnumSkyBlock par1EnumSkyBlock, int par2, int par3, int par4)
+    {
+        if (par3 < 0)
+        {
+            par3 = 0;
+        }
+
+        if (par3 >= 256)
+        {
+            par3 = 255;
+        }
+
+        int var5 = this.getIndex(par2, par3, par4);
+
+        if (var5 < 0)
+        {
+            return par1EnumSkyBlock.defaultLightValue;
+        }
+        else
+        {
+            return par1EnumSkyBlock == EnumSkyBlock.Sky ? this.light[var5] >> 4 & 15 : this.light[var5] & 15;
+        }
+    }
+
+    /**
+     * Returns current world height.
+     */
+    public int getHeight()
+    {
+        return 256;
+    }
+
+    /**
+     * Is this block powering in the specified direction Args: x, y, z, direction
+     */
+    public int isBlockProvidingPowerTo(int par1, int par2, int par3, int par4)
+    {
+        int var5 = this.getBlockId(par1, par2, par3);
+        return var5 == 0 ? 0 : Block.blocksList[var5].isProvidingStrongPower(this, par1, par2, par3, par4);
+    }
+}
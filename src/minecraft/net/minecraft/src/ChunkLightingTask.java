@@ -0,0 +1,299 @@
+package net.minecraft.src;
+
+public class ChunkLightingTask
+{
+    /** The chunk the light is computed for */
+    public final Chunk chunk;
+
+    /** The modification stamp of the chunk when its blocks were copied */
+    public final long modificationStamp;
+
+    /** Number of times the light was computed again because the chunk changed before it could be published */
+    public final int attempt;
+
+    /** Set when population placed blocks into the chunk after they were copied */
+    public volatile boolean changedByPopulation = false;
+    private final boolean hasSky;
+
+    /** Copies of the block ID arrays of the sections, null for sections which do not exist */
+    private byte[][] blockLSBArrays = new byte[16][];
+    private byte[][] blockMSBArrays = new byte[16][];
+    private final int[] heightMap;
+
+    /** The computed light arrays of the existing sections */
+    private NibbleArray[] skylightArrays;
+    private NibbleArray[] blocklightArrays;
+    private volatile boolean finished = false;
+
+    /**
+     * Copies the blocks of the chunk, has to be called on the thread owning the chunk
+     */
+    public ChunkLightingTask(Chunk par1Chunk, int par2)
+    {
+        this.chunk = par1Chunk;
+        this.modificationStamp = par1Chunk.modificationStamp;
+        this.attempt = par2;
+        this.hasSky = !par1Chunk.worldObj.provider.hasNoSky;
+        this.heightMap = (int[])par1Chunk.heightMap.clone();
+        ExtendedBlockStorage[] var3 = par1Chunk.getBlockStorageArray();
+
+        for (int var4 = 0; var4 < 16; ++var4)
+        {
+            if (var3[var4] != null)
+            {
+                this.blockLSBArrays[var4] = (byte[])var3[var4].getBlockLSBArray().clone();
+
+                if (var3[var4].getBlockMSBArray() != null)
+                {
+                    this.blockMSBArrays[var4] = (byte[])var3[var4].getBlockMSBArray().data.clone();
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the sky and block light of the chunk from the copied blocks, light from the neighbouring chunks is left
+     * to the checks queued on publishing. Can be called on any thread.
+     */
+    public void computeLight()
+    {
+        try
+        {
+            this.computeLight_do();
+        }
+        finally
+        {
+            this.blockLSBArrays = null;
+            this.blockMSBArrays = null;
+            this.finished = true;
+        }
+    }
+
+    private void computeLight_do()
+    {
+        byte[] var1 = new byte[65536];
+        byte[] var2 = new byte[65536];
+
+        for (int var3 = 0; var3 < 16; ++var3)
+        {
+            byte[] var4 = this.blockLSBArrays[var3];
+
+            if (var4 != null)
+            {
+                byte[] var5 = this.blockMSBArrays[var3];
+
+                for (int var6 = 0; var6 < 4096; ++var6)
+                {
+                    int var7 = var4[var6] & 255;
+
+                    if (var5 != null)
+                    {
+                        var7 |= (var5[var6 >> 1] >> ((var6 & 1) << 2) & 15) << 8;
+                    }
+
+                    int var8 = Block.lightOpacity[var7];
+                    int var9 = Block.lightValue[var7];
+                    var1[var3 << 12 | var6] = (byte)(var8 >= 15 && var9 > 0 ? 1 : (var8 < 1 ? 1 : Math.min(var8, 15)));
+                    var2[var3 << 12 | var6] = (byte)var9;
+                }
+            }
+            else
+            {
+                for (int var10 = 0; var10 < 4096; ++var10)
+                {
+                    var1[var3 << 12 | var10] = 1;
+                }
+            }
+        }
+
+        int[] var11 = new int[4096];
+        byte[] var12 = null;
+
+        if (this.hasSky)
+        {
+            var12 = new byte[65536];
+            int var13 = 0;
+
+            for (int var14 = 0; var14 < 16; ++var14)
+            {
+                for (int var15 = 0; var15 < 16; ++var15)
+                {
+                    int var16 = this.heightMap[var14 << 4 | var15];
+                    int var17 = var16;
+
+                    if (var15 > 0)
+                    {
+                        var17 = Math.max(var17, this.heightMap[var14 << 4 | var15 - 1]);
+                    }
+
+                    if (var15 < 15)
+                    {
+                        var17 = Math.max(var17, this.heightMap[var14 << 4 | var15 + 1]);
+                    }
+
+                    if (var14 > 0)
+                    {
+                        var17 = Math.max(var17, this.heightMap[var14 - 1 << 4 | var15]);
+                    }
+
+                    if (var14 < 15)
+                    {
+                        var17 = Math.max(var17, this.heightMap[var14 + 1 << 4 | var15]);
+                    }
+
+                    for (int var18 = Math.max(var16, 0); var18 < 256; ++var18)
+                    {
+                        int var19 = var18 << 8 | var14 << 4 | var15;
+                        var12[var19] = 15;
+
+                        if (var18 <= var17)
+                        {
+                            var11 = push(var11, var13++, var19);
+                        }
+                    }
+                }
+            }
+
+            spreadLight(var12, var1, var11, var13);
+        }
+
+        byte[] var20 = new byte[65536];
+        int var21 = 0;
+
+        for (int var22 = 0; var22 < 65536; ++var22)
+        {
+            if (var2[var22] > 0)
+            {
+                var20[var22] = var2[var22];
+                var11 = push(var11, var21++, var22);
+            }
+        }
+
+        spreadLight(var20, var1, var11, var21);
+        NibbleArray[] var23 = new NibbleArray[16];
+        NibbleArray[] var24 = new NibbleArray[16];
+
+        for (int var25 = 0; var25 < 16; ++var25)
+        {
+            if (this.blockLSBArrays[var25] != null)
+            {
+                if (var12 != null)
+                {
+                    var23[var25] = toNibbleArray(var12, var25);
+                }
+
+                var24[var25] = toNibbleArray(var20, var25);
+            }
+        }
+
+        this.skylightArrays = var23;
+        this.blocklightArrays = var24;
+    }
+
+    /**
+     * Spreads the light of the queued positions through the chunk. Args: light, opacity, queue, queue length
+     */
+    private static void spreadLight(byte[] par0ArrayOfByte, byte[] par1ArrayOfByte, int[] par2ArrayOfInteger, int par3)
+    {
+        for (int var4 = 0; var4 < par3; ++var4)
+        {
+            int var5 = par2ArrayOfInteger[var4];
+            int var6 = par0ArrayOfByte[var5];
+
+            if (var6 > 1)
+            {
+                int var7 = var5 & 15;
+                int var8 = var5 >> 4 & 15;
+                int var9 = var5 >> 8;
+
+                for (int var10 = 0; var10 < 6; ++var10)
+                {
+                    int var11 = var7 + Facing.offsetsXForSide[var10];
+                    int var12 = var9 + Facing.offsetsYForSide[var10];
+                    int var13 = var8 + Facing.offsetsZForSide[var10];
+
+                    if (var11 >= 0 && var11 < 16 && var13 >= 0 && var13 < 16 && var12 >= 0 && var12 < 256)
+                    {
+                        int var14 = var12 << 8 | var13 << 4 | var11;
+                        int var15 = var6 - par1ArrayOfByte[var14];
+
+                        if (var15 > par0ArrayOfByte[var14])
+                        {
+                            par0ArrayOfByte[var14] = (byte)var15;
+                            par2ArrayOfInteger = push(par2ArrayOfInteger, par3++, var14);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Packs the light of one section into a nibble array in the order of ExtendedBlockStorage
+     */
+    private static NibbleArray toNibbleArray(byte[] par0ArrayOfByte, int par1)
+    {
+        NibbleArray var2 = new NibbleArray(4096, 4);
+        int var3 = par1 << 12;
+
+        for (int var4 = 0; var4 < 2048; ++var4)
+        {
+            var2.data[var4] = (byte)(par0ArrayOfByte[var3 + (var4 << 1)] | par0ArrayOfByte[var3 + (var4 << 1) + 1] << 4);
+        }
+
+        return var2;
+    }
+
+    private static int[] push(int[] par0ArrayOfInteger, int par1, int par2)
+    {
+        if (par1 == par0ArrayOfInteger.length)
+        {
+            int[] var3 = new int[par1 * 2];
+            System.arraycopy(par0ArrayOfInteger, 0, var3, 0, par1);
+            par0ArrayOfInteger = var3;
+        }
+
+        par0ArrayOfInteger[par1] = par2;
+        return par0ArrayOfInteger;
+    }
+
+    /**
+     * Returns true once the light has been computed or computing it failed
+     */
+    public boolean isFinished()
+    {
+        return this.finished;
+    }
+
+    /**
+     * Returns true if the light is computed and the chunk has not changed since its blocks were copied
+     */
+    public boolean isValid()
+    {
+        return this.finished && this.blocklightArrays != null && this.modificationStamp == this.chunk.modificationStamp;
+    }
+
+    /**
+     * Replaces the light arrays of the chunk sections with the computed ones, has to be called on the thread owning the
+     * chunk after checking isValid
+     */
+    public void publish()
+    {
+        ExtendedBlockStorage[] var1 = this.chunk.getBlockStorageArray();
+
+        for (int var2 = 0; var2 < 16; ++var2)
+        {
+            if (var1[var2] != null && this.blocklightArrays[var2] != null)
+            {
+                if (this.skylightArrays[var2] != null)
+                {
+                    var1[var2].setSkylightArray(this.skylightArrays[var2]);
+                }
+
+                var1[var2].setBlocklightArray(this.blocklightArrays[var2]);
+            }
+        }
+
+        this.chunk.setChunkModified();
+    }
+}
@@ -0,0 +1,29 @@
+package net.minecraft.src;
+
+class ChunkLoadRequest
+{
+    public static final int QUEUED = 0;
+    public static final int LOADING = 1;
+    public static final int FINISHED = 2;
+    public final ChunkProviderServer chunkProvider;
+    public final int chunkX;
+    public final int chunkZ;
+
+    /** Squared chunk distance to the nearest player, the requests with the lowest value are loaded first */
+    public volatile double priority;
+    public volatile int state;
+
+    /** The chunk read from disk, without its entities, or null if it has not been saved */
+    public Chunk chunk;
+
+    /** The saved level data of the chunk, from which the entities are added on the server thread */
+    public NBTTagCompound levelTag;
+
+    public ChunkLoadRequest(ChunkProviderServer par1ChunkProviderServer, int par2, int par3)
+    {
+        this.chunkProvider = par1ChunkProviderServer;
+        this.chunkX = par2;
+        this.chunkZ = par3;
+        this.state = QUEUED;
+    }
+}
@@ -0,0 +1,110 @@
+package net.minecraft.src;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.zip.Deflater;
+
+public class ChunkPacketCache
+{
+    /** Maximum number of compressed chunks kept */
+    private static final int MAX_ENTRIES = 512;
+
+    /** Compressed chunks by chunk coordinates, in access order */
+    private final LinkedHashMap segments = new LinkedHashMap(16, 0.75F, true);
+
+    /** Deflater used when a chunk has to be compressed on the server thread */
+    private final Deflater deflater = new Deflater(-1, true);
+
+    /**
+     * Returns the compressed data of the chunk. A cached segment is reused while the chunk has not changed, otherwise
+     * the data is copied and compressed by the compression threads, check isFinished before using it. Only called on
+     * the server thread.
+     */
+    public ChunkPacketSegment getSegment(Chunk par1Chunk)
+    {
+        par1Chunk.worldObj.flushLightUpdates();
+        Long var2 = Long.valueOf(ChunkCoordIntPair.chunkXZ2Int(par1Chunk.xPosition, par1Chunk.zPosition));
+        ChunkPacketSegment var3 = (ChunkPacketSegment)this.segments.get(var2);
+
+        if (var3 == null || var3.modificationStamp != par1Chunk.modificationStamp)
+        {
+            var3 = new ChunkPacketSegment(par1Chunk);
+            this.putSegment(var2, var3);
+            ThreadedChunkCompressor.threadedCompressorInstance.queueCompress(var3);
+        }
+
+        return var3;
+    }
+
+    /**
+     * Returns the compressed data of the chunk, compressing it on the calling thread if no valid segment is cached
+     */
+    public ChunkPacketSegment getFinishedSegment(Chunk par1Chunk)
+    {
+        par1Chunk.worldObj.flushLightUpdates();
+        Long var2 = Long.valueOf(ChunkCoordIntPair.chunkXZ2Int(par1Chunk.xPosition, par1Chunk.zPosition));
+        ChunkPacketSegment var3 = (ChunkPacketSegment)this.segments.get(var2);
+
+        if (var3 == null || !var3.isValidFor(par1Chunk))
+        {
+            var3 = new ChunkPacketSegment(par1Chunk);
+            var3.compress(this.deflater);
+            this.putSegment(var2, var3);
+        }
+
+        return var3;
+    }
+
+    private void putSegment(Long par1, ChunkPacketSegment par2ChunkPacketSegment)
+    {
+        this.segments.put(par1, par2ChunkPacketSegment);
+
+        if (this.segments.size() > MAX_ENTRIES)
+        {
+            Iterator var3 = this.segments.values().iterator();
+            var3.next();
+            var3.remove();
+        }
+    }
+
+    /**
+     * Creates a Packet56MapChunks for the chunks from the cache, compressing the chunks without a valid cached segment
+     * on the calling thread. Players on a memory connection get the packet with the uncompressed data they read.
+     */
+    public Packet56MapChunks createMapChunksPacket(List par1List, EntityPlayerMP par2EntityPlayerMP)
+    {
+        if (!canUseCache(par2EntityPlayerMP))
+        {
+            return new Packet56MapChunks(par1List);
+        }
+        else
+        {
+            ChunkPacketSegment[] var3 = new ChunkPacketSegment[par1List.size()];
+
+            for (int var4 = 0; var4 < var3.length; ++var4)
+            {
+                var3[var4] = this.getFinishedSegment((Chunk)par1List.get(var4));
+            }
+
+            return new Packet56MapChunks(var3, !par1List.isEmpty() && !((Chunk)par1List.get(0)).worldObj.provider.hasNoSky);
+        }
+    }
+
+    /**
+     * Returns false for players on a memory connection, the packets are passed to the client without being written and
+     * it reads the uncompressed data from the packet
+     */
+    public static boolean canUseCache(EntityPlayerMP par0EntityPlayerMP)
+    {
+        return !(par0EntityPlayerMP.playerNetServerHandler.netManager instanceof MemoryConnection);
+    }
+
+    /**
+     * Drops the cached segment of the chunk, called when it is unloaded
+     */
+    public void removeSegment(int par1, int par2)
+    {
+        this.segments.remove(Long.valueOf(ChunkCoordIntPair.chunkXZ2Int(par1, par2)));
+    }
+}
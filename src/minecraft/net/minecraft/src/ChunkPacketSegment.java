@@ -0,0 +1,115 @@
+package net.minecraft.src;
+
+import java.util.zip.Adler32;
+import java.util.zip.Deflater;
+
+public class ChunkPacketSegment
+{
+    public final int chunkX;
+    public final int chunkZ;
+
+    /** The modification stamp of the chunk when its data was copied */
+    public final long modificationStamp;
+    public final int chunkExistFlag;
+    public final int chunkHasAddSectionFlag;
+
+    /** The uncompressed chunk data, dropped once compressed */
+    private byte[] rawData;
+    private final int rawLength;
+
+    /**
+     * The chunk data as raw deflate blocks ending with a sync flush, so segments compressed separately can be joined
+     * into one zlib stream
+     */
+    private byte[] deflatedData;
+    private int deflatedLength;
+
+    /** Adler-32 checksum of the uncompressed data */
+    private int checksum;
+    private volatile boolean finished = false;
+
+    /**
+     * Copies the data of the full chunk as sent by Packet56MapChunks, has to be called on the server thread
+     */
+    public ChunkPacketSegment(Chunk par1Chunk)
+    {
+        Packet51MapChunkData var2 = Packet51MapChunk.getMapChunkData(par1Chunk, true, 65535);
+        this.chunkX = par1Chunk.xPosition;
+        this.chunkZ = par1Chunk.zPosition;
+        this.modificationStamp = par1Chunk.modificationStamp;
+        this.chunkExistFlag = var2.chunkExistFlag;
+        this.chunkHasAddSectionFlag = var2.chunkHasAddSectionFlag;
+        this.rawData = var2.compressedData;
+        this.rawLength = var2.compressedData.length;
+    }
+
+    /**
+     * Compresses the copied data with the given deflater, which has to be in raw (nowrap) mode. Can be called on any
+     * thread.
+     */
+    public void compress(Deflater par1Deflater)
+    {
+        par1Deflater.reset();
+        par1Deflater.setInput(this.rawData, 0, this.rawLength);
+        byte[] var2 = new byte[this.rawLength / 4 + 64];
+        int var3 = 0;
+
+        while (true)
+        {
+            var3 += par1Deflater.deflate(var2, var3, var2.length - var3, Deflater.SYNC_FLUSH);
+
+            if (var3 < var2.length)
+            {
+                break;
+            }
+
+            byte[] var4 = new byte[var2.length * 2];
+            System.arraycopy(var2, 0, var4, 0, var3);
+            var2 = var4;
+        }
+
+        Adler32 var5 = new Adler32();
+        var5.update(this.rawData, 0, this.rawLength);
+        this.checksum = (int)var5.getValue();
+        this.deflatedData = var2;
+        this.deflatedLength = var3;
+        this.rawData = null;
+        this.finished = true;
+    }
+
+    /**
+     * Returns true once the data has been compressed
+     */
+    public boolean isFinished()
+    {
+        return this.finished;
+    }
+
+    /**
+     * Returns true if the segment is compressed and still matches the given chunk
+     */
+    public boolean isValidFor(Chunk par1Chunk)
+    {
+        return this.finished && this.modificationStamp == par1Chunk.modificationStamp && this.chunkX == par1Chunk.xPosition && this.chunkZ == par1Chunk.zPosition;
+    }
+
+    public byte[] getDeflatedData()
+    {
+        return this.deflatedData;
+    }
+
+    public int getDeflatedLength()
+    {
+        return this.deflatedLength;
+    }
+
+    public int getRawLength()
+    {
+        return this.rawLength;
+    }
+
+    public int getChecksum()
+    {
+        return this.checksum;
+    }
+}
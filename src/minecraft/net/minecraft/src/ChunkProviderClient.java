@@ -25,6 +25,9 @@ public class ChunkProviderClient implements IChunkProvider
     /** Reference to the World object. */
     private World worldObj;
 
+    /** The chunk returned last by provideChunk */
+    private Chunk lastChunk;
+
     public ChunkProviderClient(World par1World)
     {
         this.blankChunk = new EmptyChunk(par1World, 0, 0);
@@ -54,6 +57,11 @@ public class ChunkProviderClient implements IChunkProvider
 
         this.chunkMapping.remove(ChunkCoordIntPair.chunkXZ2Int(par1, par2));
         this.chunkListing.remove(var3);
+
+        if (this.lastChunk == var3)
+        {
+            this.lastChunk = null;
+        }
     }
 
     /**
@@ -64,6 +72,7 @@ public class ChunkProviderClient implements IChunkProvider
         Chunk var3 = new Chunk(this.worldObj, par1, par2);
         this.chunkMapping.add(ChunkCoordIntPair.chunkXZ2Int(par1, par2), var3);
         var3.isChunkLoaded = true;
+        this.lastChunk = var3;
         return var3;
     }
 
@@ -73,8 +82,26 @@ public class ChunkProviderClient implements IChunkProvider
      */
     public Chunk provideChunk(int par1, int par2)
     {
-        Chunk var3 = (Chunk)this.chunkMapping.getValueByKey(ChunkCoordIntPair.chunkXZ2Int(par1, par2));
-        return var3 == null ? this.blankChunk : var3;
+        Chunk var3 = this.lastChunk;
+
+        if (var3 != null && var3.xPosition == par1 && var3.zPosition == par2)
+        {
+            return var3;
+        }
+        else
+        {
+            var3 = (Chunk)this.chunkMapping.getValueByKey(ChunkCoordIntPair.chunkXZ2Int(par1, par2));
+
+            if (var3 == null)
+            {
+                return this.blankChunk;
+            }
+            else
+            {
+                this.lastChunk = var3;
+                return var3;
+            }
+        }
     }
 
     /**
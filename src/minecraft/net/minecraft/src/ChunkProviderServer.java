@@ -26,6 +26,13 @@ public class ChunkProviderServer implements IChunkProvider
     private List loadedChunks = new ArrayList();
     private WorldServer worldObj;
 
+    /** Chunks being read on the chunk loading threads, mapped by their coordinates */
+    private LongHashMap pendingChunkLoads = new LongHashMap();
+    private List pendingChunkLoadList = new ArrayList();
+
+    /** Time in nanoseconds the server thread may spend per tick adding chunks loaded in the background */
+    private static final long MAX_LOAD_FINISH_TIME = 10000000L;
+
     public ChunkProviderServer(WorldServer par1WorldServer, IChunkLoader par2IChunkLoader, IChunkProvider par3IChunkProvider)
     {
         this.defaultEmptyChunk = new EmptyChunk(par1WorldServer, 0, 0);
@@ -57,12 +64,31 @@ public class ChunkProviderServer implements IChunkProvider
 
             if (var4 < -var6 || var4 > var6 || var5 < -var6 || var5 > var6)
             {
-                this.chunksToUnload.add(Long.valueOf(ChunkCoordIntPair.chunkXZ2Int(par1, par2)));
+                this.queueChunkUnload(par1, par2);
             }
         }
         else
         {
-            this.chunksToUnload.add(Long.valueOf(ChunkCoordIntPair.chunkXZ2Int(par1, par2)));
+            this.queueChunkUnload(par1, par2);
+        }
+    }
+
+    /**
+     * Marks the chunk for unload, or drops it if it is still being loaded in the background
+     */
+    private void queueChunkUnload(int par1, int par2)
+    {
+        long var3 = ChunkCoordIntPair.chunkXZ2Int(par1, par2);
+        ChunkLoadRequest var5 = (ChunkLoadRequest)this.pendingChunkLoads.getValueByKey(var3);
+
+        if (var5 != null)
+        {
+            this.removeChunkLoadRequest(var3, var5);
+            ThreadedChunkLoader.threadedLoaderInstance.cancelLoad(var5);
+        }
+        else
+        {
+            this.chunksToUnload.add(Long.valueOf(var3));
         }
     }
 
@@ -91,7 +117,18 @@ public class ChunkProviderServer implements IChunkProvider
 
         if (var5 == null)
         {
-            var5 = this.safeLoadChunk(par1, par2);
+            boolean var10 = false;
+            ChunkLoadRequest var6 = (ChunkLoadRequest)this.pendingChunkLoads.getValueByKey(var3);
+
+            if (var6 != null)
+            {
+                this.removeChunkLoadRequest(var3, var6);
+                var5 = this.finishChunkLoadRequest(var6);
+            }
+            else
+            {
+                var5 = this.safeLoadChunk(par1, par2);
+            }
 
             if (var5 == null)
             {
@@ -114,6 +151,8 @@ public class ChunkProviderServer implements IChunkProvider
                         var8.addCrashSection("Generator", this.currentChunkProvider.makeString());
                         throw new ReportedException(var7);
                     }
+
+                    var10 = true;
                 }
             }
 
@@ -126,11 +165,142 @@ public class ChunkProviderServer implements IChunkProvider
             }
 
             var5.populateChunk(this, this, par1, par2);
+
+            if (var10)
+            {
+                this.worldObj.queueChunkLighting(var5);
+            }
         }
 
         return var5;
     }
 
+    /**
+     * Requests the chunk to be loaded. The chunk is read from disk on a chunk loading thread and added to the world by
+     * processChunkLoads in a later tick, chunks which have not been saved yet are generated there. Falls back to
+     * loadChunk if the chunk loader can not load in the background.
+     */
+    public void loadChunkAsync(int par1, int par2)
+    {
+        long var3 = ChunkCoordIntPair.chunkXZ2Int(par1, par2);
+        this.chunksToUnload.remove(Long.valueOf(var3));
+
+        if (!this.loadedChunkHashMap.containsItem(var3) && !this.pendingChunkLoads.containsItem(var3))
+        {
+            if (this.currentChunkLoader instanceof AnvilChunkLoader)
+            {
+                ChunkLoadRequest var5 = new ChunkLoadRequest(this, par1, par2);
+                var5.priority = this.worldObj.getPlayerManager().getDistanceSqToClosestPlayer(par1, par2);
+                this.pendingChunkLoads.add(var3, var5);
+                this.pendingChunkLoadList.add(var5);
+                ThreadedChunkLoader.threadedLoaderInstance.queueLoad(var5);
+            }
+            else
+            {
+                this.loadChunk(par1, par2);
+            }
+        }
+    }
+
+    /**
+     * Returns true if the chunk is being loaded in the background
+     */
+    public boolean isChunkLoading(int par1, int par2)
+    {
+        return this.pendingChunkLoads.containsItem(ChunkCoordIntPair.chunkXZ2Int(par1, par2));
+    }
+
+    /**
+     * Adds the chunks which have been read in the background to the world, for at most MAX_LOAD_FINISH_TIME, and
+     * updates the priorities of the others by the current player positions. Called every tick.
+     */
+    public void processChunkLoads()
+    {
+        long var1 = System.nanoTime();
+
+        for (int var3 = 0; var3 < this.pendingChunkLoadList.size(); ++var3)
+        {
+            ChunkLoadRequest var4 = (ChunkLoadRequest)this.pendingChunkLoadList.get(var3);
+
+            if (var4.state == ChunkLoadRequest.FINISHED)
+            {
+                if (System.nanoTime() - var1 < MAX_LOAD_FINISH_TIME)
+                {
+                    this.loadChunk(var4.chunkX, var4.chunkZ);
+                    --var3;
+                }
+            }
+            else if (var4.state == ChunkLoadRequest.QUEUED)
+            {
+                var4.priority = this.worldObj.getPlayerManager().getDistanceSqToClosestPlayer(var4.chunkX, var4.chunkZ);
+            }
+        }
+    }
+
+    /**
+     * Called on a chunk loading thread, reads the chunk of the request without touching the world
+     */
+    void readChunkAsync(ChunkLoadRequest par1ChunkLoadRequest)
+    {
+        AnvilChunkLoader var2 = (AnvilChunkLoader)this.currentChunkLoader;
+
+        try
+        {
+            NBTTagCompound var3 = var2.readChunkNBT(par1ChunkLoadRequest.chunkX, par1ChunkLoadRequest.chunkZ);
+
+            if (var3 != null)
+            {
+                par1ChunkLoadRequest.chunk = var2.checkedReadChunkBlocksFromNBT(this.worldObj, par1ChunkLoadRequest.chunkX, par1ChunkLoadRequest.chunkZ, var3);
+                par1ChunkLoadRequest.levelTag = var3.getCompoundTag("Level");
+            }
+        }
+        catch (Exception var4)
+        {
+            var4.printStackTrace();
+        }
+    }
+
+    /**
+     * Waits for the request and adds the entities of its chunk, or loads the chunk directly if the request had not been
+     * started yet. Returns null if the chunk has not been saved.
+     */
+    private Chunk finishChunkLoadRequest(ChunkLoadRequest par1ChunkLoadRequest)
+    {
+        try
+        {
+            if (!ThreadedChunkLoader.threadedLoaderInstance.waitForLoad(par1ChunkLoadRequest))
+            {
+                return this.safeLoadChunk(par1ChunkLoadRequest.chunkX, par1ChunkLoadRequest.chunkZ);
+            }
+
+            Chunk var2 = par1ChunkLoadRequest.chunk;
+
+            if (var2 != null)
+            {
+                ((AnvilChunkLoader)this.currentChunkLoader).readChunkEntitiesFromNBT(this.worldObj, var2, par1ChunkLoadRequest.levelTag);
+                var2.lastSaveTime = this.worldObj.getTotalWorldTime();
+
+                if (this.currentChunkProvider != null)
+                {
+                    this.currentChunkProvider.recreateStructures(par1ChunkLoadRequest.chunkX, par1ChunkLoadRequest.chunkZ);
+                }
+            }
+
+            return var2;
+        }
+        catch (Exception var3)
+        {
+            var3.printStackTrace();
+            return null;
+        }
+    }
+
+    private void removeChunkLoadRequest(long par1, ChunkLoadRequest par3ChunkLoadRequest)
+    {
+        this.pendingChunkLoads.remove(par1);
+        this.pendingChunkLoadList.remove(par3ChunkLoadRequest);
+    }
+
     /**
      * Will return back a chunk, if it doesn't exist and its not a MP client it will generates all the blocks for the
      * specified chunk from the map seed and chunk seed
@@ -232,6 +402,17 @@ public class ChunkProviderServer implements IChunkProvider
             {
                 this.currentChunkProvider.populate(par1IChunkProvider, par2, par3);
                 var4.setChunkModified();
+
+                for (int var5 = 0; var5 < 2; ++var5)
+                {
+                    for (int var6 = 0; var6 < 2; ++var6)
+                    {
+                        if (this.chunkExists(par2 + var5, par3 + var6))
+                        {
+                            this.worldObj.onChunkPopulated(this.provideChunk(par2 + var5, par3 + var6));
+                        }
+                    }
+                }
             }
         }
     }
@@ -292,12 +473,17 @@ public class ChunkProviderServer implements IChunkProvider
                 {
                     Long var2 = (Long)this.chunksToUnload.iterator().next();
                     Chunk var3 = (Chunk)this.loadedChunkHashMap.getValueByKey(var2.longValue());
-                    var3.onChunkUnload();
-                    this.safeSaveChunk(var3);
-                    this.safeSaveExtraChunkData(var3);
+
+                    if (var3 != null)
+                    {
+                        var3.onChunkUnload();
+                        this.safeSaveChunk(var3);
+                        this.safeSaveExtraChunkData(var3);
+                        this.loadedChunkHashMap.remove(var2.longValue());
+                        this.loadedChunks.remove(var3);
+                    }
+
                     this.chunksToUnload.remove(var2);
-                    this.loadedChunkHashMap.remove(var2.longValue());
-                    this.loadedChunks.remove(var3);
                 }
             }
 
@@ -323,7 +509,7 @@ public class ChunkProviderServer implements IChunkProvider
      */
     public String makeString()
     {
-        return "ServerChunkCache: " + this.loadedChunkHashMap.getNumHashElements() + " Drop: " + this.chunksToUnload.size();
+        return "ServerChunkCache: " + this.loadedChunkHashMap.getNumHashElements() + " Drop: " + this.chunksToUnload.size() + " Loading: " + this.pendingChunkLoadList.size();
     }
 
     /**
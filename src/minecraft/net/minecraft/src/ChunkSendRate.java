@@ -0,0 +1,130 @@
+package net.minecraft.src;
+
+public class ChunkSendRate
+{
+    /** Maximum number of chunks sent in one packet */
+    public static final int MAX_CHUNKS_PER_PACKET = 16;
+
+    /** Bytes which may always be queued on a connection, keeps slow links busy without burying keep alives */
+    private static final int MIN_WINDOW = 32768;
+
+    /** Bytes which may be queued at most, well below the send queue overflow */
+    private static final int MAX_WINDOW = 1048576;
+
+    /** Time in milliseconds added to the round trip for the tick and flush delay before queued data is written */
+    private static final int SEND_DELAY = 100;
+    private static final int MAX_RTT = 1000;
+    private static final double MIN_BANDWIDTH = 16384.0D;
+    private static final double MAX_BANDWIDTH = 67108864.0D;
+
+    /** Estimated bytes per second the connection can take */
+    private double bandwidth = 131072.0D;
+
+    /** Average compressed size of a chunk sent on this connection */
+    private double averageChunkBytes = 16384.0D;
+
+    /** Smallest round trip seen recently, queued data delays the keep alives so the smoothed ping is not used as is */
+    private int baseRtt = -1;
+    private long lastBytesWritten = -1L;
+    private int lastUnsentBytes = 0;
+    private long lastUpdateTime = 0L;
+
+    /**
+     * Updates the estimates from the state of the connection, called once per tick. While the socket could not take
+     * all flushed data the bytes written are what the link carries, otherwise the estimate is only raised. Args: bytes
+     * flushed but not written, total bytes written, smoothed keep alive round trip in milliseconds, whether chunks are
+     * waiting to be sent
+     */
+    public void update(int par1, long par2, int par4, boolean par5)
+    {
+        long var6 = System.nanoTime();
+        int var8 = Math.max(0, Math.min(par4, MAX_RTT));
+
+        if (this.baseRtt < 0 || var8 < this.baseRtt)
+        {
+            this.baseRtt = var8;
+        }
+        else
+        {
+            this.baseRtt += (var8 - this.baseRtt + 63) / 64;
+        }
+
+        if (this.lastBytesWritten >= 0L)
+        {
+            double var9 = (double)(var6 - this.lastUpdateTime) / 1.0E9D;
+
+            if (var9 > 0.0D)
+            {
+                double var11 = (double)(par2 - this.lastBytesWritten) / var9;
+
+                if (this.lastUnsentBytes > 0 && par1 > 0)
+                {
+                    this.bandwidth = this.bandwidth * 0.9D + var11 * 0.1D;
+                }
+                else if (var11 > this.bandwidth)
+                {
+                    this.bandwidth = this.bandwidth * 0.9D + var11 * 0.1D;
+                }
+                else if (par1 == 0 && par5)
+                {
+                    this.bandwidth *= 1.05D;
+                }
+
+                this.bandwidth = Math.max(MIN_BANDWIDTH, Math.min(this.bandwidth, MAX_BANDWIDTH));
+            }
+        }
+
+        this.lastBytesWritten = par2;
+        this.lastUnsentBytes = par1;
+        this.lastUpdateTime = var6;
+    }
+
+    /**
+     * Returns the number of bytes which should be queued on the connection, the data the link carries during one round
+     * trip
+     */
+    public int getWindow()
+    {
+        double var1 = this.bandwidth * (double)(Math.max(this.baseRtt, 0) + SEND_DELAY) / 1000.0D;
+        return (int)Math.max((double)MIN_WINDOW, Math.min(var1, (double)MAX_WINDOW));
+    }
+
+    /**
+     * Returns how many chunks to send now, 0 while the queued data fills the window. Args: bytes queued
+     */
+    public int getChunksToSend(int par1)
+    {
+        int var2 = this.getWindow() - par1;
+
+        if (var2 <= 0)
+        {
+            return 0;
+        }
+        else
+        {
+            int var3 = (int)Math.ceil((double)var2 / this.averageChunkBytes);
+            return Math.max(1, Math.min(var3, MAX_CHUNKS_PER_PACKET));
+        }
+    }
+
+    /**
+     * Records the size of sent chunks. Args: compressed bytes, chunk count
+     */
+    public void onChunksSent(int par1, int par2)
+    {
+        if (par2 > 0)
+        {
+            this.averageChunkBytes = this.averageChunkBytes * 0.8D + (double)par1 / (double)par2 * 0.2D;
+        }
+    }
+
+    public double getBandwidth()
+    {
+        return this.bandwidth;
+    }
+
+    public int getBaseRtt()
+    {
+        return this.baseRtt;
+    }
+}
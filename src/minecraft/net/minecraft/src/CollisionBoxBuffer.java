@@ -0,0 +1,161 @@
+package net.minecraft.src;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CollisionBoxBuffer
+{
+    /** The boxes as minX, minY, minZ, maxX, maxY, maxZ */
+    private double[] boxes = new double[6 * 64];
+
+    /** Number of boxes in the buffer */
+    private int boxCount = 0;
+
+    /** List handed to addCollisionBoxesToList of blocks which do not write their boxes directly */
+    private final ArrayList scratchList = new ArrayList();
+
+    public void clear()
+    {
+        this.boxCount = 0;
+    }
+
+    public boolean isEmpty()
+    {
+        return this.boxCount == 0;
+    }
+
+    public int size()
+    {
+        return this.boxCount;
+    }
+
+    /**
+     * Adds a box. Args: minX, minY, minZ, maxX, maxY, maxZ
+     */
+    public void addBox(double par1, double par3, double par5, double par7, double par9, double par11)
+    {
+        int var13 = this.boxCount * 6;
+
+        if (var13 + 6 > this.boxes.length)
+        {
+            double[] var14 = new double[this.boxes.length * 2];
+            System.arraycopy(this.boxes, 0, var14, 0, var13);
+            this.boxes = var14;
+        }
+
+        this.boxes[var13] = par1;
+        this.boxes[var13 + 1] = par3;
+        this.boxes[var13 + 2] = par5;
+        this.boxes[var13 + 3] = par7;
+        this.boxes[var13 + 4] = par9;
+        this.boxes[var13 + 5] = par11;
+        ++this.boxCount;
+    }
+
+    public void addBox(AxisAlignedBB par1AxisAlignedBB)
+    {
+        this.addBox(par1AxisAlignedBB.minX, par1AxisAlignedBB.minY, par1AxisAlignedBB.minZ, par1AxisAlignedBB.maxX, par1AxisAlignedBB.maxY, par1AxisAlignedBB.maxZ);
+    }
+
+    /**
+     * Copies the boxes of the list into the buffer
+     */
+    public void addBoxes(List par1List)
+    {
+        for (int var2 = 0; var2 < par1List.size(); ++var2)
+        {
+            this.addBox((AxisAlignedBB)par1List.get(var2));
+        }
+    }
+
+    /**
+     * Returns the cleared list used to collect the boxes of blocks going through addCollisionBoxesToList
+     */
+    public List getScratchList()
+    {
+        this.scratchList.clear();
+        return this.scratchList;
+    }
+
+    /**
+     * Returns the x offset the box can move by without entering any box of the buffer, the same as calling
+     * calculateXOffset on every box. Args: moving box, offset
+     */
+    public double calculateXOffset(AxisAlignedBB par1AxisAlignedBB, double par2)
+    {
+        double[] var4 = this.boxes;
+        int var5 = this.boxCount * 6;
+
+        for (int var6 = 0; var6 < var5; var6 += 6)
+        {
+            if (par1AxisAlignedBB.maxY > var4[var6 + 1] && par1AxisAlignedBB.minY < var4[var6 + 4] && par1AxisAlignedBB.maxZ > var4[var6 + 2] && par1AxisAlignedBB.minZ < var4[var6 + 5])
+            {
+                if (par2 > 0.0D && par1AxisAlignedBB.maxX <= var4[var6])
+                {
+                    par2 = Math.min(par2, var4[var6] - par1AxisAlignedBB.maxX);
+                }
+
+                if (par2 < 0.0D && par1AxisAlignedBB.minX >= var4[var6 + 3])
+                {
+                    par2 = Math.max(par2, var4[var6 + 3] - par1AxisAlignedBB.minX);
+                }
+            }
+        }
+
+        return par2;
+    }
+
+    /**
+     * Returns the y offset the box can move by without entering any box of the buffer. Args: moving box, offset
+     */
+    public double calculateYOffset(AxisAlignedBB par1AxisAlignedBB, double par2)
+    {
+        double[] var4 = this.boxes;
+        int var5 = this.boxCount * 6;
+
+        for (int var6 = 0; var6 < var5; var6 += 6)
+        {
+            if (par1AxisAlignedBB.maxX > var4[var6] && par1AxisAlignedBB.minX < var4[var6 + 3] && par1AxisAlignedBB.maxZ > var4[var6 + 2] && par1AxisAlignedBB.minZ < var4[var6 + 5])
+            {
+                if (par2 > 0.0D && par1AxisAlignedBB.maxY <= var4[var6 + 1])
+                {
+                    par2 = Math.min(par2, var4[var6 + 1] - par1AxisAlignedBB.maxY);
+                }
+
+                if (par2 < 0.0D && par1AxisAlignedBB.minY >= var4[var6 + 4])
+                {
+                    par2 = Math.max(par2, var4[var6 + 4] - par1AxisAlignedBB.minY);
+                }
+            }
+        }
+
+        return par2;
+    }
+
+    /**
+     * Returns the z offset the box can move by without entering any box of the buffer. Args: moving box, offset
+     */
+    public double calculateZOffset(AxisAlignedBB par1AxisAlignedBB, double par2)
+    {
+        double[] var4 = this.boxes;
+        int var5 = this.boxCount * 6;
+
+        for (int var6 = 0; var6 < var5; var6 += 6)
+        {
+            if (par1AxisAlignedBB.maxX > var4[var6] && par1AxisAlignedBB.minX < var4[var6 + 3] && par1AxisAlignedBB.maxY > var4[var6 + 1] && par1AxisAlignedBB.minY < var4[var6 + 4])
+            {
+                if (par2 > 0.0D && par1AxisAlignedBB.maxZ <= var4[var6 + 2])
+                {
+                    par2 = Math.min(par2, var4[var6 + 2] - par1AxisAlignedBB.maxZ);
+                }
+
+                if (par2 < 0.0D && par1AxisAlignedBB.minZ >= var4[var6 + 5])
+                {
+                    par2 = Math.max(par2, var4[var6 + 5] - par1AxisAlignedBB.minZ);
+                }
+            }
+        }
+
+        return par2;
+    }
+}
@@ -0,0 +1,111 @@
+package net.minecraft.src;
+
+import java.util.LinkedList;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+public class CompressorPool
+{
+    /** Maximum number of free inflaters and deflaters kept each */
+    private static final int MAX_FREE = 8;
+    private static final LinkedList freeInflaters = new LinkedList();
+    private static final LinkedList freeDeflaters = new LinkedList();
+
+    /**
+     * Returns an inflater for zlib data from the pool with the given input set. Args: data, offset, length
+     */
+    public static Inflater getInflater(byte[] par0ArrayOfByte, int par1, int par2)
+    {
+        Inflater var3 = null;
+
+        synchronized (freeInflaters)
+        {
+            if (!freeInflaters.isEmpty())
+            {
+                var3 = (Inflater)freeInflaters.removeFirst();
+            }
+        }
+
+        if (var3 == null)
+        {
+            var3 = new Inflater();
+        }
+
+        var3.setInput(par0ArrayOfByte, par1, par2);
+        return var3;
+    }
+
+    /**
+     * Resets the inflater and returns it to the pool, it must not be used afterwards
+     */
+    public static void releaseInflater(Inflater par0Inflater)
+    {
+        par0Inflater.reset();
+
+        synchronized (freeInflaters)
+        {
+            if (freeInflaters.size() < MAX_FREE)
+            {
+                freeInflaters.addFirst(par0Inflater);
+                return;
+            }
+        }
+
+        par0Inflater.end();
+    }
+
+    /**
+     * Returns a deflater with the default compression level for zlib data from the pool
+     */
+    public static Deflater getDeflater()
+    {
+        synchronized (freeDeflaters)
+        {
+            if (!freeDeflaters.isEmpty())
+            {
+                return (Deflater)freeDeflaters.removeFirst();
+            }
+        }
+
+        return new Deflater(-1);
+    }
+
+    /**
+     * Resets the deflater and returns it to the pool, it must not be used afterwards
+     */
+    public static void releaseDeflater(Deflater par0Deflater)
+    {
+        par0Deflater.reset();
+
+        synchronized (freeDeflaters)
+        {
+            if (freeDeflaters.size() < MAX_FREE)
+            {
+                freeDeflaters.addFirst(par0Deflater);
+                return;
+            }
+        }
+
+        par0Deflater.end();
+    }
+
+    /**
+     * Inflates exactly the given number of bytes into the array. Args: inflater, destination, offset, length
+     */
+    public static void inflateFully(Inflater par0Inflater, byte[] par1ArrayOfByte, int par2, int par3) throws DataFormatException
+    {
+        while (par3 > 0)
+        {
+            int var4 = par0Inflater.inflate(par1ArrayOfByte, par2, par3);
+
+            if (var4 == 0 && (par0Inflater.finished() || par0Inflater.needsInput() || par0Inflater.needsDictionary()))
+            {
+                throw new DataFormatException("Truncated compressed data");
+            }
+
+            par2 += var4;
+            par3 -= var4;
+        }
+    }
+}
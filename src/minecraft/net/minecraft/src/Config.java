@@ -51,7 +51,7 @@ public class Config
     public static final Boolean DEF_FOG_FANCY = Boolean.valueOf(true);
     public static final Float DEF_FOG_START = Float.valueOf(0.2F);
     public static final Boolean DEF_OPTIMIZE_RENDER_DISTANCE = Boolean.valueOf(false);
-    public static final Boolean DEF_OCCLUSION_ENABLED = Boolean.valueOf(false);
+    public static final Boolean DEF_OCCLUSION_ENABLED = Boolean.valueOf(true);
     public static final Integer DEF_MIPMAP_LEVEL = Integer.valueOf(0);
     public static final Integer DEF_MIPMAP_TYPE = Integer.valueOf(9984);
     public static final Float DEF_ALPHA_FUNC_LEVEL = Float.valueOf(0.1F);
@@ -244,6 +244,16 @@ public class Config
         return !isOcclusionEnabled() ? false : (gameSettings == null ? false : gameSettings.ofOcclusionFancy);
     }
 
+    public static boolean isVboAvailable()
+    {
+        return GLContext.getCapabilities().GL_ARB_vertex_buffer_object;
+    }
+
+    public static boolean isUseVbo()
+    {
+        return gameSettings != null && gameSettings.ofUseVbo && !isMultiTexture() && isVboAvailable();
+    }
+
     public static boolean isLoadChunksFar()
     {
         return gameSettings == null ? DEF_LOAD_CHUNKS_FAR.booleanValue() : gameSettings.ofLoadFar;
@@ -1157,6 +1167,11 @@ public class Config
         return availableProcessors;
     }
 
+    public static int getChunkBuilderThreads()
+    {
+        return limit(getAvailableProcessors() - 1, 1, 16);
+    }
+
     public static boolean isSingleProcessor()
     {
         return getAvailableProcessors() <= 1;
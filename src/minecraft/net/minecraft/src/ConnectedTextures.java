@@ -34,6 +34,15 @@ public class ConnectedTextures
     }
 
     public static Icon getConnectedTexture(IBlockAccess var0, Block var1, int var2, int var3, int var4, int var5, Icon var6)
+    {
+        return getConnectedTexture(var0, var1, var2, var3, var4, var5, var6, Tessellator.instance);
+    }
+
+    /**
+     * Returns the connected texture for the side, the tile properties only apply when the tessellator draws with the
+     * default texture. Chunk builder threads pass their own tessellator.
+     */
+    public static Icon getConnectedTexture(IBlockAccess var0, Block var1, int var2, int var3, int var4, int var5, Icon var6, Tessellator var7)
     {
         if (var0 == null)
         {
@@ -45,50 +54,50 @@ public class ConnectedTextures
         }
         else
         {
-            TextureStitched var7 = (TextureStitched)var6;
-            int var8 = var7.getIndexInMap();
-            int var9 = -1;
+            TextureStitched var8 = (TextureStitched)var6;
+            int var9 = var8.getIndexInMap();
+            int var10 = -1;
 
-            if (tileProperties != null && Tessellator.instance.defaultTexture && var8 >= 0 && var8 < tileProperties.length)
+            if (tileProperties != null && var7.defaultTexture && var9 >= 0 && var9 < tileProperties.length)
             {
-                ConnectedProperties[] var10 = tileProperties[var8];
+                ConnectedProperties[] var11 = tileProperties[var9];
 
-                if (var10 != null)
+                if (var11 != null)
                 {
-                    if (var9 < 0)
+                    if (var10 < 0)
                     {
-                        var9 = var0.getBlockMetadata(var2, var3, var4);
+                        var10 = var0.getBlockMetadata(var2, var3, var4);
                     }
 
-                    Icon var11 = getConnectedTexture(var10, var0, var1, var2, var3, var4, var5, var7, var9);
+                    Icon var12 = getConnectedTexture(var11, var0, var1, var2, var3, var4, var5, var8, var10);
 
-                    if (var11 != null)
+                    if (var12 != null)
                     {
-                        return var11;
+                        return var12;
                     }
                 }
             }
 
             if (blockProperties != null)
             {
-                int var14 = var1.blockID;
+                int var15 = var1.blockID;
 
-                if (var14 >= 0 && var14 < blockProperties.length)
+                if (var15 >= 0 && var15 < blockProperties.length)
                 {
-                    ConnectedProperties[] var13 = blockProperties[var14];
+                    ConnectedProperties[] var14 = blockProperties[var15];
 
-                    if (var13 != null)
+                    if (var14 != null)
                     {
-                        if (var9 < 0)
+                        if (var10 < 0)
                         {
-                            var9 = var0.getBlockMetadata(var2, var3, var4);
+                            var10 = var0.getBlockMetadata(var2, var3, var4);
                         }
 
-                        Icon var12 = getConnectedTexture(var13, var0, var1, var2, var3, var4, var5, var7, var9);
+                        Icon var13 = getConnectedTexture(var14, var0, var1, var2, var3, var4, var5, var8, var10);
 
-                        if (var12 != null)
+                        if (var13 != null)
                         {
-                            return var12;
+                            return var13;
                         }
                     }
                 }
@@ -99,6 +108,11 @@ public class ConnectedTextures
     }
 
     public static ConnectedProperties getConnectedProperties(IBlockAccess var0, Block var1, int var2, int var3, int var4, int var5, Icon var6)
+    {
+        return getConnectedProperties(var0, var1, var2, var3, var4, var5, var6, Tessellator.instance);
+    }
+
+    public static ConnectedProperties getConnectedProperties(IBlockAccess var0, Block var1, int var2, int var3, int var4, int var5, Icon var6, Tessellator var7)
     {
         if (var0 == null)
         {
@@ -110,50 +124,50 @@ public class ConnectedTextures
         }
         else
         {
-            TextureStitched var7 = (TextureStitched)var6;
-            int var8 = var7.getIndexInMap();
-            int var9 = -1;
+            TextureStitched var8 = (TextureStitched)var6;
+            int var9 = var8.getIndexInMap();
+            int var10 = -1;
 
-            if (tileProperties != null && Tessellator.instance.defaultTexture && var8 >= 0 && var8 < tileProperties.length)
+            if (tileProperties != null && var7.defaultTexture && var9 >= 0 && var9 < tileProperties.length)
             {
-                ConnectedProperties[] var10 = tileProperties[var8];
+                ConnectedProperties[] var11 = tileProperties[var9];
 
-                if (var10 != null)
+                if (var11 != null)
                 {
-                    if (var9 < 0)
+                    if (var10 < 0)
                     {
-                        var9 = var0.getBlockMetadata(var2, var3, var4);
+                        var10 = var0.getBlockMetadata(var2, var3, var4);
                     }
 
-                    ConnectedProperties var11 = getConnectedProperties(var10, var0, var1, var2, var3, var4, var5, var7, var9);
+                    ConnectedProperties var12 = getConnectedProperties(var11, var0, var1, var2, var3, var4, var5, var8, var10);
 
-                    if (var11 != null)
+                    if (var12 != null)
                     {
-                        return var11;
+                        return var12;
                     }
                 }
             }
 
             if (blockProperties != null)
             {
-                int var14 = var1.blockID;
+                int var15 = var1.blockID;
 
-                if (var14 >= 0 && var14 < blockProperties.length)
+                if (var15 >= 0 && var15 < blockProperties.length)
                 {
-                    ConnectedProperties[] var13 = blockProperties[var14];
+                    ConnectedProperties[] var14 = blockProperties[var15];
 
-                    if (var13 != null)
+                    if (var14 != null)
                     {
-                        if (var9 < 0)
+                        if (var10 < 0)
                         {
-                            var9 = var0.getBlockMetadata(var2, var3, var4);
+                            var10 = var0.getBlockMetadata(var2, var3, var4);
                         }
 
-                        ConnectedProperties var12 = getConnectedProperties(var13, var0, var1, var2, var3, var4, var5, var7, var9);
+                        ConnectedProperties var13 = getConnectedProperties(var14, var0, var1, var2, var3, var4, var5, var8, var10);
 
-                        if (var12 != null)
+                        if (var13 != null)
                         {
-                            return var12;
+                            return var13;
                         }
                     }
                 }
@@ -95,6 +95,7 @@ public class DedicatedServer extends MinecraftServer implements IServer
         try
         {
             this.networkThread = new DedicatedServerListenThread(this, var3, this.getServerPort());
+            this.networkThread.batchSends = this.settings.getBooleanProperty("network-batch-sends", true);
         }
         catch (IOException var16)
         {
@@ -32,6 +32,11 @@ public class DedicatedServerListenThread extends NetworkListenThread
         super.networkTick();
     }
 
+    public void flushSendQueues()
+    {
+        this.theServerListenThread.flushSendQueues();
+    }
+
     public DedicatedServer getDedicatedServer()
     {
         return (DedicatedServer)super.getServer();
@@ -110,6 +110,11 @@ public class EmptyChunk extends Chunk
      */
     public void removeEntityAtIndex(Entity par1Entity, int par2) {}
 
+    /**
+     * Moves the entity to the cell of its current position, called after the entity moved within this chunk
+     */
+    public void updateEntityCell(Entity par1Entity) {}
+
     /**
      * Returns whether is not a block above this one blocking sight to the sky (done via checking against the heightmap)
      */
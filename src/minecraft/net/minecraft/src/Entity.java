@@ -171,6 +171,9 @@ public abstract class Entity
     public int chunkCoordX;
     public int chunkCoordY;
     public int chunkCoordZ;
+
+    /** Index of the entity cell of the chunk holding this entity, -1 while not in a cell */
+    public int chunkCell = -1;
     public int serverPosX;
     public int serverPosY;
     public int serverPosZ;
@@ -626,7 +629,7 @@ public abstract class Entity
             {
                 double var21;
 
-                for (var21 = 0.05D; par1 != 0.0D && this.worldObj.getCollidingBoundingBoxes(this, this.boundingBox.getOffsetBoundingBox(par1, -1.0D, 0.0D)).isEmpty(); var13 = par1)
+                for (var21 = 0.05D; par1 != 0.0D && this.worldObj.getCollidingBoxes(this, this.boundingBox.getOffsetBoundingBox(par1, -1.0D, 0.0D)).isEmpty(); var13 = par1)
                 {
                     if (par1 < var21 && par1 >= -var21)
                     {
@@ -642,7 +645,7 @@ public abstract class Entity
                     }
                 }
 
-                for (; par5 != 0.0D && this.worldObj.getCollidingBoundingBoxes(this, this.boundingBox.getOffsetBoundingBox(0.0D, -1.0D, par5)).isEmpty(); var17 = par5)
+                for (; par5 != 0.0D && this.worldObj.getCollidingBoxes(this, this.boundingBox.getOffsetBoundingBox(0.0D, -1.0D, par5)).isEmpty(); var17 = par5)
                 {
                     if (par5 < var21 && par5 >= -var21)
                     {
@@ -658,7 +661,7 @@ public abstract class Entity
                     }
                 }
 
-                while (par1 != 0.0D && par5 != 0.0D && this.worldObj.getCollidingBoundingBoxes(this, this.boundingBox.getOffsetBoundingBox(par1, -1.0D, par5)).isEmpty())
+                while (par1 != 0.0D && par5 != 0.0D && this.worldObj.getCollidingBoxes(this, this.boundingBox.getOffsetBoundingBox(par1, -1.0D, par5)).isEmpty())
                 {
                     if (par1 < var21 && par1 >= -var21)
                     {
@@ -691,13 +694,8 @@ public abstract class Entity
                 }
             }
 
-            List var35 = this.worldObj.getCollidingBoundingBoxes(this, this.boundingBox.addCoord(par1, par3, par5));
-
-            for (int var22 = 0; var22 < var35.size(); ++var22)
-            {
-                par3 = ((AxisAlignedBB)var35.get(var22)).calculateYOffset(this.boundingBox, par3);
-            }
-
+            CollisionBoxBuffer var35 = this.worldObj.getCollidingBoxes(this, this.boundingBox.addCoord(par1, par3, par5));
+            par3 = var35.calculateYOffset(this.boundingBox, par3);
             this.boundingBox.offset(0.0D, par3, 0.0D);
 
             if (!this.field_70135_K && var15 != par3)
@@ -708,13 +706,7 @@ public abstract class Entity
             }
 
             boolean var34 = this.onGround || var15 != par3 && var15 < 0.0D;
-            int var23;
-
-            for (var23 = 0; var23 < var35.size(); ++var23)
-            {
-                par1 = ((AxisAlignedBB)var35.get(var23)).calculateXOffset(this.boundingBox, par1);
-            }
-
+            par1 = var35.calculateXOffset(this.boundingBox, par1);
             this.boundingBox.offset(par1, 0.0D, 0.0D);
 
             if (!this.field_70135_K && var13 != par1)
@@ -724,11 +716,7 @@ public abstract class Entity
                 par1 = 0.0D;
             }
 
-            for (var23 = 0; var23 < var35.size(); ++var23)
-            {
-                par5 = ((AxisAlignedBB)var35.get(var23)).calculateZOffset(this.boundingBox, par5);
-            }
-
+            par5 = var35.calculateZOffset(this.boundingBox, par5);
             this.boundingBox.offset(0.0D, 0.0D, par5);
 
             if (!this.field_70135_K && var17 != par5)
@@ -753,13 +741,8 @@ public abstract class Entity
                 par5 = var17;
                 AxisAlignedBB var29 = this.boundingBox.copy();
                 this.boundingBox.setBB(var19);
-                var35 = this.worldObj.getCollidingBoundingBoxes(this, this.boundingBox.addCoord(var13, par3, var17));
-
-                for (var30 = 0; var30 < var35.size(); ++var30)
-                {
-                    par3 = ((AxisAlignedBB)var35.get(var30)).calculateYOffset(this.boundingBox, par3);
-                }
-
+                var35 = this.worldObj.getCollidingBoxes(this, this.boundingBox.addCoord(var13, par3, var17));
+                par3 = var35.calculateYOffset(this.boundingBox, par3);
                 this.boundingBox.offset(0.0D, par3, 0.0D);
 
                 if (!this.field_70135_K && var15 != par3)
@@ -769,11 +752,7 @@ public abstract class Entity
                     par1 = 0.0D;
                 }
 
-                for (var30 = 0; var30 < var35.size(); ++var30)
-                {
-                    par1 = ((AxisAlignedBB)var35.get(var30)).calculateXOffset(this.boundingBox, par1);
-                }
-
+                par1 = var35.calculateXOffset(this.boundingBox, par1);
                 this.boundingBox.offset(par1, 0.0D, 0.0D);
 
                 if (!this.field_70135_K && var13 != par1)
@@ -783,11 +762,7 @@ public abstract class Entity
                     par1 = 0.0D;
                 }
 
-                for (var30 = 0; var30 < var35.size(); ++var30)
-                {
-                    par5 = ((AxisAlignedBB)var35.get(var30)).calculateZOffset(this.boundingBox, par5);
-                }
-
+                par5 = var35.calculateZOffset(this.boundingBox, par5);
                 this.boundingBox.offset(0.0D, 0.0D, par5);
 
                 if (!this.field_70135_K && var17 != par5)
@@ -806,12 +781,7 @@ public abstract class Entity
                 else
                 {
                     par3 = (double)(-this.stepHeight);
-
-                    for (var30 = 0; var30 < var35.size(); ++var30)
-                    {
-                        par3 = ((AxisAlignedBB)var35.get(var30)).calculateYOffset(this.boundingBox, par3);
-                    }
-
+                    par3 = var35.calculateYOffset(this.boundingBox, par3);
                     this.boundingBox.offset(0.0D, par3, 0.0D);
                 }
 
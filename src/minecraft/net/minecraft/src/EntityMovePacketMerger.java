@@ -0,0 +1,125 @@
+package net.minecraft.src;
+
+import java.util.HashMap;
+import java.util.List;
+
+public class EntityMovePacketMerger
+{
+    /**
+     * Merges the movement packets (Packet30Entity and its subclasses, Packet34EntityTeleport) queued for the same
+     * entity: the earlier packet is set to null in the list and the later one is replaced by a packet carrying both
+     * changes. Relative moves are summed as long as the sum fits the byte deltas, a teleport absorbs the moves around
+     * it. Destroying entities and respawning the player end the merging for the packets before them. Returns the
+     * number of packets removed.
+     */
+    public static int mergeMovePackets(List par0List)
+    {
+        HashMap var1 = new HashMap();
+        int var2 = 0;
+
+        for (int var3 = 0; var3 < par0List.size(); ++var3)
+        {
+            Packet var4 = (Packet)par0List.get(var3);
+
+            if (var4 instanceof Packet29DestroyEntity || var4 instanceof Packet9Respawn)
+            {
+                var1.clear();
+            }
+            else
+            {
+                int var5 = getMoveEntityId(var4);
+
+                if (var5 != Integer.MIN_VALUE)
+                {
+                    Integer var6 = Integer.valueOf(var5);
+                    Integer var7 = (Integer)var1.get(var6);
+
+                    if (var7 != null)
+                    {
+                        Packet var8 = mergePackets((Packet)par0List.get(var7.intValue()), var4);
+
+                        if (var8 != null)
+                        {
+                            par0List.set(var7.intValue(), (Object)null);
+                            par0List.set(var3, var8);
+                            ++var2;
+                        }
+                    }
+
+                    var1.put(var6, Integer.valueOf(var3));
+                }
+            }
+        }
+
+        return var2;
+    }
+
+    /**
+     * Returns the entity id of a movement packet, Integer.MIN_VALUE for other packets
+     */
+    private static int getMoveEntityId(Packet par0Packet)
+    {
+        return par0Packet instanceof Packet30Entity ? ((Packet30Entity)par0Packet).entityId : (par0Packet instanceof Packet34EntityTeleport ? ((Packet34EntityTeleport)par0Packet).entityId : Integer.MIN_VALUE);
+    }
+
+    /**
+     * Returns a packet with the effect of sending both packets in order, or null if they can not be merged
+     */
+    private static Packet mergePackets(Packet par0Packet, Packet par1Packet)
+    {
+        if (par1Packet instanceof Packet34EntityTeleport)
+        {
+            return par1Packet;
+        }
+        else
+        {
+            Packet30Entity var2 = (Packet30Entity)par1Packet;
+
+            if (par0Packet instanceof Packet34EntityTeleport)
+            {
+                Packet34EntityTeleport var10 = (Packet34EntityTeleport)par0Packet;
+                return new Packet34EntityTeleport(var10.entityId, var10.xPosition + var2.xPosition, var10.yPosition + var2.yPosition, var10.zPosition + var2.zPosition, var2.rotating ? var2.yaw : var10.yaw, var2.rotating ? var2.pitch : var10.pitch);
+            }
+            else
+            {
+                Packet30Entity var3 = (Packet30Entity)par0Packet;
+                int var4 = var3.xPosition + var2.xPosition;
+                int var5 = var3.yPosition + var2.yPosition;
+                int var6 = var3.zPosition + var2.zPosition;
+
+                if (var4 >= -128 && var4 <= 127 && var5 >= -128 && var5 <= 127 && var6 >= -128 && var6 <= 127)
+                {
+                    boolean var7 = isRelativeMove(var3) || isRelativeMove(var2);
+                    byte var8 = var2.rotating ? var2.yaw : var3.yaw;
+                    byte var9 = var2.rotating ? var2.pitch : var3.pitch;
+
+                    if (var7 && (var3.rotating || var2.rotating))
+                    {
+                        return new Packet33RelEntityMoveLook(var2.entityId, (byte)var4, (byte)var5, (byte)var6, var8, var9);
+                    }
+                    else if (var7)
+                    {
+                        return new Packet31RelEntityMove(var2.entityId, (byte)var4, (byte)var5, (byte)var6);
+                    }
+                    else if (var3.rotating || var2.rotating)
+                    {
+                        return new Packet32EntityLook(var2.entityId, var8, var9);
+                    }
+                    else
+                    {
+                        return var2;
+                    }
+                }
+                else
+                {
+                    return null;
+                }
+            }
+        }
+    }
+
+    private static boolean isRelativeMove(Packet30Entity par0Packet30Entity)
+    {
+        return par0Packet30Entity instanceof Packet31RelEntityMove || par0Packet30Entity instanceof Packet33RelEntityMoveLook;
+    }
+}
@@ -76,6 +76,24 @@ public class EntityPlayerMP extends EntityPlayer implements ICrafting
      */
     public boolean playerConqueredTheEnd = false;
 
+    /** Maximum number of ticks picked chunks wait for their compressed data */
+    private static final int MAX_PENDING_CHUNK_TICKS = 40;
+
+    /** Number of load queue entries looked at per chunk to send, the queue is already ordered nearest first */
+    private static final int CHUNK_SEND_LOOKAHEAD = 4;
+
+    /** Chunks picked from the load queue to be sent next */
+    private final List pendingChunkSends = new ArrayList();
+
+    /** The compressed data of the picked chunks */
+    private final List pendingChunkSegments = new ArrayList();
+
+    /** Number of ticks the picked chunks have been waiting */
+    private int pendingChunkTicks = 0;
+
+    /** Bandwidth and round trip estimate of the connection deciding how many chunks are sent */
+    private final ChunkSendRate chunkSendRate = new ChunkSendRate();
+
     public EntityPlayerMP(MinecraftServer par1MinecraftServer, World par2World, String par3Str, ItemInWorldManager par4ItemInWorldManager)
     {
         super(par2World);
@@ -181,46 +199,259 @@ public class EntityPlayerMP extends EntityPlayer implements ICrafting
             this.playerNetServerHandler.sendPacketToPlayer(new Packet29DestroyEntity(var2));
         }
 
+        if (!ChunkPacketCache.canUseCache(this))
+        {
+            this.sendChunksInline();
+        }
+        else
+        {
+            int var6 = this.getChunkSendCount();
+
+            if (this.pendingChunkSends.isEmpty() && !this.loadedChunks.isEmpty() && var6 > 0)
+            {
+                this.pickChunksToSend(var6);
+            }
+
+            if (!this.pendingChunkSends.isEmpty())
+            {
+                this.sendPendingChunks();
+            }
+        }
+    }
+
+    /**
+     * Sends the next chunks of the load queue, compressing them on the server thread
+     */
+    private void sendChunksInline()
+    {
         if (!this.loadedChunks.isEmpty())
         {
-            ArrayList var6 = new ArrayList();
-            Iterator var7 = this.loadedChunks.iterator();
-            ArrayList var8 = new ArrayList();
+            ArrayList var1 = new ArrayList();
+            Iterator var2 = this.getChunksToSend(5).iterator();
+            ArrayList var3 = new ArrayList();
 
-            while (var7.hasNext() && var6.size() < 5)
+            while (var2.hasNext())
             {
-                ChunkCoordIntPair var9 = (ChunkCoordIntPair)var7.next();
-                var7.remove();
+                ChunkCoordIntPair var4 = (ChunkCoordIntPair)var2.next();
+                this.loadedChunks.remove(var4);
+                var1.add(this.worldObj.getChunkFromChunkCoords(var4.chunkXPos, var4.chunkZPos));
+                var3.addAll(((WorldServer)this.worldObj).getAllTileEntityInBox(var4.chunkXPos * 16, 0, var4.chunkZPos * 16, var4.chunkXPos * 16 + 16, 256, var4.chunkZPos * 16 + 16));
+            }
 
-                if (var9 != null && this.worldObj.blockExists(var9.chunkXPos << 4, 0, var9.chunkZPos << 4))
+            if (!var1.isEmpty())
+            {
+                this.playerNetServerHandler.sendPacketToPlayer(new Packet56MapChunks(var1));
+                this.sendChunkContents(var1, var3);
+            }
+        }
+    }
+
+    /**
+     * Returns up to the given number of chunks from the head of the load queue which can be sent now, the chunks
+     * closest to the player and in the direction the player is looking first. Only the first CHUNK_SEND_LOOKAHEAD
+     * entries per chunk are looked at. Chunks of the queue which do not exist are removed.
+     */
+    private List getChunksToSend(int par1)
+    {
+        ChunkCoordIntPair[] var2 = new ChunkCoordIntPair[par1];
+        double[] var3 = new double[par1];
+        int var4 = 0;
+        float var5 = this.rotationYaw * (float)Math.PI / 180.0F;
+        double var6 = (double)(-MathHelper.sin(var5));
+        double var8 = (double)MathHelper.cos(var5);
+        Iterator var10 = this.loadedChunks.iterator();
+        int var19 = par1 * CHUNK_SEND_LOOKAHEAD;
+
+        while (var10.hasNext() && var19-- > 0)
+        {
+            ChunkCoordIntPair var11 = (ChunkCoordIntPair)var10.next();
+
+            if (var11 != null && ((WorldServer)this.worldObj).theChunkProviderServer.isChunkLoading(var11.chunkXPos, var11.chunkZPos))
+            {
+                continue;
+            }
+
+            if (var11 == null || !this.worldObj.blockExists(var11.chunkXPos << 4, 0, var11.chunkZPos << 4))
+            {
+                var10.remove();
+                continue;
+            }
+
+            if (this.worldObj.getChunkFromChunkCoords(var11.chunkXPos, var11.chunkZPos).isLightPending)
+            {
+                continue;
+            }
+
+            double var12 = (double)(var11.chunkXPos * 16 + 8) - this.posX;
+            double var14 = (double)(var11.chunkZPos * 16 + 8) - this.posZ;
+            double var16 = Math.sqrt(var12 * var12 + var14 * var14);
+
+            if (var16 > 24.0D)
+            {
+                var16 *= 1.5D - 0.5D * (var12 * var6 + var14 * var8) / var16;
+            }
+
+            if (var4 < par1 || var16 < var3[par1 - 1])
+            {
+                int var18 = var4 < par1 ? var4++ : par1 - 1;
+
+                while (var18 > 0 && var3[var18 - 1] > var16)
                 {
-                    var6.add(this.worldObj.getChunkFromChunkCoords(var9.chunkXPos, var9.chunkZPos));
-                    var8.addAll(((WorldServer)this.worldObj).getAllTileEntityInBox(var9.chunkXPos * 16, 0, var9.chunkZPos * 16, var9.chunkXPos * 16 + 16, 256, var9.chunkZPos * 16 + 16));
+                    var2[var18] = var2[var18 - 1];
+                    var3[var18] = var3[var18 - 1];
+                    --var18;
                 }
+
+                var2[var18] = var11;
+                var3[var18] = var16;
             }
+        }
 
-            if (!var6.isEmpty())
+        return Arrays.asList(var2).subList(0, var4);
+    }
+
+    /**
+     * Updates the estimate of the connection and returns how many chunks may be sent now, 0 while the data already
+     * queued covers a round trip of the link
+     */
+    private int getChunkSendCount()
+    {
+        INetworkManager var1 = this.playerNetServerHandler.netManager;
+
+        if (var1 instanceof NioConnection)
+        {
+            NioConnection var2 = (NioConnection)var1;
+            this.chunkSendRate.update(var2.getUnsentBytes(), var2.getBytesWritten(), this.ping, !this.loadedChunks.isEmpty());
+            return this.chunkSendRate.getChunksToSend(var2.getQueuedBytes());
+        }
+        else
+        {
+            return 5;
+        }
+    }
+
+    /**
+     * Takes the next chunks of the load queue and requests their compressed data. The chunks stay in the load queue
+     * until they are sent, so block changes keep being left to the chunk packet until then. Args: chunk count
+     */
+    private void pickChunksToSend(int par1)
+    {
+        ChunkPacketCache var2 = this.getServerForPlayer().getPlayerManager().getChunkPacketCache();
+        Iterator var3 = this.getChunksToSend(par1).iterator();
+
+        while (var3.hasNext())
+        {
+            ChunkCoordIntPair var4 = (ChunkCoordIntPair)var3.next();
+            Chunk var5 = this.worldObj.getChunkFromChunkCoords(var4.chunkXPos, var4.chunkZPos);
+            this.pendingChunkSends.add(var5);
+            this.pendingChunkSegments.add(var2.getSegment(var5));
+        }
+
+        this.pendingChunkTicks = 0;
+    }
+
+    /**
+     * Sends the picked chunks once their compressed data is ready and still matches the chunks. Chunks changed in the
+     * meantime are compressed again, after MAX_PENDING_CHUNK_TICKS the remaining ones are compressed on the server
+     * thread.
+     */
+    private void sendPendingChunks()
+    {
+        if (((Chunk)this.pendingChunkSends.get(0)).worldObj != this.worldObj)
+        {
+            this.pendingChunkSends.clear();
+            this.pendingChunkSegments.clear();
+        }
+        else
+        {
+            ChunkPacketCache var1 = this.getServerForPlayer().getPlayerManager().getChunkPacketCache();
+            boolean var2 = ++this.pendingChunkTicks > MAX_PENDING_CHUNK_TICKS;
+            boolean var3 = true;
+            int var4;
+            Chunk var5;
+
+            for (var4 = 0; var4 < this.pendingChunkSends.size(); ++var4)
+            {
+                var5 = (Chunk)this.pendingChunkSends.get(var4);
+                ChunkPacketSegment var6 = (ChunkPacketSegment)this.pendingChunkSegments.get(var4);
+
+                if (!var6.isFinished())
+                {
+                    var3 = false;
+                }
+                else if (!var6.isValidFor(var5))
+                {
+                    var3 = false;
+
+                    if (!var2)
+                    {
+                        this.pendingChunkSegments.set(var4, var1.getSegment(var5));
+                    }
+                }
+            }
+
+            if (var3 || var2)
             {
-                this.playerNetServerHandler.sendPacketToPlayer(new Packet56MapChunks(var6));
-                Iterator var11 = var8.iterator();
+                ArrayList var11 = new ArrayList();
+                ArrayList var7 = new ArrayList();
+                ArrayList var8 = new ArrayList();
 
-                while (var11.hasNext())
+                for (var4 = 0; var4 < this.pendingChunkSends.size(); ++var4)
                 {
-                    TileEntity var5 = (TileEntity)var11.next();
-                    this.sendTileEntityToPlayer(var5);
+                    var5 = (Chunk)this.pendingChunkSends.get(var4);
+
+                    if (this.loadedChunks.remove(var5.getChunkCoordIntPair()) && this.worldObj.blockExists(var5.xPosition << 4, 0, var5.zPosition << 4) && this.worldObj.getChunkFromChunkCoords(var5.xPosition, var5.zPosition) == var5)
+                    {
+                        ChunkPacketSegment var9 = (ChunkPacketSegment)this.pendingChunkSegments.get(var4);
+                        var11.add(var5);
+                        var7.add(var9.isValidFor(var5) ? var9 : var1.getFinishedSegment(var5));
+                        var8.addAll(((WorldServer)this.worldObj).getAllTileEntityInBox(var5.xPosition * 16, 0, var5.zPosition * 16, var5.xPosition * 16 + 16, 256, var5.zPosition * 16 + 16));
+                    }
                 }
 
-                var11 = var6.iterator();
+                this.pendingChunkSends.clear();
+                this.pendingChunkSegments.clear();
 
-                while (var11.hasNext())
+                if (!var11.isEmpty())
                 {
-                    Chunk var10 = (Chunk)var11.next();
-                    this.getServerForPlayer().getEntityTracker().func_85172_a(this, var10);
+                    ChunkPacketSegment[] var10 = (ChunkPacketSegment[])var7.toArray(new ChunkPacketSegment[var7.size()]);
+                    int var12 = 0;
+
+                    for (var4 = 0; var4 < var10.length; ++var4)
+                    {
+                        var12 += var10[var4].getDeflatedLength();
+                    }
+
+                    this.chunkSendRate.onChunksSent(var12, var10.length);
+                    this.playerNetServerHandler.sendPacketToPlayer(new Packet56MapChunks(var10, !this.worldObj.provider.hasNoSky));
+                    this.sendChunkContents(var11, var8);
                 }
             }
         }
     }
 
+    /**
+     * Sends the tile entities and tracked entities of chunks just sent to the player. Args: chunks, tile entities
+     */
+    private void sendChunkContents(List par1List, List par2List)
+    {
+        Iterator var3 = par2List.iterator();
+
+        while (var3.hasNext())
+        {
+            TileEntity var4 = (TileEntity)var3.next();
+            this.sendTileEntityToPlayer(var4);
+        }
+
+        var3 = par1List.iterator();
+
+        while (var3.hasNext())
+        {
+            Chunk var5 = (Chunk)var3.next();
+            this.getServerForPlayer().getEntityTracker().func_85172_a(this, var5);
+        }
+    }
+
     public void setEntityHealth(int par1)
     {
         super.setEntityHealth(par1);
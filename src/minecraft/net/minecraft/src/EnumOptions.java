@@ -96,6 +96,7 @@ public enum EnumOptions
     HELD_ITEM_TOOLTIPS("Held Item Tooltips", false, false),
     DROPPED_ITEMS("Dropped Items", false, false),
     LAZY_CHUNK_LOADING("Lazy Chunk Loading", false, false),
+    USE_VBO("Use VBOs", false, false),
     CUSTOM_SKY("Custom Sky", false, false);
     private final boolean enumFloat;
     private final boolean enumBoolean;
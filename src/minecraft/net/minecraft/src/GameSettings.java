@@ -34,7 +34,7 @@ public class GameSettings
     public boolean anaglyph = false;
 
     /** Advanced OpenGL */
-    public boolean advancedOpengl = false;
+    public boolean advancedOpengl = Config.DEF_OCCLUSION_ENABLED.booleanValue();
     public int limitFramerate = 1;
     public boolean fancyGraphics = true;
 
@@ -55,6 +55,7 @@ public class GameSettings
     public boolean ofSmoothFps = false;
     public boolean ofSmoothWorld = Config.isSingleProcessor();
     public boolean ofLazyChunkLoading = Config.isSingleProcessor();
+    public boolean ofUseVbo = false;
     public float ofAoLevel = 1.0F;
     public int ofAaLevel = 0;
     public int ofAfLevel = 1;
@@ -1039,6 +1040,12 @@ public class GameSettings
             this.mc.renderGlobal.loadRenderers();
         }
 
+        if (par1EnumOptions == EnumOptions.USE_VBO)
+        {
+            this.ofUseVbo = !this.ofUseVbo;
+            this.mc.renderGlobal.loadRenderers();
+        }
+
         if (par1EnumOptions == EnumOptions.FULLSCREEN_MODE)
         {
             List var3 = Arrays.asList(Config.getFullscreenModes());
@@ -1611,6 +1618,10 @@ public class GameSettings
         {
             return this.ofLazyChunkLoading ? var4 + "ON" : var4 + "OFF";
         }
+        else if (par1EnumOptions == EnumOptions.USE_VBO)
+        {
+            return !Config.isVboAvailable() ? var4 + "N/A" : (this.ofUseVbo ? var4 + "ON" : var4 + "OFF");
+        }
         else if (par1EnumOptions == EnumOptions.FULLSCREEN_MODE)
         {
             return var4 + this.ofFullscreenMode;
@@ -2287,6 +2298,11 @@ public class GameSettings
                         this.ofLazyChunkLoading = Boolean.valueOf(var12[1]).booleanValue();
                     }
 
+                    if (var12[0].equals("ofUseVbo") && var12.length >= 2)
+                    {
+                        this.ofUseVbo = Boolean.valueOf(var12[1]).booleanValue();
+                    }
+
                     if (var12[0].equals("ofFullscreenMode") && var12.length >= 2)
                     {
                         this.ofFullscreenMode = var12[1];
@@ -2457,6 +2473,7 @@ public class GameSettings
             var5.println("ofShowCapes:" + this.ofShowCapes);
             var5.println("ofNaturalTextures:" + this.ofNaturalTextures);
             var5.println("ofLazyChunkLoading:" + this.ofLazyChunkLoading);
+            var5.println("ofUseVbo:" + this.ofUseVbo);
             var5.println("ofFullscreenMode:" + this.ofFullscreenMode);
             var5.close();
         }
@@ -2486,7 +2503,7 @@ public class GameSettings
         this.ofRenderDistanceFine = renderDistanceToFine(this.renderDistance);
         this.viewBobbing = true;
         this.anaglyph = false;
-        this.advancedOpengl = false;
+        this.advancedOpengl = Config.DEF_OCCLUSION_ENABLED.booleanValue();
         this.limitFramerate = 0;
         this.enableVsync = false;
         this.updateVSync();
@@ -2509,6 +2526,7 @@ public class GameSettings
         this.ofSmoothFps = false;
         this.ofSmoothWorld = Config.isSingleProcessor();
         this.ofLazyChunkLoading = Config.isSingleProcessor();
+        this.ofUseVbo = false;
         this.ofAoLevel = 1.0F;
         this.ofAaLevel = 0;
         this.ofAfLevel = 1;
@@ -1,6 +0,0 @@
-package net.minecraft.src;
-
-public interface IWrUpdateListener
-{
-    void updating(IWrUpdateControl var1);
-}
@@ -99,6 +99,14 @@ public class IntegratedServerListenThread extends NetworkListenThread
         super.networkTick();
     }
 
+    public void flushSendQueues()
+    {
+        if (this.myServerListenThread != null)
+        {
+            this.myServerListenThread.flushSendQueues();
+        }
+    }
+
     /**
      * Gets MinecraftServer instance.
      */
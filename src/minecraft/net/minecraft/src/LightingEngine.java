@@ -0,0 +1,718 @@
+package net.minecraft.src;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+
+public class LightingEngine
+{
+    /** Offsets of the coordinates in a packed position */
+    private static final int X_SHIFT = 34;
+    private static final int Z_SHIFT = 8;
+    private static final long COORD_MASK = 67108863L;
+    private static final int COORD_OFFSET = 33554432;
+    private static final int LEVEL_SHIFT = 60;
+    private static final long POS_MASK = 1152921504606846975L;
+
+    private final World worldObj;
+
+    /** Positions queued for a sky light and a block light check since the last flush */
+    private long[] queuedSkyChecks = new long[256];
+    private int queuedSkyCount = 0;
+    private long[] queuedBlockChecks = new long[256];
+    private int queuedBlockCount = 0;
+
+    /** Set while the queued checks are processed, checks queued meanwhile wait for the next flush */
+    private boolean isFlushing = false;
+
+    /**
+     * Sections whose light the queued checks can change: the sections of the checks and their neighbours, as light
+     * spreads at most 15 blocks. The keys are also listed to remove them again after the flush.
+     */
+    private final LongHashMap queuedSections = new LongHashMap();
+    private long[] queuedSectionKeys = new long[64];
+    private int queuedSectionCount = 0;
+
+    /** The section of the last queued check, checks are mostly queued several times in the same section */
+    private long lastQueuedSection = -1L;
+
+    /** Positions to darken with the level they had, and positions whose light spreads to their neighbours */
+    private long[] decreaseQueue = new long[1024];
+    private long[] increaseQueue = new long[1024];
+
+    /** Positions darkened by the decrease pass which have to be computed again */
+    private long[] relightQueue = new long[1024];
+
+    /**
+     * The loaded chunks of the 3 by 3 chunks around the window center, filled as they are looked up. The checks of a
+     * flush spread at most 15 blocks, so they mostly stay in the window of the first chunk looked up.
+     */
+    private final Chunk[] chunkWindow = new Chunk[9];
+    private int chunkWindowX;
+    private int chunkWindowZ;
+    private boolean isChunkWindowSet = false;
+
+    /** The chunk last written to, only marked as modified once per run of writes */
+    private Chunk lastModifiedChunk;
+
+    /** Bounds of the changed light values of each section, to mark for a render update once per flush */
+    private final HashMap changedSections = new HashMap();
+
+    /** Number of times the light of a chunk is computed again when it changed meanwhile before falling back */
+    private static final int MAX_CHUNK_LIGHTING_ATTEMPTS = 3;
+
+    /** Chunks whose light is computed by the chunk lighting threads */
+    private final ArrayList chunkLightingTasks = new ArrayList();
+
+    /** Number of chunks whose computed light was published, computed again, or computed on the main thread at last */
+    private int chunkLightingPublished = 0;
+    private int chunkLightingRetries = 0;
+    private int chunkLightingFallbacks = 0;
+
+    public LightingEngine(World par1World)
+    {
+        this.worldObj = par1World;
+    }
+
+    /**
+     * Queues a check of the light at the position, processed together with the other checks on the next flush
+     */
+    public void queueLightCheck(EnumSkyBlock par1EnumSkyBlock, int par2, int par3, int par4)
+    {
+        if (par3 >= 0 && par3 < 256)
+        {
+            long var5 = packPos(par2, par3, par4);
+
+            if (par1EnumSkyBlock == EnumSkyBlock.Sky)
+            {
+                if (!this.worldObj.provider.hasNoSky)
+                {
+                    if (this.queuedSkyCount == this.queuedSkyChecks.length)
+                    {
+                        this.queuedSkyChecks = Arrays.copyOf(this.queuedSkyChecks, this.queuedSkyCount * 2);
+                    }
+
+                    this.queuedSkyChecks[this.queuedSkyCount++] = var5;
+                    this.addQueuedSection(par2 >> 4, par3 >> 4, par4 >> 4);
+                }
+            }
+            else
+            {
+                if (this.queuedBlockCount == this.queuedBlockChecks.length)
+                {
+                    this.queuedBlockChecks = Arrays.copyOf(this.queuedBlockChecks, this.queuedBlockCount * 2);
+                }
+
+                this.queuedBlockChecks[this.queuedBlockCount++] = var5;
+                this.addQueuedSection(par2 >> 4, par3 >> 4, par4 >> 4);
+            }
+        }
+    }
+
+    /**
+     * Adds the section and its neighbours to the sections whose light the queued checks can change
+     */
+    private void addQueuedSection(int par1, int par2, int par3)
+    {
+        long var4 = packPos(par1, par2, par3);
+
+        if (var4 != this.lastQueuedSection)
+        {
+            this.lastQueuedSection = var4;
+
+            for (int var6 = -1; var6 <= 1; ++var6)
+            {
+                for (int var7 = -1; var7 <= 1; ++var7)
+                {
+                    for (int var8 = -1; var8 <= 1; ++var8)
+                    {
+                        long var9 = packPos(par1 + var6, par2 + var7, par3 + var8);
+
+                        if (!this.queuedSections.containsItem(var9))
+                        {
+                            this.queuedSections.add(var9, Boolean.TRUE);
+                            this.queuedSectionKeys = push(this.queuedSectionKeys, this.queuedSectionCount++, var9);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Processes the queued checks before a light value at the position is read if they can change it. Checks further
+     * away stay queued so the checks of a tick are processed together at its end.
+     */
+    public void flushAt(int par1, int par2, int par3)
+    {
+        if (this.queuedSectionCount > 0 && this.queuedSections.containsItem(packPos(par1 >> 4, par2 >> 4, par3 >> 4)))
+        {
+            this.flush();
+        }
+    }
+
+    public boolean hasQueuedChecks()
+    {
+        return this.queuedSkyCount > 0 || this.queuedBlockCount > 0;
+    }
+
+    /**
+     * Processes all queued light checks, called before light values are read and at the end of the tick
+     */
+    public void flush()
+    {
+        if (!this.isFlushing && this.hasQueuedChecks())
+        {
+            this.isFlushing = true;
+            this.worldObj.theProfiler.startSection("lighting");
+
+            try
+            {
+                while (this.hasQueuedChecks())
+                {
+                    if (this.queuedSkyCount > 0)
+                    {
+                        long[] var1 = this.queuedSkyChecks;
+                        int var2 = this.queuedSkyCount;
+                        this.queuedSkyChecks = new long[Math.max(256, var2 / 2)];
+                        this.queuedSkyCount = 0;
+                        this.processChecks(EnumSkyBlock.Sky, var1, var2);
+                    }
+
+                    if (this.queuedBlockCount > 0)
+                    {
+                        long[] var4 = this.queuedBlockChecks;
+                        int var3 = this.queuedBlockCount;
+                        this.queuedBlockChecks = new long[Math.max(256, var3 / 2)];
+                        this.queuedBlockCount = 0;
+                        this.processChecks(EnumSkyBlock.Block, var4, var3);
+                    }
+                }
+
+                this.markChangedSections();
+            }
+            finally
+            {
+                for (int var5 = 0; var5 < this.queuedSectionCount; ++var5)
+                {
+                    this.queuedSections.remove(this.queuedSectionKeys[var5]);
+                }
+
+                this.queuedSectionCount = 0;
+                this.lastQueuedSection = -1L;
+                Arrays.fill(this.chunkWindow, (Object)null);
+                this.isChunkWindowSet = false;
+                this.lastModifiedChunk = null;
+                this.isFlushing = false;
+                this.worldObj.theProfiler.endSection();
+            }
+        }
+    }
+
+    /**
+     * Checks the distinct queued positions at once: first every light which is too high is removed together with the
+     * light it spread, then the removed and the too low positions are computed again and spread to their neighbours.
+     */
+    private void processChecks(EnumSkyBlock par1EnumSkyBlock, long[] par2ArrayOfLong, int par3)
+    {
+        Arrays.sort(par2ArrayOfLong, 0, par3);
+        int var4 = 0;
+        int var5 = 0;
+        int var6 = 0;
+        long var7 = -1L;
+
+        for (int var9 = 0; var9 < par3; ++var9)
+        {
+            long var10 = par2ArrayOfLong[var9];
+
+            if (var10 != var7)
+            {
+                var7 = var10;
+                int var12 = unpackX(var10);
+                int var13 = unpackY(var10);
+                int var14 = unpackZ(var10);
+
+                if (this.worldObj.doChunksNearChunkExist(var12, var13, var14, 17) && this.canChangeLight(var12, var14))
+                {
+                    int var15 = this.getLight(par1EnumSkyBlock, var12, var13, var14);
+                    int var16 = this.computeLight(par1EnumSkyBlock, var12, var13, var14);
+
+                    if (var16 > var15)
+                    {
+                        this.setLight(par1EnumSkyBlock, var12, var13, var14, var16);
+                        this.increaseQueue = push(this.increaseQueue, var5++, var10);
+                    }
+                    else if (var16 < var15)
+                    {
+                        this.setLight(par1EnumSkyBlock, var12, var13, var14, 0);
+                        this.decreaseQueue = push(this.decreaseQueue, var4++, var10 | (long)var15 << LEVEL_SHIFT);
+                        this.relightQueue = push(this.relightQueue, var6++, var10);
+                    }
+                }
+            }
+        }
+
+        for (int var17 = 0; var17 < var4; ++var17)
+        {
+            long var18 = this.decreaseQueue[var17];
+            int var20 = (int)(var18 >>> LEVEL_SHIFT);
+            long var21 = var18 & POS_MASK;
+            int var23 = unpackX(var21);
+            int var24 = unpackY(var21);
+            int var25 = unpackZ(var21);
+
+            for (int var26 = 0; var26 < 6; ++var26)
+            {
+                int var27 = var23 + Facing.offsetsXForSide[var26];
+                int var28 = var24 + Facing.offsetsYForSide[var26];
+                int var29 = var25 + Facing.offsetsZForSide[var26];
+
+                if (var28 >= 0 && var28 < 256 && this.canChangeLight(var27, var29))
+                {
+                    int var30 = this.getLight(par1EnumSkyBlock, var27, var28, var29);
+
+                    if (var30 > 0 && var30 == var20 - this.getOpacity(var27, var28, var29))
+                    {
+                        long var31 = packPos(var27, var28, var29);
+                        this.setLight(par1EnumSkyBlock, var27, var28, var29, 0);
+                        this.decreaseQueue = push(this.decreaseQueue, var4++, var31 | (long)var30 << LEVEL_SHIFT);
+                        this.relightQueue = push(this.relightQueue, var6++, var31);
+                    }
+                }
+            }
+        }
+
+        for (int var33 = 0; var33 < var6; ++var33)
+        {
+            long var34 = this.relightQueue[var33];
+            int var36 = unpackX(var34);
+            int var37 = unpackY(var34);
+            int var38 = unpackZ(var34);
+            int var39 = this.computeLight(par1EnumSkyBlock, var36, var37, var38);
+
+            if (var39 > this.getLight(par1EnumSkyBlock, var36, var37, var38))
+            {
+                this.setLight(par1EnumSkyBlock, var36, var37, var38, var39);
+                this.increaseQueue = push(this.increaseQueue, var5++, var34);
+            }
+        }
+
+        for (int var40 = 0; var40 < var5; ++var40)
+        {
+            long var41 = this.increaseQueue[var40];
+            int var43 = unpackX(var41);
+            int var44 = unpackY(var41);
+            int var45 = unpackZ(var41);
+            int var46 = this.getLight(par1EnumSkyBlock, var43, var44, var45);
+
+            for (int var47 = 0; var47 < 6 && var46 > 1; ++var47)
+            {
+                int var48 = var43 + Facing.offsetsXForSide[var47];
+                int var49 = var44 + Facing.offsetsYForSide[var47];
+                int var50 = var45 + Facing.offsetsZForSide[var47];
+
+                if (var49 >= 0 && var49 < 256 && this.canChangeLight(var48, var50))
+                {
+                    int var51 = this.getOpacity(var48, var49, var50);
+
+                    if (var51 < 15)
+                    {
+                        int var52 = var46 - var51;
+
+                        if (var52 > this.getLight(par1EnumSkyBlock, var48, var49, var50))
+                        {
+                            this.setLight(par1EnumSkyBlock, var48, var49, var50, var52);
+                            this.increaseQueue = push(this.increaseQueue, var5++, packPos(var48, var49, var50));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the light the position should have from its own emission, the sky and its neighbours
+     */
+    private int computeLight(EnumSkyBlock par1EnumSkyBlock, int par2, int par3, int par4)
+    {
+        Chunk var5 = this.getChunk(par2, par4);
+
+        if (var5 == null)
+        {
+            return 0;
+        }
+        else if (par1EnumSkyBlock == EnumSkyBlock.Sky && var5.canBlockSeeTheSky(par2 & 15, par3, par4 & 15))
+        {
+            return 15;
+        }
+        else
+        {
+            int var6 = var5.getBlockID(par2 & 15, par3, par4 & 15);
+            int var7 = par1EnumSkyBlock == EnumSkyBlock.Sky ? 0 : Block.lightValue[var6];
+            int var8 = getOpacity(var6);
+
+            if (var8 >= 15)
+            {
+                return 0;
+            }
+            else
+            {
+                for (int var9 = 0; var9 < 6 && var7 < 14; ++var9)
+                {
+                    int var10 = par3 + Facing.offsetsYForSide[var9];
+                    int var11 = this.getLight(par1EnumSkyBlock, par2 + Facing.offsetsXForSide[var9], var10 < 0 ? 0 : (var10 > 255 ? 255 : var10), par4 + Facing.offsetsZForSide[var9]) - var8;
+
+                    if (var11 > var7)
+                    {
+                        var7 = var11;
+                    }
+                }
+
+                return var7;
+            }
+        }
+    }
+
+    /**
+     * Returns the light lost passing into the position, 15 if no light can enter it
+     */
+    private int getOpacity(int par1, int par2, int par3)
+    {
+        Chunk var4 = this.getChunk(par1, par3);
+        return var4 == null ? 15 : getOpacity(var4.getBlockID(par1 & 15, par2, par3 & 15));
+    }
+
+    /**
+     * Returns the light lost passing into the block, blocks emitting light always let it pass
+     */
+    private static int getOpacity(int par0)
+    {
+        int var1 = Block.lightOpacity[par0];
+        return var1 >= 15 && Block.lightValue[par0] > 0 ? 1 : (var1 < 1 ? 1 : var1);
+    }
+
+    private int getLight(EnumSkyBlock par1EnumSkyBlock, int par2, int par3, int par4)
+    {
+        Chunk var5 = this.getChunk(par2, par4);
+
+        if (var5 == null)
+        {
+            return par1EnumSkyBlock.defaultLightValue;
+        }
+        else
+        {
+            ExtendedBlockStorage var6 = var5.getBlockStorageArray()[par3 >> 4];
+
+            if (var6 == null)
+            {
+                return par1EnumSkyBlock == EnumSkyBlock.Sky && var5.canBlockSeeTheSky(par2 & 15, par3, par4 & 15) ? 15 : 0;
+            }
+            else
+            {
+                return par1EnumSkyBlock == EnumSkyBlock.Sky ? var6.getExtSkylightValue(par2 & 15, par3 & 15, par4 & 15) : var6.getExtBlocklightValue(par2 & 15, par3 & 15, par4 & 15);
+            }
+        }
+    }
+
+    private void setLight(EnumSkyBlock par1EnumSkyBlock, int par2, int par3, int par4, int par5)
+    {
+        Chunk var6 = this.getChunk(par2, par4);
+
+        if (var6 != null)
+        {
+            ExtendedBlockStorage var7 = var6.getBlockStorageArray()[par3 >> 4];
+
+            if (var7 == null)
+            {
+                var6.setLightValue(par1EnumSkyBlock, par2 & 15, par3, par4 & 15, par5);
+            }
+            else if (par1EnumSkyBlock == EnumSkyBlock.Sky)
+            {
+                var7.setExtSkylightValue(par2 & 15, par3 & 15, par4 & 15, par5);
+            }
+            else
+            {
+                var7.setExtBlocklightValue(par2 & 15, par3 & 15, par4 & 15, par5);
+            }
+
+            if (var6 != this.lastModifiedChunk)
+            {
+                var6.setChunkModified();
+                this.lastModifiedChunk = var6;
+            }
+
+            this.addChangedPosition(par2, par3, par4);
+        }
+    }
+
+    /**
+     * Returns true if the chunk containing the block coordinates is loaded and its light is not computed by the chunk
+     * lighting threads. The light of those chunks is replaced when it is published, and the border checks queued then
+     * bring in the light of the neighbours, so changing it meanwhile would only make the computation start again.
+     */
+    private boolean canChangeLight(int par1, int par2)
+    {
+        Chunk var3 = this.getChunk(par1, par2);
+        return var3 != null && !var3.isLightPending;
+    }
+
+    /**
+     * Returns the loaded chunk containing the block coordinates or null. A chunk outside the window moves the window to
+     * be centered on it.
+     */
+    private Chunk getChunk(int par1, int par2)
+    {
+        int var3 = par1 >> 4;
+        int var4 = par2 >> 4;
+        int var5 = var3 - this.chunkWindowX + 1;
+        int var6 = var4 - this.chunkWindowZ + 1;
+
+        if (!this.isChunkWindowSet || var5 < 0 || var5 > 2 || var6 < 0 || var6 > 2)
+        {
+            Arrays.fill(this.chunkWindow, (Object)null);
+            this.chunkWindowX = var3;
+            this.chunkWindowZ = var4;
+            this.isChunkWindowSet = true;
+            var5 = 1;
+            var6 = 1;
+        }
+
+        int var7 = var5 * 3 + var6;
+        Chunk var8 = this.chunkWindow[var7];
+
+        if (var8 == null && this.worldObj.chunkExists(var3, var4))
+        {
+            var8 = this.worldObj.getChunkFromChunkCoords(var3, var4);
+            this.chunkWindow[var7] = var8;
+        }
+
+        return var8;
+    }
+
+    private void addChangedPosition(int par1, int par2, int par3)
+    {
+        Long var4 = Long.valueOf(packPos(par1 >> 4, par2 >> 4, par3 >> 4));
+        int[] var5 = (int[])this.changedSections.get(var4);
+
+        if (var5 == null)
+        {
+            this.changedSections.put(var4, new int[] {par1, par2, par3, par1, par2, par3});
+        }
+        else
+        {
+            var5[0] = Math.min(var5[0], par1);
+            var5[1] = Math.min(var5[1], par2);
+            var5[2] = Math.min(var5[2], par3);
+            var5[3] = Math.max(var5[3], par1);
+            var5[4] = Math.max(var5[4], par2);
+            var5[5] = Math.max(var5[5], par3);
+        }
+    }
+
+    /**
+     * Marks the changed part of every section with new light values for a render update
+     */
+    private void markChangedSections()
+    {
+        Iterator var1 = this.changedSections.values().iterator();
+
+        while (var1.hasNext())
+        {
+            int[] var2 = (int[])var1.next();
+            this.worldObj.markBlockRangeForRenderUpdate(var2[0], var2[1], var2[2], var2[3], var2[4], var2[5]);
+        }
+
+        this.changedSections.clear();
+    }
+
+    /**
+     * Computes the light of a new chunk on the chunk lighting threads. The chunk is not marked for a render update until
+     * its light is published.
+     */
+    public void queueChunkLighting(Chunk par1Chunk)
+    {
+        if (!par1Chunk.isLightPending)
+        {
+            par1Chunk.isLightPending = true;
+            par1Chunk.resetSkylightGaps();
+            ChunkLightingTask var2 = new ChunkLightingTask(par1Chunk, 0);
+            this.chunkLightingTasks.add(var2);
+            ThreadedChunkLighter.threadedLighterInstance.queueLighting(var2);
+        }
+    }
+
+    /**
+     * Marks the light computation of the chunk to be started again once it finishes, without counting as a retry. The
+     * population of neighbours changes almost every new chunk after its computation was queued.
+     */
+    public void onChunkPopulated(Chunk par1Chunk)
+    {
+        if (par1Chunk.isLightPending)
+        {
+            for (int var2 = 0; var2 < this.chunkLightingTasks.size(); ++var2)
+            {
+                ChunkLightingTask var3 = (ChunkLightingTask)this.chunkLightingTasks.get(var2);
+
+                if (var3.chunk == par1Chunk)
+                {
+                    var3.changedByPopulation = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Publishes the computed light of chunks which have not changed meanwhile, chunks which have are computed again.
+     * Called every tick.
+     */
+    public void updateChunkLighting()
+    {
+        for (int var1 = 0; var1 < this.chunkLightingTasks.size(); ++var1)
+        {
+            ChunkLightingTask var2 = (ChunkLightingTask)this.chunkLightingTasks.get(var1);
+
+            if (var2.isFinished())
+            {
+                Chunk var3 = var2.chunk;
+
+                if (!this.worldObj.chunkExists(var3.xPosition, var3.zPosition) || this.worldObj.getChunkFromChunkCoords(var3.xPosition, var3.zPosition) != var3)
+                {
+                    var3.isLightPending = false;
+                    this.chunkLightingTasks.remove(var1--);
+                }
+                else if (var2.isValid())
+                {
+                    var2.publish();
+                    ++this.chunkLightingPublished;
+                    var3.isLightPending = false;
+                    this.chunkLightingTasks.remove(var1--);
+                    this.queueBorderChecks(var3);
+                    this.worldObj.markBlockRangeForRenderUpdate(var3.xPosition << 4, 0, var3.zPosition << 4, (var3.xPosition << 4) + 15, 256, (var3.zPosition << 4) + 15);
+                }
+                else if (var2.changedByPopulation || var2.attempt + 1 < MAX_CHUNK_LIGHTING_ATTEMPTS)
+                {
+                    ChunkLightingTask var4;
+
+                    if (var2.changedByPopulation)
+                    {
+                        var4 = new ChunkLightingTask(var3, var2.attempt);
+                    }
+                    else
+                    {
+                        var4 = new ChunkLightingTask(var3, var2.attempt + 1);
+                        ++this.chunkLightingRetries;
+                    }
+
+                    this.chunkLightingTasks.set(var1, var4);
+                    ThreadedChunkLighter.threadedLighterInstance.queueLighting(var4);
+                }
+                else
+                {
+                    var3.isLightPending = false;
+                    this.chunkLightingTasks.remove(var1--);
+                    ++this.chunkLightingFallbacks;
+                    this.worldObj.getWorldLogAgent().func_98230_d("Chunk " + var3.xPosition + ", " + var3.zPosition + " changed during " + MAX_CHUNK_LIGHTING_ATTEMPTS + " light computations, lighting it on the main thread");
+                    var3.generateSkylightMap();
+                    var3.resetRelightChecks();
+                    this.worldObj.markBlockRangeForRenderUpdate(var3.xPosition << 4, 0, var3.zPosition << 4, (var3.xPosition << 4) + 15, 256, (var3.zPosition << 4) + 15);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the counts of published, recomputed and main thread chunk light computations for the debug screen
+     */
+    public String getDebugInfo()
+    {
+        return "L: " + this.chunkLightingPublished + " lit, " + this.chunkLightingRetries + " retried, " + this.chunkLightingFallbacks + " fallback";
+    }
+
+    /**
+     * Queues checks on both sides of the edges of the chunk where the light of the neighbouring chunk does not match.
+     * Neighbours whose own light is still being computed are skipped, they queue the checks when they publish.
+     */
+    private void queueBorderChecks(Chunk par1Chunk)
+    {
+        for (int var2 = 0; var2 < 4; ++var2)
+        {
+            int var3 = Direction.offsetX[var2];
+            int var4 = Direction.offsetZ[var2];
+            int var5 = par1Chunk.xPosition + var3;
+            int var6 = par1Chunk.zPosition + var4;
+
+            if (this.worldObj.chunkExists(var5, var6))
+            {
+                Chunk var7 = this.worldObj.getChunkFromChunkCoords(var5, var6);
+
+                if (!var7.isEmpty() && !var7.isLightPending)
+                {
+                    int var8 = (Math.max(par1Chunk.getTopFilledSegment(), var7.getTopFilledSegment()) + 16) & ~15;
+
+                    for (int var9 = 0; var9 < 16; ++var9)
+                    {
+                        int var10 = var3 == 0 ? var9 : (var3 > 0 ? 15 : 0);
+                        int var11 = var4 == 0 ? var9 : (var4 > 0 ? 15 : 0);
+                        int var12 = var10 + var3 & 15;
+                        int var13 = var11 + var4 & 15;
+
+                        for (int var14 = 0; var14 < var8 && var14 < 256; ++var14)
+                        {
+                            int var15 = getOpacity(par1Chunk.getBlockID(var10, var14, var11));
+                            int var16 = getOpacity(var7.getBlockID(var12, var14, var13));
+
+                            for (int var17 = 0; var17 < 2; ++var17)
+                            {
+                                EnumSkyBlock var18 = var17 == 0 ? EnumSkyBlock.Sky : EnumSkyBlock.Block;
+
+                                if (var18 != EnumSkyBlock.Sky || !this.worldObj.provider.hasNoSky)
+                                {
+                                    int var19 = par1Chunk.getSavedLightValue(var18, var10, var14, var11);
+                                    int var20 = var7.getSavedLightValue(var18, var12, var14, var13);
+
+                                    if (var19 - var16 > var20 || var20 - var15 > var19)
+                                    {
+                                        this.queueLightCheck(var18, (par1Chunk.xPosition << 4) + var10, var14, (par1Chunk.zPosition << 4) + var11);
+                                        this.queueLightCheck(var18, (var5 << 4) + var12, var14, (var6 << 4) + var13);
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static long[] push(long[] par0ArrayOfLong, int par1, long par2)
+    {
+        if (par1 == par0ArrayOfLong.length)
+        {
+            par0ArrayOfLong = Arrays.copyOf(par0ArrayOfLong, par1 * 2);
+        }
+
+        par0ArrayOfLong[par1] = par2;
+        return par0ArrayOfLong;
+    }
+
+    private static long packPos(int par0, int par1, int par2)
+    {
+        return ((long)(par0 + COORD_OFFSET) & COORD_MASK) << X_SHIFT | ((long)(par2 + COORD_OFFSET) & COORD_MASK) << Z_SHIFT | (long)(par1 & 255);
+    }
+
+    private static int unpackX(long par0)
+    {
+        return (int)(par0 >>> X_SHIFT & COORD_MASK) - COORD_OFFSET;
+    }
+
+    private static int unpackY(long par0)
+    {
+        return (int)(par0 & 255L);
+    }
+
+    private static int unpackZ(long par0)
+    {
+        return (int)(par0 >>> Z_SHIFT & COORD_MASK) - COORD_OFFSET;
+    }
+}
@@ -2,59 +2,65 @@ package net.minecraft.src;
 
 public class LongHashMap
 {
-    /** the array of all elements in the hash */
-    private transient LongHashMapEntry[] hashArray = new LongHashMapEntry[1024];
+    /** Maximum part of the slots in use before the table grows, kept low as collisions are resolved by probing */
+    private static final float LOAD_FACTOR = 0.5F;
+
+    /** The keys of the slots, only meaningful where the value is not null */
+    private transient long[] keys = new long[1024];
+
+    /** The values of the slots, null for free slots */
+    private transient Object[] values = new Object[1024];
 
     /** the number of elements in the hash array */
     private transient int numHashElements;
 
-    /**
-     * the maximum amount of elements in the hash (probably 3/4 the size due to meh hashing function)
-     */
+    /** Number of elements at which the table grows */
     private int capacity;
 
-    /**
-     * percent of the hasharray that can be used without hash colliding probably
-     */
-    private final float percentUseable;
+    /** 64 minus the number of index bits of the table, the shift taking the slot index from the top of the hash */
+    private transient int hashShift;
 
     /** count of times elements have been added/removed */
     private transient volatile int modCount;
 
     public LongHashMap()
     {
-        this.capacity = (int)(0.75F * (float)this.hashArray.length);
-        this.percentUseable = 0.75F;
+        this.capacity = (int)(LOAD_FACTOR * (float)this.keys.length);
+        this.hashShift = 64 - Integer.numberOfTrailingZeros(this.keys.length);
     }
 
     /**
-     * returns the hashed key given the original key
+     * Returns the slot index of the key for the given shift: one multiplication by the golden ratio moves the bits of
+     * both chunk coordinates into the top bits, which the shift keeps. Args: key, shift
      */
-    private static int getHashedKey(long par0)
+    private static int getHashedKey(long par0, int par2)
     {
-        return (int)(par0 ^ par0 >>> 27);
+        return (int)(par0 * -7046029254386353131L >>> par2);
     }
 
-    /**
-     * the hash function
-     */
-    private static int hash(int par0)
+    public int getNumHashElements()
     {
-        par0 ^= par0 >>> 20 ^ par0 >>> 12;
-        return par0 ^ par0 >>> 7 ^ par0 >>> 4;
+        return this.numHashElements;
     }
 
     /**
-     * gets the index in the hash given the array length and the hashed key
+     * Returns the slot holding the key or -1
      */
-    private static int getHashIndex(int par0, int par1)
+    private int getSlot(long par1)
     {
-        return par0 & par1 - 1;
-    }
+        long[] var3 = this.keys;
+        Object[] var4 = this.values;
+        int var5 = var3.length - 1;
 
-    public int getNumHashElements()
-    {
-        return this.numHashElements;
+        for (int var6 = getHashedKey(par1, this.hashShift); var4[var6] != null; var6 = var6 + 1 & var5)
+        {
+            if (var3[var6] == par1)
+            {
+                return var6;
+            }
+        }
+
+        return -1;
     }
 
     /**
@@ -62,13 +68,16 @@ public class LongHashMap
      */
     public Object getValueByKey(long par1)
     {
-        int var3 = getHashedKey(par1);
+        long[] var3 = this.keys;
+        Object[] var4 = this.values;
+        int var5 = var3.length - 1;
+        Object var7;
 
-        for (LongHashMapEntry var4 = this.hashArray[getHashIndex(var3, this.hashArray.length)]; var4 != null; var4 = var4.nextEntry)
+        for (int var6 = getHashedKey(par1, this.hashShift); (var7 = var4[var6]) != null; var6 = var6 + 1 & var5)
         {
-            if (var4.key == par1)
+            if (var3[var6] == par1)
             {
-                return var4.value;
+                return var7;
             }
         }
 
@@ -77,43 +86,43 @@ public class LongHashMap
 
     public boolean containsItem(long par1)
     {
-        return this.getEntry(par1) != null;
+        return this.getSlot(par1) >= 0;
     }
 
-    final LongHashMapEntry getEntry(long par1)
+    /**
+     * Add a key-value pair. Adding null removes the key.
+     */
+    public void add(long par1, Object par3Obj)
     {
-        int var3 = getHashedKey(par1);
-
-        for (LongHashMapEntry var4 = this.hashArray[getHashIndex(var3, this.hashArray.length)]; var4 != null; var4 = var4.nextEntry)
+        if (par3Obj == null)
         {
-            if (var4.key == par1)
-            {
-                return var4;
-            }
+            this.remove(par1);
         }
+        else
+        {
+            long[] var4 = this.keys;
+            Object[] var5 = this.values;
+            int var6 = var4.length - 1;
+            int var7;
 
-        return null;
-    }
+            for (var7 = getHashedKey(par1, this.hashShift); var5[var7] != null; var7 = var7 + 1 & var6)
+            {
+                if (var4[var7] == par1)
+                {
+                    var5[var7] = par3Obj;
+                    return;
+                }
+            }
 
-    /**
-     * Add a key-value pair.
-     */
-    public void add(long par1, Object par3Obj)
-    {
-        int var4 = getHashedKey(par1);
-        int var5 = getHashIndex(var4, this.hashArray.length);
+            ++this.modCount;
+            var4[var7] = par1;
+            var5[var7] = par3Obj;
 
-        for (LongHashMapEntry var6 = this.hashArray[var5]; var6 != null; var6 = var6.nextEntry)
-        {
-            if (var6.key == par1)
+            if (++this.numHashElements > this.capacity)
             {
-                var6.value = par3Obj;
-                return;
+                this.resizeTable(2 * var4.length);
             }
         }
-
-        ++this.modCount;
-        this.createKey(var4, par1, par3Obj, var5);
     }
 
     /**
@@ -121,135 +130,143 @@ public class LongHashMap
      */
     private void resizeTable(int par1)
     {
-        LongHashMapEntry[] var2 = this.hashArray;
-        int var3 = var2.length;
+        long[] var2 = this.keys;
+        Object[] var3 = this.values;
 
-        if (var3 == 1073741824)
+        if (var2.length == 1073741824)
         {
             this.capacity = Integer.MAX_VALUE;
         }
         else
         {
-            LongHashMapEntry[] var4 = new LongHashMapEntry[par1];
-            this.copyHashTableTo(var4);
-            this.hashArray = var4;
-            float var10001 = (float)par1;
-            this.getClass();
-            this.capacity = (int)(var10001 * 0.75F);
-        }
-    }
-
-    /**
-     * copies the hash table to the specified array
-     */
-    private void copyHashTableTo(LongHashMapEntry[] par1ArrayOfLongHashMapEntry)
-    {
-        LongHashMapEntry[] var2 = this.hashArray;
-        int var3 = par1ArrayOfLongHashMapEntry.length;
-
-        for (int var4 = 0; var4 < var2.length; ++var4)
-        {
-            LongHashMapEntry var5 = var2[var4];
+            long[] var4 = new long[par1];
+            Object[] var5 = new Object[par1];
+            int var6 = par1 - 1;
+            int var7 = 64 - Integer.numberOfTrailingZeros(par1);
 
-            if (var5 != null)
+            for (int var8 = 0; var8 < var2.length; ++var8)
             {
-                var2[var4] = null;
-                LongHashMapEntry var6;
-
-                do
+                if (var3[var8] != null)
                 {
-                    var6 = var5.nextEntry;
-                    int var7 = getHashIndex(var5.hash, var3);
-                    var5.nextEntry = par1ArrayOfLongHashMapEntry[var7];
-                    par1ArrayOfLongHashMapEntry[var7] = var5;
-                    var5 = var6;
+                    int var9;
+
+                    for (var9 = getHashedKey(var2[var8], var7); var5[var9] != null; var9 = var9 + 1 & var6)
+                    {
+                        ;
+                    }
+
+                    var4[var9] = var2[var8];
+                    var5[var9] = var3[var8];
                 }
-                while (var6 != null);
             }
+
+            this.keys = var4;
+            this.values = var5;
+            this.capacity = (int)(LOAD_FACTOR * (float)par1);
+            this.hashShift = var7;
         }
     }
 
     /**
-     * calls the removeKey method and returns removed object
+     * removes the key and returns its value
      */
     public Object remove(long par1)
     {
-        LongHashMapEntry var3 = this.removeKey(par1);
-        return var3 == null ? null : var3.value;
+        int var3 = this.getSlot(par1);
+
+        if (var3 < 0)
+        {
+            return null;
+        }
+        else
+        {
+            Object var4 = this.values[var3];
+            ++this.modCount;
+            --this.numHashElements;
+            this.removeSlot(var3);
+            return var4;
+        }
     }
 
     /**
-     * removes the key from the hash linked list
+     * Frees the slot and moves the following entries of the probe run back so lookups never stop early, which leaves
+     * no deleted markers behind
      */
-    final LongHashMapEntry removeKey(long par1)
+    private void removeSlot(int par1)
     {
-        int var3 = getHashedKey(par1);
-        int var4 = getHashIndex(var3, this.hashArray.length);
-        LongHashMapEntry var5 = this.hashArray[var4];
-        LongHashMapEntry var6;
-        LongHashMapEntry var7;
+        long[] var2 = this.keys;
+        Object[] var3 = this.values;
+        int var4 = var2.length - 1;
+        int var5 = this.hashShift;
+        int var6 = par1;
 
-        for (var6 = var5; var6 != null; var6 = var7)
+        for (int var7 = par1 + 1 & var4; var3[var7] != null; var7 = var7 + 1 & var4)
         {
-            var7 = var6.nextEntry;
+            int var8 = getHashedKey(var2[var7], var5);
 
-            if (var6.key == par1)
+            if ((var7 - var8 & var4) >= (var7 - var6 & var4))
             {
-                ++this.modCount;
-                --this.numHashElements;
-
-                if (var5 == var6)
-                {
-                    this.hashArray[var4] = var7;
-                }
-                else
-                {
-                    var5.nextEntry = var7;
-                }
-
-                return var6;
+                var2[var6] = var2[var7];
+                var3[var6] = var3[var7];
+                var6 = var7;
             }
-
-            var5 = var6;
         }
 
-        return var6;
+        var3[var6] = null;
     }
 
     /**
-     * creates the key in the hash table
+     * Returns the first slot at or after the given one which holds an element, or -1. Iterate with
+     * getNextSlot(slot + 1) starting at 0. After removing the element of the current slot continue with
+     * getNextSlot(slot), since a following element may have been moved into it; elements may then be visited twice.
      */
-    private void createKey(int par1, long par2, Object par4Obj, int par5)
+    public int getNextSlot(int par1)
     {
-        LongHashMapEntry var6 = this.hashArray[par5];
-        this.hashArray[par5] = new LongHashMapEntry(par1, par2, par4Obj, var6);
+        Object[] var2 = this.values;
 
-        if (this.numHashElements++ >= this.capacity)
+        for (int var3 = par1; var3 < var2.length; ++var3)
         {
-            this.resizeTable(2 * this.hashArray.length);
+            if (var2[var3] != null)
+            {
+                return var3;
+            }
         }
+
+        return -1;
     }
 
     /**
-     * public method to get the hashed key(hashCode)
+     * Returns the key of a slot returned by getNextSlot
      */
-    static int getHashCode(long par0)
+    public long getKeyAt(int par1)
     {
-        return getHashedKey(par0);
+        return this.keys[par1];
     }
 
+    /**
+     * Returns the value of a slot returned by getNextSlot
+     */
+    public Object getValueAt(int par1)
+    {
+        return this.values[par1];
+    }
+
+    /**
+     * Returns the average number of slots looked at to find an element
+     */
     public double getKeyDistribution()
     {
-        int var1 = 0;
+        long var1 = 0L;
+        int var3 = this.keys.length - 1;
 
-        for (int var2 = 0; var2 < this.hashArray.length; ++var2)
+        for (int var4 = 0; var4 < this.values.length; ++var4)
         {
-            if (this.hashArray[var2] != null)
+            if (this.values[var4] != null)
             {
-                ++var1;
+                var1 += (long)((var4 - getHashedKey(this.keys[var4], this.hashShift) & var3) + 1);
             }
         }
 
-        return 1.0D * (double)var1 / (double)this.numHashElements;
+        return this.numHashElements == 0 ? 0.0D : (double)var1 / (double)this.numHashElements;
     }
 }
@@ -17,6 +17,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 import javax.crypto.SecretKey;
 import net.minecraft.client.Minecraft;
 import org.lwjgl.input.Keyboard;
@@ -582,12 +584,36 @@ public class NetClientHandler extends NetHandler
 
         if (var2 != null)
         {
-            var2.fillChunk(par1Packet51MapChunk.func_73593_d(), par1Packet51MapChunk.yChMin, par1Packet51MapChunk.yChMax, par1Packet51MapChunk.includeInitialize);
-            this.worldClient.markBlockRangeForRenderUpdate(par1Packet51MapChunk.xCh << 4, 0, par1Packet51MapChunk.zCh << 4, (par1Packet51MapChunk.xCh << 4) + 15, 256, (par1Packet51MapChunk.zCh << 4) + 15);
+            if (par1Packet51MapChunk.func_73593_d() != null)
+            {
+                var2.fillChunk(par1Packet51MapChunk.func_73593_d(), par1Packet51MapChunk.yChMin, par1Packet51MapChunk.yChMax, par1Packet51MapChunk.includeInitialize);
+            }
+            else
+            {
+                Inflater var3 = par1Packet51MapChunk.getChunkDataInflater();
+
+                try
+                {
+                    var2.fillChunk(var3, par1Packet51MapChunk.yChMin, par1Packet51MapChunk.yChMax, par1Packet51MapChunk.includeInitialize);
+                }
+                catch (DataFormatException var8)
+                {
+                    this.netManager.networkShutdown("disconnect.genericReason", new Object[] {"Internal exception: " + var8.toString()});
+                    return;
+                }
+                finally
+                {
+                    CompressorPool.releaseInflater(var3);
+                }
+            }
 
             if (!par1Packet51MapChunk.includeInitialize || !(this.worldClient.provider instanceof WorldProviderSurface))
             {
-                var2.resetRelightChecks();
+                this.worldClient.queueChunkLighting(var2);
+            }
+            else
+            {
+                this.worldClient.markBlockRangeForRenderUpdate(par1Packet51MapChunk.xCh << 4, 0, par1Packet51MapChunk.zCh << 4, (par1Packet51MapChunk.xCh << 4) + 15, 256, (par1Packet51MapChunk.zCh << 4) + 15);
             }
         }
     }
@@ -1165,31 +1191,59 @@ public class NetClientHandler extends NetHandler
 
     public void handleMapChunks(Packet56MapChunks par1Packet56MapChunks)
     {
-        for (int var2 = 0; var2 < par1Packet56MapChunks.getNumberOfChunkInPacket(); ++var2)
-        {
-            int var3 = par1Packet56MapChunks.getChunkPosX(var2);
-            int var4 = par1Packet56MapChunks.getChunkPosZ(var2);
-            this.worldClient.doPreChunk(var3, var4, true);
-            this.worldClient.invalidateBlockReceiveRegion(var3 << 4, 0, var4 << 4, (var3 << 4) + 15, 256, (var4 << 4) + 15);
-            Chunk var5 = this.worldClient.getChunkFromChunkCoords(var3, var4);
+        Inflater var2 = par1Packet56MapChunks.getChunkDataInflater();
 
-            if (var5 == null)
+        try
+        {
+            for (int var3 = 0; var3 < par1Packet56MapChunks.getNumberOfChunkInPacket(); ++var3)
             {
-                this.worldClient.doPreChunk(var3, var4, true);
-                var5 = this.worldClient.getChunkFromChunkCoords(var3, var4);
-            }
+                int var4 = par1Packet56MapChunks.getChunkPosX(var3);
+                int var5 = par1Packet56MapChunks.getChunkPosZ(var3);
+                this.worldClient.doPreChunk(var4, var5, true);
+                this.worldClient.invalidateBlockReceiveRegion(var4 << 4, 0, var5 << 4, (var4 << 4) + 15, 256, (var5 << 4) + 15);
+                Chunk var6 = this.worldClient.getChunkFromChunkCoords(var4, var5);
 
-            if (var5 != null)
-            {
-                var5.fillChunk(par1Packet56MapChunks.getChunkCompressedData(var2), par1Packet56MapChunks.field_73590_a[var2], par1Packet56MapChunks.field_73588_b[var2], true);
-                this.worldClient.markBlockRangeForRenderUpdate(var3 << 4, 0, var4 << 4, (var3 << 4) + 15, 256, (var4 << 4) + 15);
+                if (var6 == null)
+                {
+                    this.worldClient.doPreChunk(var4, var5, true);
+                    var6 = this.worldClient.getChunkFromChunkCoords(var4, var5);
+                }
+
+                if (var6 != null)
+                {
+                    if (par1Packet56MapChunks.getChunkCompressedData(var3) != null)
+                    {
+                        var6.fillChunk(par1Packet56MapChunks.getChunkCompressedData(var3), par1Packet56MapChunks.field_73590_a[var3], par1Packet56MapChunks.field_73588_b[var3], true);
+                    }
+                    else
+                    {
+                        var6.fillChunk(var2, par1Packet56MapChunks.field_73590_a[var3], par1Packet56MapChunks.field_73588_b[var3], true);
+                    }
 
-                if (!(this.worldClient.provider instanceof WorldProviderSurface))
+                    if (!(this.worldClient.provider instanceof WorldProviderSurface))
+                    {
+                        this.worldClient.queueChunkLighting(var6);
+                    }
+                    else
+                    {
+                        this.worldClient.markBlockRangeForRenderUpdate(var4 << 4, 0, var5 << 4, (var4 << 4) + 15, 256, (var5 << 4) + 15);
+                    }
+                }
+                else if (par1Packet56MapChunks.getChunkCompressedData(var3) == null)
                 {
-                    var5.resetRelightChecks();
+                    int var7 = par1Packet56MapChunks.getChunkDataLength(var3);
+                    CompressorPool.inflateFully(var2, new byte[var7], 0, var7);
                 }
             }
         }
+        catch (DataFormatException var11)
+        {
+            this.netManager.networkShutdown("disconnect.genericReason", new Object[] {"Internal exception: " + var11.toString()});
+        }
+        finally
+        {
+            CompressorPool.releaseInflater(var2);
+        }
     }
 
     /**
@@ -3,6 +3,7 @@ package net.minecraft.src;
 import java.io.IOException;
 import java.io.Serializable;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.security.PrivateKey;
 import java.security.PublicKey;
@@ -23,7 +24,7 @@ public class NetLoginHandler extends NetHandler
 
     /** Reference to the MinecraftServer object. */
     private final MinecraftServer mcServer;
-    public final TcpConnection myTCPConnection;
+    public final INetworkManager myTCPConnection;
     public boolean connectionComplete = false;
     private int connectionTimer = 0;
     private String clientUsername = null;
@@ -39,8 +40,16 @@ public class NetLoginHandler extends NetHandler
     public NetLoginHandler(MinecraftServer par1MinecraftServer, Socket par2Socket, String par3Str) throws IOException
     {
         this.mcServer = par1MinecraftServer;
-        this.myTCPConnection = new TcpConnection(par1MinecraftServer.getLogAgent(), par2Socket, par3Str, this, par1MinecraftServer.getKeyPair().getPrivate());
-        this.myTCPConnection.field_74468_e = 0;
+        TcpConnection var4 = new TcpConnection(par1MinecraftServer.getLogAgent(), par2Socket, par3Str, this, par1MinecraftServer.getKeyPair().getPrivate());
+        var4.field_74468_e = 0;
+        this.myTCPConnection = var4;
+    }
+
+    public NetLoginHandler(MinecraftServer par1MinecraftServer, INetworkManager par2INetworkManager)
+    {
+        this.mcServer = par1MinecraftServer;
+        this.myTCPConnection = par2INetworkManager;
+        par2INetworkManager.setNetHandler(this);
     }
 
     /**
@@ -216,9 +225,9 @@ public class NetLoginHandler extends NetHandler
 
             InetAddress var8 = null;
 
-            if (this.myTCPConnection.getSocket() != null)
+            if (this.myTCPConnection.getSocketAddress() instanceof InetSocketAddress)
             {
-                var8 = this.myTCPConnection.getSocket().getInetAddress();
+                var8 = ((InetSocketAddress)this.myTCPConnection.getSocketAddress()).getAddress();
             }
 
             this.myTCPConnection.addToSendQueue(new Packet255KickDisconnect(var3));
@@ -15,6 +15,9 @@ public abstract class NetworkListenThread
     /** Whether the network listener object is listening. */
     public volatile boolean isListening = false;
 
+    /** Whether packets queued during a server tick are held back and written together at the end of the tick */
+    public volatile boolean batchSends = true;
+
     public NetworkListenThread(MinecraftServer par1MinecraftServer) throws IOException
     {
         this.mcServer = par1MinecraftServer;
@@ -68,6 +71,11 @@ public abstract class NetworkListenThread
         }
     }
 
+    /**
+     * Writes the packets queued during the tick when sends are batched
+     */
+    public void flushSendQueues() {}
+
     public MinecraftServer getServer()
     {
         return this.mcServer;
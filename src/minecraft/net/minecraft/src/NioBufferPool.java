@@ -0,0 +1,46 @@
+package net.minecraft.src;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedList;
+
+public class NioBufferPool
+{
+    /** Size of the pooled buffers */
+    public static final int BUFFER_SIZE = 16384;
+
+    /** Maximum number of free buffers kept for reuse */
+    private static final int MAX_FREE_BUFFERS = 256;
+    private static final LinkedList freeBuffers = new LinkedList();
+
+    /**
+     * Returns a cleared direct buffer of BUFFER_SIZE bytes
+     */
+    public static ByteBuffer getBuffer()
+    {
+        synchronized (freeBuffers)
+        {
+            if (!freeBuffers.isEmpty())
+            {
+                return (ByteBuffer)freeBuffers.removeFirst();
+            }
+        }
+
+        return ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    /**
+     * Returns the buffer to the pool, it must not be used afterwards
+     */
+    public static void releaseBuffer(ByteBuffer par0ByteBuffer)
+    {
+        par0ByteBuffer.clear();
+
+        synchronized (freeBuffers)
+        {
+            if (freeBuffers.size() < MAX_FREE_BUFFERS)
+            {
+                freeBuffers.addFirst(par0ByteBuffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,645 @@
+package net.minecraft.src;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.security.PrivateKey;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.crypto.SecretKey;
+import org.bouncycastle.crypto.BufferedBlockCipher;
+
+public class NioConnection implements INetworkManager
+{
+    /** Amount of serialized data waiting for the socket at which no more packets are serialized */
+    private static final int MAX_OUTPUT_BYTES = 65536;
+
+    /** Maximum amount of received data not forming a complete packet yet */
+    private static final int MAX_INPUT_BYTES = 2097152;
+
+    /** The object used for synchronization on the send queue. */
+    private final Object sendQueueLock = new Object();
+    private final ILogAgent logAgent;
+    private final SocketChannel socketChannel;
+
+    /** The thread running the selector this connection is registered with */
+    private final ServerListenThread listenThread;
+    private SelectionKey selectionKey;
+
+    /** The InetSocketAddress of the remote endpoint */
+    private final SocketAddress remoteSocketAddress;
+
+    /** Whether the network is currently operational. */
+    private volatile boolean isRunning = true;
+
+    /**
+     * Whether this network manager is currently terminating (and should ignore further errors).
+     */
+    private volatile boolean isTerminating = false;
+
+    /** Whether the server is closing this connection once the send queue has been written */
+    private volatile boolean isServerTerminating = false;
+    private long serverTerminatingTime = 0L;
+
+    /**
+     * Linked list of packets that have been read and are awaiting processing.
+     */
+    private List readPackets = Collections.synchronizedList(new ArrayList());
+
+    /** Packets awaiting sending, guarded by the sendQueueLock */
+    private LinkedList dataPackets = new LinkedList();
+
+    /** Packets taken from the send queue to be sent next, replaced packets are null */
+    private ArrayList sendBatch = new ArrayList();
+    private int sendBatchIndex = 0;
+
+    /** Estimated length in bytes of the packets of the batch not sent yet */
+    private int sendBatchBytes = 0;
+
+    /** A reference to the NetHandler object. */
+    private NetHandler theNetHandler;
+
+    /** A String indicating why the network has shutdown. */
+    private String terminationReason = "";
+    private Object[] terminationReasonArgs;
+    private int ticksSinceLastRead = 0;
+
+    /**
+     * The length in bytes of the packets in the send queue
+     */
+    private int sendQueueByteLength = 0;
+    private PrivateKey privateKey;
+    private SecretKey sharedKeyForEncryption;
+    private BufferedBlockCipher inputCipher;
+    private BufferedBlockCipher outputCipher;
+
+    /** Received bytes not decoded yet, already decrypted */
+    private PacketBuffer inputBuffer = new PacketBuffer();
+
+    /** Serialized packets waiting for the socket, each buffer is readable from its position to its limit */
+    private LinkedList outputBuffers = new LinkedList();
+    private int outputLength = 0;
+
+    /** Bytes flushed to the selector thread but not written to the socket yet, guarded by the sendQueueLock */
+    private int unsentBytes = 0;
+
+    /** Total bytes written to the socket */
+    private volatile long bytesWritten = 0L;
+
+    /** Buffer the next packet is serialized into */
+    private PacketBuffer packetBuffer = new PacketBuffer();
+
+    /** Set while the connection is waiting for the selector thread to write its send queue */
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    public NioConnection(ILogAgent par1ILogAgent, SocketChannel par2SocketChannel, ServerListenThread par3ServerListenThread, PrivateKey par4PrivateKey) throws IOException
+    {
+        this.logAgent = par1ILogAgent;
+        this.socketChannel = par2SocketChannel;
+        this.listenThread = par3ServerListenThread;
+        this.privateKey = par4PrivateKey;
+        this.remoteSocketAddress = par2SocketChannel.socket().getRemoteSocketAddress();
+        par2SocketChannel.configureBlocking(false);
+        par2SocketChannel.socket().setTrafficClass(24);
+    }
+
+    /**
+     * Registers the channel with the selector for reading, called on the selector thread once the net handler has
+     * been set
+     */
+    public void register(Selector par1Selector) throws IOException
+    {
+        this.selectionKey = this.socketChannel.register(par1Selector, SelectionKey.OP_READ, this);
+    }
+
+    public void closeConnections()
+    {
+        this.wakeThreads();
+    }
+
+    /**
+     * Sets the NetHandler for this NetworkManager. Server-only.
+     */
+    public void setNetHandler(NetHandler par1NetHandler)
+    {
+        this.theNetHandler = par1NetHandler;
+    }
+
+    /**
+     * Adds the packet to the correct send queue (chunk data packets go to a separate queue).
+     */
+    public void addToSendQueue(Packet par1Packet)
+    {
+        if (!this.isServerTerminating)
+        {
+            synchronized (this.sendQueueLock)
+            {
+                this.sendQueueByteLength += par1Packet.getPacketSize() + 1;
+                this.dataPackets.add(par1Packet);
+            }
+
+            this.scheduleFlush();
+        }
+    }
+
+    /**
+     * Asks the selector thread to write the send queue, while sends are batched this happens at the end of the server
+     * tick
+     */
+    private void scheduleFlush()
+    {
+        if (this.flushScheduled.compareAndSet(false, true))
+        {
+            this.listenThread.queueFlush(this, false);
+        }
+    }
+
+    /**
+     * Takes the next packet to send. Once the current batch has been sent all queued packets are taken as the next
+     * batch and coalesced.
+     */
+    private Packet nextPacket()
+    {
+        while (true)
+        {
+            if (this.sendBatchIndex >= this.sendBatch.size())
+            {
+                this.sendBatch.clear();
+                this.sendBatchIndex = 0;
+                this.sendBatchBytes = 0;
+
+                synchronized (this.sendQueueLock)
+                {
+                    if (this.dataPackets.isEmpty())
+                    {
+                        return null;
+                    }
+
+                    while (!this.dataPackets.isEmpty())
+                    {
+                        Packet var1 = (Packet)this.dataPackets.removeFirst();
+                        this.sendQueueByteLength -= var1.getPacketSize() + 1;
+                        this.sendBatchBytes += var1.getPacketSize() + 1;
+                        this.sendBatch.add(var1);
+                    }
+                }
+
+                this.coalescePackets(this.sendBatch);
+            }
+
+            Packet var2 = (Packet)this.sendBatch.get(this.sendBatchIndex++);
+
+            if (var2 != null)
+            {
+                this.sendBatchBytes = Math.max(0, this.sendBatchBytes - var2.getPacketSize() - 1);
+                return var2;
+            }
+        }
+    }
+
+    /**
+     * Removes the packets of the batch which are replaced by a later packet of the same kind for the same entity and
+     * merges the entity movement packets
+     */
+    private void coalescePackets(List par1List)
+    {
+        HashMap var2 = new HashMap();
+
+        for (int var3 = par1List.size() - 1; var3 >= 0; --var3)
+        {
+            Packet var4 = (Packet)par1List.get(var3);
+
+            if (var4.isRealPacket() && !(var4 instanceof Packet30Entity) && !(var4 instanceof Packet34EntityTeleport))
+            {
+                Integer var5 = Integer.valueOf(var4.getPacketId());
+                Packet var6 = (Packet)var2.get(var5);
+                var2.put(var5, var4);
+
+                if (var6 != null && var4.containsSameEntityIDAs(var6))
+                {
+                    par1List.set(var3, (Object)null);
+                }
+            }
+        }
+
+        EntityMovePacketMerger.mergeMovePackets(par1List);
+    }
+
+    /**
+     * Serializes queued packets into the output buffers and writes as much as the socket accepts with one gathering
+     * write. Called on the selector thread.
+     */
+    public void writeOutput()
+    {
+        this.flushScheduled.set(false);
+
+        if (!this.isRunning)
+        {
+            this.releaseBuffers();
+        }
+        else
+        {
+            try
+            {
+                Packet var1;
+
+                while (this.outputLength < MAX_OUTPUT_BYTES && (var1 = this.nextPacket()) != null)
+                {
+                    this.serializePacket(var1);
+                }
+
+                if (this.outputLength > 0)
+                {
+                    ByteBuffer[] var2 = (ByteBuffer[])this.outputBuffers.toArray(new ByteBuffer[this.outputBuffers.size()]);
+                    int var5 = (int)this.socketChannel.write(var2);
+                    this.outputLength -= var5;
+                    this.bytesWritten += (long)var5;
+
+                    while (this.outputBuffers.size() > 1 && !((ByteBuffer)this.outputBuffers.getFirst()).hasRemaining())
+                    {
+                        NioBufferPool.releaseBuffer((ByteBuffer)this.outputBuffers.removeFirst());
+                    }
+                }
+
+                boolean var4;
+
+                synchronized (this.sendQueueLock)
+                {
+                    var4 = this.dataPackets.isEmpty() && this.sendBatchIndex >= this.sendBatch.size();
+                    this.unsentBytes = this.outputLength + (var4 ? 0 : this.sendBatchBytes);
+                }
+
+                if (this.selectionKey != null && this.selectionKey.isValid())
+                {
+                    this.selectionKey.interestOps(this.outputLength > 0 || !var4 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+                }
+
+                if (this.isServerTerminating && this.outputLength == 0 && var4)
+                {
+                    this.networkShutdown("disconnect.closed", new Object[0]);
+                    this.releaseBuffers();
+                }
+            }
+            catch (Exception var3)
+            {
+                if (!this.isTerminating)
+                {
+                    this.onNetworkError(var3);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the packet prefixed by its id into the output buffers, encrypting it if encryption has been enabled
+     */
+    private void serializePacket(Packet par1Packet) throws IOException
+    {
+        this.packetBuffer.clear();
+        Packet.writePacket(par1Packet, this.packetBuffer.getDataOutput());
+        byte[] var2 = this.packetBuffer.getData();
+        int var3 = this.packetBuffer.size();
+
+        if (this.outputCipher != null)
+        {
+            this.outputCipher.processByte(var2, 0, var3, var2, 0);
+        }
+
+        this.appendOutput(var2, var3);
+
+        if (par1Packet instanceof Packet252SharedKey && this.outputCipher == null)
+        {
+            if (!this.theNetHandler.isServerHandler())
+            {
+                this.sharedKeyForEncryption = ((Packet252SharedKey)par1Packet).getSharedKey();
+            }
+
+            this.outputCipher = CryptManager.createBufferedBlockCipher(true, this.sharedKeyForEncryption);
+        }
+
+        TcpConnection.field_74467_d[par1Packet.getPacketId()] += var3;
+    }
+
+    /**
+     * Copies the bytes into the output buffers, taking new buffers from the pool as they fill up
+     */
+    private void appendOutput(byte[] par1ArrayOfByte, int par2)
+    {
+        int var3 = 0;
+
+        while (var3 < par2)
+        {
+            ByteBuffer var4 = this.outputBuffers.isEmpty() ? null : (ByteBuffer)this.outputBuffers.getLast();
+
+            if (var4 == null || var4.limit() == var4.capacity())
+            {
+                var4 = NioBufferPool.getBuffer();
+                var4.limit(0);
+                this.outputBuffers.addLast(var4);
+            }
+
+            int var5 = Math.min(par2 - var3, var4.capacity() - var4.limit());
+            int var6 = var4.position();
+            int var7 = var4.limit();
+            var4.limit(var7 + var5);
+            var4.position(var7);
+            var4.put(par1ArrayOfByte, var3, var5);
+            var4.position(var6);
+            var3 += var5;
+            this.outputLength += var5;
+        }
+    }
+
+    private void releaseBuffers()
+    {
+        while (!this.outputBuffers.isEmpty())
+        {
+            NioBufferPool.releaseBuffer((ByteBuffer)this.outputBuffers.removeFirst());
+        }
+
+        this.outputLength = 0;
+
+        this.packetBuffer = null;
+        this.inputBuffer = null;
+    }
+
+    /**
+     * Reads what is available from the socket into the given buffer and decodes all packets completed by it. Called on
+     * the selector thread.
+     */
+    public void readInput(ByteBuffer par1ByteBuffer)
+    {
+        try
+        {
+            par1ByteBuffer.clear();
+            int var2 = this.socketChannel.read(par1ByteBuffer);
+
+            if (var2 < 0)
+            {
+                this.networkShutdown("disconnect.endOfStream", new Object[0]);
+            }
+            else if (var2 > 0 && this.inputBuffer != null)
+            {
+                par1ByteBuffer.flip();
+                int var3 = this.inputBuffer.size();
+                this.inputBuffer.addLength(var2);
+                par1ByteBuffer.get(this.inputBuffer.getData(), var3, var2);
+
+                if (this.inputCipher != null)
+                {
+                    this.inputCipher.processByte(this.inputBuffer.getData(), var3, var2, this.inputBuffer.getData(), var3);
+                }
+
+                this.decodePackets();
+            }
+        }
+        catch (Exception var4)
+        {
+            if (!this.isTerminating)
+            {
+                this.onNetworkError(var4);
+            }
+        }
+    }
+
+    /**
+     * Decodes the complete packets at the start of the received data, the rest is kept until more data arrives
+     */
+    private void decodePackets() throws IOException
+    {
+        PacketBuffer var1 = this.inputBuffer;
+
+        while (var1.readableBytes() > 0 && this.isRunning)
+        {
+            int var2 = var1.getReaderIndex();
+            Packet var3;
+
+            try
+            {
+                var3 = Packet.readPacketFromBuffer(this.logAgent, var1.getDataInput(), this.theNetHandler.isServerHandler());
+            }
+            catch (EOFException var5)
+            {
+                var1.setReaderIndex(var2);
+                break;
+            }
+
+            this.onPacketRead(var3, var1.getReaderIndex() - var2);
+        }
+
+        var1.discardReadBytes();
+
+        if (var1.size() > MAX_INPUT_BYTES)
+        {
+            this.networkShutdown("disconnect.overflow", new Object[0]);
+        }
+    }
+
+    /**
+     * Processes or queues a received packet. Args: packet, number of bytes it was read from
+     */
+    private void onPacketRead(Packet par1Packet, int par2)
+    {
+        if (par1Packet instanceof Packet252SharedKey && this.inputCipher == null)
+        {
+            if (this.theNetHandler.isServerHandler())
+            {
+                this.sharedKeyForEncryption = ((Packet252SharedKey)par1Packet).getSharedKey(this.privateKey);
+            }
+
+            this.inputCipher = CryptManager.createBufferedBlockCipher(false, this.sharedKeyForEncryption);
+
+            if (this.inputBuffer.readableBytes() > 0)
+            {
+                int var3 = this.inputBuffer.getReaderIndex();
+                this.inputCipher.processByte(this.inputBuffer.getData(), var3, this.inputBuffer.readableBytes(), this.inputBuffer.getData(), var3);
+            }
+        }
+
+        TcpConnection.field_74470_c[par1Packet.getPacketId()] += par2;
+
+        if (!this.isServerTerminating)
+        {
+            if (par1Packet.canProcessAsync() && this.theNetHandler.canProcessPacketsAsync())
+            {
+                this.ticksSinceLastRead = 0;
+                par1Packet.processPacket(this.theNetHandler);
+            }
+            else
+            {
+                this.readPackets.add(par1Packet);
+            }
+        }
+    }
+
+    /**
+     * Wakes reader and writer threads
+     */
+    public void wakeThreads()
+    {
+        boolean var1;
+
+        synchronized (this.sendQueueLock)
+        {
+            var1 = !this.dataPackets.isEmpty();
+        }
+
+        if (var1 || !this.isRunning)
+        {
+            this.scheduleFlush();
+        }
+    }
+
+    /**
+     * Used to report network errors and causes a network shutdown.
+     */
+    private void onNetworkError(Exception par1Exception)
+    {
+        par1Exception.printStackTrace();
+        this.networkShutdown("disconnect.genericReason", new Object[] {"Internal exception: " + par1Exception.toString()});
+    }
+
+    /**
+     * Shuts down the network with the specified reason. Closes all streams and sockets, spawns NetworkMasterThread to
+     * stop reading and writing threads.
+     */
+    public void networkShutdown(String par1Str, Object ... par2ArrayOfObj)
+    {
+        if (this.isRunning)
+        {
+            this.isTerminating = true;
+            this.terminationReason = par1Str;
+            this.terminationReasonArgs = par2ArrayOfObj;
+            this.isRunning = false;
+
+            try
+            {
+                this.socketChannel.close();
+            }
+            catch (Throwable var4)
+            {
+                ;
+            }
+
+            this.listenThread.queueFlush(this, true);
+        }
+    }
+
+    /**
+     * Returns the bytes of the packets queued on this connection and not written to the socket yet
+     */
+    public int getQueuedBytes()
+    {
+        synchronized (this.sendQueueLock)
+        {
+            return this.sendQueueByteLength + this.unsentBytes;
+        }
+    }
+
+    /**
+     * Returns the bytes which were flushed to the selector thread but could not be written to the socket yet, above
+     * zero the link is busy
+     */
+    public int getUnsentBytes()
+    {
+        synchronized (this.sendQueueLock)
+        {
+            return this.unsentBytes;
+        }
+    }
+
+    /**
+     * Returns the total number of bytes written to the socket
+     */
+    public long getBytesWritten()
+    {
+        return this.bytesWritten;
+    }
+
+    /**
+     * Checks timeouts and processes all pending read packets.
+     */
+    public void processReadPackets()
+    {
+        if (this.sendQueueByteLength > 2097152)
+        {
+            this.networkShutdown("disconnect.overflow", new Object[0]);
+        }
+
+        if (this.readPackets.isEmpty())
+        {
+            if (this.ticksSinceLastRead++ == 1200)
+            {
+                this.networkShutdown("disconnect.timeout", new Object[0]);
+            }
+        }
+        else
+        {
+            this.ticksSinceLastRead = 0;
+        }
+
+        int var1 = 1000;
+
+        while (!this.readPackets.isEmpty() && var1-- >= 0)
+        {
+            Packet var2 = (Packet)this.readPackets.remove(0);
+            var2.processPacket(this.theNetHandler);
+        }
+
+        this.wakeThreads();
+
+        if (this.isTerminating && this.readPackets.isEmpty())
+        {
+            this.theNetHandler.handleErrorMessage(this.terminationReason, this.terminationReasonArgs);
+        }
+    }
+
+    /**
+     * Closes the connection if the server asked to close it more than two seconds ago and it is still open. Called
+     * periodically on the selector thread.
+     */
+    public void checkServerShutdown(long par1)
+    {
+        if (this.isServerTerminating && this.isRunning && par1 - this.serverTerminatingTime > 2000L)
+        {
+            this.networkShutdown("disconnect.closed", new Object[0]);
+        }
+    }
+
+    /**
+     * Return the InetSocketAddress of the remote endpoint
+     */
+    public SocketAddress getSocketAddress()
+    {
+        return this.remoteSocketAddress;
+    }
+
+    /**
+     * Shuts down the server. (Only actually used on the server)
+     */
+    public void serverShutdown()
+    {
+        if (!this.isServerTerminating)
+        {
+            this.serverTerminatingTime = System.currentTimeMillis();
+            this.isServerTerminating = true;
+            this.listenThread.queueFlush(this, true);
+        }
+    }
+
+    /**
+     * returns 0 for memoryConnections
+     */
+    public int packetSize()
+    {
+        return 0;
+    }
+}
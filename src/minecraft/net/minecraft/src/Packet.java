@@ -1,5 +1,6 @@
 package net.minecraft.src;
 
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.EOFException;
@@ -179,15 +180,61 @@ public abstract class Packet
         return var5;
     }
 
+    /**
+     * Reads a packet, prefixed by its ID, from the bytes received so far. Unlike readPacket the EOFException is passed
+     * on, it tells that the rest of the packet has not arrived yet. The packet size is taken from the bytes read.
+     */
+    public static Packet readPacketFromBuffer(ILogAgent par0ILogAgent, PacketDataInputStream par1PacketDataInputStream, boolean par2) throws IOException
+    {
+        int var5 = par1PacketDataInputStream.getBuffer().getReaderIndex();
+        int var3 = par1PacketDataInputStream.readUnsignedByte();
+
+        if (par2 && !serverPacketIdList.contains(Integer.valueOf(var3)) || !par2 && !clientPacketIdList.contains(Integer.valueOf(var3)))
+        {
+            throw new IOException("Bad packet id " + var3);
+        }
+        else
+        {
+            Packet var4 = getNewPacket(par0ILogAgent, var3);
+
+            if (var4 == null)
+            {
+                throw new IOException("Bad packet id " + var3);
+            }
+            else
+            {
+                var4.field_98193_m = par0ILogAgent;
+                var4.readPacketData(par1PacketDataInputStream);
+                int var6 = par1PacketDataInputStream.getBuffer().getReaderIndex() - var5 - 1;
+                PacketCount.countPacket(var3, (long)var6);
+                ++receivedID;
+                receivedSize += (long)var6;
+                return var4;
+            }
+        }
+    }
+
     /**
      * Writes a packet, prefixed by its ID, to the data stream.
      */
     public static void writePacket(Packet par0Packet, DataOutputStream par1DataOutputStream) throws IOException
     {
-        par1DataOutputStream.write(par0Packet.getPacketId());
-        par0Packet.writePacketData(par1DataOutputStream);
+        if (par1DataOutputStream instanceof PacketDataOutputStream)
+        {
+            PacketBuffer var2 = ((PacketDataOutputStream)par1DataOutputStream).getBuffer();
+            int var3 = var2.size();
+            par1DataOutputStream.write(par0Packet.getPacketId());
+            par0Packet.writePacketData(par1DataOutputStream);
+            sentSize += (long)(var2.size() - var3 - 1);
+        }
+        else
+        {
+            par1DataOutputStream.write(par0Packet.getPacketId());
+            par0Packet.writePacketData(par1DataOutputStream);
+            sentSize += (long)par0Packet.getPacketSize();
+        }
+
         ++sentID;
-        sentSize += (long)par0Packet.getPacketSize();
     }
 
     /**
@@ -341,6 +388,21 @@ public abstract class Packet
         {
             return null;
         }
+        else if (par0DataInputStream instanceof PacketDataInputStream)
+        {
+            PacketBuffer var3 = ((PacketDataInputStream)par0DataInputStream).getBuffer();
+
+            if (var3.readableBytes() < var1)
+            {
+                throw new EOFException();
+            }
+            else
+            {
+                int var4 = var3.getReaderIndex();
+                var3.setReaderIndex(var4 + var1);
+                return CompressedStreamTools.readCompressed(new ByteArrayInputStream(var3.getData(), var4, var1));
+            }
+        }
         else
         {
             byte[] var2 = new byte[var1];
@@ -358,6 +420,14 @@ public abstract class Packet
         {
             par1DataOutputStream.writeShort(-1);
         }
+        else if (par1DataOutputStream instanceof PacketDataOutputStream)
+        {
+            PacketBuffer var3 = ((PacketDataOutputStream)par1DataOutputStream).getBuffer();
+            par1DataOutputStream.writeShort(0);
+            int var4 = var3.size();
+            CompressedStreamTools.writeCompressed(par0NBTTagCompound, var3);
+            var3.setShort(var4 - 2, (short)(var3.size() - var4));
+        }
         else
         {
             byte[] var2 = CompressedStreamTools.compress(par0NBTTagCompound);
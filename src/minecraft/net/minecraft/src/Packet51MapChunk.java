@@ -3,7 +3,6 @@ package net.minecraft.src;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
-import java.util.zip.DataFormatException;
 import java.util.zip.Deflater;
 import java.util.zip.Inflater;
 
@@ -39,7 +38,7 @@ public class Packet51MapChunk extends Packet
     /** The length of the compressed chunk data byte array. */
     private int tempLength;
 
-    /** A temporary storage for the compressed chunk data byte array. */
+    /** Buffer getMapChunkData gathers the chunk data in, only used on the server thread. */
     private static byte[] temp = new byte[196864];
 
     public Packet51MapChunk()
@@ -54,7 +53,7 @@ public class Packet51MapChunk extends Packet
         this.zCh = par1Chunk.zPosition;
         this.includeInitialize = par2;
         Packet51MapChunkData var4 = getMapChunkData(par1Chunk, par2, par3);
-        Deflater var5 = new Deflater(-1);
+        Deflater var5 = CompressorPool.getDeflater();
         this.yChMax = var4.chunkHasAddSectionFlag;
         this.yChMin = var4.chunkExistFlag;
 
@@ -68,12 +67,13 @@ public class Packet51MapChunk extends Packet
         }
         finally
         {
-            var5.end();
+            CompressorPool.releaseDeflater(var5);
         }
     }
 
     /**
-     * Abstract. Reads the raw packet data from the data stream.
+     * Abstract. Reads the raw packet data from the data stream. The chunk data is kept compressed, it is inflated
+     * straight into the chunk by fillChunk.
      */
     public void readPacketData(DataInputStream par1DataInputStream) throws IOException
     {
@@ -83,44 +83,16 @@ public class Packet51MapChunk extends Packet
         this.yChMin = par1DataInputStream.readShort();
         this.yChMax = par1DataInputStream.readShort();
         this.tempLength = par1DataInputStream.readInt();
+        this.chunkData = new byte[this.tempLength];
+        par1DataInputStream.readFully(this.chunkData, 0, this.tempLength);
+    }
 
-        if (temp.length < this.tempLength)
-        {
-            temp = new byte[this.tempLength];
-        }
-
-        par1DataInputStream.readFully(temp, 0, this.tempLength);
-        int var2 = 0;
-        int var3;
-
-        for (var3 = 0; var3 < 16; ++var3)
-        {
-            var2 += this.yChMin >> var3 & 1;
-        }
-
-        var3 = 12288 * var2;
-
-        if (this.includeInitialize)
-        {
-            var3 += 256;
-        }
-
-        this.compressedChunkData = new byte[var3];
-        Inflater var4 = new Inflater();
-        var4.setInput(temp, 0, this.tempLength);
-
-        try
-        {
-            var4.inflate(this.compressedChunkData);
-        }
-        catch (DataFormatException var9)
-        {
-            throw new IOException("Bad compressed data format");
-        }
-        finally
-        {
-            var4.end();
-        }
+    /**
+     * Returns an inflater from the pool over the compressed chunk data, release it to the CompressorPool when done
+     */
+    public Inflater getChunkDataInflater()
+    {
+        return CompressorPool.getInflater(this.chunkData, 0, this.tempLength);
     }
 
     /**
@@ -160,6 +132,7 @@ public class Packet51MapChunk extends Packet
 
     public static Packet51MapChunkData getMapChunkData(Chunk par0Chunk, boolean par1, int par2)
     {
+        par0Chunk.worldObj.flushLightUpdates();
         int var3 = 0;
         ExtendedBlockStorage[] var4 = par0Chunk.getBlockStorageArray();
         int var5 = 0;
@@ -4,7 +4,6 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.List;
-import java.util.zip.DataFormatException;
 import java.util.zip.Deflater;
 import java.util.zip.Inflater;
 
@@ -58,7 +57,7 @@ public class Packet56MapChunks extends Packet
             this.field_73584_f[var4] = var6.compressedData;
         }
 
-        Deflater var11 = new Deflater(-1);
+        Deflater var11 = CompressorPool.getDeflater();
 
         try
         {
@@ -69,12 +68,96 @@ public class Packet56MapChunks extends Packet
         }
         finally
         {
-            var11.end();
+            CompressorPool.releaseDeflater(var11);
         }
     }
 
     /**
-     * Abstract. Reads the raw packet data from the data stream.
+     * Creates the packet from compressed chunk segments by joining them into one zlib stream, the segments have to be
+     * finished. Args: segments, whether the chunks have sky light
+     */
+    public Packet56MapChunks(ChunkPacketSegment[] par1ArrayOfChunkPacketSegment, boolean par2)
+    {
+        int var3 = par1ArrayOfChunkPacketSegment.length;
+        this.chunkPostX = new int[var3];
+        this.chunkPosZ = new int[var3];
+        this.field_73590_a = new int[var3];
+        this.field_73588_b = new int[var3];
+        this.field_73584_f = new byte[var3][];
+        this.field_92076_h = par2;
+        int var4 = 8;
+        int var5;
+
+        for (var5 = 0; var5 < var3; ++var5)
+        {
+            var4 += par1ArrayOfChunkPacketSegment[var5].getDeflatedLength();
+        }
+
+        this.chunkDataBuffer = new byte[var4];
+        this.chunkDataBuffer[0] = 120;
+        this.chunkDataBuffer[1] = -100;
+        var4 = 2;
+        int var6 = 1;
+
+        for (var5 = 0; var5 < var3; ++var5)
+        {
+            ChunkPacketSegment var7 = par1ArrayOfChunkPacketSegment[var5];
+            System.arraycopy(var7.getDeflatedData(), 0, this.chunkDataBuffer, var4, var7.getDeflatedLength());
+            var4 += var7.getDeflatedLength();
+            var6 = combineAdler32(var6, var7.getChecksum(), var7.getRawLength());
+            this.chunkPostX[var5] = var7.chunkX;
+            this.chunkPosZ[var5] = var7.chunkZ;
+            this.field_73590_a[var5] = var7.chunkExistFlag;
+            this.field_73588_b[var5] = var7.chunkHasAddSectionFlag;
+        }
+
+        this.chunkDataBuffer[var4++] = 3;
+        this.chunkDataBuffer[var4++] = 0;
+        this.chunkDataBuffer[var4++] = (byte)(var6 >>> 24);
+        this.chunkDataBuffer[var4++] = (byte)(var6 >>> 16);
+        this.chunkDataBuffer[var4++] = (byte)(var6 >>> 8);
+        this.chunkDataBuffer[var4++] = (byte)var6;
+        this.dataLength = var4;
+    }
+
+    /**
+     * Returns the Adler-32 checksum of two pieces of data joined together. Args: checksum of the first piece, checksum
+     * of the second piece, length of the second piece
+     */
+    private static int combineAdler32(int par0, int par1, int par2)
+    {
+        int var3 = par2 % 65521;
+        int var4 = par0 & 65535;
+        int var5 = (int)((long)var3 * (long)var4 % 65521L);
+        var4 += (par1 & 65535) + 65521 - 1;
+        var5 += (par0 >>> 16 & 65535) + (par1 >>> 16 & 65535) + 65521 - var3;
+
+        if (var4 >= 65521)
+        {
+            var4 -= 65521;
+        }
+
+        if (var4 >= 65521)
+        {
+            var4 -= 65521;
+        }
+
+        if (var5 >= 131042)
+        {
+            var5 -= 131042;
+        }
+
+        if (var5 >= 65521)
+        {
+            var5 -= 65521;
+        }
+
+        return var5 << 16 | var4;
+    }
+
+    /**
+     * Abstract. Reads the raw packet data from the data stream. The chunk data is kept compressed, it is inflated
+     * straight into the chunks by fillChunk.
      */
     public void readPacketData(DataInputStream par1DataInputStream) throws IOException
     {
@@ -86,60 +169,51 @@ public class Packet56MapChunks extends Packet
         this.field_73590_a = new int[var2];
         this.field_73588_b = new int[var2];
         this.field_73584_f = new byte[var2][];
+        this.chunkDataBuffer = new byte[this.dataLength];
+        par1DataInputStream.readFully(this.chunkDataBuffer, 0, this.dataLength);
 
-        if (chunkDataNotCompressed.length < this.dataLength)
+        for (int var3 = 0; var3 < var2; ++var3)
         {
-            chunkDataNotCompressed = new byte[this.dataLength];
+            this.chunkPostX[var3] = par1DataInputStream.readInt();
+            this.chunkPosZ[var3] = par1DataInputStream.readInt();
+            this.field_73590_a[var3] = par1DataInputStream.readShort();
+            this.field_73588_b[var3] = par1DataInputStream.readShort();
         }
+    }
 
-        par1DataInputStream.readFully(chunkDataNotCompressed, 0, this.dataLength);
-        byte[] var3 = new byte[196864 * var2];
-        Inflater var4 = new Inflater();
-        var4.setInput(chunkDataNotCompressed, 0, this.dataLength);
+    /**
+     * Returns the length of the uncompressed data of a chunk in the packet
+     */
+    public int getChunkDataLength(int par1)
+    {
+        int var2 = 0;
+        int var3 = 0;
+        int var4;
 
-        try
-        {
-            var4.inflate(var3);
-        }
-        catch (DataFormatException var12)
-        {
-            throw new IOException("Bad compressed data format");
-        }
-        finally
+        for (var4 = 0; var4 < 16; ++var4)
         {
-            var4.end();
+            var2 += this.field_73590_a[par1] >> var4 & 1;
+            var3 += this.field_73588_b[par1] >> var4 & 1;
         }
 
-        int var5 = 0;
+        var4 = 2048 * 4 * var2 + 256;
+        var4 += 2048 * var3;
 
-        for (int var6 = 0; var6 < var2; ++var6)
+        if (this.field_92076_h)
         {
-            this.chunkPostX[var6] = par1DataInputStream.readInt();
-            this.chunkPosZ[var6] = par1DataInputStream.readInt();
-            this.field_73590_a[var6] = par1DataInputStream.readShort();
-            this.field_73588_b[var6] = par1DataInputStream.readShort();
-            int var7 = 0;
-            int var8 = 0;
-            int var9;
-
-            for (var9 = 0; var9 < 16; ++var9)
-            {
-                var7 += this.field_73590_a[var6] >> var9 & 1;
-                var8 += this.field_73588_b[var6] >> var9 & 1;
-            }
-
-            var9 = 2048 * 4 * var7 + 256;
-            var9 += 2048 * var8;
+            var4 += 2048 * var2;
+        }
 
-            if (this.field_92076_h)
-            {
-                var9 += 2048 * var7;
-            }
+        return var4;
+    }
 
-            this.field_73584_f[var6] = new byte[var9];
-            System.arraycopy(var3, var5, this.field_73584_f[var6], 0, var9);
-            var5 += var9;
-        }
+    /**
+     * Returns an inflater from the pool over the compressed data of all chunks, release it to the CompressorPool when
+     * done
+     */
+    public Inflater getChunkDataInflater()
+    {
+        return CompressorPool.getInflater(this.chunkDataBuffer, 0, this.dataLength);
     }
 
     /**
@@ -0,0 +1,149 @@
+package net.minecraft.src;
+
+import java.io.OutputStream;
+
+/**
+ * Growable byte buffer a connection keeps for its whole life, cleared and reused for every packet it serializes or
+ * decodes so packets are written and read in place without a byte array per packet. Not thread safe, each buffer
+ * belongs to one connection.
+ */
+public class PacketBuffer extends OutputStream
+{
+    /** Initial size of the backing array */
+    private static final int INITIAL_SIZE = 4096;
+    private byte[] data;
+
+    /** Number of bytes written */
+    private int length = 0;
+
+    /** Index of the next byte to read */
+    private int readerIndex = 0;
+    private final PacketDataOutputStream dataOutput;
+    private final PacketDataInputStream dataInput;
+
+    public PacketBuffer()
+    {
+        this.data = new byte[INITIAL_SIZE];
+        this.dataOutput = new PacketDataOutputStream(this);
+        this.dataInput = new PacketDataInputStream(this);
+    }
+
+    /**
+     * Ensures the backing array can hold the given number of bytes
+     */
+    public void ensureCapacity(int par1)
+    {
+        if (par1 > this.data.length)
+        {
+            byte[] var2 = new byte[Math.max(par1, this.data.length * 2)];
+            System.arraycopy(this.data, 0, var2, 0, this.length);
+            this.data = var2;
+        }
+    }
+
+    public void write(int par1)
+    {
+        this.ensureCapacity(this.length + 1);
+        this.data[this.length++] = (byte)par1;
+    }
+
+    public void write(byte[] par1ArrayOfByte, int par2, int par3)
+    {
+        this.ensureCapacity(this.length + par3);
+        System.arraycopy(par1ArrayOfByte, par2, this.data, this.length, par3);
+        this.length += par3;
+    }
+
+    /**
+     * Overwrites two already written bytes with the short, used to fill in a length prefix once the data following it
+     * has been written. Args: index, value
+     */
+    public void setShort(int par1, int par2)
+    {
+        this.data[par1] = (byte)(par2 >>> 8);
+        this.data[par1 + 1] = (byte)par2;
+    }
+
+    /**
+     * Marks the given number of bytes following the written data as written, for filling the backing array directly
+     */
+    public void addLength(int par1)
+    {
+        this.ensureCapacity(this.length + par1);
+        this.length += par1;
+    }
+
+    /**
+     * Returns the backing array, valid up to size(). The array changes when the buffer grows.
+     */
+    public byte[] getData()
+    {
+        return this.data;
+    }
+
+    /**
+     * Returns the number of bytes written
+     */
+    public int size()
+    {
+        return this.length;
+    }
+
+    public int getReaderIndex()
+    {
+        return this.readerIndex;
+    }
+
+    public void setReaderIndex(int par1)
+    {
+        this.readerIndex = par1;
+    }
+
+    /**
+     * Returns the number of written bytes not read yet
+     */
+    public int readableBytes()
+    {
+        return this.length - this.readerIndex;
+    }
+
+    /**
+     * Removes the bytes already read, moving the rest to the start of the buffer
+     */
+    public void discardReadBytes()
+    {
+        if (this.readerIndex > 0)
+        {
+            System.arraycopy(this.data, this.readerIndex, this.data, 0, this.length - this.readerIndex);
+            this.length -= this.readerIndex;
+            this.readerIndex = 0;
+        }
+    }
+
+    public void clear()
+    {
+        this.length = 0;
+        this.readerIndex = 0;
+    }
+
+    /**
+     * Returns the stream writing to the end of this buffer
+     */
+    public PacketDataOutputStream getDataOutput()
+    {
+        return this.dataOutput;
+    }
+
+    /**
+     * Returns the stream reading from the reader index of this buffer
+     */
+    public PacketDataInputStream getDataInput()
+    {
+        return this.dataInput;
+    }
+
+    /**
+     * Closing the buffer does nothing, it stays usable after clear()
+     */
+    public void close() {}
+}
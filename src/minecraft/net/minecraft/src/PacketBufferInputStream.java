@@ -0,0 +1,62 @@
+package net.minecraft.src;
+
+import java.io.InputStream;
+
+class PacketBufferInputStream extends InputStream
+{
+    private final PacketBuffer buffer;
+
+    public PacketBufferInputStream(PacketBuffer par1PacketBuffer)
+    {
+        this.buffer = par1PacketBuffer;
+    }
+
+    public int read()
+    {
+        int var1 = this.buffer.getReaderIndex();
+
+        if (var1 >= this.buffer.size())
+        {
+            return -1;
+        }
+        else
+        {
+            this.buffer.setReaderIndex(var1 + 1);
+            return this.buffer.getData()[var1] & 255;
+        }
+    }
+
+    public int read(byte[] par1ArrayOfByte, int par2, int par3)
+    {
+        int var4 = this.buffer.readableBytes();
+
+        if (par3 == 0)
+        {
+            return 0;
+        }
+        else if (var4 <= 0)
+        {
+            return -1;
+        }
+        else
+        {
+            int var5 = Math.min(par3, var4);
+            int var6 = this.buffer.getReaderIndex();
+            System.arraycopy(this.buffer.getData(), var6, par1ArrayOfByte, par2, var5);
+            this.buffer.setReaderIndex(var6 + var5);
+            return var5;
+        }
+    }
+
+    public long skip(long par1)
+    {
+        int var3 = (int)Math.max(0L, Math.min(par1, (long)this.buffer.readableBytes()));
+        this.buffer.setReaderIndex(this.buffer.getReaderIndex() + var3);
+        return (long)var3;
+    }
+
+    public int available()
+    {
+        return this.buffer.readableBytes();
+    }
+}
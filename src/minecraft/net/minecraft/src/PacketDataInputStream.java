@@ -0,0 +1,22 @@
+package net.minecraft.src;
+
+import java.io.DataInputStream;
+
+public class PacketDataInputStream extends DataInputStream
+{
+    private final PacketBuffer buffer;
+
+    public PacketDataInputStream(PacketBuffer par1PacketBuffer)
+    {
+        super(new PacketBufferInputStream(par1PacketBuffer));
+        this.buffer = par1PacketBuffer;
+    }
+
+    /**
+     * Returns the buffer this stream reads from
+     */
+    public PacketBuffer getBuffer()
+    {
+        return this.buffer;
+    }
+}
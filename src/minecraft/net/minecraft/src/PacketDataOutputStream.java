@@ -0,0 +1,22 @@
+package net.minecraft.src;
+
+import java.io.DataOutputStream;
+
+public class PacketDataOutputStream extends DataOutputStream
+{
+    private final PacketBuffer buffer;
+
+    public PacketDataOutputStream(PacketBuffer par1PacketBuffer)
+    {
+        super(par1PacketBuffer);
+        this.buffer = par1PacketBuffer;
+    }
+
+    /**
+     * Returns the buffer this stream writes to
+     */
+    public PacketBuffer getBuffer()
+    {
+        return this.buffer;
+    }
+}
@@ -37,7 +37,7 @@ class PlayerInstance
         }
         else
         {
-            var1.getWorldServer().theChunkProviderServer.loadChunk(var2, var3);
+            var1.getWorldServer().theChunkProviderServer.loadChunkAsync(var2, var3);
             this.chunkLoaded = true;
         }
     }
@@ -94,6 +94,8 @@ class PlayerInstance
                 {
                     this.myManager.getWorldServer().theChunkProviderServer.unloadChunksIfNotNearSpawn(this.chunkLocation.chunkXPos, this.chunkLocation.chunkZPos);
                 }
+
+                this.myManager.getChunkPacketCache().removeSegment(this.chunkLocation.chunkXPos, this.chunkLocation.chunkZPos);
             }
         }
     }
@@ -234,7 +236,7 @@ class PlayerInstance
             Chunk var3 = PlayerManager.getWorldServer(this.myManager).getChunkFromChunkCoords(this.chunkLocation.chunkXPos, this.chunkLocation.chunkZPos);
             ArrayList var4 = new ArrayList(1);
             var4.add(var3);
-            var2.playerNetServerHandler.sendPacketToPlayer(new Packet56MapChunks(var4));
+            var2.playerNetServerHandler.sendPacketToPlayer(this.myManager.getChunkPacketCache().createMapChunksPacket(var4, var2));
         }
     }
 }
@@ -30,6 +30,9 @@ public class PlayerManager
     /** x, z direction vectors: east, south, west, north */
     private final int[][] xzDirectionsConst = new int[][] {{1, 0}, {0, 1}, { -1, 0}, {0, -1}};
 
+    /** Compressed chunk data shared by the chunk packets sent to the players of this world */
+    private final ChunkPacketCache chunkPacketCache = new ChunkPacketCache();
+
     public PlayerManager(WorldServer par1WorldServer, int par2)
     {
         if (par2 > 15)
@@ -53,6 +56,11 @@ public class PlayerManager
         return this.theWorldServer;
     }
 
+    public ChunkPacketCache getChunkPacketCache()
+    {
+        return this.chunkPacketCache;
+    }
+
     /**
      * updates all the player instances that need to be updated
      */
@@ -163,6 +171,25 @@ public class PlayerManager
         return var7;
     }
 
+    /**
+     * Returns the squared distance in chunks from the given chunk to the chunk of the closest player, or
+     * Double.MAX_VALUE if there are no players
+     */
+    public double getDistanceSqToClosestPlayer(int par1, int par2)
+    {
+        double var3 = Double.MAX_VALUE;
+
+        for (int var5 = 0; var5 < this.players.size(); ++var5)
+        {
+            EntityPlayerMP var6 = (EntityPlayerMP)this.players.get(var5);
+            double var7 = (double)(((int)var6.managedPosX >> 4) - par1);
+            double var9 = (double)(((int)var6.managedPosZ >> 4) - par2);
+            var3 = Math.min(var3, var7 * var7 + var9 * var9);
+        }
+
+        return var3;
+    }
+
     /**
      * the "PlayerInstance"/ chunkWatcher will send this chunk to all players who are in line of sight
      */
@@ -203,7 +230,7 @@ public class PlayerManager
             }
         }
 
-        par1EntityPlayerMP.playerNetServerHandler.sendPacketToPlayer(new Packet56MapChunks(var4));
+        par1EntityPlayerMP.playerNetServerHandler.sendPacketToPlayer(this.chunkPacketCache.createMapChunksPacket(var4, par1EntityPlayerMP));
         this.players.add(par1EntityPlayerMP);
         this.filterChunkLoadQueue(par1EntityPlayerMP);
     }
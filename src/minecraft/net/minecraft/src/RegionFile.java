@@ -4,10 +4,17 @@ import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.zip.DeflaterOutputStream;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.InflaterInputStream;
@@ -15,15 +22,40 @@ import java.util.zip.InflaterInputStream;
 public class RegionFile
 {
     private static final byte[] emptySector = new byte[4096];
+
+    /** Size of the offset and timestamp tables at the start of the file */
+    private static final int HEADER_SIZE = 8192;
+
+    /** How often a read is retried when the chunk was moved by a concurrent write */
+    private static final int READ_RETRIES = 3;
     private final File fileName;
     private RandomAccessFile dataFile;
-    private final int[] offsets = new int[1024];
+
+    /** Channel of the data file, used for positional reads and writes which never move a shared file pointer */
+    private FileChannel dataChannel;
+
+    /** Memory mapped offset and timestamp tables */
+    private MappedByteBuffer header;
+
+    /** Offsets of the chunks, written by the synchronized writes and read by the unsynchronized chunk loads */
+    private final AtomicIntegerArray offsets = new AtomicIntegerArray(1024);
     private final int[] chunkTimestamps = new int[1024];
     private ArrayList sectorFree;
 
+    /** Number of sectors in the file, readable without holding the write lock */
+    private volatile int sectorCount;
+
     /** McRegion sizeDelta */
     private int sizeDelta;
-    private long lastModified = 0L;
+
+    /** Number of users holding this file open, -1 once it has been closed */
+    private final AtomicInteger references = new AtomicInteger(0);
+
+    /** Notified when the last user releases the file */
+    private final Object releaseLock = new Object();
+
+    /** Time of the last access through the RegionFileCache */
+    private volatile long lastAccessTime;
 
     public RegionFile(File par1File)
     {
@@ -32,11 +64,6 @@ public class RegionFile
 
         try
         {
-            if (par1File.exists())
-            {
-                this.lastModified = par1File.lastModified();
-            }
-
             this.dataFile = new RandomAccessFile(par1File, "rw");
             int var2;
 
@@ -74,13 +101,14 @@ public class RegionFile
 
             this.sectorFree.set(0, Boolean.valueOf(false));
             this.sectorFree.set(1, Boolean.valueOf(false));
-            this.dataFile.seek(0L);
+            this.dataChannel = this.dataFile.getChannel();
+            this.header = this.dataChannel.map(FileChannel.MapMode.READ_WRITE, 0L, (long)HEADER_SIZE);
             int var4;
 
             for (var3 = 0; var3 < 1024; ++var3)
             {
-                var4 = this.dataFile.readInt();
-                this.offsets[var3] = var4;
+                var4 = this.header.getInt(var3 * 4);
+                this.offsets.set(var3, var4);
 
                 if (var4 != 0 && (var4 >> 8) + (var4 & 255) <= this.sectorFree.size())
                 {
@@ -93,9 +121,11 @@ public class RegionFile
 
             for (var3 = 0; var3 < 1024; ++var3)
             {
-                var4 = this.dataFile.readInt();
+                var4 = this.header.getInt(4096 + var3 * 4);
                 this.chunkTimestamps[var3] = var4;
             }
+
+            this.sectorCount = this.sectorFree.size();
         }
         catch (IOException var6)
         {
@@ -104,9 +134,10 @@ public class RegionFile
     }
 
     /**
-     * args: x, y - get uncompressed chunk stream from the region file
+     * args: x, y - get uncompressed chunk stream from the region file. Not synchronized: the sectors are read with
+     * positional channel reads, so loads from this file may run in parallel with each other and with a write.
      */
-    public synchronized DataInputStream getChunkDataInputStream(int par1, int par2)
+    public DataInputStream getChunkDataInputStream(int par1, int par2)
     {
         if (this.outOfBounds(par1, par2))
         {
@@ -116,60 +147,63 @@ public class RegionFile
         {
             try
             {
-                int var3 = this.getOffset(par1, par2);
-
-                if (var3 == 0)
-                {
-                    return null;
-                }
-                else
+                for (int var3 = 0; var3 < READ_RETRIES; ++var3)
                 {
-                    int var4 = var3 >> 8;
-                    int var5 = var3 & 255;
+                    int var4 = this.getOffset(par1, par2);
+
+                    if (var4 == 0)
+                    {
+                        return null;
+                    }
+
+                    int var5 = var4 >> 8;
+                    int var6 = var4 & 255;
+
+                    if (var5 + var6 > this.sectorCount)
+                    {
+                        return null;
+                    }
+
+                    byte[] var7 = new byte[var6 * 4096];
+                    this.readFully(ByteBuffer.wrap(var7), (long)var5 * 4096L);
+
+                    if (this.getOffset(par1, par2) != var4)
+                    {
+                        continue;
+                    }
 
-                    if (var4 + var5 > this.sectorFree.size())
+                    int var8 = (var7[0] & 255) << 24 | (var7[1] & 255) << 16 | (var7[2] & 255) << 8 | var7[3] & 255;
+
+                    if (var8 > 4096 * var6 - 4)
+                    {
+                        return null;
+                    }
+                    else if (var8 <= 0)
                     {
                         return null;
                     }
                     else
                     {
-                        this.dataFile.seek((long)(var4 * 4096));
-                        int var6 = this.dataFile.readInt();
+                        byte var9 = var7[4];
 
-                        if (var6 > 4096 * var5)
+                        if (var9 == 1)
                         {
-                            return null;
+                            return new DataInputStream(new BufferedInputStream(new GZIPInputStream(new ByteArrayInputStream(var7, 5, var8 - 1))));
                         }
-                        else if (var6 <= 0)
+                        else if (var9 == 2)
                         {
-                            return null;
+                            return new DataInputStream(new BufferedInputStream(new InflaterInputStream(new ByteArrayInputStream(var7, 5, var8 - 1))));
                         }
                         else
                         {
-                            byte var7 = this.dataFile.readByte();
-                            byte[] var8;
-
-                            if (var7 == 1)
-                            {
-                                var8 = new byte[var6 - 1];
-                                this.dataFile.read(var8);
-                                return new DataInputStream(new BufferedInputStream(new GZIPInputStream(new ByteArrayInputStream(var8))));
-                            }
-                            else if (var7 == 2)
-                            {
-                                var8 = new byte[var6 - 1];
-                                this.dataFile.read(var8);
-                                return new DataInputStream(new BufferedInputStream(new InflaterInputStream(new ByteArrayInputStream(var8))));
-                            }
-                            else
-                            {
-                                return null;
-                            }
+                            return null;
                         }
                     }
                 }
+
+                return null;
             }
-            catch (IOException var9)
+            catch (IOException var10)
             {
                 return null;
             }
@@ -181,7 +215,15 @@ public class RegionFile
      */
     public DataOutputStream getChunkDataOutputStream(int par1, int par2)
     {
-        return this.outOfBounds(par1, par2) ? null : new DataOutputStream(new DeflaterOutputStream(new RegionFileChunkBuffer(this, par1, par2)));
+        if (this.outOfBounds(par1, par2))
+        {
+            return null;
+        }
+        else
+        {
+            this.acquire();
+            return new DataOutputStream(new DeflaterOutputStream(new RegionFileChunkBuffer(this, par1, par2)));
+        }
     }
 
     /**
@@ -249,7 +291,6 @@ public class RegionFile
                 if (var10 >= var8)
                 {
                     var6 = var9;
-                    this.setOffset(par1, par2, var9 << 8 | var8);
 
                     for (var11 = 0; var11 < var8; ++var11)
                     {
@@ -257,18 +298,19 @@ public class RegionFile
                     }
 
                     this.write(var6, par3ArrayOfByte, par4);
+                    this.setOffset(par1, par2, var9 << 8 | var8);
                 }
                 else
                 {
-                    this.dataFile.seek(this.dataFile.length());
                     var6 = this.sectorFree.size();
 
                     for (var11 = 0; var11 < var8; ++var11)
                     {
-                        this.dataFile.write(emptySector);
+                        this.writeFully(ByteBuffer.wrap(emptySector), (long)(var6 + var11) * 4096L);
                         this.sectorFree.add(Boolean.valueOf(false));
                     }
 
+                    this.sectorCount = this.sectorFree.size();
                     this.sizeDelta += 4096 * var8;
                     this.write(var6, par3ArrayOfByte, par4);
                     this.setOffset(par1, par2, var6 << 8 | var8);
@@ -288,10 +330,64 @@ public class RegionFile
      */
     private void write(int par1, byte[] par2ArrayOfByte, int par3) throws IOException
     {
-        this.dataFile.seek((long)(par1 * 4096));
-        this.dataFile.writeInt(par3 + 1);
-        this.dataFile.writeByte(2);
-        this.dataFile.write(par2ArrayOfByte, 0, par3);
+        ByteBuffer var4 = ByteBuffer.allocate(par3 + 5);
+        var4.putInt(par3 + 1);
+        var4.put((byte)2);
+        var4.put(par2ArrayOfByte, 0, par3);
+        var4.flip();
+        this.writeFully(var4, (long)par1 * 4096L);
+    }
+
+    /**
+     * args: buffer, position - fills the buffer from the given position of the file. The interrupt status of the thread
+     * is cleared during the read and restored afterwards, an interrupted channel operation would close the channel
+     * for every user of this file.
+     */
+    private void readFully(ByteBuffer par1ByteBuffer, long par2) throws IOException
+    {
+        boolean var4 = Thread.interrupted();
+
+        try
+        {
+            while (par1ByteBuffer.hasRemaining())
+            {
+                if (this.dataChannel.read(par1ByteBuffer, par2 + (long)par1ByteBuffer.position()) < 0)
+                {
+                    throw new EOFException();
+                }
+            }
+        }
+        finally
+        {
+            if (var4)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * args: buffer, position - writes the whole buffer at the given position of the file, with the interrupt status
+     * cleared like readFully
+     */
+    private void writeFully(ByteBuffer par1ByteBuffer, long par2) throws IOException
+    {
+        boolean var4 = Thread.interrupted();
+
+        try
+        {
+            while (par1ByteBuffer.hasRemaining())
+            {
+                this.dataChannel.write(par1ByteBuffer, par2 + (long)par1ByteBuffer.position());
+            }
+        }
+        finally
+        {
+            if (var4)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
     }
 
     /**
@@ -307,7 +403,7 @@ public class RegionFile
      */
     private int getOffset(int par1, int par2)
     {
-        return this.offsets[par1 + par2 * 32];
+        return this.offsets.get(par1 + par2 * 32);
     }
 
     /**
@@ -323,9 +419,8 @@ public class RegionFile
      */
     private void setOffset(int par1, int par2, int par3) throws IOException
     {
-        this.offsets[par1 + par2 * 32] = par3;
-        this.dataFile.seek((long)((par1 + par2 * 32) * 4));
-        this.dataFile.writeInt(par3);
+        this.offsets.set(par1 + par2 * 32, par3);
+        this.header.putInt((par1 + par2 * 32) * 4, par3);
     }
 
     /**
@@ -334,18 +429,137 @@ public class RegionFile
     private void setChunkTimestamp(int par1, int par2, int par3) throws IOException
     {
         this.chunkTimestamps[par1 + par2 * 32] = par3;
-        this.dataFile.seek((long)(4096 + (par1 + par2 * 32) * 4));
-        this.dataFile.writeInt(par3);
+        this.header.putInt(4096 + (par1 + par2 * 32) * 4, par3);
+    }
+
+    /**
+     * Marks this file as in use so the RegionFileCache does not close it. Returns false if it has already been closed.
+     */
+    public boolean acquire()
+    {
+        int var1;
+
+        do
+        {
+            var1 = this.references.get();
+
+            if (var1 < 0)
+            {
+                return false;
+            }
+        }
+        while (!this.references.compareAndSet(var1, var1 + 1));
+
+        return true;
+    }
+
+    /**
+     * Ends a use started with acquire
+     */
+    public void release()
+    {
+        if (this.references.decrementAndGet() == 0)
+        {
+            synchronized (this.releaseLock)
+            {
+                this.releaseLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Closes the file if nobody is using it. Returns false if it is still in use.
+     */
+    public boolean closeIfUnused() throws IOException
+    {
+        if (!this.references.compareAndSet(0, -1))
+        {
+            return false;
+        }
+        else
+        {
+            this.close();
+            return true;
+        }
+    }
+
+    /**
+     * Waits until nobody is using the file and closes it. Returns false if it was still in use after the given number
+     * of milliseconds.
+     */
+    public boolean closeWhenUnused(long par1) throws IOException, InterruptedException
+    {
+        long var3 = System.currentTimeMillis() + par1;
+
+        synchronized (this.releaseLock)
+        {
+            while (!this.closeIfUnused())
+            {
+                long var5 = var3 - System.currentTimeMillis();
+
+                if (var5 <= 0L || this.references.get() < 0)
+                {
+                    return this.references.get() < 0;
+                }
+
+                this.releaseLock.wait(var5);
+            }
+
+            return true;
+        }
+    }
+
+    public long getLastAccessTime()
+    {
+        return this.lastAccessTime;
+    }
+
+    public void setLastAccessTime(long par1)
+    {
+        this.lastAccessTime = par1;
     }
 
     /**
      * close this RegionFile and prevent further writes
      */
-    public void close() throws IOException
+    public synchronized void close() throws IOException
     {
+        this.references.set(-1);
+
+        if (this.header != null)
+        {
+            this.header.force();
+            unmap(this.header);
+            this.header = null;
+        }
+
         if (this.dataFile != null)
         {
             this.dataFile.close();
+            this.dataFile = null;
+        }
+    }
+
+    /**
+     * Releases the mapping right away instead of when the buffer is collected, otherwise the file stays locked on
+     * Windows and the world can not be deleted.
+     */
+    private static void unmap(MappedByteBuffer par0MappedByteBuffer)
+    {
+        try
+        {
+            Method var1 = par0MappedByteBuffer.getClass().getMethod("cleaner", new Class[0]);
+            var1.setAccessible(true);
+            Object var2 = var1.invoke(par0MappedByteBuffer, new Object[0]);
+
+            if (var2 != null)
+            {
+                var2.getClass().getMethod("clean", new Class[0]).invoke(var2, new Object[0]);
+            }
+        }
+        catch (Throwable var3)
+        {
+            ;
         }
     }
 }
@@ -4,68 +4,159 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class RegionFileCache
 {
+    /** Maximum number of region files kept open */
+    private static final int MAX_OPEN_FILES = 256;
+
     /** A map containing Files as keys and RegionFiles as values */
-    private static final Map regionsByFilename = new HashMap();
+    private static final ConcurrentHashMap regionsByFilename = new ConcurrentHashMap();
+
+    /** How long closing all region files waits for writes still using them before closing them anyway */
+    private static final long CLOSE_TIMEOUT = 10000L;
 
-    public static synchronized RegionFile createOrLoadRegionFile(File par0File, int par1, int par2)
+    /** Guards opening and closing of region files, lookups of open files do not lock */
+    private static final Object lock = new Object();
+
+    public static RegionFile createOrLoadRegionFile(File par0File, int par1, int par2)
+    {
+        RegionFile var3 = acquireRegionFile(par0File, par1, par2);
+        var3.release();
+        return var3;
+    }
+
+    /**
+     * Returns the region file containing the given chunk, opening it if needed and marking it as in use. The caller
+     * must release it when done. Args: worldDir, chunkX, chunkZ
+     */
+    private static RegionFile acquireRegionFile(File par0File, int par1, int par2)
     {
         File var3 = new File(par0File, "region");
         File var4 = new File(var3, "r." + (par1 >> 5) + "." + (par2 >> 5) + ".mca");
-        RegionFile var5 = (RegionFile)regionsByFilename.get(var4);
 
-        if (var5 != null)
-        {
-            return var5;
-        }
-        else
+        while (true)
         {
-            if (!var3.exists())
+            RegionFile var5 = (RegionFile)regionsByFilename.get(var4);
+
+            if (var5 == null)
             {
-                var3.mkdirs();
+                synchronized (lock)
+                {
+                    var5 = (RegionFile)regionsByFilename.get(var4);
+
+                    if (var5 == null)
+                    {
+                        if (!var3.exists())
+                        {
+                            var3.mkdirs();
+                        }
+
+                        var5 = new RegionFile(var4);
+                        var5.acquire();
+                        var5.setLastAccessTime(System.nanoTime());
+                        regionsByFilename.put(var4, var5);
+                        evictLeastRecentlyUsed();
+                        return var5;
+                    }
+                }
             }
 
-            if (regionsByFilename.size() >= 256)
+            if (var5.acquire())
             {
-                clearRegionFileReferences();
+                var5.setLastAccessTime(System.nanoTime());
+                return var5;
             }
 
-            RegionFile var6 = new RegionFile(var4);
-            regionsByFilename.put(var4, var6);
-            return var6;
+            regionsByFilename.remove(var4, var5);
         }
     }
 
     /**
-     * Saves the current Chunk Map Cache
+     * Closes the least recently used region files which are not in use until at most MAX_OPEN_FILES are left open.
+     * Only called while holding the lock.
      */
-    public static synchronized void clearRegionFileReferences()
+    private static void evictLeastRecentlyUsed()
     {
-        Iterator var0 = regionsByFilename.values().iterator();
-
-        while (var0.hasNext())
+        for (int var0 = regionsByFilename.size(); regionsByFilename.size() > MAX_OPEN_FILES && var0 > 0; --var0)
         {
-            RegionFile var1 = (RegionFile)var0.next();
+            Entry var1 = null;
+            Iterator var2 = regionsByFilename.entrySet().iterator();
+
+            while (var2.hasNext())
+            {
+                Entry var3 = (Entry)var2.next();
+
+                if (var1 == null || ((RegionFile)var3.getValue()).getLastAccessTime() < ((RegionFile)var1.getValue()).getLastAccessTime())
+                {
+                    var1 = var3;
+                }
+            }
+
+            RegionFile var4 = (RegionFile)var1.getValue();
 
             try
             {
-                if (var1 != null)
+                if (!var4.closeIfUnused())
                 {
-                    var1.close();
+                    var4.setLastAccessTime(System.nanoTime());
+                    continue;
                 }
             }
-            catch (IOException var3)
+            catch (IOException var5)
             {
-                var3.printStackTrace();
+                var5.printStackTrace();
             }
+
+            regionsByFilename.remove(var1.getKey());
         }
+    }
+
+    /**
+     * Saves the current Chunk Map Cache
+     */
+    public static void clearRegionFileReferences()
+    {
+        synchronized (lock)
+        {
+            long var0 = System.currentTimeMillis() + CLOSE_TIMEOUT;
+            Iterator var2 = regionsByFilename.values().iterator();
+
+            while (var2.hasNext())
+            {
+                RegionFile var3 = (RegionFile)var2.next();
 
-        regionsByFilename.clear();
+                try
+                {
+                    if (!var3.closeWhenUnused(Math.max(var0 - System.currentTimeMillis(), 0L)))
+                    {
+                        var3.close();
+                    }
+                }
+                catch (InterruptedException var5)
+                {
+                    Thread.currentThread().interrupt();
+
+                    try
+                    {
+                        var3.close();
+                    }
+                    catch (IOException var4)
+                    {
+                        var4.printStackTrace();
+                    }
+                }
+                catch (IOException var6)
+                {
+                    var6.printStackTrace();
+                }
+            }
+
+            regionsByFilename.clear();
+        }
     }
 
     /**
@@ -73,16 +164,33 @@ public class RegionFileCache
      */
     public static DataInputStream getChunkInputStream(File par0File, int par1, int par2)
     {
-        RegionFile var3 = createOrLoadRegionFile(par0File, par1, par2);
-        return var3.getChunkDataInputStream(par1 & 31, par2 & 31);
+        RegionFile var3 = acquireRegionFile(par0File, par1, par2);
+
+        try
+        {
+            return var3.getChunkDataInputStream(par1 & 31, par2 & 31);
+        }
+        finally
+        {
+            var3.release();
+        }
     }
 
     /**
-     * Returns an output stream for the specified chunk. Args: worldDir, chunkX, chunkZ
+     * Returns an output stream for the specified chunk, the region file stays open until the stream is closed. Args:
+     * worldDir, chunkX, chunkZ
      */
     public static DataOutputStream getChunkOutputStream(File par0File, int par1, int par2)
     {
-        RegionFile var3 = createOrLoadRegionFile(par0File, par1, par2);
-        return var3.getChunkDataOutputStream(par1 & 31, par2 & 31);
+        RegionFile var3 = acquireRegionFile(par0File, par1, par2);
+
+        try
+        {
+            return var3.getChunkDataOutputStream(par1 & 31, par2 & 31);
+        }
+        finally
+        {
+            var3.release();
+        }
     }
 }
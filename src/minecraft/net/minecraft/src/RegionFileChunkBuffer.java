@@ -20,6 +20,13 @@ class RegionFileChunkBuffer extends ByteArrayOutputStream
 
     public void close() throws IOException
     {
-        this.regionFile.write(this.chunkX, this.chunkZ, this.buf, this.count);
+        try
+        {
+            this.regionFile.write(this.chunkX, this.chunkZ, this.buf, this.count);
+        }
+        finally
+        {
+            this.regionFile.release();
+        }
     }
 }
@@ -273,15 +273,25 @@ public class RenderBlocks
     public boolean aoLightValuesCalculated;
     public float aoLightValueOpaque = 0.2F;
 
+    /** The Tessellator this instance draws into, chunk builder threads each pass their own */
+    public Tessellator tessellator;
+
     public RenderBlocks(IBlockAccess par1IBlockAccess)
+    {
+        this(par1IBlockAccess, Tessellator.instance);
+    }
+
+    public RenderBlocks(IBlockAccess par1IBlockAccess, Tessellator par2Tessellator)
     {
         this.blockAccess = par1IBlockAccess;
+        this.tessellator = par2Tessellator;
         this.minecraftRB = Minecraft.getMinecraft();
         this.aoLightValueOpaque = 1.0F - Config.getAmbientOcclusionLevel() * 0.8F;
     }
 
     public RenderBlocks()
     {
+        this.tessellator = Tessellator.instance;
         this.minecraftRB = Minecraft.getMinecraft();
     }
 
@@ -401,7 +411,7 @@ public class RenderBlocks
 
             if (Config.isBetterSnow() && par1Block == Block.signPost && this.hasSnowNeighbours(par2, par3, par4))
             {
-                this.renderSnow(par2, par3, par4, Block.snow.maxY);
+                this.renderSnow(par2, par3, par4, 0.125D);
             }
 
             this.setRenderBoundsFromBlock(par1Block);
@@ -585,7 +595,7 @@ public class RenderBlocks
      */
     public boolean renderBlockBed(Block par1Block, int par2, int par3, int par4)
     {
-        Tessellator var5 = Tessellator.instance;
+        Tessellator var5 = this.tessellator;
         int var6 = this.blockAccess.getBlockMetadata(par2, par3, par4);
         int var7 = BlockBed.getDirection(var6);
         boolean var8 = BlockBed.isBlockHeadOfBed(var6);
@@ -761,7 +771,7 @@ public class RenderBlocks
         this.setRenderBounds(0.125D, 0.0D, 0.5625D, 0.5D, 0.125D, 0.9375D);
         this.renderStandardBlock(par1BlockBrewingStand, par2, par3, par4);
         this.clearOverrideBlockTexture();
-        Tessellator var5 = Tessellator.instance;
+        Tessellator var5 = this.tessellator;
         var5.setBrightness(par1BlockBrewingStand.getMixedBrightnessForBlock(this.blockAccess, par2, par3, par4));
         float var6 = 1.0F;
         int var7 = par1BlockBrewingStand.colorMultiplier(this.blockAccess, par2, par3, par4);
@@ -826,7 +836,7 @@ public class RenderBlocks
     public boolean renderBlockCauldron(BlockCauldron par1BlockCauldron, int par2, int par3, int par4)
     {
         this.renderStandardBlock(par1BlockCauldron, par2, par3, par4);
-        Tessellator var5 = Tessellator.instance;
+        Tessellator var5 = this.tessellator;
         var5.setBrightness(par1BlockCauldron.getMixedBrightnessForBlock(this.blockAccess, par2, par3, par4));
         float var6 = 1.0F;
         int var7 = par1BlockCauldron.colorMultiplier(this.blockAccess, par2, par3, par4);
@@ -883,7 +893,7 @@ public class RenderBlocks
     public boolean renderBlockFlowerpot(BlockFlowerPot par1BlockFlowerPot, int par2, int par3, int par4)
     {
         this.renderStandardBlock(par1BlockFlowerPot, par2, par3, par4);
-        Tessellator var5 = Tessellator.instance;
+        Tessellator var5 = this.tessellator;
         var5.setBrightness(par1BlockFlowerPot.getMixedBrightnessForBlock(this.blockAccess, par2, par3, par4));
         float var6 = 1.0F;
         int var7 = par1BlockFlowerPot.colorMultiplier(this.blockAccess, par2, par3, par4);
@@ -1012,7 +1022,7 @@ public class RenderBlocks
      */
     public boolean renderBlockAnvilMetadata(BlockAnvil par1BlockAnvil, int par2, int par3, int par4, int par5)
     {
-        Tessellator var6 = Tessellator.instance;
+        Tessellator var6 = this.tessellator;
         var6.setBrightness(par1BlockAnvil.getMixedBrightnessForBlock(this.blockAccess, par2, par3, par4));
         float var7 = 1.0F;
         int var8 = par1BlockAnvil.colorMultiplier(this.blockAccess, par2, par3, par4);
@@ -1106,7 +1116,7 @@ public class RenderBlocks
 
         if (par11)
         {
-            Tessellator var14 = Tessellator.instance;
+            Tessellator var14 = this.tessellator;
             var14.startDrawingQuads();
             var14.setNormal(0.0F, -1.0F, 0.0F);
             this.renderBottomFace(par1BlockAnvil, 0.0D, 0.0D, 0.0D, this.getBlockIconFromSideAndMetadata(par1BlockAnvil, 0, par12));
@@ -1146,7 +1156,7 @@ public class RenderBlocks
     public boolean renderBlockTorch(Block par1Block, int par2, int par3, int par4)
     {
         int var5 = this.blockAccess.getBlockMetadata(par2, par3, par4);
-        Tessellator var6 = Tessellator.instance;
+        Tessellator var6 = this.tessellator;
         var6.setBrightness(par1Block.getMixedBrightnessForBlock(this.blockAccess, par2, par3, par4));
         var6.setColorOpaque_F(1.0F, 1.0F, 1.0F);
         double var7 = 0.4000000059604645D;
@@ -1175,7 +1185,7 @@ public class RenderBlocks
 
             if (par1Block != Block.torchWood && Config.isBetterSnow() && this.hasSnowNeighbours(par2, par3, par4))
             {
-                this.renderSnow(par2, par3, par4, Block.snow.maxY);
+                this.renderSnow(par2, par3, par4, 0.125D);
             }
         }
 
@@ -1190,7 +1200,7 @@ public class RenderBlocks
         int var5 = this.blockAccess.getBlockMetadata(par2, par3, par4);
         int var6 = var5 & 3;
         int var7 = (var5 & 12) >> 2;
-        Tessellator var8 = Tessellator.instance;
+        Tessellator var8 = this.tessellator;
         var8.setBrightness(par1BlockRedstoneRepeater.getMixedBrightnessForBlock(this.blockAccess, par2, par3, par4));
         var8.setColorOpaque_F(1.0F, 1.0F, 1.0F);
         double var9 = -0.1875D;
@@ -1271,7 +1281,7 @@ public class RenderBlocks
 
     public boolean renderBlockComparator(BlockComparator par1BlockComparator, int par2, int par3, int par4)
     {
-        Tessellator var5 = Tessellator.instance;
+        Tessellator var5 = this.tessellator;
         var5.setBrightness(par1BlockComparator.getMixedBrightnessForBlock(this.blockAccess, par2, par3, par4));
         var5.setColorOpaque_F(1.0F, 1.0F, 1.0F);
         int var6 = this.blockAccess.getBlockMetadata(par2, par3, par4);
@@ -1326,7 +1336,7 @@ public class RenderBlocks
 
     public boolean renderBlockRedstoneLogic(BlockRedstoneLogic par1BlockRedstoneLogic, int par2, int par3, int par4)
     {
-        Tessellator var5 = Tessellator.instance;
+        Tessellator var5 = this.tessellator;
         this.renderBlockRedstoneLogicMetadata(par1BlockRedstoneLogic, par2, par3, par4, this.blockAccess.getBlockMetadata(par2, par3, par4) & 3);
         return true;
     }
@@ -1334,7 +1344,7 @@ public class RenderBlocks
     public void renderBlockRedstoneLogicMetadata(BlockRedstoneLogic par1BlockRedstoneLogic, int par2, int par3, int par4, int par5)
     {
         this.renderStandardBlock(par1BlockRedstoneLogic, par2, par3, par4);
-        Tessellator var6 = Tessellator.instance;
+        Tessellator var6 = this.tessellator;
         var6.setBrightness(par1BlockRedstoneLogic.getMixedBrightnessForBlock(this.blockAccess, par2, par3, par4));
         var6.setColorOpaque_F(1.0F, 1.0F, 1.0F);
         int var7 = this.blockAccess.getBlockMetadata(par2, par3, par4);
@@ -1522,7 +1532,7 @@ public class RenderBlocks
             var16 = this.overrideBlockTexture;
         }
 
-        Tessellator var17 = Tessellator.instance;
+        Tessellator var17 = this.tessellator;
         double var18 = (double)var16.getMinU();
         double var20 = (double)var16.getMinV();
         double var22 = (double)var16.getInterpolatedU(par14);
@@ -1546,7 +1556,7 @@ public class RenderBlocks
             var16 = this.overrideBlockTexture;
         }
 
-        Tessellator var17 = Tessellator.instance;
+        Tessellator var17 = this.tessellator;
         double var18 = (double)var16.getMinU();
         double var20 = (double)var16.getMinV();
         double var22 = (double)var16.getInterpolatedU(par14);
@@ -1570,7 +1580,7 @@ public class RenderBlocks
             var16 = this.overrideBlockTexture;
         }
 
-        Tessellator var17 = Tessellator.instance;
+        Tessellator var17 = this.tessellator;
         double var18 = (double)var16.getMinU();
         double var20 = (double)var16.getMinV();
         double var22 = (double)var16.getInterpolatedU(par14);
@@ -1695,7 +1705,7 @@ public class RenderBlocks
         int var5 = this.blockAccess.getBlockMetadata(par2, par3, par4);
         int var6 = var5 & 7;
         boolean var7 = (var5 & 8) > 0;
-        Tessellator var8 = Tessellator.instance;
+        Tessellator var8 = this.tessellator;
         boolean var9 = this.hasOverrideBlockTexture();
 
         if (!var9)
@@ -1919,7 +1929,7 @@ public class RenderBlocks
 
         if (Config.isBetterSnow() && this.hasSnowNeighbours(par2, par3, par4))
         {
-            this.renderSnow(par2, par3, par4, Block.snow.maxY);
+            this.renderSnow(par2, par3, par4, 0.125D);
         }
 
         return true;
@@ -1930,7 +1940,7 @@ public class RenderBlocks
      */
     public boolean renderBlockTripWireSource(Block par1Block, int par2, int par3, int par4)
     {
-        Tessellator var5 = Tessellator.instance;
+        Tessellator var5 = this.tessellator;
         int var6 = this.blockAccess.getBlockMetadata(par2, par3, par4);
         int var7 = var6 & 3;
         boolean var8 = (var6 & 4) == 4;
@@ -2312,7 +2322,7 @@ public class RenderBlocks
      */
     public boolean renderBlockTripWire(Block par1Block, int par2, int par3, int par4)
     {
-        Tessellator var5 = Tessellator.instance;
+        Tessellator var5 = this.tessellator;
         Icon var6 = this.getBlockIconFromSide(par1Block, 0);
         int var7 = this.blockAccess.getBlockMetadata(par2, par3, par4);
         boolean var8 = (var7 & 4) == 4;
@@ -2449,7 +2459,7 @@ public class RenderBlocks
      */
     public boolean renderBlockFire(BlockFire par1BlockFire, int par2, int par3, int par4)
     {
-        Tessellator var5 = Tessellator.instance;
+        Tessellator var5 = this.tessellator;
         Icon var6 = par1BlockFire.func_94438_c(0);
         Icon var7 = par1BlockFire.func_94438_c(1);
         Icon var8 = var6;
@@ -2659,7 +2669,7 @@ public class RenderBlocks
      */
     public boolean renderBlockRedstoneWire(Block par1Block, int par2, int par3, int par4)
     {
-        Tessellator var5 = Tessellator.instance;
+        Tessellator var5 = this.tessellator;
         int var6 = this.blockAccess.getBlockMetadata(par2, par3, par4);
         Icon var7 = BlockRedstoneWire.func_94409_b("redstoneDust_cross");
         Icon var8 = BlockRedstoneWire.func_94409_b("redstoneDust_line");
@@ -2899,7 +2909,7 @@ public class RenderBlocks
      */
     public boolean renderBlockMinecartTrack(BlockRailBase par1BlockRailBase, int par2, int par3, int par4)
     {
-        Tessellator var5 = Tessellator.instance;
+        Tessellator var5 = this.tessellator;
         int var6 = this.blockAccess.getBlockMetadata(par2, par3, par4);
         Icon var7 = this.getBlockIconFromSideAndMetadata(par1BlockRailBase, 0, var6);
 
@@ -2994,7 +3004,7 @@ public class RenderBlocks
      */
     public boolean renderBlockLadder(Block par1Block, int par2, int par3, int par4)
     {
-        Tessellator var5 = Tessellator.instance;
+        Tessellator var5 = this.tessellator;
         Icon var6 = this.getBlockIconFromSide(par1Block, 0);
 
         if (this.hasOverrideBlockTexture())
@@ -3004,7 +3014,7 @@ public class RenderBlocks
 
         if (Config.isConnectedTextures() && this.overrideBlockTexture == null)
         {
-            var6 = ConnectedTextures.getConnectedTexture(this.blockAccess, par1Block, par2, par3, par4, -1, var6);
+            var6 = ConnectedTextures.getConnectedTexture(this.blockAccess, par1Block, par2, par3, par4, -1, var6, this.tessellator);
         }
 
         var5.setBrightness(par1Block.getMixedBrightnessForBlock(this.blockAccess, par2, par3, par4));
@@ -3058,7 +3068,7 @@ public class RenderBlocks
      */
     public boolean renderBlockVine(Block par1Block, int par2, int par3, int par4)
     {
-        Tessellator var5 = Tessellator.instance;
+        Tessellator var5 = this.tessellator;
         Icon var6 = this.getBlockIconFromSide(par1Block, 0);
 
         if (this.hasOverrideBlockTexture())
@@ -3068,7 +3078,7 @@ public class RenderBlocks
 
         if (Config.isConnectedTextures() && this.overrideBlockTexture == null)
         {
-            var6 = ConnectedTextures.getConnectedTexture(this.blockAccess, par1Block, par2, par3, par4, -1, var6);
+            var6 = ConnectedTextures.getConnectedTexture(this.blockAccess, par1Block, par2, par3, par4, -1, var6, this.tessellator);
         }
 
         float var7 = 1.0F;
@@ -3147,7 +3157,7 @@ public class RenderBlocks
     public boolean renderBlockPane(BlockPane par1BlockPane, int par2, int par3, int par4)
     {
         int var5 = this.blockAccess.getHeight();
-        Tessellator var6 = Tessellator.instance;
+        Tessellator var6 = this.tessellator;
         var6.setBrightness(par1BlockPane.getMixedBrightnessForBlock(this.blockAccess, par2, par3, par4));
         float var7 = 1.0F;
         int var8 = par1BlockPane.colorMultiplier(this.blockAccess, par2, par3, par4);
@@ -3184,7 +3194,7 @@ public class RenderBlocks
 
             if (Config.isConnectedTextures())
             {
-                var15 = ConnectedTextures.getConnectedProperties(this.blockAccess, par1BlockPane, par2, par3, par4, -1, var104);
+                var15 = ConnectedTextures.getConnectedProperties(this.blockAccess, par1BlockPane, par2, par3, par4, -1, var104, this.tessellator);
             }
         }
 
@@ -3642,7 +3652,7 @@ public class RenderBlocks
 
         if (Config.isBetterSnow() && this.hasSnowNeighbours(par2, par3, par4))
         {
-            this.renderSnow(par2, par3, par4, Block.snow.maxY);
+            this.renderSnow(par2, par3, par4, 0.125D);
         }
 
         return true;
@@ -3653,7 +3663,7 @@ public class RenderBlocks
      */
     public boolean renderCrossedSquares(Block par1Block, int par2, int par3, int par4)
     {
-        Tessellator var5 = Tessellator.instance;
+        Tessellator var5 = this.tessellator;
         var5.setBrightness(par1Block.getMixedBrightnessForBlock(this.blockAccess, par2, par3, par4));
         float var6 = 1.0F;
         int var7 = CustomColorizer.getColorMultiplier(par1Block, this.blockAccess, par2, par3, par4);
@@ -3689,7 +3699,7 @@ public class RenderBlocks
 
         if (Config.isBetterSnow() && this.hasSnowNeighbours(par2, par3, par4))
         {
-            this.renderSnow(par2, par3, par4, Block.snow.maxY);
+            this.renderSnow(par2, par3, par4, 0.125D);
         }
 
         return true;
@@ -3701,7 +3711,7 @@ public class RenderBlocks
     public boolean renderBlockStem(Block par1Block, int par2, int par3, int par4)
     {
         BlockStem var5 = (BlockStem)par1Block;
-        Tessellator var6 = Tessellator.instance;
+        Tessellator var6 = this.tessellator;
         var6.setBrightness(var5.getMixedBrightnessForBlock(this.blockAccess, par2, par3, par4));
         float var7 = 1.0F;
         int var8 = CustomColorizer.getStemColorMultiplier(var5, this.blockAccess, par2, par3, par4);
@@ -3741,7 +3751,7 @@ public class RenderBlocks
      */
     public boolean renderBlockCrops(Block par1Block, int par2, int par3, int par4)
     {
-        Tessellator var5 = Tessellator.instance;
+        Tessellator var5 = this.tessellator;
         var5.setBrightness(par1Block.getMixedBrightnessForBlock(this.blockAccess, par2, par3, par4));
         var5.setColorOpaque_F(1.0F, 1.0F, 1.0F);
         this.renderBlockCropsImpl(par1Block, this.blockAccess.getBlockMetadata(par2, par3, par4), (double)par2, (double)((float)par3 - 0.0625F), (double)par4);
@@ -3753,7 +3763,7 @@ public class RenderBlocks
      */
     public void renderTorchAtAngle(Block par1Block, double par2, double par4, double par6, double par8, double par10, int par12)
     {
-        Tessellator var13 = Tessellator.instance;
+        Tessellator var13 = this.tessellator;
         Icon var14 = this.getBlockIconFromSideAndMetadata(par1Block, 0, par12);
 
         if (this.hasOverrideBlockTexture())
@@ -3812,7 +3822,7 @@ public class RenderBlocks
      */
     public void drawCrossedSquares(Block par1Block, int par2, double par3, double par5, double par7, float par9)
     {
-        Tessellator var10 = Tessellator.instance;
+        Tessellator var10 = this.tessellator;
         Icon var11 = this.getBlockIconFromSideAndMetadata(par1Block, 0, par2);
 
         if (this.hasOverrideBlockTexture())
@@ -3822,7 +3832,7 @@ public class RenderBlocks
 
         if (Config.isConnectedTextures() && this.overrideBlockTexture == null)
         {
-            var11 = ConnectedTextures.getConnectedTexture(this.blockAccess, par1Block, (int)par3, (int)par5, (int)par7, -1, var11);
+            var11 = ConnectedTextures.getConnectedTexture(this.blockAccess, par1Block, (int)par3, (int)par5, (int)par7, -1, var11, this.tessellator);
         }
 
         double var12 = (double)var11.getMinU();
@@ -3857,7 +3867,7 @@ public class RenderBlocks
      */
     public void renderBlockStemSmall(Block par1Block, int par2, double par3, double par5, double par7, double par9)
     {
-        Tessellator var11 = Tessellator.instance;
+        Tessellator var11 = this.tessellator;
         Icon var12 = this.getBlockIconFromSideAndMetadata(par1Block, 0, par2);
 
         if (this.hasOverrideBlockTexture())
@@ -3896,7 +3906,7 @@ public class RenderBlocks
      */
     public boolean renderBlockLilyPad(Block par1Block, int par2, int par3, int par4)
     {
-        Tessellator var5 = Tessellator.instance;
+        Tessellator var5 = this.tessellator;
         Icon var6 = this.getBlockIconFromSide(par1Block, 1);
 
         if (this.hasOverrideBlockTexture())
@@ -3906,7 +3916,7 @@ public class RenderBlocks
 
         if (Config.isConnectedTextures() && this.overrideBlockTexture == null)
         {
-            var6 = ConnectedTextures.getConnectedTexture(this.blockAccess, par1Block, par2, par3, par4, -1, var6);
+            var6 = ConnectedTextures.getConnectedTexture(this.blockAccess, par1Block, par2, par3, par4, -1, var6, this.tessellator);
         }
 
         float var7 = 0.015625F;
@@ -3941,7 +3951,7 @@ public class RenderBlocks
      */
     public void renderBlockStemBig(BlockStem par1BlockStem, int par2, int par3, double par4, double par6, double par8, double par10)
     {
-        Tessellator var12 = Tessellator.instance;
+        Tessellator var12 = this.tessellator;
         Icon var13 = par1BlockStem.func_94368_p();
 
         if (this.hasOverrideBlockTexture())
@@ -3996,7 +4006,7 @@ public class RenderBlocks
      */
     public void renderBlockCropsImpl(Block par1Block, int par2, double par3, double par5, double par7)
     {
-        Tessellator var9 = Tessellator.instance;
+        Tessellator var9 = this.tessellator;
         Icon var10 = this.getBlockIconFromSideAndMetadata(par1Block, 0, par2);
 
         if (this.hasOverrideBlockTexture())
@@ -4055,7 +4065,7 @@ public class RenderBlocks
      */
     public boolean renderBlockFluids(Block par1Block, int par2, int par3, int par4)
     {
-        Tessellator var5 = Tessellator.instance;
+        Tessellator var5 = this.tessellator;
         int var6 = CustomColorizer.getFluidColor(par1Block, this.blockAccess, par2, par3, par4);
         float var7 = (float)(var6 >> 16 & 255) / 255.0F;
         float var8 = (float)(var6 >> 8 & 255) / 255.0F;
@@ -4305,7 +4315,7 @@ public class RenderBlocks
         float var8 = 1.0F;
         float var9 = 0.8F;
         float var10 = 0.6F;
-        Tessellator var11 = Tessellator.instance;
+        Tessellator var11 = this.tessellator;
         var11.startDrawingQuads();
         var11.setBrightness(par1Block.getMixedBrightnessForBlock(par2World, par3, par4, par5));
         float var12 = 1.0F;
@@ -4450,7 +4460,7 @@ public class RenderBlocks
     public boolean renderStandardBlockWithAmbientOcclusion(Block par1Block, int par2, int par3, int par4, float par5, float par6, float par7)
     {
         this.enableAO = true;
-        boolean var8 = Tessellator.instance.defaultTexture;
+        boolean var8 = this.tessellator.defaultTexture;
         boolean var9 = Config.isBetterGrass() && var8;
         boolean var10 = false;
         float var11 = 0.0F;
@@ -4459,7 +4469,7 @@ public class RenderBlocks
         float var14 = 0.0F;
         boolean var15 = true;
         int var16 = par1Block.getMixedBrightnessForBlock(this.blockAccess, par2, par3, par4);
-        Tessellator var17 = Tessellator.instance;
+        Tessellator var17 = this.tessellator;
         var17.setBrightness(983055);
 
         if (this.getBlockIcon(par1Block).getIconName().equals("grass_top"))
@@ -5266,7 +5276,7 @@ public class RenderBlocks
     public boolean func_102027_b(Block par1Block, int par2, int par3, int par4, float par5, float par6, float par7)
     {
         this.enableAO = true;
-        boolean var8 = Tessellator.instance.defaultTexture;
+        boolean var8 = this.tessellator.defaultTexture;
         boolean var9 = Config.isBetterGrass() && var8;
         boolean var10 = false;
         float var11 = 0.0F;
@@ -5275,7 +5285,7 @@ public class RenderBlocks
         float var14 = 0.0F;
         boolean var15 = true;
         int var16 = par1Block.getMixedBrightnessForBlock(this.blockAccess, par2, par3, par4);
-        Tessellator var17 = Tessellator.instance;
+        Tessellator var17 = this.tessellator;
         var17.setBrightness(983055);
 
         if (this.getBlockIcon(par1Block).getIconName().equals("grass_top"))
@@ -6155,9 +6165,9 @@ public class RenderBlocks
     public boolean renderStandardBlockWithColorMultiplier(Block par1Block, int par2, int par3, int par4, float par5, float par6, float par7)
     {
         this.enableAO = false;
-        boolean var8 = Tessellator.instance.defaultTexture;
+        boolean var8 = this.tessellator.defaultTexture;
         boolean var9 = Config.isBetterGrass() && var8;
-        Tessellator var10 = Tessellator.instance;
+        Tessellator var10 = this.tessellator;
         boolean var11 = false;
         float var12 = 0.5F;
         float var13 = 1.0F;
@@ -6357,7 +6367,7 @@ public class RenderBlocks
      */
     public boolean renderBlockCocoa(BlockCocoa par1BlockCocoa, int par2, int par3, int par4)
     {
-        Tessellator var5 = Tessellator.instance;
+        Tessellator var5 = this.tessellator;
         var5.setBrightness(par1BlockCocoa.getMixedBrightnessForBlock(this.blockAccess, par2, par3, par4));
         var5.setColorOpaque_F(1.0F, 1.0F, 1.0F);
         int var6 = this.blockAccess.getBlockMetadata(par2, par3, par4);
@@ -6559,7 +6569,7 @@ public class RenderBlocks
      */
     public boolean renderBlockCactusImpl(Block par1Block, int par2, int par3, int par4, float par5, float par6, float par7)
     {
-        Tessellator var8 = Tessellator.instance;
+        Tessellator var8 = this.tessellator;
         boolean var9 = false;
         float var10 = 0.5F;
         float var11 = 1.0F;
@@ -6714,7 +6724,7 @@ public class RenderBlocks
 
         if (Config.isBetterSnow() && this.hasSnowNeighbours(par2, par3, par4))
         {
-            this.renderSnow(par2, par3, par4, Block.snow.maxY);
+            this.renderSnow(par2, par3, par4, 0.125D);
         }
 
         return var5;
@@ -6780,7 +6790,7 @@ public class RenderBlocks
 
         if (Config.isBetterSnow() && this.hasSnowNeighbours(par2, par3, par4))
         {
-            this.renderSnow(par2, par3, par4, Block.snow.maxY);
+            this.renderSnow(par2, par3, par4, 0.125D);
         }
 
         return true;
@@ -7036,7 +7046,7 @@ public class RenderBlocks
 
         if (Config.isBetterSnow() && this.hasSnowNeighbours(par2, par3, par4))
         {
-            this.renderSnow(par2, par3, par4, Block.snow.maxY);
+            this.renderSnow(par2, par3, par4, 0.125D);
         }
 
         this.renderAllFaces = false;
@@ -7047,7 +7057,7 @@ public class RenderBlocks
 
     public boolean renderBlockHopper(BlockHopper par1BlockHopper, int par2, int par3, int par4)
     {
-        Tessellator var5 = Tessellator.instance;
+        Tessellator var5 = this.tessellator;
         var5.setBrightness(par1BlockHopper.getMixedBrightnessForBlock(this.blockAccess, par2, par3, par4));
         float var6 = 1.0F;
         int var7 = par1BlockHopper.colorMultiplier(this.blockAccess, par2, par3, par4);
@@ -7071,7 +7081,7 @@ public class RenderBlocks
 
     public boolean renderBlockHopperMetadata(BlockHopper par1BlockHopper, int par2, int par3, int par4, int par5, boolean par6)
     {
-        Tessellator var7 = Tessellator.instance;
+        Tessellator var7 = this.tessellator;
         int var8 = BlockHopper.func_94451_c(par5);
         double var9 = 0.625D;
         this.setRenderBounds(0.0D, var9, 0.0D, 1.0D, 1.0D, 1.0D);
@@ -7272,7 +7282,7 @@ public class RenderBlocks
      */
     public boolean renderBlockDoor(Block par1Block, int par2, int par3, int par4)
     {
-        Tessellator var5 = Tessellator.instance;
+        Tessellator var5 = this.tessellator;
         int var6 = this.blockAccess.getBlockMetadata(par2, par3, par4);
 
         if ((var6 & 8) != 0)
@@ -7333,7 +7343,7 @@ public class RenderBlocks
      */
     public void renderBottomFace(Block par1Block, double par2, double par4, double par6, Icon par8Icon)
     {
-        Tessellator var9 = Tessellator.instance;
+        Tessellator var9 = this.tessellator;
 
         if (this.hasOverrideBlockTexture())
         {
@@ -7342,7 +7352,7 @@ public class RenderBlocks
 
         if (Config.isConnectedTextures() && this.overrideBlockTexture == null && this.uvRotateBottom == 0)
         {
-            par8Icon = ConnectedTextures.getConnectedTexture(this.blockAccess, par1Block, (int)par2, (int)par4, (int)par6, 0, par8Icon);
+            par8Icon = ConnectedTextures.getConnectedTexture(this.blockAccess, par1Block, (int)par2, (int)par4, (int)par6, 0, par8Icon, this.tessellator);
         }
 
         boolean var10 = false;
@@ -7474,33 +7484,36 @@ public class RenderBlocks
             this.flipTexture = false;
         }
 
-        var27 = par2 + this.renderMinX;
-        double var29 = par2 + this.renderMaxX;
-        double var31 = par4 + this.renderMinY;
-        double var33 = par6 + this.renderMinZ;
-        double var35 = par6 + this.renderMaxZ;
+        int var39 = MathHelper.floor_double(par2);
+        int var40 = MathHelper.floor_double(par4);
+        int var41 = MathHelper.floor_double(par6);
+        float var42 = (float)(par2 - (double)var39 + this.renderMinX);
+        float var43 = (float)(par2 - (double)var39 + this.renderMaxX);
+        float var44 = (float)(par4 - (double)var40 + this.renderMinY);
+        float var45 = (float)(par6 - (double)var41 + this.renderMinZ);
+        float var46 = (float)(par6 - (double)var41 + this.renderMaxZ);
 
         if (this.enableAO)
         {
             var9.setColorOpaque_F(this.colorRedTopLeft, this.colorGreenTopLeft, this.colorBlueTopLeft);
             var9.setBrightness(this.brightnessTopLeft);
-            var9.addVertexWithUV(var27, var31, var35, var21, var25);
+            var9.addVertexWithUV(var39, var40, var41, var42, var44, var46, (float)var21, (float)var25);
             var9.setColorOpaque_F(this.colorRedBottomLeft, this.colorGreenBottomLeft, this.colorBlueBottomLeft);
             var9.setBrightness(this.brightnessBottomLeft);
-            var9.addVertexWithUV(var27, var31, var33, var37, var15);
+            var9.addVertexWithUV(var39, var40, var41, var42, var44, var45, (float)var37, (float)var15);
             var9.setColorOpaque_F(this.colorRedBottomRight, this.colorGreenBottomRight, this.colorBlueBottomRight);
             var9.setBrightness(this.brightnessBottomRight);
-            var9.addVertexWithUV(var29, var31, var33, var19, var23);
+            var9.addVertexWithUV(var39, var40, var41, var43, var44, var45, (float)var19, (float)var23);
             var9.setColorOpaque_F(this.colorRedTopRight, this.colorGreenTopRight, this.colorBlueTopRight);
             var9.setBrightness(this.brightnessTopRight);
-            var9.addVertexWithUV(var29, var31, var35, var13, var17);
+            var9.addVertexWithUV(var39, var40, var41, var43, var44, var46, (float)var13, (float)var17);
         }
         else
         {
-            var9.addVertexWithUV(var27, var31, var35, var21, var25);
-            var9.addVertexWithUV(var27, var31, var33, var37, var15);
-            var9.addVertexWithUV(var29, var31, var33, var19, var23);
-            var9.addVertexWithUV(var29, var31, var35, var13, var17);
+            var9.addVertexWithUV(var39, var40, var41, var42, var44, var46, (float)var21, (float)var25);
+            var9.addVertexWithUV(var39, var40, var41, var42, var44, var45, (float)var37, (float)var15);
+            var9.addVertexWithUV(var39, var40, var41, var43, var44, var45, (float)var19, (float)var23);
+            var9.addVertexWithUV(var39, var40, var41, var43, var44, var46, (float)var13, (float)var17);
         }
     }
 
@@ -7509,7 +7522,7 @@ public class RenderBlocks
      */
     public void renderTopFace(Block par1Block, double par2, double par4, double par6, Icon par8Icon)
     {
-        Tessellator var9 = Tessellator.instance;
+        Tessellator var9 = this.tessellator;
 
         if (this.hasOverrideBlockTexture())
         {
@@ -7518,7 +7531,7 @@ public class RenderBlocks
 
         if (Config.isConnectedTextures() && this.overrideBlockTexture == null && this.uvRotateTop == 0)
         {
-            par8Icon = ConnectedTextures.getConnectedTexture(this.blockAccess, par1Block, (int)par2, (int)par4, (int)par6, 1, par8Icon);
+            par8Icon = ConnectedTextures.getConnectedTexture(this.blockAccess, par1Block, (int)par2, (int)par4, (int)par6, 1, par8Icon, this.tessellator);
         }
 
         boolean var10 = false;
@@ -7649,33 +7662,36 @@ public class RenderBlocks
             this.flipTexture = false;
         }
 
-        var27 = par2 + this.renderMinX;
-        double var29 = par2 + this.renderMaxX;
-        double var31 = par4 + this.renderMaxY;
-        double var33 = par6 + this.renderMinZ;
-        double var35 = par6 + this.renderMaxZ;
+        int var39 = MathHelper.floor_double(par2);
+        int var40 = MathHelper.floor_double(par4);
+        int var41 = MathHelper.floor_double(par6);
+        float var42 = (float)(par2 - (double)var39 + this.renderMinX);
+        float var43 = (float)(par2 - (double)var39 + this.renderMaxX);
+        float var44 = (float)(par4 - (double)var40 + this.renderMaxY);
+        float var45 = (float)(par6 - (double)var41 + this.renderMinZ);
+        float var46 = (float)(par6 - (double)var41 + this.renderMaxZ);
 
         if (this.enableAO)
         {
             var9.setColorOpaque_F(this.colorRedTopLeft, this.colorGreenTopLeft, this.colorBlueTopLeft);
             var9.setBrightness(this.brightnessTopLeft);
-            var9.addVertexWithUV(var29, var31, var35, var13, var17);
+            var9.addVertexWithUV(var39, var40, var41, var43, var44, var46, (float)var13, (float)var17);
             var9.setColorOpaque_F(this.colorRedBottomLeft, this.colorGreenBottomLeft, this.colorBlueBottomLeft);
             var9.setBrightness(this.brightnessBottomLeft);
-            var9.addVertexWithUV(var29, var31, var33, var19, var23);
+            var9.addVertexWithUV(var39, var40, var41, var43, var44, var45, (float)var19, (float)var23);
             var9.setColorOpaque_F(this.colorRedBottomRight, this.colorGreenBottomRight, this.colorBlueBottomRight);
             var9.setBrightness(this.brightnessBottomRight);
-            var9.addVertexWithUV(var27, var31, var33, var37, var15);
+            var9.addVertexWithUV(var39, var40, var41, var42, var44, var45, (float)var37, (float)var15);
             var9.setColorOpaque_F(this.colorRedTopRight, this.colorGreenTopRight, this.colorBlueTopRight);
             var9.setBrightness(this.brightnessTopRight);
-            var9.addVertexWithUV(var27, var31, var35, var21, var25);
+            var9.addVertexWithUV(var39, var40, var41, var42, var44, var46, (float)var21, (float)var25);
         }
         else
         {
-            var9.addVertexWithUV(var29, var31, var35, var13, var17);
-            var9.addVertexWithUV(var29, var31, var33, var19, var23);
-            var9.addVertexWithUV(var27, var31, var33, var37, var15);
-            var9.addVertexWithUV(var27, var31, var35, var21, var25);
+            var9.addVertexWithUV(var39, var40, var41, var43, var44, var46, (float)var13, (float)var17);
+            var9.addVertexWithUV(var39, var40, var41, var43, var44, var45, (float)var19, (float)var23);
+            var9.addVertexWithUV(var39, var40, var41, var42, var44, var45, (float)var37, (float)var15);
+            var9.addVertexWithUV(var39, var40, var41, var42, var44, var46, (float)var21, (float)var25);
         }
     }
 
@@ -7684,7 +7700,7 @@ public class RenderBlocks
      */
     public void renderEastFace(Block par1Block, double par2, double par4, double par6, Icon par8Icon)
     {
-        Tessellator var9 = Tessellator.instance;
+        Tessellator var9 = this.tessellator;
 
         if (this.hasOverrideBlockTexture())
         {
@@ -7693,7 +7709,7 @@ public class RenderBlocks
 
         if (Config.isConnectedTextures() && this.overrideBlockTexture == null && this.uvRotateEast == 0)
         {
-            par8Icon = ConnectedTextures.getConnectedTexture(this.blockAccess, par1Block, (int)par2, (int)par4, (int)par6, 2, par8Icon);
+            par8Icon = ConnectedTextures.getConnectedTexture(this.blockAccess, par1Block, (int)par2, (int)par4, (int)par6, 2, par8Icon, this.tessellator);
         }
 
         boolean var10 = false;
@@ -7824,33 +7840,36 @@ public class RenderBlocks
             this.flipTexture = false;
         }
 
-        var27 = par2 + this.renderMinX;
-        double var29 = par2 + this.renderMaxX;
-        double var31 = par4 + this.renderMinY;
-        double var33 = par4 + this.renderMaxY;
-        double var35 = par6 + this.renderMinZ;
+        int var39 = MathHelper.floor_double(par2);
+        int var40 = MathHelper.floor_double(par4);
+        int var41 = MathHelper.floor_double(par6);
+        float var42 = (float)(par2 - (double)var39 + this.renderMinX);
+        float var43 = (float)(par2 - (double)var39 + this.renderMaxX);
+        float var44 = (float)(par4 - (double)var40 + this.renderMinY);
+        float var45 = (float)(par4 - (double)var40 + this.renderMaxY);
+        float var46 = (float)(par6 - (double)var41 + this.renderMinZ);
 
         if (this.enableAO)
         {
             var9.setColorOpaque_F(this.colorRedTopLeft, this.colorGreenTopLeft, this.colorBlueTopLeft);
             var9.setBrightness(this.brightnessTopLeft);
-            var9.addVertexWithUV(var27, var33, var35, var19, var23);
+            var9.addVertexWithUV(var39, var40, var41, var42, var45, var46, (float)var19, (float)var23);
             var9.setColorOpaque_F(this.colorRedBottomLeft, this.colorGreenBottomLeft, this.colorBlueBottomLeft);
             var9.setBrightness(this.brightnessBottomLeft);
-            var9.addVertexWithUV(var29, var33, var35, var37, var15);
+            var9.addVertexWithUV(var39, var40, var41, var43, var45, var46, (float)var37, (float)var15);
             var9.setColorOpaque_F(this.colorRedBottomRight, this.colorGreenBottomRight, this.colorBlueBottomRight);
             var9.setBrightness(this.brightnessBottomRight);
-            var9.addVertexWithUV(var29, var31, var35, var21, var25);
+            var9.addVertexWithUV(var39, var40, var41, var43, var44, var46, (float)var21, (float)var25);
             var9.setColorOpaque_F(this.colorRedTopRight, this.colorGreenTopRight, this.colorBlueTopRight);
             var9.setBrightness(this.brightnessTopRight);
-            var9.addVertexWithUV(var27, var31, var35, var13, var17);
+            var9.addVertexWithUV(var39, var40, var41, var42, var44, var46, (float)var13, (float)var17);
         }
         else
         {
-            var9.addVertexWithUV(var27, var33, var35, var19, var23);
-            var9.addVertexWithUV(var29, var33, var35, var37, var15);
-            var9.addVertexWithUV(var29, var31, var35, var21, var25);
-            var9.addVertexWithUV(var27, var31, var35, var13, var17);
+            var9.addVertexWithUV(var39, var40, var41, var42, var45, var46, (float)var19, (float)var23);
+            var9.addVertexWithUV(var39, var40, var41, var43, var45, var46, (float)var37, (float)var15);
+            var9.addVertexWithUV(var39, var40, var41, var43, var44, var46, (float)var21, (float)var25);
+            var9.addVertexWithUV(var39, var40, var41, var42, var44, var46, (float)var13, (float)var17);
         }
     }
 
@@ -7859,7 +7878,7 @@ public class RenderBlocks
      */
     public void renderWestFace(Block par1Block, double par2, double par4, double par6, Icon par8Icon)
     {
-        Tessellator var9 = Tessellator.instance;
+        Tessellator var9 = this.tessellator;
 
         if (this.hasOverrideBlockTexture())
         {
@@ -7868,7 +7887,7 @@ public class RenderBlocks
 
         if (Config.isConnectedTextures() && this.overrideBlockTexture == null && this.uvRotateWest == 0)
         {
-            par8Icon = ConnectedTextures.getConnectedTexture(this.blockAccess, par1Block, (int)par2, (int)par4, (int)par6, 3, par8Icon);
+            par8Icon = ConnectedTextures.getConnectedTexture(this.blockAccess, par1Block, (int)par2, (int)par4, (int)par6, 3, par8Icon, this.tessellator);
         }
 
         boolean var10 = false;
@@ -7999,33 +8018,36 @@ public class RenderBlocks
             this.flipTexture = false;
         }
 
-        var27 = par2 + this.renderMinX;
-        double var29 = par2 + this.renderMaxX;
-        double var31 = par4 + this.renderMinY;
-        double var33 = par4 + this.renderMaxY;
-        double var35 = par6 + this.renderMaxZ;
+        int var39 = MathHelper.floor_double(par2);
+        int var40 = MathHelper.floor_double(par4);
+        int var41 = MathHelper.floor_double(par6);
+        float var42 = (float)(par2 - (double)var39 + this.renderMinX);
+        float var43 = (float)(par2 - (double)var39 + this.renderMaxX);
+        float var44 = (float)(par4 - (double)var40 + this.renderMinY);
+        float var45 = (float)(par4 - (double)var40 + this.renderMaxY);
+        float var46 = (float)(par6 - (double)var41 + this.renderMaxZ);
 
         if (this.enableAO)
         {
             var9.setColorOpaque_F(this.colorRedTopLeft, this.colorGreenTopLeft, this.colorBlueTopLeft);
             var9.setBrightness(this.brightnessTopLeft);
-            var9.addVertexWithUV(var27, var33, var35, var37, var15);
+            var9.addVertexWithUV(var39, var40, var41, var42, var45, var46, (float)var37, (float)var15);
             var9.setColorOpaque_F(this.colorRedBottomLeft, this.colorGreenBottomLeft, this.colorBlueBottomLeft);
             var9.setBrightness(this.brightnessBottomLeft);
-            var9.addVertexWithUV(var27, var31, var35, var21, var25);
+            var9.addVertexWithUV(var39, var40, var41, var42, var44, var46, (float)var21, (float)var25);
             var9.setColorOpaque_F(this.colorRedBottomRight, this.colorGreenBottomRight, this.colorBlueBottomRight);
             var9.setBrightness(this.brightnessBottomRight);
-            var9.addVertexWithUV(var29, var31, var35, var13, var17);
+            var9.addVertexWithUV(var39, var40, var41, var43, var44, var46, (float)var13, (float)var17);
             var9.setColorOpaque_F(this.colorRedTopRight, this.colorGreenTopRight, this.colorBlueTopRight);
             var9.setBrightness(this.brightnessTopRight);
-            var9.addVertexWithUV(var29, var33, var35, var19, var23);
+            var9.addVertexWithUV(var39, var40, var41, var43, var45, var46, (float)var19, (float)var23);
         }
         else
         {
-            var9.addVertexWithUV(var27, var33, var35, var37, var15);
-            var9.addVertexWithUV(var27, var31, var35, var21, var25);
-            var9.addVertexWithUV(var29, var31, var35, var13, var17);
-            var9.addVertexWithUV(var29, var33, var35, var19, var23);
+            var9.addVertexWithUV(var39, var40, var41, var42, var45, var46, (float)var37, (float)var15);
+            var9.addVertexWithUV(var39, var40, var41, var42, var44, var46, (float)var21, (float)var25);
+            var9.addVertexWithUV(var39, var40, var41, var43, var44, var46, (float)var13, (float)var17);
+            var9.addVertexWithUV(var39, var40, var41, var43, var45, var46, (float)var19, (float)var23);
         }
     }
 
@@ -8034,7 +8056,7 @@ public class RenderBlocks
      */
     public void renderNorthFace(Block par1Block, double par2, double par4, double par6, Icon par8Icon)
     {
-        Tessellator var9 = Tessellator.instance;
+        Tessellator var9 = this.tessellator;
 
         if (this.hasOverrideBlockTexture())
         {
@@ -8043,7 +8065,7 @@ public class RenderBlocks
 
         if (Config.isConnectedTextures() && this.overrideBlockTexture == null && this.uvRotateNorth == 0)
         {
-            par8Icon = ConnectedTextures.getConnectedTexture(this.blockAccess, par1Block, (int)par2, (int)par4, (int)par6, 4, par8Icon);
+            par8Icon = ConnectedTextures.getConnectedTexture(this.blockAccess, par1Block, (int)par2, (int)par4, (int)par6, 4, par8Icon, this.tessellator);
         }
 
         boolean var10 = false;
@@ -8174,33 +8196,36 @@ public class RenderBlocks
             this.flipTexture = false;
         }
 
-        var27 = par2 + this.renderMinX;
-        double var29 = par4 + this.renderMinY;
-        double var31 = par4 + this.renderMaxY;
-        double var33 = par6 + this.renderMinZ;
-        double var35 = par6 + this.renderMaxZ;
+        int var39 = MathHelper.floor_double(par2);
+        int var40 = MathHelper.floor_double(par4);
+        int var41 = MathHelper.floor_double(par6);
+        float var42 = (float)(par2 - (double)var39 + this.renderMinX);
+        float var43 = (float)(par4 - (double)var40 + this.renderMinY);
+        float var44 = (float)(par4 - (double)var40 + this.renderMaxY);
+        float var45 = (float)(par6 - (double)var41 + this.renderMinZ);
+        float var46 = (float)(par6 - (double)var41 + this.renderMaxZ);
 
         if (this.enableAO)
         {
             var9.setColorOpaque_F(this.colorRedTopLeft, this.colorGreenTopLeft, this.colorBlueTopLeft);
             var9.setBrightness(this.brightnessTopLeft);
-            var9.addVertexWithUV(var27, var31, var35, var19, var23);
+            var9.addVertexWithUV(var39, var40, var41, var42, var44, var46, (float)var19, (float)var23);
             var9.setColorOpaque_F(this.colorRedBottomLeft, this.colorGreenBottomLeft, this.colorBlueBottomLeft);
             var9.setBrightness(this.brightnessBottomLeft);
-            var9.addVertexWithUV(var27, var31, var33, var37, var15);
+            var9.addVertexWithUV(var39, var40, var41, var42, var44, var45, (float)var37, (float)var15);
             var9.setColorOpaque_F(this.colorRedBottomRight, this.colorGreenBottomRight, this.colorBlueBottomRight);
             var9.setBrightness(this.brightnessBottomRight);
-            var9.addVertexWithUV(var27, var29, var33, var21, var25);
+            var9.addVertexWithUV(var39, var40, var41, var42, var43, var45, (float)var21, (float)var25);
             var9.setColorOpaque_F(this.colorRedTopRight, this.colorGreenTopRight, this.colorBlueTopRight);
             var9.setBrightness(this.brightnessTopRight);
-            var9.addVertexWithUV(var27, var29, var35, var13, var17);
+            var9.addVertexWithUV(var39, var40, var41, var42, var43, var46, (float)var13, (float)var17);
         }
         else
         {
-            var9.addVertexWithUV(var27, var31, var35, var19, var23);
-            var9.addVertexWithUV(var27, var31, var33, var37, var15);
-            var9.addVertexWithUV(var27, var29, var33, var21, var25);
-            var9.addVertexWithUV(var27, var29, var35, var13, var17);
+            var9.addVertexWithUV(var39, var40, var41, var42, var44, var46, (float)var19, (float)var23);
+            var9.addVertexWithUV(var39, var40, var41, var42, var44, var45, (float)var37, (float)var15);
+            var9.addVertexWithUV(var39, var40, var41, var42, var43, var45, (float)var21, (float)var25);
+            var9.addVertexWithUV(var39, var40, var41, var42, var43, var46, (float)var13, (float)var17);
         }
     }
 
@@ -8209,7 +8234,7 @@ public class RenderBlocks
      */
     public void renderSouthFace(Block par1Block, double par2, double par4, double par6, Icon par8Icon)
     {
-        Tessellator var9 = Tessellator.instance;
+        Tessellator var9 = this.tessellator;
 
         if (this.hasOverrideBlockTexture())
         {
@@ -8218,7 +8243,7 @@ public class RenderBlocks
 
         if (Config.isConnectedTextures() && this.overrideBlockTexture == null && this.uvRotateSouth == 0)
         {
-            par8Icon = ConnectedTextures.getConnectedTexture(this.blockAccess, par1Block, (int)par2, (int)par4, (int)par6, 5, par8Icon);
+            par8Icon = ConnectedTextures.getConnectedTexture(this.blockAccess, par1Block, (int)par2, (int)par4, (int)par6, 5, par8Icon, this.tessellator);
         }
 
         boolean var10 = false;
@@ -8349,33 +8374,36 @@ public class RenderBlocks
             this.flipTexture = false;
         }
 
-        var27 = par2 + this.renderMaxX;
-        double var29 = par4 + this.renderMinY;
-        double var31 = par4 + this.renderMaxY;
-        double var33 = par6 + this.renderMinZ;
-        double var35 = par6 + this.renderMaxZ;
+        int var39 = MathHelper.floor_double(par2);
+        int var40 = MathHelper.floor_double(par4);
+        int var41 = MathHelper.floor_double(par6);
+        float var42 = (float)(par2 - (double)var39 + this.renderMaxX);
+        float var43 = (float)(par4 - (double)var40 + this.renderMinY);
+        float var44 = (float)(par4 - (double)var40 + this.renderMaxY);
+        float var45 = (float)(par6 - (double)var41 + this.renderMinZ);
+        float var46 = (float)(par6 - (double)var41 + this.renderMaxZ);
 
         if (this.enableAO)
         {
             var9.setColorOpaque_F(this.colorRedTopLeft, this.colorGreenTopLeft, this.colorBlueTopLeft);
             var9.setBrightness(this.brightnessTopLeft);
-            var9.addVertexWithUV(var27, var29, var35, var21, var25);
+            var9.addVertexWithUV(var39, var40, var41, var42, var43, var46, (float)var21, (float)var25);
             var9.setColorOpaque_F(this.colorRedBottomLeft, this.colorGreenBottomLeft, this.colorBlueBottomLeft);
             var9.setBrightness(this.brightnessBottomLeft);
-            var9.addVertexWithUV(var27, var29, var33, var13, var17);
+            var9.addVertexWithUV(var39, var40, var41, var42, var43, var45, (float)var13, (float)var17);
             var9.setColorOpaque_F(this.colorRedBottomRight, this.colorGreenBottomRight, this.colorBlueBottomRight);
             var9.setBrightness(this.brightnessBottomRight);
-            var9.addVertexWithUV(var27, var31, var33, var19, var23);
+            var9.addVertexWithUV(var39, var40, var41, var42, var44, var45, (float)var19, (float)var23);
             var9.setColorOpaque_F(this.colorRedTopRight, this.colorGreenTopRight, this.colorBlueTopRight);
             var9.setBrightness(this.brightnessTopRight);
-            var9.addVertexWithUV(var27, var31, var35, var37, var15);
+            var9.addVertexWithUV(var39, var40, var41, var42, var44, var46, (float)var37, (float)var15);
         }
         else
         {
-            var9.addVertexWithUV(var27, var29, var35, var21, var25);
-            var9.addVertexWithUV(var27, var29, var33, var13, var17);
-            var9.addVertexWithUV(var27, var31, var33, var19, var23);
-            var9.addVertexWithUV(var27, var31, var35, var37, var15);
+            var9.addVertexWithUV(var39, var40, var41, var42, var43, var46, (float)var21, (float)var25);
+            var9.addVertexWithUV(var39, var40, var41, var42, var43, var45, (float)var13, (float)var17);
+            var9.addVertexWithUV(var39, var40, var41, var42, var44, var45, (float)var19, (float)var23);
+            var9.addVertexWithUV(var39, var40, var41, var42, var44, var46, (float)var37, (float)var15);
         }
     }
 
@@ -8384,7 +8412,7 @@ public class RenderBlocks
      */
     public void renderBlockAsItem(Block par1Block, int par2, float par3)
     {
-        Tessellator var4 = Tessellator.instance;
+        Tessellator var4 = this.tessellator;
         boolean var5 = par1Block.blockID == Block.grass.blockID;
 
         if (par1Block == Block.dispenser || par1Block == Block.dropper || par1Block == Block.furnaceIdle)
@@ -2,7 +2,6 @@ package net.minecraft.src;
 
 import java.nio.IntBuffer;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -101,6 +100,15 @@ public class RenderGlobal implements IWorldAccess
     /** Occlusion query result */
     IntBuffer occlusionResult = GLAllocation.createDirectIntBuffer(64);
 
+    /** Issues the frame delayed occlusion queries for clusters of world renderers */
+    private WrOcclusionCuller occlusionCuller = null;
+
+    /** Frame counter of the visibility graph search, 0 if the search is not used this frame */
+    private int visibilityFrame = 0;
+    private int visibilityFrameCounter = 0;
+    private WorldRenderer[] visibilityQueue = new WorldRenderer[0];
+    private int[] visibilityQueueFaces = new int[0];
+
     /** How many renderers are loaded this frame that try to be rendered */
     private int renderersLoaded;
 
@@ -125,6 +133,12 @@ public class RenderGlobal implements IWorldAccess
     private int worldRenderersCheckIndex;
     private IntBuffer glListBuffer = BufferUtils.createIntBuffer(65536);
 
+    /** Orders sortedWorldRenderers by section distance to the view entity */
+    private WrDistanceSorter rendererSorter = new WrDistanceSorter();
+
+    /** Vertex buffer arena shared by all world renderers, null when display lists are used */
+    private VboArena vboArena = null;
+
     /**
      * Previous x position when the renderers were sorted. (Once the distance moves more than 4 units they will be
      * resorted)
@@ -318,6 +332,17 @@ public class RenderGlobal implements IWorldAccess
                 }
             }
 
+            if (this.vboArena != null)
+            {
+                this.vboArena.deleteAll();
+                this.vboArena = null;
+            }
+
+            if (Config.isUseVbo())
+            {
+                this.vboArena = new VboArena();
+            }
+
             var1 = 64 << 3 - this.renderDistance;
             short var2 = 512;
             var1 = 2 * this.mc.gameSettings.ofRenderDistanceFine;
@@ -380,15 +405,11 @@ public class RenderGlobal implements IWorldAccess
                         int var10 = (var9 * this.renderChunksTall + var12) * this.renderChunksWide + var7;
                         this.worldRenderers[var10] = WrUpdates.makeWorldRenderer(this.theWorld, this.tileEntities, var7 * 16, var12 * 16, var9 * 16, this.glRenderListBase + var4);
 
-                        if (this.occlusionEnabled)
-                        {
-                            this.worldRenderers[var10].glOcclusionQuery = this.glOcclusionQueryBase.get(var5);
-                        }
-
                         this.worldRenderers[var10].isWaitingOnOcclusionQuery = false;
                         this.worldRenderers[var10].isVisible = true;
                         this.worldRenderers[var10].isInFrustum = false;
                         this.worldRenderers[var10].chunkIndex = var5++;
+                        this.worldRenderers[var10].vboArena = this.vboArena;
                         this.sortedWorldRenderers[var10] = this.worldRenderers[var10];
 
                         if (this.theWorld.chunkExists(var7, var9))
@@ -402,6 +423,16 @@ public class RenderGlobal implements IWorldAccess
                 }
             }
 
+            if (this.occlusionEnabled)
+            {
+                if (this.occlusionCuller != null)
+                {
+                    this.occlusionCuller.clear();
+                }
+
+                this.occlusionCuller = new WrOcclusionCuller(this.worldRenderers, this.renderChunksWide, this.renderChunksTall, this.renderChunksDeep, this.glOcclusionQueryBase);
+            }
+
             if (this.theWorld != null)
             {
                 Object var11 = this.mc.renderViewEntity;
@@ -414,7 +445,8 @@ public class RenderGlobal implements IWorldAccess
                 if (var11 != null)
                 {
                     this.markRenderersForNewPosition(MathHelper.floor_double(((EntityLiving)var11).posX), MathHelper.floor_double(((EntityLiving)var11).posY), MathHelper.floor_double(((EntityLiving)var11).posZ));
-                    Arrays.sort(this.sortedWorldRenderers, new EntitySorter((Entity)var11));
+                    this.rendererSorter.markDirty();
+                    this.rendererSorter.sort(this.worldRenderers, this.sortedWorldRenderers, ((EntityLiving)var11).posX, ((EntityLiving)var11).posY, ((EntityLiving)var11).posZ);
                 }
             }
 
@@ -535,7 +567,7 @@ public class RenderGlobal implements IWorldAccess
      */
     public String getDebugInfoRenders()
     {
-        return "C: " + this.renderersBeingRendered + "/" + this.renderersLoaded + ". F: " + this.renderersBeingClipped + ", O: " + this.renderersBeingOccluded + ", E: " + this.renderersSkippingRenderPass;
+        return "C: " + this.renderersBeingRendered + "/" + this.renderersLoaded + ". F: " + this.renderersBeingClipped + ", O: " + this.renderersBeingOccluded + ", E: " + this.renderersSkippingRenderPass + (this.occlusionCuller == null ? "" : ", Q: " + this.occlusionCuller.clustersVisible + "/" + this.occlusionCuller.clustersCulled);
     }
 
     /**
@@ -555,6 +587,7 @@ public class RenderGlobal implements IWorldAccess
         par1 -= 8;
         par2 -= 8;
         par3 -= 8;
+        this.rendererSorter.markDirty();
         this.minBlockX = Integer.MAX_VALUE;
         this.minBlockY = Integer.MAX_VALUE;
         this.minBlockZ = Integer.MAX_VALUE;
@@ -635,6 +668,11 @@ public class RenderGlobal implements IWorldAccess
                 }
             }
         }
+
+        if (this.occlusionCuller != null)
+        {
+            this.occlusionCuller.updateClusters();
+        }
     }
 
     /**
@@ -704,7 +742,6 @@ public class RenderGlobal implements IWorldAccess
                 this.markRenderersForNewPosition(MathHelper.floor_double(par1EntityLiving.posX), MathHelper.floor_double(par1EntityLiving.posY), MathHelper.floor_double(par1EntityLiving.posZ));
             }
 
-            Arrays.sort(this.sortedWorldRenderers, new EntitySorter(par1EntityLiving));
             int var29 = (int)par1EntityLiving.posX;
             int var30 = (int)par1EntityLiving.posZ;
             short var31 = 2000;
@@ -717,6 +754,11 @@ public class RenderGlobal implements IWorldAccess
             }
         }
 
+        if (par2 == 0)
+        {
+            this.rendererSorter.sort(this.worldRenderers, this.sortedWorldRenderers, par1EntityLiving.posX, par1EntityLiving.posY, par1EntityLiving.posZ);
+        }
+
         RenderHelper.disableStandardItemLighting();
         WrUpdates.preRender(this, par1EntityLiving);
 
@@ -726,201 +768,129 @@ public class RenderGlobal implements IWorldAccess
         }
 
         byte var42 = 0;
-        int var44 = 0;
 
-        if (this.occlusionEnabled && this.mc.gameSettings.advancedOpengl && !this.mc.gameSettings.anaglyph && par2 == 0)
+        if (par2 == 0)
         {
-            byte var22 = 0;
-            byte var43 = 20;
-            this.checkOcclusionQueryResult(var22, var43, par1EntityLiving.posX, par1EntityLiving.posY, par1EntityLiving.posZ);
-            int var24;
-
-            for (var24 = var22; var24 < var43; ++var24)
-            {
-                this.sortedWorldRenderers[var24].isVisible = true;
-            }
+            var5.endStartSection("visgraph");
+            this.updateVisibilityGraph(var40, var41, var10);
+        }
 
+        if (this.occlusionEnabled && this.occlusionCuller != null && this.mc.gameSettings.advancedOpengl && !this.mc.gameSettings.anaglyph && par2 == 0)
+        {
+            var5.endStartSection("occ");
+            this.occlusionCuller.updateVisibility(var40, var41, var10, Config.isOcclusionFancy());
             var5.endStartSection("render");
-            var20 = var42 + this.renderSortedRenderers(var22, var43, par2, par3);
-            var24 = var43;
-            int var45 = 0;
-            byte var26 = 40;
-            int var28;
+            var20 = var42 + this.renderSortedRenderers(0, this.sortedWorldRenderers.length, par2, par3);
+            var5.endStartSection("occ");
+            this.occlusionCuller.issueQueries(var40, var41, var10);
+        }
+        else
+        {
+            var5.endStartSection("render");
+            var20 = var42 + this.renderSortedRenderers(0, this.sortedWorldRenderers.length, par2, par3);
+        }
 
-            for (int var46 = this.renderChunksWide; var24 < this.sortedWorldRenderers.length; var20 += this.renderSortedRenderers(var28, var24, par2, par3))
-            {
-                var5.endStartSection("occ");
-                var28 = var24;
+        var5.endSection();
+        WrUpdates.postRender();
+        return var20;
+    }
 
-                if (var45 < var46)
-                {
-                    ++var45;
-                }
-                else
-                {
-                    --var45;
-                }
+    /**
+     * Searches the sections which can be seen from the camera section through the visibility graphs of the world
+     * renderers. The search never turns back along an axis, so sections behind walls and caves under the surface are
+     * not reached. Args: cameraX, cameraY, cameraZ
+     */
+    private void updateVisibilityGraph(double par1, double par3, double par5)
+    {
+        this.visibilityFrame = 0;
+        int var7 = MathHelper.floor_double(par1) >> 4;
+        int var8 = MathHelper.floor_double(par3) >> 4;
+        int var9 = MathHelper.floor_double(par5) >> 4;
+        WorldRenderer var10 = this.getWorldRendererAt(var7, var8, var9);
 
-                var24 += var45 * var26;
+        if (var10 != null)
+        {
+            if (this.visibilityQueue.length != this.worldRenderers.length)
+            {
+                this.visibilityQueue = new WorldRenderer[this.worldRenderers.length];
+                this.visibilityQueueFaces = new int[this.worldRenderers.length];
+            }
 
-                if (var24 <= var28)
-                {
-                    var24 = var28 + 10;
-                }
+            ++this.visibilityFrameCounter;
 
-                if (var24 > this.sortedWorldRenderers.length)
-                {
-                    var24 = this.sortedWorldRenderers.length;
-                }
+            if (this.visibilityFrameCounter <= 0)
+            {
+                this.visibilityFrameCounter = 1;
+            }
 
-                GL11.glDisable(GL11.GL_TEXTURE_2D);
-                GL11.glDisable(GL11.GL_LIGHTING);
-                GL11.glDisable(GL11.GL_ALPHA_TEST);
-                GL11.glDisable(GL11.GL_FOG);
-                GL11.glColorMask(false, false, false, false);
-                GL11.glDepthMask(false);
-                var5.startSection("check");
-                this.checkOcclusionQueryResult(var28, var24, par1EntityLiving.posX, par1EntityLiving.posY, par1EntityLiving.posZ);
-                var5.endSection();
-                GL11.glPushMatrix();
-                float var49 = 0.0F;
-                float var47 = 0.0F;
-                float var48 = 0.0F;
+            this.visibilityFrame = this.visibilityFrameCounter;
+            int var11 = 0;
+            int var12 = 0;
+            var10.visibleFrame = this.visibilityFrame;
+            this.visibilityQueue[var12] = var10;
+            this.visibilityQueueFaces[var12++] = -1;
 
-                for (int var32 = var28; var32 < var24; ++var32)
+            while (var11 < var12)
+            {
+                WorldRenderer var13 = this.visibilityQueue[var11];
+                int var14 = this.visibilityQueueFaces[var11++];
+                int var15 = var14 >> 3;
+                int var16 = var14 & 7;
+
+                for (int var17 = 0; var17 < 6; ++var17)
                 {
-                    WorldRenderer var33 = this.sortedWorldRenderers[var32];
+                    int var18 = WrVisibilityGraph.FACE_OPPOSITE[var17];
 
-                    if (var33.skipAllRenderPasses())
-                    {
-                        var33.isInFrustum = false;
-                    }
-                    else if (var33.isUpdating)
+                    if (var14 < 0 || (var15 & 1 << var18) == 0 && WrVisibilityGraph.isConnected(var13.visibility, var16, var17))
                     {
-                        var33.isVisible = true;
-                    }
-                    else if (var33.isInFrustum)
-                    {
-                        if (Config.isOcclusionFancy() && !var33.isInFrustrumFully)
-                        {
-                            var33.isVisible = true;
-                        }
-                        else if (var33.isInFrustum && !var33.isWaitingOnOcclusionQuery)
-                        {
-                            float var34;
-                            float var35;
-                            float var36;
-                            float var37;
-
-                            if (var33.isVisibleFromPosition)
-                            {
-                                var34 = Math.abs((float)(var33.visibleFromX - par1EntityLiving.posX));
-                                var35 = Math.abs((float)(var33.visibleFromY - par1EntityLiving.posY));
-                                var36 = Math.abs((float)(var33.visibleFromZ - par1EntityLiving.posZ));
-                                var37 = var34 + var35 + var36;
-
-                                if ((double)var37 < 10.0D + (double)var32 / 1000.0D)
-                                {
-                                    var33.isVisible = true;
-                                    continue;
-                                }
-
-                                var33.isVisibleFromPosition = false;
-                            }
-
-                            var34 = (float)((double)var33.posXMinus - var40);
-                            var35 = (float)((double)var33.posYMinus - var41);
-                            var36 = (float)((double)var33.posZMinus - var10);
-                            var37 = var34 - var49;
-                            float var38 = var35 - var47;
-                            float var39 = var36 - var48;
+                        WorldRenderer var19 = this.getWorldRendererAt((var13.posX >> 4) + WrVisibilityGraph.FACE_OFFSET_X[var17], (var13.posY >> 4) + WrVisibilityGraph.FACE_OFFSET_Y[var17], (var13.posZ >> 4) + WrVisibilityGraph.FACE_OFFSET_Z[var17]);
 
-                            if (var37 != 0.0F || var38 != 0.0F || var39 != 0.0F)
-                            {
-                                GL11.glTranslatef(var37, var38, var39);
-                                var49 += var37;
-                                var47 += var38;
-                                var48 += var39;
-                            }
-
-                            var5.startSection("bb");
-                            ARBOcclusionQuery.glBeginQueryARB(ARBOcclusionQuery.GL_SAMPLES_PASSED_ARB, var33.glOcclusionQuery);
-                            var33.callOcclusionQueryList();
-                            ARBOcclusionQuery.glEndQueryARB(ARBOcclusionQuery.GL_SAMPLES_PASSED_ARB);
-                            var5.endSection();
-                            var33.isWaitingOnOcclusionQuery = true;
-                            ++var44;
+                        if (var19 != null && var19.visibleFrame != this.visibilityFrame)
+                        {
+                            var19.visibleFrame = this.visibilityFrame;
+                            this.visibilityQueue[var12] = var19;
+                            this.visibilityQueueFaces[var12++] = ((var14 < 0 ? 0 : var15) | 1 << var17) << 3 | var18;
                         }
                     }
                 }
-
-                GL11.glPopMatrix();
-
-                if (this.mc.gameSettings.anaglyph)
-                {
-                    if (EntityRenderer.anaglyphField == 0)
-                    {
-                        GL11.glColorMask(false, true, true, true);
-                    }
-                    else
-                    {
-                        GL11.glColorMask(true, false, false, true);
-                    }
-                }
-                else
-                {
-                    GL11.glColorMask(true, true, true, true);
-                }
-
-                GL11.glDepthMask(true);
-                GL11.glEnable(GL11.GL_TEXTURE_2D);
-                GL11.glEnable(GL11.GL_ALPHA_TEST);
-                GL11.glEnable(GL11.GL_FOG);
-                var5.endStartSection("render");
             }
         }
-        else
-        {
-            var5.endStartSection("render");
-            var20 = var42 + this.renderSortedRenderers(0, this.sortedWorldRenderers.length, par2, par3);
-        }
-
-        var5.endSection();
-        WrUpdates.postRender();
-        return var20;
     }
 
-    private void checkOcclusionQueryResult(int var1, int var2, double var3, double var5, double var7)
+    /**
+     * Returns the world renderer of the section at the given section coordinates or null if it is not loaded
+     */
+    private WorldRenderer getWorldRendererAt(int par1, int par2, int par3)
     {
-        for (int var9 = var1; var9 < var2; ++var9)
+        if (par2 >= 0 && par2 < this.renderChunksTall)
         {
-            WorldRenderer var10 = this.sortedWorldRenderers[var9];
+            int var4 = par1 % this.renderChunksWide;
+            int var5 = par3 % this.renderChunksDeep;
 
-            if (var10.isWaitingOnOcclusionQuery)
+            if (var4 < 0)
             {
-                this.occlusionResult.clear();
-                ARBOcclusionQuery.glGetQueryObjectuARB(var10.glOcclusionQuery, ARBOcclusionQuery.GL_QUERY_RESULT_AVAILABLE_ARB, this.occlusionResult);
-
-                if (this.occlusionResult.get(0) != 0)
-                {
-                    var10.isWaitingOnOcclusionQuery = false;
-                    this.occlusionResult.clear();
-                    ARBOcclusionQuery.glGetQueryObjectuARB(var10.glOcclusionQuery, ARBOcclusionQuery.GL_QUERY_RESULT_ARB, this.occlusionResult);
-                    boolean var11 = var10.isVisible;
-                    var10.isVisible = this.occlusionResult.get(0) > 0;
+                var4 += this.renderChunksWide;
+            }
 
-                    if (var11 && var10.isVisible)
-                    {
-                        var10.isVisibleFromPosition = true;
-                        var10.visibleFromX = var3;
-                        var10.visibleFromY = var5;
-                        var10.visibleFromZ = var7;
-                    }
-                }
+            if (var5 < 0)
+            {
+                var5 += this.renderChunksDeep;
             }
+
+            WorldRenderer var6 = this.worldRenderers[(var5 * this.renderChunksTall + par2) * this.renderChunksWide + var4];
+            return var6.posX == par1 << 4 && var6.posY == par2 << 4 && var6.posZ == par3 << 4 ? var6 : null;
+        }
+        else
+        {
+            return null;
         }
     }
 
+    private boolean isVisibleInGraph(WorldRenderer par1WorldRenderer)
+    {
+        return this.visibilityFrame == 0 || par1WorldRenderer.visibleFrame == this.visibilityFrame;
+    }
+
     /**
      * Renders the sorted renders for the specified render pass. Args: startRenderer, numRenderers, renderPass,
      * partialTickTime
@@ -946,7 +916,7 @@ public class RenderGlobal implements IWorldAccess
                 {
                     ++this.renderersBeingClipped;
                 }
-                else if (this.occlusionEnabled && !var8.isVisible)
+                else if (this.occlusionEnabled && !var8.isVisible || !this.isVisibleInGraph(var8))
                 {
                     ++this.renderersBeingOccluded;
                 }
@@ -956,7 +926,7 @@ public class RenderGlobal implements IWorldAccess
                 }
             }
 
-            if (var8.isInFrustum && !var8.skipRenderPass[par3] && (!this.occlusionEnabled || var8.isVisible))
+            if (var8.isInFrustum && !var8.skipRenderPass[par3] && (!this.occlusionEnabled || var8.isVisible) && this.isVisibleInGraph(var8))
             {
                 int var9 = var8.getGLCallListForPass(par3);
 
@@ -965,6 +935,16 @@ public class RenderGlobal implements IWorldAccess
                     this.glListBuffer.put(var9);
                     ++var6;
                 }
+                else if (this.vboArena != null)
+                {
+                    VboRegion var16 = var8.getVboRegionForPass(par3);
+
+                    if (var16 != null)
+                    {
+                        this.vboArena.addToDraw(var16);
+                        ++var6;
+                    }
+                }
             }
         }
 
@@ -986,7 +966,17 @@ public class RenderGlobal implements IWorldAccess
             double var12 = var14.lastTickPosZ + (var14.posZ - var14.lastTickPosZ) * par4 - (double)WorldRenderer.globalChunkOffsetZ;
             this.mc.entityRenderer.enableLightmap(par4);
             GL11.glTranslatef((float)(-var15), (float)(-var10), (float)(-var12));
-            GL11.glCallLists(this.glListBuffer);
+
+            if (this.glListBuffer.limit() > 0)
+            {
+                GL11.glCallLists(this.glListBuffer);
+            }
+
+            if (this.vboArena != null)
+            {
+                this.vboArena.drawRegions();
+            }
+
             GL11.glTranslatef((float)var15, (float)var10, (float)var12);
             this.mc.entityRenderer.disableLightmap(par4);
             return var6;
@@ -2294,6 +2284,12 @@ public class RenderGlobal implements IWorldAccess
     public void deleteAllDisplayLists()
     {
         GLAllocation.deleteDisplayLists(this.glRenderListBase);
+
+        if (this.vboArena != null)
+        {
+            this.vboArena.deleteAll();
+            this.vboArena = null;
+        }
     }
 
     public void broadcastSound(int par1, int par2, int par3, int par4, int par5)
@@ -0,0 +1,625 @@
+package net.minecraft.src;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The scheduled block ticks of a world. Entries are kept in parallel arrays and linked into a timing wheel bucket by
+ * their scheduled time, into the list of their chunk and into the list of their position, so adding, finding a
+ * duplicate and taking out the ticks of a chunk do not depend on the number of scheduled ticks.
+ */
+public class ScheduledTickList
+{
+    /** Number of buckets of the timing wheel, ticks further ahead stay in their bucket until their time comes */
+    private static final int WHEEL_SIZE = 256;
+
+    /** Bucket of entries which are due and waiting in the due queue */
+    private static final int BUCKET_DUE = -1;
+
+    /** Bucket of entries which were removed while in the due queue, freed when the queue reaches them */
+    private static final int BUCKET_REMOVED = -2;
+
+    /** Bucket of free entries */
+    private static final int BUCKET_FREE = -3;
+
+    private int[] xCoords = new int[1024];
+    private int[] yCoords = new int[1024];
+    private int[] zCoords = new int[1024];
+    private int[] blockIDs = new int[1024];
+    private int[] priorities = new int[1024];
+    private long[] scheduledTimes = new long[1024];
+    private int[] buckets = new int[1024];
+
+    /** Links of the entries in their wheel bucket, also used for the free list */
+    private int[] bucketPrev = new int[1024];
+    private int[] bucketNext = new int[1024];
+
+    /** Links of the entries in the list of their chunk */
+    private int[] chunkPrev = new int[1024];
+    private int[] chunkNext = new int[1024];
+
+    /** Link to the next entry at the same position, usually there is none */
+    private int[] positionNext = new int[1024];
+    private final int[] bucketHeads = new int[WHEEL_SIZE];
+    private final int[] bucketTails = new int[WHEEL_SIZE];
+    private int freeHead = -1;
+    private int entryCount = 0;
+    private int usedEntries = 0;
+
+    /** First entry of each chunk by chunk coordinates, as an int[1] */
+    private final LongHashMap chunkHeads = new LongHashMap();
+
+    /** First entry of each position, open addressed by the packed position */
+    private long[] positionKeys = new long[2048];
+    private int[] positionHeads = new int[2048];
+    private int positionCount = 0;
+
+    /** Entries which are due, in the order they are ticked */
+    private int[] dueQueue = new int[256];
+    private int dueHead = 0;
+    private int dueTail = 0;
+
+    /** Time up to which the wheel has been gathered, entries scheduled at or before it wait for the next time */
+    private long gatheredTime = Long.MIN_VALUE;
+
+    /** Scratch array to sort the newly due entries */
+    private long[] sortKeys = new long[256];
+
+    public ScheduledTickList()
+    {
+        Arrays.fill(this.bucketHeads, -1);
+        Arrays.fill(this.bucketTails, -1);
+        Arrays.fill(this.positionHeads, -1);
+    }
+
+    /**
+     * Returns the number of scheduled ticks, including the due ones
+     */
+    public int size()
+    {
+        return this.entryCount;
+    }
+
+    /**
+     * Returns true if ticks are waiting in the due queue
+     */
+    public boolean hasDueEntries()
+    {
+        return this.dueHead < this.dueTail;
+    }
+
+    /**
+     * Schedules a tick unless one for the same or an associated block is scheduled at the position. Returns false if
+     * it was a duplicate. Ticks scheduled for a time which has already been gathered, such as ticks with no delay, run
+     * in the next tick like they did with the tree set. Args: x, y, z, blockID, time, priority
+     */
+    public boolean add(int par1, int par2, int par3, int par4, long par5, int par7)
+    {
+        long var8 = packPosition(par1, par2, par3);
+        int var10 = this.getPositionSlot(var8);
+
+        if (var10 >= 0)
+        {
+            for (int var11 = this.positionHeads[var10]; var11 >= 0; var11 = this.positionNext[var11])
+            {
+                if (Block.isAssociatedBlockID(this.blockIDs[var11], par4))
+                {
+                    return false;
+                }
+            }
+        }
+
+        int var12 = this.allocateEntry();
+        this.xCoords[var12] = par1;
+        this.yCoords[var12] = par2;
+        this.zCoords[var12] = par3;
+        this.blockIDs[var12] = par4;
+        this.scheduledTimes[var12] = par5;
+        this.priorities[var12] = par7;
+        ++this.entryCount;
+
+        if (var10 >= 0)
+        {
+            this.positionNext[var12] = this.positionHeads[var10];
+            this.positionHeads[var10] = var12;
+        }
+        else
+        {
+            this.positionNext[var12] = -1;
+            this.putPositionHead(var8, var12);
+        }
+
+        long var13 = ChunkCoordIntPair.chunkXZ2Int(par1 >> 4, par3 >> 4);
+        int[] var15 = (int[])this.chunkHeads.getValueByKey(var13);
+
+        if (var15 == null)
+        {
+            var15 = new int[] { -1};
+            this.chunkHeads.add(var13, var15);
+        }
+
+        this.chunkPrev[var12] = -1;
+        this.chunkNext[var12] = var15[0];
+
+        if (var15[0] >= 0)
+        {
+            this.chunkPrev[var15[0]] = var12;
+        }
+
+        var15[0] = var12;
+
+        this.addToBucket(var12, (int)Math.max(par5, this.gatheredTime + 1L) & WHEEL_SIZE - 1);
+
+        return true;
+    }
+
+    /**
+     * Returns true if a tick for the block or an associated one is in the due queue. Args: x, y, z, blockID
+     */
+    public boolean isDue(int par1, int par2, int par3, int par4)
+    {
+        int var5 = this.getPositionSlot(packPosition(par1, par2, par3));
+
+        if (var5 >= 0)
+        {
+            for (int var6 = this.positionHeads[var5]; var6 >= 0; var6 = this.positionNext[var6])
+            {
+                if (this.buckets[var6] == BUCKET_DUE && Block.isAssociatedBlockID(this.blockIDs[var6], par4))
+                {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Moves the entries scheduled up to the given time into the due queue, sorted by time and priority and otherwise
+     * in the order they were scheduled. If par3 is set all entries are moved regardless of their time.
+     */
+    public void gatherDueEntries(long par1, boolean par3)
+    {
+        int var4 = this.dueTail;
+
+        if (par3 || this.gatheredTime == Long.MIN_VALUE || par1 - this.gatheredTime >= (long)WHEEL_SIZE)
+        {
+            for (int var5 = 0; var5 < WHEEL_SIZE; ++var5)
+            {
+                this.gatherBucket(var5, par3 ? Long.MAX_VALUE : par1);
+            }
+        }
+        else
+        {
+            for (long var6 = this.gatheredTime + 1L; var6 <= par1; ++var6)
+            {
+                this.gatherBucket((int)var6 & WHEEL_SIZE - 1, par1);
+            }
+        }
+
+        if (!par3 && par1 > this.gatheredTime)
+        {
+            this.gatheredTime = par1;
+        }
+
+        this.sortDueEntries(var4, this.dueTail);
+    }
+
+    private void gatherBucket(int par1, long par2)
+    {
+        int var4 = this.bucketHeads[par1];
+
+        while (var4 >= 0)
+        {
+            int var5 = this.bucketNext[var4];
+
+            if (this.scheduledTimes[var4] <= par2)
+            {
+                this.removeFromBucket(var4);
+                this.buckets[var4] = BUCKET_DUE;
+                this.pushDue(var4);
+            }
+
+            var4 = var5;
+        }
+    }
+
+    /**
+     * Sorts part of the due queue by time and priority, keeping the order of equal entries
+     */
+    private void sortDueEntries(int par1, int par2)
+    {
+        int var3 = par2 - par1;
+
+        if (var3 > 1)
+        {
+            if (this.sortKeys.length < var3)
+            {
+                this.sortKeys = new long[Math.max(var3, this.sortKeys.length * 2)];
+            }
+
+            long var4 = Long.MAX_VALUE;
+
+            for (int var6 = par1; var6 < par2; ++var6)
+            {
+                var4 = Math.min(var4, this.scheduledTimes[this.dueQueue[var6]]);
+            }
+
+            for (int var7 = 0; var7 < var3; ++var7)
+            {
+                int var8 = this.dueQueue[par1 + var7];
+                long var9 = Math.min(this.scheduledTimes[var8] - var4, 8388607L);
+                long var11 = (long)(Math.max(-32768, Math.min(this.priorities[var8], 32767)) + 32768);
+                this.sortKeys[var7] = var9 << 40 | var11 << 24 | (long)var7;
+            }
+
+            Arrays.sort(this.sortKeys, 0, var3);
+            int[] var13 = new int[var3];
+
+            for (int var14 = 0; var14 < var3; ++var14)
+            {
+                var13[var14] = this.dueQueue[par1 + (int)(this.sortKeys[var14] & 16777215L)];
+            }
+
+            System.arraycopy(var13, 0, this.dueQueue, par1, var3);
+        }
+    }
+
+    /**
+     * Takes the next entry out of the due queue and returns it, or -1 if none is left. The entry is no longer scheduled
+     * but its fields stay readable until freeEntry is called.
+     */
+    public int pollDueEntry()
+    {
+        while (this.dueHead < this.dueTail)
+        {
+            int var1 = this.dueQueue[this.dueHead++];
+
+            if (this.buckets[var1] == BUCKET_REMOVED)
+            {
+                this.releaseEntry(var1);
+            }
+            else
+            {
+                this.unlinkEntry(var1);
+                return var1;
+            }
+        }
+
+        this.dueHead = 0;
+        this.dueTail = 0;
+        return -1;
+    }
+
+    /**
+     * Frees an entry returned by pollDueEntry
+     */
+    public void freeEntry(int par1)
+    {
+        this.releaseEntry(par1);
+    }
+
+    public int getXCoord(int par1)
+    {
+        return this.xCoords[par1];
+    }
+
+    public int getYCoord(int par1)
+    {
+        return this.yCoords[par1];
+    }
+
+    public int getZCoord(int par1)
+    {
+        return this.zCoords[par1];
+    }
+
+    public int getBlockID(int par1)
+    {
+        return this.blockIDs[par1];
+    }
+
+    /**
+     * Returns the ticks scheduled in the chunk as NextTickListEntry, or null if there are none. Removes them if par3 is
+     * set. Args: chunkX, chunkZ, remove
+     */
+    public List getEntriesInChunk(int par1, int par2, boolean par3)
+    {
+        long var4 = ChunkCoordIntPair.chunkXZ2Int(par1, par2);
+        int[] var6 = (int[])this.chunkHeads.getValueByKey(var4);
+
+        if (var6 != null && var6[0] >= 0)
+        {
+            ArrayList var7 = new ArrayList();
+            int var8 = var6[0];
+
+            while (var8 >= 0)
+            {
+                int var9 = this.chunkNext[var8];
+                NextTickListEntry var10 = new NextTickListEntry(this.xCoords[var8], this.yCoords[var8], this.zCoords[var8], this.blockIDs[var8]);
+                var10.setScheduledTime(this.scheduledTimes[var8]);
+                var10.func_82753_a(this.priorities[var8]);
+                var7.add(var10);
+
+                if (par3)
+                {
+                    int var11 = this.buckets[var8];
+                    this.unlinkEntry(var8);
+
+                    if (var11 == BUCKET_DUE)
+                    {
+                        this.buckets[var8] = BUCKET_REMOVED;
+                    }
+                    else
+                    {
+                        this.releaseEntry(var8);
+                    }
+                }
+
+                var8 = var9;
+            }
+
+            return var7;
+        }
+        else
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Removes the entry from its bucket, chunk and position lists
+     */
+    private void unlinkEntry(int par1)
+    {
+        if (this.buckets[par1] >= 0)
+        {
+            this.removeFromBucket(par1);
+        }
+
+        this.buckets[par1] = BUCKET_REMOVED;
+        --this.entryCount;
+        long var2 = ChunkCoordIntPair.chunkXZ2Int(this.xCoords[par1] >> 4, this.zCoords[par1] >> 4);
+        int var4 = this.chunkPrev[par1];
+        int var5 = this.chunkNext[par1];
+
+        if (var5 >= 0)
+        {
+            this.chunkPrev[var5] = var4;
+        }
+
+        if (var4 >= 0)
+        {
+            this.chunkNext[var4] = var5;
+        }
+        else if (var5 >= 0)
+        {
+            ((int[])this.chunkHeads.getValueByKey(var2))[0] = var5;
+        }
+        else
+        {
+            this.chunkHeads.remove(var2);
+        }
+
+        long var6 = packPosition(this.xCoords[par1], this.yCoords[par1], this.zCoords[par1]);
+        int var8 = this.getPositionSlot(var6);
+
+        if (this.positionHeads[var8] == par1)
+        {
+            if (this.positionNext[par1] >= 0)
+            {
+                this.positionHeads[var8] = this.positionNext[par1];
+            }
+            else
+            {
+                this.removePositionSlot(var8);
+            }
+        }
+        else
+        {
+            int var9 = this.positionHeads[var8];
+
+            while (this.positionNext[var9] != par1)
+            {
+                var9 = this.positionNext[var9];
+            }
+
+            this.positionNext[var9] = this.positionNext[par1];
+        }
+    }
+
+    private void addToBucket(int par1, int par2)
+    {
+        this.buckets[par1] = par2;
+        this.bucketNext[par1] = -1;
+        this.bucketPrev[par1] = this.bucketTails[par2];
+
+        if (this.bucketTails[par2] >= 0)
+        {
+            this.bucketNext[this.bucketTails[par2]] = par1;
+        }
+        else
+        {
+            this.bucketHeads[par2] = par1;
+        }
+
+        this.bucketTails[par2] = par1;
+    }
+
+    private void removeFromBucket(int par1)
+    {
+        int var2 = this.buckets[par1];
+        int var3 = this.bucketPrev[par1];
+        int var4 = this.bucketNext[par1];
+
+        if (var3 >= 0)
+        {
+            this.bucketNext[var3] = var4;
+        }
+        else
+        {
+            this.bucketHeads[var2] = var4;
+        }
+
+        if (var4 >= 0)
+        {
+            this.bucketPrev[var4] = var3;
+        }
+        else
+        {
+            this.bucketTails[var2] = var3;
+        }
+    }
+
+    private void pushDue(int par1)
+    {
+        if (this.dueTail == this.dueQueue.length)
+        {
+            if (this.dueHead > this.dueQueue.length / 2)
+            {
+                System.arraycopy(this.dueQueue, this.dueHead, this.dueQueue, 0, this.dueTail - this.dueHead);
+            }
+            else
+            {
+                int[] var2 = new int[this.dueQueue.length * 2];
+                System.arraycopy(this.dueQueue, this.dueHead, var2, 0, this.dueTail - this.dueHead);
+                this.dueQueue = var2;
+            }
+
+            this.dueTail -= this.dueHead;
+            this.dueHead = 0;
+        }
+
+        this.dueQueue[this.dueTail++] = par1;
+    }
+
+    private int allocateEntry()
+    {
+        if (this.freeHead >= 0)
+        {
+            int var1 = this.freeHead;
+            this.freeHead = this.bucketNext[var1];
+            return var1;
+        }
+        else
+        {
+            if (this.usedEntries == this.xCoords.length)
+            {
+                int var2 = this.usedEntries * 2;
+                this.xCoords = Arrays.copyOf(this.xCoords, var2);
+                this.yCoords = Arrays.copyOf(this.yCoords, var2);
+                this.zCoords = Arrays.copyOf(this.zCoords, var2);
+                this.blockIDs = Arrays.copyOf(this.blockIDs, var2);
+                this.priorities = Arrays.copyOf(this.priorities, var2);
+                this.scheduledTimes = Arrays.copyOf(this.scheduledTimes, var2);
+                this.buckets = Arrays.copyOf(this.buckets, var2);
+                this.bucketPrev = Arrays.copyOf(this.bucketPrev, var2);
+                this.bucketNext = Arrays.copyOf(this.bucketNext, var2);
+                this.chunkPrev = Arrays.copyOf(this.chunkPrev, var2);
+                this.chunkNext = Arrays.copyOf(this.chunkNext, var2);
+                this.positionNext = Arrays.copyOf(this.positionNext, var2);
+            }
+
+            return this.usedEntries++;
+        }
+    }
+
+    private void releaseEntry(int par1)
+    {
+        this.buckets[par1] = BUCKET_FREE;
+        this.bucketNext[par1] = this.freeHead;
+        this.freeHead = par1;
+    }
+
+    /**
+     * Returns the slot of the position in the position table or -1
+     */
+    private int getPositionSlot(long par1)
+    {
+        int var3 = this.positionKeys.length - 1;
+
+        for (int var4 = hashPosition(par1) & var3; this.positionHeads[var4] >= 0; var4 = var4 + 1 & var3)
+        {
+            if (this.positionKeys[var4] == par1)
+            {
+                return var4;
+            }
+        }
+
+        return -1;
+    }
+
+    private void putPositionHead(long par1, int par3)
+    {
+        if (++this.positionCount > this.positionKeys.length / 2)
+        {
+            long[] var4 = this.positionKeys;
+            int[] var5 = this.positionHeads;
+            this.positionKeys = new long[var4.length * 2];
+            this.positionHeads = new int[var4.length * 2];
+            Arrays.fill(this.positionHeads, -1);
+
+            for (int var6 = 0; var6 < var4.length; ++var6)
+            {
+                if (var5[var6] >= 0)
+                {
+                    this.insertPosition(var4[var6], var5[var6]);
+                }
+            }
+        }
+
+        this.insertPosition(par1, par3);
+    }
+
+    private void insertPosition(long par1, int par3)
+    {
+        int var4 = this.positionKeys.length - 1;
+        int var5;
+
+        for (var5 = hashPosition(par1) & var4; this.positionHeads[var5] >= 0; var5 = var5 + 1 & var4)
+        {
+            ;
+        }
+
+        this.positionKeys[var5] = par1;
+        this.positionHeads[var5] = par3;
+    }
+
+    /**
+     * Frees the slot of the position table and moves the following slots of the probe run back
+     */
+    private void removePositionSlot(int par1)
+    {
+        --this.positionCount;
+        int var2 = this.positionKeys.length - 1;
+        int var3 = par1;
+
+        for (int var4 = par1 + 1 & var2; this.positionHeads[var4] >= 0; var4 = var4 + 1 & var2)
+        {
+            int var5 = hashPosition(this.positionKeys[var4]) & var2;
+
+            if ((var4 - var5 & var2) >= (var4 - var3 & var2))
+            {
+                this.positionKeys[var3] = this.positionKeys[var4];
+                this.positionHeads[var3] = this.positionHeads[var4];
+                var3 = var4;
+            }
+        }
+
+        this.positionHeads[var3] = -1;
+    }
+
+    private static long packPosition(int par0, int par1, int par2)
+    {
+        return ((long)par0 & 67108863L) << 38 | ((long)par2 & 67108863L) << 12 | (long)(par1 & 4095);
+    }
+
+    private static int hashPosition(long par0)
+    {
+        par0 ^= par0 >>> 33;
+        par0 *= -49064778989728563L;
+        par0 ^= par0 >>> 33;
+        return (int)par0;
+    }
+}
@@ -2,23 +2,45 @@ package net.minecraft.src;
 
 import java.io.IOException;
 import java.net.InetAddress;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class ServerListenThread extends Thread
 {
+    /** Time given to the connections to write their kick messages once listening has stopped */
+    private static final long SHUTDOWN_FLUSH_TIME = 2000L;
+
+    /** Interval at which connections closed by the server are checked for their close timeout */
+    private static final long SHUTDOWN_CHECK_INTERVAL = 500L;
     private final List pendingConnections = Collections.synchronizedList(new ArrayList());
 
     /**
      * This map stores a list of InetAddresses and the last time which they connected at
      */
     private final HashMap recentConnections = new HashMap();
-    private int connectionCounter = 0;
-    private final ServerSocket myServerSocket;
+    private final ServerSocketChannel myServerSocket;
+
+    /** Selector serving the server socket and the reads and writes of all connections */
+    private final Selector selector;
+
+    /** Connections with packets waiting to be written */
+    private final ConcurrentLinkedQueue flushQueue = new ConcurrentLinkedQueue();
+
+    /** Connections which queued packets during the current server tick while sends are batched */
+    private final ConcurrentLinkedQueue deferredFlushQueue = new ConcurrentLinkedQueue();
+
+    /** Buffer all connections read the socket into, only used by this thread */
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(NioBufferPool.BUFFER_SIZE);
     private NetworkListenThread myNetworkListenThread;
     private final InetAddress myServerAddress;
     private final int myPort;
@@ -28,9 +50,13 @@ public class ServerListenThread extends Thread
         super("Listen thread");
         this.myNetworkListenThread = par1NetworkListenThread;
         this.myPort = par3;
-        this.myServerSocket = new ServerSocket(par3, 0, par2InetAddress);
-        this.myServerAddress = par2InetAddress == null ? this.myServerSocket.getInetAddress() : par2InetAddress;
-        this.myServerSocket.setPerformancePreferences(0, 2, 1);
+        this.myServerSocket = ServerSocketChannel.open();
+        this.myServerSocket.socket().setPerformancePreferences(0, 2, 1);
+        this.myServerSocket.socket().bind(new InetSocketAddress(par2InetAddress, par3));
+        this.myServerSocket.configureBlocking(false);
+        this.myServerAddress = par2InetAddress == null ? this.myServerSocket.socket().getInetAddress() : par2InetAddress;
+        this.selector = Selector.open();
+        this.myServerSocket.register(this.selector, SelectionKey.OP_ACCEPT);
     }
 
     public void processPendingConnections()
@@ -65,23 +91,241 @@ public class ServerListenThread extends Thread
 
     public void run()
     {
-        while (this.myNetworkListenThread.isListening)
+        long var1 = 0L;
+        long var3 = 0L;
+
+        while (true)
         {
+            long var5 = System.currentTimeMillis();
+
+            if (!this.myNetworkListenThread.isListening)
+            {
+                if (var1 == 0L)
+                {
+                    var1 = var5;
+                    this.closeServerSocket();
+                }
+                else if (var5 - var1 > SHUTDOWN_FLUSH_TIME || !this.hasOpenConnections())
+                {
+                    break;
+                }
+
+                this.moveDeferredFlushes();
+            }
+
             try
             {
-                Socket var1 = this.myServerSocket.accept();
-                NetLoginHandler var2 = new NetLoginHandler(this.myNetworkListenThread.getServer(), var1, "Connection #" + this.connectionCounter++);
-                this.addPendingConnection(var2);
+                this.selector.select(SHUTDOWN_CHECK_INTERVAL);
+                this.processSelectedKeys();
+                this.flushConnections();
+
+                if (var5 - var3 > SHUTDOWN_CHECK_INTERVAL)
+                {
+                    var3 = var5;
+                    this.checkServerShutdowns(var5);
+                }
             }
-            catch (IOException var3)
+            catch (IOException var7)
             {
-                var3.printStackTrace();
+                var7.printStackTrace();
             }
         }
 
+        this.closeConnections();
         this.myNetworkListenThread.getServer().getLogAgent().logInfo("Closing listening thread");
     }
 
+    /**
+     * Accepts new connections and performs the reads and writes the selector found ready
+     */
+    private void processSelectedKeys()
+    {
+        Iterator var1 = this.selector.selectedKeys().iterator();
+
+        while (var1.hasNext())
+        {
+            SelectionKey var2 = (SelectionKey)var1.next();
+            var1.remove();
+
+            if (var2.isValid())
+            {
+                if (var2.isAcceptable())
+                {
+                    this.acceptConnections();
+                }
+                else
+                {
+                    NioConnection var3 = (NioConnection)var2.attachment();
+
+                    if (var2.isReadable())
+                    {
+                        var3.readInput(this.readBuffer);
+                    }
+
+                    if (var2.isValid() && var2.isWritable())
+                    {
+                        var3.writeOutput();
+                    }
+                }
+            }
+        }
+    }
+
+    private void acceptConnections()
+    {
+        SocketChannel var1;
+
+        try
+        {
+            while (this.myNetworkListenThread.isListening && (var1 = this.myServerSocket.accept()) != null)
+            {
+                try
+                {
+                    NioConnection var2 = new NioConnection(this.myNetworkListenThread.getServer().getLogAgent(), var1, this, this.myNetworkListenThread.getServer().getKeyPair().getPrivate());
+                    NetLoginHandler var3 = new NetLoginHandler(this.myNetworkListenThread.getServer(), var2);
+                    var2.register(this.selector);
+                    this.addPendingConnection(var3);
+                }
+                catch (IOException var5)
+                {
+                    var5.printStackTrace();
+
+                    try
+                    {
+                        var1.close();
+                    }
+                    catch (IOException var4)
+                    {
+                        ;
+                    }
+                }
+            }
+        }
+        catch (IOException var6)
+        {
+            var6.printStackTrace();
+        }
+    }
+
+    /**
+     * Writes the send queues of the connections which asked for a flush since the last select
+     */
+    private void flushConnections()
+    {
+        NioConnection var1;
+
+        while ((var1 = (NioConnection)this.flushQueue.poll()) != null)
+        {
+            var1.writeOutput();
+        }
+    }
+
+    /**
+     * Queues the connection for writing its send queue on this thread. While sends are batched the write waits for
+     * flushSendQueues at the end of the server tick unless it is needed immediately. Called from any thread. Args:
+     * connection, immediately
+     */
+    public void queueFlush(NioConnection par1NioConnection, boolean par2)
+    {
+        if (!par2 && this.myNetworkListenThread.batchSends && this.myNetworkListenThread.isListening)
+        {
+            this.deferredFlushQueue.add(par1NioConnection);
+        }
+        else
+        {
+            this.flushQueue.add(par1NioConnection);
+            this.selector.wakeup();
+        }
+    }
+
+    /**
+     * Writes the packets queued by all connections during the tick, called by the server thread at the end of the tick
+     */
+    public void flushSendQueues()
+    {
+        if (this.moveDeferredFlushes())
+        {
+            this.selector.wakeup();
+        }
+    }
+
+    private boolean moveDeferredFlushes()
+    {
+        boolean var1 = false;
+        Object var2;
+
+        while ((var2 = this.deferredFlushQueue.poll()) != null)
+        {
+            this.flushQueue.add(var2);
+            var1 = true;
+        }
+
+        return var1;
+    }
+
+    private void checkServerShutdowns(long par1)
+    {
+        Iterator var3 = this.selector.keys().iterator();
+
+        while (var3.hasNext())
+        {
+            SelectionKey var4 = (SelectionKey)var3.next();
+
+            if (var4.isValid() && var4.attachment() instanceof NioConnection)
+            {
+                ((NioConnection)var4.attachment()).checkServerShutdown(par1);
+            }
+        }
+    }
+
+    private boolean hasOpenConnections()
+    {
+        Iterator var1 = this.selector.keys().iterator();
+
+        while (var1.hasNext())
+        {
+            SelectionKey var2 = (SelectionKey)var1.next();
+
+            if (var2.isValid() && var2.attachment() instanceof NioConnection)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Closes all connections still open after listening stopped, along with the selector
+     */
+    private void closeConnections()
+    {
+        Iterator var1 = this.selector.keys().iterator();
+
+        while (var1.hasNext())
+        {
+            SelectionKey var2 = (SelectionKey)var1.next();
+
+            if (var2.attachment() instanceof NioConnection)
+            {
+                NioConnection var3 = (NioConnection)var2.attachment();
+                var3.networkShutdown("disconnect.closed", new Object[0]);
+                var3.writeOutput();
+            }
+        }
+
+        this.flushQueue.clear();
+
+        try
+        {
+            this.selector.close();
+        }
+        catch (IOException var4)
+        {
+            ;
+        }
+    }
+
     private void addPendingConnection(NetLoginHandler par1NetLoginHandler)
     {
         if (par1NetLoginHandler == null)
@@ -112,7 +356,24 @@ public class ServerListenThread extends Thread
         }
     }
 
+    /**
+     * Stops accepting connections. The selector thread keeps writing the queued packets of open connections for a
+     * short time before closing them.
+     */
     public void func_71768_b()
+    {
+        this.selector.wakeup();
+    }
+
+    /**
+     * Wakes the selector instead of interrupting the thread, as an interrupt would close the channel in use
+     */
+    public void interrupt()
+    {
+        this.selector.wakeup();
+    }
+
+    private void closeServerSocket()
     {
         try
         {
@@ -1,8 +1,5 @@
 package net.minecraft.src;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Random;
 
 public class Teleporter
@@ -12,7 +9,6 @@ public class Teleporter
     /** A private Random() function in Teleporter */
     private final Random random;
     private final LongHashMap field_85191_c = new LongHashMap();
-    private final List field_85190_d = new ArrayList();
 
     public Teleporter(WorldServer par1WorldServer)
     {
@@ -128,7 +124,6 @@ public class Teleporter
             if (var19)
             {
                 this.field_85191_c.add(var17, new PortalPosition(this, var12, var13, var14, this.worldServerInstance.getTotalWorldTime()));
-                this.field_85190_d.add(Long.valueOf(var17));
             }
 
             double var49 = (double)var12 + 0.5D;
@@ -471,22 +466,29 @@ public class Teleporter
         return true;
     }
 
+    /**
+     * Removes the cached portal positions not used in the last 600 ticks, walking the map itself so no boxed key list
+     * is kept
+     */
     public void func_85189_a(long par1)
     {
         if (par1 % 100L == 0L)
         {
-            Iterator var3 = this.field_85190_d.iterator();
-            long var4 = par1 - 600L;
+            long var3 = par1 - 600L;
+            int var5 = this.field_85191_c.getNextSlot(0);
 
-            while (var3.hasNext())
+            while (var5 >= 0)
             {
-                Long var6 = (Long)var3.next();
-                PortalPosition var7 = (PortalPosition)this.field_85191_c.getValueByKey(var6.longValue());
+                PortalPosition var6 = (PortalPosition)this.field_85191_c.getValueAt(var5);
 
-                if (var7 == null || var7.field_85087_d < var4)
+                if (var6.field_85087_d < var3)
+                {
+                    this.field_85191_c.remove(this.field_85191_c.getKeyAt(var5));
+                    var5 = this.field_85191_c.getNextSlot(var5);
+                }
+                else
                 {
-                    var3.remove();
-                    this.field_85191_c.remove(var6.longValue());
+                    var5 = this.field_85191_c.getNextSlot(var5 + 1);
                 }
             }
         }
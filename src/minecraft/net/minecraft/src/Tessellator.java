@@ -43,10 +43,10 @@ public class Tessellator
     private int vertexCount;
 
     /** The first coordinate to be used for the texture. */
-    private double textureU;
+    private float textureU;
 
     /** The second coordinate to be used for the texture. */
-    private double textureV;
+    private float textureV;
     private int brightness;
 
     /** The color (RGBA) value to be used for the following draw call. */
@@ -98,6 +98,14 @@ public class Tessellator
      */
     public double zOffset;
 
+    /** The translation split into whole blocks and a float fraction, used by the int/float vertex methods */
+    private int xOffsetBlock;
+    private int yOffsetBlock;
+    private int zOffsetBlock;
+    private float xOffsetFraction;
+    private float yOffsetFraction;
+    private float zOffsetFraction;
+
     /** The normal to be applied to the face being drawn. */
     private int normal;
 
@@ -546,10 +554,20 @@ public class Tessellator
      * Sets the texture coordinates.
      */
     public void setTextureUV(double par1, double par3)
+    {
+        this.hasTexture = true;
+        this.textureU = (float)par1;
+        this.textureV = (float)par3;
+    }
+
+    /**
+     * Sets the texture coordinates without any double conversion.
+     */
+    public void setTextureUV(float par1, float par2)
     {
         this.hasTexture = true;
         this.textureU = par1;
-        this.textureV = par3;
+        this.textureV = par2;
     }
 
     public void setBrightness(int par1)
@@ -712,26 +730,51 @@ public class Tessellator
         }
     }
 
+    /**
+     * Adds a vertex at the given block position plus a float offset inside the block, with the texture u,v for it. The
+     * position is computed in int and float only, exact for the integer translations used when rendering chunks. Args:
+     * blockX, blockY, blockZ, offsetX, offsetY, offsetZ, u, v
+     */
+    public void addVertexWithUV(int par1, int par2, int par3, float par4, float par5, float par6, float par7, float par8)
+    {
+        if (Config.isMultiTexture() && this.tileTextures != null)
+        {
+            this.addVertexWithUV((double)par1 + (double)par4, (double)par2 + (double)par5, (double)par3 + (double)par6, (double)par7, (double)par8);
+        }
+        else
+        {
+            this.setTextureUV(par7, par8);
+            this.addVertex(par1, par2, par3, par4, par5, par6);
+        }
+    }
+
+    /**
+     * Adds a vertex at the given block position plus a float offset inside the block. Args: blockX, blockY, blockZ,
+     * offsetX, offsetY, offsetZ
+     */
+    public void addVertex(int par1, int par2, int par3, float par4, float par5, float par6)
+    {
+        this.addVertexBits(Float.floatToRawIntBits((float)(par1 + this.xOffsetBlock) + (par4 + this.xOffsetFraction)), Float.floatToRawIntBits((float)(par2 + this.yOffsetBlock) + (par5 + this.yOffsetFraction)), Float.floatToRawIntBits((float)(par3 + this.zOffsetBlock) + (par6 + this.zOffsetFraction)));
+    }
+
     /**
      * Adds a vertex with the specified x,y,z to the current draw call. It will trigger a draw() if the buffer gets
      * full.
      */
     public void addVertex(double par1, double par3, double par5)
+    {
+        this.addVertexBits(Float.floatToRawIntBits((float)(par1 + this.xOffset)), Float.floatToRawIntBits((float)(par3 + this.yOffset)), Float.floatToRawIntBits((float)(par5 + this.zOffset)));
+    }
+
+    /**
+     * Adds a vertex with the given position, already translated and converted to float bits.
+     */
+    private void addVertexBits(int par1, int par2, int par3)
     {
         if (this.autoGrow && this.rawBufferIndex >= this.bufferSize - 32)
         {
             Config.dbg("Expand tessellator buffer, old: " + this.bufferSize + ", new: " + this.bufferSize * 2);
-            this.bufferSize *= 2;
-            int[] var7 = new int[this.bufferSize];
-            System.arraycopy(this.rawBuffer, 0, var7, 0, this.rawBuffer.length);
-            this.rawBuffer = var7;
-            this.byteBuffer = GLAllocation.createDirectByteBuffer(this.bufferSize * 4);
-            this.intBuffer = this.byteBuffer.asIntBuffer();
-            this.floatBuffer = this.byteBuffer.asFloatBuffer();
-            this.shortBuffer = this.byteBuffer.asShortBuffer();
-            int[] var8 = new int[this.bufferSize];
-            System.arraycopy(this.vertexIconIndex, 0, var8, 0, this.vertexIconIndex.length);
-            this.vertexIconIndex = var8;
+            this.setBufferSize(this.bufferSize * 2);
         }
 
         ++this.addedVertices;
@@ -768,8 +811,8 @@ public class Tessellator
 
         if (this.hasTexture)
         {
-            this.rawBuffer[this.rawBufferIndex + 3] = Float.floatToRawIntBits((float)this.textureU);
-            this.rawBuffer[this.rawBufferIndex + 4] = Float.floatToRawIntBits((float)this.textureV);
+            this.rawBuffer[this.rawBufferIndex + 3] = Float.floatToRawIntBits(this.textureU);
+            this.rawBuffer[this.rawBufferIndex + 4] = Float.floatToRawIntBits(this.textureV);
         }
 
         if (this.hasBrightness)
@@ -787,9 +830,9 @@ public class Tessellator
             this.rawBuffer[this.rawBufferIndex + 6] = this.normal;
         }
 
-        this.rawBuffer[this.rawBufferIndex + 0] = Float.floatToRawIntBits((float)(par1 + this.xOffset));
-        this.rawBuffer[this.rawBufferIndex + 1] = Float.floatToRawIntBits((float)(par3 + this.yOffset));
-        this.rawBuffer[this.rawBufferIndex + 2] = Float.floatToRawIntBits((float)(par5 + this.zOffset));
+        this.rawBuffer[this.rawBufferIndex + 0] = par1;
+        this.rawBuffer[this.rawBufferIndex + 1] = par2;
+        this.rawBuffer[this.rawBufferIndex + 2] = par3;
         this.rawBufferIndex += 8;
         ++this.vertexCount;
 
@@ -800,6 +843,95 @@ public class Tessellator
         }
     }
 
+    private void setBufferSize(int var1)
+    {
+        this.bufferSize = var1;
+        int[] var2 = new int[this.bufferSize];
+        System.arraycopy(this.rawBuffer, 0, var2, 0, this.rawBuffer.length);
+        this.rawBuffer = var2;
+        this.byteBuffer = GLAllocation.createDirectByteBuffer(this.bufferSize * 4);
+        this.intBuffer = this.byteBuffer.asIntBuffer();
+        this.floatBuffer = this.byteBuffer.asFloatBuffer();
+        this.shortBuffer = this.byteBuffer.asShortBuffer();
+        int[] var3 = new int[this.bufferSize];
+        System.arraycopy(this.vertexIconIndex, 0, var3, 0, this.vertexIconIndex.length);
+        this.vertexIconIndex = var3;
+    }
+
+    /**
+     * Finishes the current draw call without touching OpenGL and returns a copy of the collected vertex data (or null
+     * if nothing was added). Used by the chunk builder threads, the data is drawn later on the GL thread by drawMesh.
+     */
+    public WrMeshData drawToMesh()
+    {
+        if (!this.isDrawing)
+        {
+            throw new IllegalStateException("Not tesselating!");
+        }
+        else
+        {
+            this.isDrawing = false;
+            WrMeshData var1 = null;
+
+            if (this.vertexCount > 0)
+            {
+                var1 = new WrMeshData();
+                var1.rawBuffer = new int[this.rawBufferIndex];
+                System.arraycopy(this.rawBuffer, 0, var1.rawBuffer, 0, this.rawBufferIndex);
+                var1.rawBufferIndex = this.rawBufferIndex;
+                var1.vertexCount = this.vertexCount;
+                var1.addedVertices = this.addedVertices;
+                var1.drawMode = this.drawMode;
+                var1.hasTexture = this.hasTexture;
+                var1.hasBrightness = this.hasBrightness;
+                var1.hasColor = this.hasColor;
+                var1.hasNormals = this.hasNormals;
+
+                if (Config.isMultiTexture() && this.tileTextures != null)
+                {
+                    var1.vertexIconIndex = new int[this.addedVertices];
+                    System.arraycopy(this.vertexIconIndex, 0, var1.vertexIconIndex, 0, this.addedVertices);
+                }
+            }
+
+            this.reset();
+            return var1;
+        }
+    }
+
+    /**
+     * Draws vertex data previously collected by drawToMesh. Returns the number of bytes drawn.
+     */
+    public int drawMesh(WrMeshData var1)
+    {
+        this.startDrawing(var1.drawMode);
+
+        if (var1.rawBufferIndex > this.bufferSize - 32)
+        {
+            this.setBufferSize(var1.rawBufferIndex + 32);
+        }
+
+        System.arraycopy(var1.rawBuffer, 0, this.rawBuffer, 0, var1.rawBufferIndex);
+        this.rawBufferIndex = var1.rawBufferIndex;
+        this.vertexCount = var1.vertexCount;
+        this.addedVertices = var1.addedVertices;
+        this.hasTexture = var1.hasTexture;
+        this.hasBrightness = var1.hasBrightness;
+        this.hasColor = var1.hasColor;
+        this.hasNormals = var1.hasNormals;
+
+        if (var1.vertexIconIndex != null)
+        {
+            System.arraycopy(var1.vertexIconIndex, 0, this.vertexIconIndex, 0, var1.vertexIconIndex.length);
+        }
+        else if (this.tileTextures != null && Config.isMultiTexture())
+        {
+            this.tileTextures = null;
+        }
+
+        return this.draw();
+    }
+
     /**
      * Sets the color to the given opaque value (stored as byte values packed in an integer).
      */
@@ -850,6 +982,7 @@ public class Tessellator
         this.xOffset = par1;
         this.yOffset = par3;
         this.zOffset = par5;
+        this.updateOffsetParts();
     }
 
     /**
@@ -860,6 +993,17 @@ public class Tessellator
         this.xOffset += (double)par1;
         this.yOffset += (double)par2;
         this.zOffset += (double)par3;
+        this.updateOffsetParts();
+    }
+
+    private void updateOffsetParts()
+    {
+        this.xOffsetBlock = MathHelper.floor_double(this.xOffset);
+        this.yOffsetBlock = MathHelper.floor_double(this.yOffset);
+        this.zOffsetBlock = MathHelper.floor_double(this.zOffset);
+        this.xOffsetFraction = (float)(this.xOffset - (double)this.xOffsetBlock);
+        this.yOffsetFraction = (float)(this.yOffset - (double)this.yOffsetBlock);
+        this.zOffsetFraction = (float)(this.zOffset - (double)this.zOffsetBlock);
     }
 
     public boolean isRenderingChunk()
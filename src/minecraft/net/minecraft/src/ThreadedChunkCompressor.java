@@ -0,0 +1,68 @@
+package net.minecraft.src;
+
+import java.util.LinkedList;
+import java.util.zip.Deflater;
+
+public class ThreadedChunkCompressor implements Runnable
+{
+    /** Instance of ThreadedChunkCompressor */
+    public static final ThreadedChunkCompressor threadedCompressorInstance = new ThreadedChunkCompressor();
+    private LinkedList compressQueue = new LinkedList();
+    private Object lock = new Object();
+
+    private ThreadedChunkCompressor()
+    {
+        int var1 = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+        for (int var2 = 0; var2 < var1; ++var2)
+        {
+            Thread var3 = new Thread(this, "Chunk Compress Thread " + (var2 + 1));
+            var3.setDaemon(true);
+            var3.start();
+        }
+    }
+
+    public void run()
+    {
+        Deflater var1 = new Deflater(-1, true);
+
+        while (true)
+        {
+            try
+            {
+                ChunkPacketSegment var2;
+
+                synchronized (this.lock)
+                {
+                    while (this.compressQueue.isEmpty())
+                    {
+                        this.lock.wait();
+                    }
+
+                    var2 = (ChunkPacketSegment)this.compressQueue.removeFirst();
+                }
+
+                var2.compress(var1);
+            }
+            catch (InterruptedException var4)
+            {
+                var4.printStackTrace();
+            }
+            catch (Throwable var5)
+            {
+                var5.printStackTrace();
+                var1.end();
+                var1 = new Deflater(-1, true);
+            }
+        }
+    }
+
+    public void queueCompress(ChunkPacketSegment par1ChunkPacketSegment)
+    {
+        synchronized (this.lock)
+        {
+            this.compressQueue.addLast(par1ChunkPacketSegment);
+            this.lock.notifyAll();
+        }
+    }
+}
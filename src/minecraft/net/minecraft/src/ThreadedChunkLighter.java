@@ -0,0 +1,63 @@
+package net.minecraft.src;
+
+import java.util.LinkedList;
+
+public class ThreadedChunkLighter implements Runnable
+{
+    /** Instance of ThreadedChunkLighter */
+    public static final ThreadedChunkLighter threadedLighterInstance = new ThreadedChunkLighter();
+    private LinkedList lightingQueue = new LinkedList();
+    private Object lock = new Object();
+
+    private ThreadedChunkLighter()
+    {
+        int var1 = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1));
+
+        for (int var2 = 0; var2 < var1; ++var2)
+        {
+            Thread var3 = new Thread(this, "Chunk Lighting Thread " + (var2 + 1));
+            var3.setDaemon(true);
+            var3.start();
+        }
+    }
+
+    public void run()
+    {
+        while (true)
+        {
+            try
+            {
+                ChunkLightingTask var1;
+
+                synchronized (this.lock)
+                {
+                    while (this.lightingQueue.isEmpty())
+                    {
+                        this.lock.wait();
+                    }
+
+                    var1 = (ChunkLightingTask)this.lightingQueue.removeFirst();
+                }
+
+                var1.computeLight();
+            }
+            catch (InterruptedException var2)
+            {
+                var2.printStackTrace();
+            }
+            catch (Throwable var3)
+            {
+                var3.printStackTrace();
+            }
+        }
+    }
+
+    public void queueLighting(ChunkLightingTask par1ChunkLightingTask)
+    {
+        synchronized (this.lock)
+        {
+            this.lightingQueue.addLast(par1ChunkLightingTask);
+            this.lock.notifyAll();
+        }
+    }
+}
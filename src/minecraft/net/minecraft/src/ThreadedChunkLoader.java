@@ -0,0 +1,133 @@
+package net.minecraft.src;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ThreadedChunkLoader implements Runnable
+{
+    /** Instance of ThreadedChunkLoader */
+    public static final ThreadedChunkLoader threadedLoaderInstance = new ThreadedChunkLoader();
+    private List loadQueue = new ArrayList();
+    private Object lock = new Object();
+
+    private ThreadedChunkLoader()
+    {
+        int var1 = Math.max(1, Math.min(3, Runtime.getRuntime().availableProcessors() - 1));
+
+        for (int var2 = 0; var2 < var1; ++var2)
+        {
+            Thread var3 = new Thread(this, "Chunk Load Thread " + (var2 + 1));
+            var3.setDaemon(true);
+            var3.start();
+        }
+    }
+
+    public void run()
+    {
+        while (true)
+        {
+            try
+            {
+                this.processQueue();
+            }
+            catch (InterruptedException var2)
+            {
+                var2.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Waits for a request and reads its chunk, the queued request closest to a player is taken first
+     */
+    private void processQueue() throws InterruptedException
+    {
+        ChunkLoadRequest var1;
+
+        synchronized (this.lock)
+        {
+            while (this.loadQueue.isEmpty())
+            {
+                this.lock.wait();
+            }
+
+            int var2 = 0;
+
+            for (int var3 = 1; var3 < this.loadQueue.size(); ++var3)
+            {
+                if (((ChunkLoadRequest)this.loadQueue.get(var3)).priority < ((ChunkLoadRequest)this.loadQueue.get(var2)).priority)
+                {
+                    var2 = var3;
+                }
+            }
+
+            var1 = (ChunkLoadRequest)this.loadQueue.get(var2);
+            this.loadQueue.set(var2, this.loadQueue.get(this.loadQueue.size() - 1));
+            this.loadQueue.remove(this.loadQueue.size() - 1);
+            var1.state = ChunkLoadRequest.LOADING;
+        }
+
+        try
+        {
+            var1.chunkProvider.readChunkAsync(var1);
+        }
+        catch (Throwable var6)
+        {
+            var6.printStackTrace();
+        }
+
+        synchronized (this.lock)
+        {
+            var1.state = ChunkLoadRequest.FINISHED;
+            this.lock.notifyAll();
+        }
+    }
+
+    public void queueLoad(ChunkLoadRequest par1ChunkLoadRequest)
+    {
+        synchronized (this.lock)
+        {
+            this.loadQueue.add(par1ChunkLoadRequest);
+            this.lock.notifyAll();
+        }
+    }
+
+    /**
+     * Removes the request from the queue if it has not been started yet
+     */
+    public void cancelLoad(ChunkLoadRequest par1ChunkLoadRequest)
+    {
+        synchronized (this.lock)
+        {
+            if (par1ChunkLoadRequest.state == ChunkLoadRequest.QUEUED)
+            {
+                this.loadQueue.remove(par1ChunkLoadRequest);
+            }
+        }
+    }
+
+    /**
+     * Waits until the request has been read. Returns false if it had not been started yet, it is then removed from the
+     * queue and the caller has to load the chunk itself.
+     */
+    public boolean waitForLoad(ChunkLoadRequest par1ChunkLoadRequest) throws InterruptedException
+    {
+        synchronized (this.lock)
+        {
+            if (par1ChunkLoadRequest.state == ChunkLoadRequest.QUEUED)
+            {
+                this.loadQueue.remove(par1ChunkLoadRequest);
+                return false;
+            }
+            else
+            {
+                while (par1ChunkLoadRequest.state != ChunkLoadRequest.FINISHED)
+                {
+                    this.lock.wait();
+                }
+
+                return true;
+            }
+        }
+    }
+}
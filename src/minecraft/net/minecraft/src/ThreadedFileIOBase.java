@@ -1,93 +1,216 @@
 package net.minecraft.src;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Set;
 
 public class ThreadedFileIOBase implements Runnable
 {
     /** Instance of ThreadedFileIOBase */
     public static final ThreadedFileIOBase threadedIOInstance = new ThreadedFileIOBase();
-    private List threadedIOQueue = Collections.synchronizedList(new ArrayList());
-    private volatile long writeQueuedCounter = 0L;
-    private volatile long savedIOCounter = 0L;
-    private volatile boolean isThreadWaiting = false;
+
+    /** Number of queued writes at which queueing more blocks until the workers catch up */
+    public static final int MAX_QUEUED_WRITES = 2048;
+
+    /**
+     * Lanes waiting for a worker. A lane is only ever in the queue or being processed by one worker at a time, so the
+     * writes of a lane happen in order while different lanes are written in parallel.
+     */
+    private LinkedList threadedIOQueue = new LinkedList();
+
+    /** Lanes which are queued or being processed */
+    private Set activeLanes = new HashSet();
+
+    /** Lanes which were queued again while being processed */
+    private Set requeuedLanes = new HashSet();
+    private Object lock = new Object();
+    private int queuedWrites = 0;
+    private long writeCount = 0L;
+    private long writeTimeTotal = 0L;
+    private long writeTimeMax = 0L;
 
     private ThreadedFileIOBase()
     {
-        Thread var1 = new Thread(this, "File IO Thread");
-        var1.setPriority(1);
-        var1.start();
+        int var1 = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+        for (int var2 = 0; var2 < var1; ++var2)
+        {
+            Thread var3 = new Thread(this, "File IO Thread " + (var2 + 1));
+            var3.setPriority(1);
+            var3.start();
+        }
     }
 
     public void run()
     {
         while (true)
         {
-            this.processQueue();
+            try
+            {
+                this.processQueue();
+            }
+            catch (InterruptedException var2)
+            {
+                var2.printStackTrace();
+            }
         }
     }
 
     /**
-     * Process the items that are in the queue
+     * Waits for a lane and performs its next write
      */
-    private void processQueue()
+    private void processQueue() throws InterruptedException
     {
-        for (int var1 = 0; var1 < this.threadedIOQueue.size(); ++var1)
+        IThreadedFileIO var1;
+
+        synchronized (this.lock)
+        {
+            while (this.threadedIOQueue.isEmpty())
+            {
+                this.lock.wait();
+            }
+
+            var1 = (IThreadedFileIO)this.threadedIOQueue.removeFirst();
+            this.requeuedLanes.remove(var1);
+        }
+
+        boolean var2 = false;
+        long var3 = System.nanoTime();
+
+        try
+        {
+            var2 = var1.writeNextIO();
+        }
+        catch (Throwable var7)
         {
-            IThreadedFileIO var2 = (IThreadedFileIO)this.threadedIOQueue.get(var1);
-            boolean var3 = var2.writeNextIO();
+            var7.printStackTrace();
+        }
+
+        long var5 = System.nanoTime() - var3;
 
-            if (!var3)
+        synchronized (this.lock)
+        {
+            if (var2)
             {
-                this.threadedIOQueue.remove(var1--);
-                ++this.savedIOCounter;
+                ++this.writeCount;
+                this.writeTimeTotal += var5;
+                this.writeTimeMax = Math.max(this.writeTimeMax, var5);
+
+                if (this.queuedWrites > 0)
+                {
+                    --this.queuedWrites;
+                }
             }
 
-            try
+            if (!var2 && !this.requeuedLanes.remove(var1))
             {
-                Thread.sleep(this.isThreadWaiting ? 0L : 10L);
+                this.activeLanes.remove(var1);
             }
-            catch (InterruptedException var6)
+            else
             {
-                var6.printStackTrace();
+                this.threadedIOQueue.addLast(var1);
             }
+
+            this.lock.notifyAll();
         }
+    }
 
-        if (this.threadedIOQueue.isEmpty())
+    /**
+     * threaded io
+     */
+    public void queueIO(IThreadedFileIO par1IThreadedFileIO)
+    {
+        synchronized (this.lock)
         {
-            try
+            if (this.activeLanes.add(par1IThreadedFileIO))
             {
-                Thread.sleep(25L);
+                this.threadedIOQueue.addLast(par1IThreadedFileIO);
+                this.lock.notifyAll();
             }
-            catch (InterruptedException var5)
+            else
             {
-                var5.printStackTrace();
+                this.requeuedLanes.add(par1IThreadedFileIO);
             }
         }
     }
 
     /**
-     * threaded io
+     * Blocks while MAX_QUEUED_WRITES writes are waiting so a producer can not run arbitrarily far ahead of the disk
      */
-    public void queueIO(IThreadedFileIO par1IThreadedFileIO)
+    public void waitForQueueSpace() throws InterruptedException
+    {
+        synchronized (this.lock)
+        {
+            while (this.queuedWrites >= MAX_QUEUED_WRITES && !this.activeLanes.isEmpty())
+            {
+                this.lock.wait();
+            }
+        }
+    }
+
+    /**
+     * Counts a new write for the queue depth, must be called before the write can be picked up by a worker
+     */
+    public void addQueuedWrite()
     {
-        if (!this.threadedIOQueue.contains(par1IThreadedFileIO))
+        synchronized (this.lock)
         {
-            ++this.writeQueuedCounter;
-            this.threadedIOQueue.add(par1IThreadedFileIO);
+            ++this.queuedWrites;
         }
     }
 
     public void waitForFinish() throws InterruptedException
     {
-        this.isThreadWaiting = true;
+        synchronized (this.lock)
+        {
+            while (!this.activeLanes.isEmpty())
+            {
+                this.lock.wait();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of writes waiting to be performed
+     */
+    public int getQueueDepth()
+    {
+        synchronized (this.lock)
+        {
+            return this.queuedWrites;
+        }
+    }
 
-        while (this.writeQueuedCounter != this.savedIOCounter)
+    /**
+     * Returns the number of writes performed since startup
+     */
+    public long getWriteCount()
+    {
+        synchronized (this.lock)
         {
-            Thread.sleep(10L);
+            return this.writeCount;
         }
+    }
 
-        this.isThreadWaiting = false;
+    /**
+     * Returns the average time of a write in milliseconds
+     */
+    public double getAverageWriteTime()
+    {
+        synchronized (this.lock)
+        {
+            return this.writeCount > 0L ? (double)this.writeTimeTotal / (double)this.writeCount / 1000000.0D : 0.0D;
+        }
+    }
+
+    /**
+     * Returns the longest time of a write in milliseconds
+     */
+    public double getMaxWriteTime()
+    {
+        synchronized (this.lock)
+        {
+            return (double)this.writeTimeMax / 1000000.0D;
+        }
     }
 }
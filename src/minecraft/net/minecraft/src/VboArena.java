@@ -0,0 +1,287 @@
+package net.minecraft.src;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.lwjgl.opengl.ARBVertexBufferObject;
+import org.lwjgl.opengl.GL11;
+
+public class VboArena
+{
+    /**
+     * Size of one stored vertex in bytes. Vertices are packed as three position shorts and one padding short, two
+     * texture shorts, the RGBA color and the two lightmap shorts.
+     */
+    public static final int VERTEX_SIZE = 20;
+
+    /** Size of one vertex in the Tessellator buffer in ints */
+    private static final int SOURCE_VERTEX_INTS = 8;
+
+    /** Size of one stored vertex in ints */
+    private static final int VERTEX_INTS = 5;
+
+    /** Positions are stored in 1/1024 block relative to the region origin, this covers +-32 blocks */
+    public static final float POSITION_SCALE = 1024.0F;
+
+    /** Texture coordinates are stored in 1/16384, this covers -2 to 2 */
+    public static final float TEXTURE_SCALE = 16384.0F;
+    private static final boolean littleEndianByteOrder = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+
+    /** Default page size in vertices (10 MB) */
+    private static final int PAGE_VERTICES = 524288;
+
+    /** Region sizes are rounded up to this many vertices */
+    private static final int REGION_ALIGN = 64;
+
+    /** All pages of the arena, kept for reuse until the arena is deleted */
+    private List pages = new ArrayList();
+    private ByteBuffer uploadBuffer;
+    private IntBuffer uploadIntBuffer;
+    private int[] packedBuffer = new int[0];
+    private int drawCount = 0;
+
+    public VboArena()
+    {
+        this.setUploadBufferSize(65536);
+    }
+
+    private void setUploadBufferSize(int var1)
+    {
+        this.uploadBuffer = GLAllocation.createDirectByteBuffer(var1 * 4);
+        this.uploadIntBuffer = this.uploadBuffer.asIntBuffer();
+    }
+
+    /**
+     * Returns true if the mesh can be drawn from the arena, it has to be made of quads with texture, color and
+     * lightmap coordinates.
+     */
+    public static boolean canStore(WrMeshData var0)
+    {
+        return var0 != null && var0.drawMode == 7 && var0.vertexIconIndex == null && var0.hasTexture && var0.hasColor && var0.hasBrightness;
+    }
+
+    /**
+     * Stores the mesh in the arena, reusing the given region when it is large enough, and returns the region now
+     * holding the mesh. Returns null if the mesh does not fit the packed vertex format, the given region is left
+     * untouched in that case. Args: region, mesh, originX, originY, originZ
+     */
+    public VboRegion upload(VboRegion var1, WrMeshData var2, float var3, float var4, float var5)
+    {
+        if (!this.pack(var2, var3, var4, var5))
+        {
+            return null;
+        }
+        else
+        {
+            var1 = this.uploadPacked(var1, var2.vertexCount);
+            var1.originX = var3;
+            var1.originY = var4;
+            var1.originZ = var5;
+            return var1;
+        }
+    }
+
+    /**
+     * Converts the Tessellator vertices of the mesh into the packed format, returns false if a position or texture
+     * coordinate is out of range. Args: mesh, originX, originY, originZ
+     */
+    private boolean pack(WrMeshData var1, float var2, float var3, float var4)
+    {
+        int var5 = var1.vertexCount * VERTEX_INTS;
+
+        if (this.packedBuffer.length < var5)
+        {
+            this.packedBuffer = new int[var5 + var5 / 4];
+        }
+
+        int[] var6 = var1.rawBuffer;
+        int[] var7 = this.packedBuffer;
+
+        for (int var8 = 0; var8 < var1.vertexCount; ++var8)
+        {
+            int var9 = var8 * SOURCE_VERTEX_INTS;
+            int var10 = var8 * VERTEX_INTS;
+            int var11 = Math.round((Float.intBitsToFloat(var6[var9]) - var2) * POSITION_SCALE);
+            int var12 = Math.round((Float.intBitsToFloat(var6[var9 + 1]) - var3) * POSITION_SCALE);
+            int var13 = Math.round((Float.intBitsToFloat(var6[var9 + 2]) - var4) * POSITION_SCALE);
+            int var14 = Math.round(Float.intBitsToFloat(var6[var9 + 3]) * TEXTURE_SCALE);
+            int var15 = Math.round(Float.intBitsToFloat(var6[var9 + 4]) * TEXTURE_SCALE);
+
+            if (!isShort(var11) || !isShort(var12) || !isShort(var13) || !isShort(var14) || !isShort(var15))
+            {
+                return false;
+            }
+
+            var7[var10] = packShorts(var11, var12);
+            var7[var10 + 1] = packShorts(var13, 0);
+            var7[var10 + 2] = packShorts(var14, var15);
+            var7[var10 + 3] = var6[var9 + 5];
+            var7[var10 + 4] = var6[var9 + 7];
+        }
+
+        return true;
+    }
+
+    private static boolean isShort(int var0)
+    {
+        return var0 >= -32768 && var0 <= 32767;
+    }
+
+    /**
+     * Packs two shorts into an int so that the first one comes first in native byte order
+     */
+    private static int packShorts(int var0, int var1)
+    {
+        return littleEndianByteOrder ? var0 & 65535 | var1 << 16 : var0 << 16 | var1 & 65535;
+    }
+
+    private VboRegion uploadPacked(VboRegion var1, int var2)
+    {
+        if (var1 != null && (var1.capacity < var2 || var1.capacity > var2 * 2 + REGION_ALIGN))
+        {
+            this.free(var1);
+            var1 = null;
+        }
+
+        if (var1 == null)
+        {
+            var1 = this.allocate(var2 + var2 / 8);
+        }
+
+        int var3 = var2 * VERTEX_INTS;
+
+        if (var3 > this.uploadIntBuffer.capacity())
+        {
+            this.setUploadBufferSize(var3);
+        }
+
+        this.uploadIntBuffer.clear();
+        this.uploadIntBuffer.put(this.packedBuffer, 0, var3);
+        this.uploadBuffer.position(0);
+        this.uploadBuffer.limit(var3 * 4);
+        ARBVertexBufferObject.glBindBufferARB(ARBVertexBufferObject.GL_ARRAY_BUFFER_ARB, var1.page.glBuffer);
+        ARBVertexBufferObject.glBufferSubDataARB(ARBVertexBufferObject.GL_ARRAY_BUFFER_ARB, (long)var1.offset * (long)VERTEX_SIZE, this.uploadBuffer);
+        ARBVertexBufferObject.glBindBufferARB(ARBVertexBufferObject.GL_ARRAY_BUFFER_ARB, 0);
+        this.uploadBuffer.clear();
+        var1.vertexCount = var2;
+        return var1;
+    }
+
+    private VboRegion allocate(int var1)
+    {
+        var1 = (var1 + REGION_ALIGN - 1) / REGION_ALIGN * REGION_ALIGN;
+
+        for (int var2 = 0; var2 < this.pages.size(); ++var2)
+        {
+            VboRegion var3 = ((VboPage)this.pages.get(var2)).allocate(var1);
+
+            if (var3 != null)
+            {
+                return var3;
+            }
+        }
+
+        VboPage var4 = new VboPage(Math.max(var1, PAGE_VERTICES));
+        this.pages.add(var4);
+        return var4.allocate(var1);
+    }
+
+    public void free(VboRegion var1)
+    {
+        if (var1 != null && !var1.isFree)
+        {
+            var1.page.free(var1);
+        }
+    }
+
+    /**
+     * Queues the region to be drawn by the next drawRegions call.
+     */
+    public void addToDraw(VboRegion var1)
+    {
+        var1.page.drawRegions.add(var1);
+        ++this.drawCount;
+    }
+
+    /**
+     * Draws all queued regions, binding each page once, and returns the number of regions drawn. The modelview and
+     * texture matrices are scaled per region to undo the quantization of the packed vertices.
+     */
+    public int drawRegions()
+    {
+        int var1 = this.drawCount;
+
+        if (var1 > 0)
+        {
+            GL11.glEnableClientState(GL11.GL_VERTEX_ARRAY);
+            GL11.glEnableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+            GL11.glEnableClientState(GL11.GL_COLOR_ARRAY);
+            OpenGlHelper.setClientActiveTexture(OpenGlHelper.lightmapTexUnit);
+            GL11.glEnableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+            OpenGlHelper.setClientActiveTexture(OpenGlHelper.defaultTexUnit);
+            OpenGlHelper.setActiveTexture(OpenGlHelper.defaultTexUnit);
+            GL11.glMatrixMode(GL11.GL_TEXTURE);
+            GL11.glPushMatrix();
+            GL11.glScalef(1.0F / TEXTURE_SCALE, 1.0F / TEXTURE_SCALE, 1.0F);
+            GL11.glMatrixMode(GL11.GL_MODELVIEW);
+
+            for (int var2 = 0; var2 < this.pages.size(); ++var2)
+            {
+                VboPage var3 = (VboPage)this.pages.get(var2);
+
+                if (!var3.drawRegions.isEmpty())
+                {
+                    ARBVertexBufferObject.glBindBufferARB(ARBVertexBufferObject.GL_ARRAY_BUFFER_ARB, var3.glBuffer);
+                    GL11.glVertexPointer(3, GL11.GL_SHORT, VERTEX_SIZE, 0L);
+                    GL11.glTexCoordPointer(2, GL11.GL_SHORT, VERTEX_SIZE, 8L);
+                    GL11.glColorPointer(4, GL11.GL_UNSIGNED_BYTE, VERTEX_SIZE, 12L);
+                    OpenGlHelper.setClientActiveTexture(OpenGlHelper.lightmapTexUnit);
+                    GL11.glTexCoordPointer(2, GL11.GL_SHORT, VERTEX_SIZE, 16L);
+                    OpenGlHelper.setClientActiveTexture(OpenGlHelper.defaultTexUnit);
+
+                    for (int var4 = 0; var4 < var3.drawRegions.size(); ++var4)
+                    {
+                        VboRegion var5 = (VboRegion)var3.drawRegions.get(var4);
+                        GL11.glPushMatrix();
+                        GL11.glTranslatef(var5.originX, var5.originY, var5.originZ);
+                        GL11.glScalef(1.0F / POSITION_SCALE, 1.0F / POSITION_SCALE, 1.0F / POSITION_SCALE);
+                        GL11.glDrawArrays(GL11.GL_QUADS, var5.offset, var5.vertexCount);
+                        GL11.glPopMatrix();
+                    }
+
+                    var3.drawRegions.clear();
+                }
+            }
+
+            ARBVertexBufferObject.glBindBufferARB(ARBVertexBufferObject.GL_ARRAY_BUFFER_ARB, 0);
+            GL11.glMatrixMode(GL11.GL_TEXTURE);
+            GL11.glPopMatrix();
+            GL11.glMatrixMode(GL11.GL_MODELVIEW);
+            OpenGlHelper.setClientActiveTexture(OpenGlHelper.lightmapTexUnit);
+            GL11.glDisableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+            OpenGlHelper.setClientActiveTexture(OpenGlHelper.defaultTexUnit);
+            GL11.glDisableClientState(GL11.GL_COLOR_ARRAY);
+            GL11.glDisableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+            GL11.glDisableClientState(GL11.GL_VERTEX_ARRAY);
+            this.drawCount = 0;
+        }
+
+        return var1;
+    }
+
+    /**
+     * Deletes the buffer objects of all pages.
+     */
+    public void deleteAll()
+    {
+        for (int var1 = 0; var1 < this.pages.size(); ++var1)
+        {
+            ((VboPage)this.pages.get(var1)).delete();
+        }
+
+        this.pages.clear();
+        this.drawCount = 0;
+    }
+}
@@ -0,0 +1,101 @@
+package net.minecraft.src;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.lwjgl.opengl.ARBVertexBufferObject;
+
+public class VboPage
+{
+    /** The OpenGL buffer object backing this page */
+    public int glBuffer;
+
+    /** Size of the buffer in vertices */
+    public int capacity;
+
+    /** All regions of the page, free and used, ordered by offset */
+    private List regions = new ArrayList();
+
+    /** Regions to be drawn from this page in the current batch */
+    public List drawRegions = new ArrayList();
+
+    public VboPage(int par1)
+    {
+        this.capacity = par1;
+        this.glBuffer = ARBVertexBufferObject.glGenBuffersARB();
+        ARBVertexBufferObject.glBindBufferARB(ARBVertexBufferObject.GL_ARRAY_BUFFER_ARB, this.glBuffer);
+        ARBVertexBufferObject.glBufferDataARB(ARBVertexBufferObject.GL_ARRAY_BUFFER_ARB, (long)par1 * (long)VboArena.VERTEX_SIZE, ARBVertexBufferObject.GL_DYNAMIC_DRAW_ARB);
+        ARBVertexBufferObject.glBindBufferARB(ARBVertexBufferObject.GL_ARRAY_BUFFER_ARB, 0);
+        this.regions.add(new VboRegion(this, 0, par1));
+    }
+
+    /**
+     * Returns a used region of at least the given number of vertices, or null if no free range is large enough.
+     */
+    public VboRegion allocate(int par1)
+    {
+        for (int var2 = 0; var2 < this.regions.size(); ++var2)
+        {
+            VboRegion var3 = (VboRegion)this.regions.get(var2);
+
+            if (var3.isFree && var3.capacity >= par1)
+            {
+                if (var3.capacity > par1)
+                {
+                    VboRegion var4 = new VboRegion(this, var3.offset + par1, var3.capacity - par1);
+                    this.regions.add(var2 + 1, var4);
+                    var3.capacity = par1;
+                }
+
+                var3.isFree = false;
+                var3.vertexCount = 0;
+                return var3;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the region to the page, merging it with free neighbours.
+     */
+    public void free(VboRegion par1VboRegion)
+    {
+        int var2 = this.regions.indexOf(par1VboRegion);
+
+        if (var2 >= 0)
+        {
+            par1VboRegion.isFree = true;
+            par1VboRegion.vertexCount = 0;
+
+            if (var2 + 1 < this.regions.size())
+            {
+                VboRegion var3 = (VboRegion)this.regions.get(var2 + 1);
+
+                if (var3.isFree)
+                {
+                    par1VboRegion.capacity += var3.capacity;
+                    this.regions.remove(var2 + 1);
+                }
+            }
+
+            if (var2 > 0)
+            {
+                VboRegion var4 = (VboRegion)this.regions.get(var2 - 1);
+
+                if (var4.isFree)
+                {
+                    var4.capacity += par1VboRegion.capacity;
+                    this.regions.remove(var2);
+                }
+            }
+        }
+    }
+
+    public void delete()
+    {
+        ARBVertexBufferObject.glDeleteBuffersARB(this.glBuffer);
+        this.glBuffer = 0;
+        this.regions.clear();
+        this.drawRegions.clear();
+    }
+}
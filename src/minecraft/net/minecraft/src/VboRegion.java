@@ -0,0 +1,31 @@
+package net.minecraft.src;
+
+public class VboRegion
+{
+    /** The arena page holding this region */
+    public VboPage page;
+
+    /** First vertex of the region inside the page's buffer */
+    public int offset;
+
+    /** Size of the region in vertices */
+    public int capacity;
+
+    /** Number of vertices currently stored in the region */
+    public int vertexCount;
+    public boolean isFree;
+
+    /** Position the quantized vertex positions of the region are relative to */
+    public float originX;
+    public float originY;
+    public float originZ;
+
+    public VboRegion(VboPage par1VboPage, int par2, int par3)
+    {
+        this.page = par1VboPage;
+        this.offset = par2;
+        this.capacity = par3;
+        this.vertexCount = 0;
+        this.isFree = true;
+    }
+}
@@ -1,15 +1,19 @@
 package net.minecraft.src;
 
 import java.util.ArrayList;
-import java.util.List;
 
 public class Vec3Pool
 {
     private final int truncateArrayResetThreshold;
     private final int minimumSize;
 
+    /**
+     * Number of vectors kept at most between ticks, a burst of allocations does not stay retained beyond this
+     */
+    private static final int MAX_RETAINED_SIZE = 16384;
+
     /** items at and above nextFreeSpace are assumed to be available */
-    private final List vec3Cache = new ArrayList();
+    private final ArrayList vec3Cache = new ArrayList();
     private int nextFreeSpace = 0;
     private int maximumSizeSinceLastTruncation = 0;
     private int resetCount = 0;
@@ -64,20 +68,28 @@ public class Vec3Pool
             if (this.resetCount++ == this.truncateArrayResetThreshold)
             {
                 int var1 = Math.max(this.maximumSizeSinceLastTruncation, this.vec3Cache.size() - this.minimumSize);
-
-                while (this.vec3Cache.size() > var1)
-                {
-                    this.vec3Cache.remove(var1);
-                }
-
+                this.truncateCache(var1);
                 this.maximumSizeSinceLastTruncation = 0;
                 this.resetCount = 0;
             }
 
+            this.truncateCache(MAX_RETAINED_SIZE);
             this.nextFreeSpace = 0;
         }
     }
 
+    /**
+     * Removes the vectors beyond the given size and releases the unused capacity of the list
+     */
+    private void truncateCache(int par1)
+    {
+        if (this.vec3Cache.size() > par1)
+        {
+            this.vec3Cache.subList(par1, this.vec3Cache.size()).clear();
+            this.vec3Cache.trimToSize();
+        }
+    }
+
     public void clearAndFreeCache()
     {
         if (!this.func_82589_e())
@@ -71,6 +71,13 @@ public abstract class World implements IBlockAccess
 
     /** Handles chunk operations and caching */
     protected IChunkProvider chunkProvider;
+
+    /**
+     * The two chunks returned last by getChunkFromChunkCoords, most block reads are in the same chunk as the previous
+     * one. Only loaded chunks are kept and a chunk is no longer returned once it is unloaded.
+     */
+    private Chunk lastChunk;
+    private Chunk previousChunk;
     protected final ISaveHandler saveHandler;
 
     /**
@@ -91,6 +98,9 @@ public abstract class World implements IBlockAccess
     protected Scoreboard worldScoreboard = new Scoreboard();
     private final ILogAgent field_98181_L;
     private ArrayList collidingBoundingBoxes = new ArrayList();
+
+    /** Buffer filled by getCollidingBoxes */
+    private final CollisionBoxBuffer collisionBoxBuffer = new CollisionBoxBuffer();
     private boolean scanningTileEntities;
 
     /** indicates if enemies are spawned or not */
@@ -105,13 +115,8 @@ public abstract class World implements IBlockAccess
     /** number of ticks until the next random ambients play */
     private int ambientTickCountdown;
 
-    /**
-     * is a temporary list of blocks and light values used when updating light levels. Holds up to 32x32x32 blocks (the
-     * maximum influence of a light source.) Every element is a packed bit value: 0000000000LLLLzzzzzzyyyyyyxxxxxx. The
-     * 4-bit L is a light level used when darkening blocks. 6-bit numbers x, y and z represent the block's offset from
-     * the original block, plus 32 (i.e. value of 31 would mean a -1 offset
-     */
-    int[] lightUpdateBlockList;
+    /** Collects the light checks of a tick and processes them together */
+    protected final LightingEngine lightingEngine = new LightingEngine(this);
 
     /** This is set to true for client worlds, and false for server worlds. */
     public boolean isRemote;
@@ -142,7 +147,6 @@ public abstract class World implements IBlockAccess
     public World(ISaveHandler par1ISaveHandler, String par2Str, WorldProvider par3WorldProvider, WorldSettings par4WorldSettings, Profiler par5Profiler, ILogAgent par6ILogAgent)
     {
         this.ambientTickCountdown = this.rand.nextInt(12000);
-        this.lightUpdateBlockList = new int[32768];
         this.isRemote = false;
         this.saveHandler = par1ISaveHandler;
         this.theProfiler = par5Profiler;
@@ -172,7 +176,6 @@ public abstract class World implements IBlockAccess
     public World(ISaveHandler par1ISaveHandler, String par2Str, WorldSettings par3WorldSettings, WorldProvider par4WorldProvider, Profiler par5Profiler, ILogAgent par6ILogAgent)
     {
         this.ambientTickCountdown = this.rand.nextInt(12000);
-        this.lightUpdateBlockList = new int[32768];
         this.isRemote = false;
         this.saveHandler = par1ISaveHandler;
         this.theProfiler = par5Profiler;
@@ -399,7 +402,8 @@ public abstract class World implements IBlockAccess
      */
     protected boolean chunkExists(int par1, int par2)
     {
-        return this.chunkProvider.chunkExists(par1, par2);
+        Chunk var3 = this.lastChunk;
+        return var3 != null && var3.xPosition == par1 && var3.zPosition == par2 && var3.isChunkLoaded ? true : this.chunkProvider.chunkExists(par1, par2);
     }
 
     /**
@@ -415,7 +419,35 @@ public abstract class World implements IBlockAccess
      */
     public Chunk getChunkFromChunkCoords(int par1, int par2)
     {
-        return this.chunkProvider.provideChunk(par1, par2);
+        Chunk var3 = this.lastChunk;
+
+        if (var3 != null && var3.xPosition == par1 && var3.zPosition == par2 && var3.isChunkLoaded)
+        {
+            return var3;
+        }
+        else
+        {
+            Chunk var4 = this.previousChunk;
+
+            if (var4 != null && var4.xPosition == par1 && var4.zPosition == par2 && var4.isChunkLoaded)
+            {
+                this.previousChunk = var3;
+                this.lastChunk = var4;
+                return var4;
+            }
+            else
+            {
+                var4 = this.chunkProvider.provideChunk(par1, par2);
+
+                if (var4.isChunkLoaded)
+                {
+                    this.previousChunk = var3;
+                    this.lastChunk = var4;
+                }
+
+                return var4;
+            }
+        }
     }
 
     /**
@@ -778,6 +810,8 @@ public abstract class World implements IBlockAccess
      */
     public int getFullBlockLightValue(int par1, int par2, int par3)
     {
+        this.lightingEngine.flushAt(par1, par2, par3);
+
         if (par2 < 0)
         {
             return 0;
@@ -808,6 +842,8 @@ public abstract class World implements IBlockAccess
      */
     public int getBlockLightValue_do(int par1, int par2, int par3, boolean par4)
     {
+        this.lightingEngine.flushAt(par1, par2, par3);
+
         if (par1 >= -30000000 && par3 >= -30000000 && par1 < 30000000 && par3 < 30000000)
         {
             if (par4)
@@ -922,6 +958,8 @@ public abstract class World implements IBlockAccess
      */
     public int getSkyBlockTypeBrightness(EnumSkyBlock par1EnumSkyBlock, int par2, int par3, int par4)
     {
+        this.lightingEngine.flushAt(par2, par3, par4);
+
         if (this.provider.hasNoSky && par1EnumSkyBlock == EnumSkyBlock.Sky)
         {
             return 0;
@@ -995,6 +1033,8 @@ public abstract class World implements IBlockAccess
      */
     public int getSavedLightValue(EnumSkyBlock par1EnumSkyBlock, int par2, int par3, int par4)
     {
+        this.lightingEngine.flushAt(par2, par3, par4);
+
         if (par3 < 0)
         {
             par3 = 0;
@@ -1138,7 +1178,7 @@ public abstract class World implements IBlockAccess
                 int var12 = this.getBlockMetadata(var8, var9, var10);
                 Block var13 = Block.blocksList[var11];
 
-                if ((!par4 || var13 == null || var13.getCollisionBoundingBoxFromPool(this, var8, var9, var10) != null) && var11 > 0 && var13.canCollideCheck(var12, par3))
+                if ((!par4 || var13 == null || Block.fullCubeCollisionLookup[var11] || var13.getCollisionBoundingBoxFromPool(this, var8, var9, var10) != null) && var11 > 0 && var13.canCollideCheck(var12, par3))
                 {
                     MovingObjectPosition var14 = var13.collisionRayTrace(this, var8, var9, var10, par1Vec3, par2Vec3);
 
@@ -1279,36 +1319,32 @@ public abstract class World implements IBlockAccess
                         par1Vec3.zCoord = var19;
                     }
 
-                    Vec3 var34 = this.getWorldVec3Pool().getVecFromPool(par1Vec3.xCoord, par1Vec3.yCoord, par1Vec3.zCoord);
-                    var8 = (int)(var34.xCoord = (double)MathHelper.floor_double(par1Vec3.xCoord));
+                    var8 = MathHelper.floor_double(par1Vec3.xCoord);
 
                     if (var42 == 5)
                     {
                         --var8;
-                        ++var34.xCoord;
                     }
 
-                    var9 = (int)(var34.yCoord = (double)MathHelper.floor_double(par1Vec3.yCoord));
+                    var9 = MathHelper.floor_double(par1Vec3.yCoord);
 
                     if (var42 == 1)
                     {
                         --var9;
-                        ++var34.yCoord;
                     }
 
-                    var10 = (int)(var34.zCoord = (double)MathHelper.floor_double(par1Vec3.zCoord));
+                    var10 = MathHelper.floor_double(par1Vec3.zCoord);
 
                     if (var42 == 3)
                     {
                         --var10;
-                        ++var34.zCoord;
                     }
 
                     int var35 = this.getBlockId(var8, var9, var10);
                     int var36 = this.getBlockMetadata(var8, var9, var10);
                     Block var37 = Block.blocksList[var35];
 
-                    if ((!par4 || var37 == null || var37.getCollisionBoundingBoxFromPool(this, var8, var9, var10) != null) && var35 > 0 && var37.canCollideCheck(var36, par3))
+                    if ((!par4 || var37 == null || Block.fullCubeCollisionLookup[var35] || var37.getCollisionBoundingBoxFromPool(this, var8, var9, var10) != null) && var35 > 0 && var37.canCollideCheck(var36, par3))
                     {
                         MovingObjectPosition var38 = var37.collisionRayTrace(this, var8, var9, var10, par1Vec3, par2Vec3);
 
@@ -1590,6 +1626,76 @@ public abstract class World implements IBlockAccess
         return this.collidingBoundingBoxes;
     }
 
+    /**
+     * Fills the collision box buffer of the world with the boxes colliding with aabb, excluding the entity's own
+     * collision. Returns the same boxes as getCollidingBoundingBoxes without allocating them, full cube blocks are
+     * written without calling the block. The buffer is reused by the next call. Args: entity, aabb
+     */
+    public CollisionBoxBuffer getCollidingBoxes(Entity par1Entity, AxisAlignedBB par2AxisAlignedBB)
+    {
+        CollisionBoxBuffer var3 = this.collisionBoxBuffer;
+        var3.clear();
+        int var4 = MathHelper.floor_double(par2AxisAlignedBB.minX);
+        int var5 = MathHelper.floor_double(par2AxisAlignedBB.maxX + 1.0D);
+        int var6 = MathHelper.floor_double(par2AxisAlignedBB.minY);
+        int var7 = MathHelper.floor_double(par2AxisAlignedBB.maxY + 1.0D);
+        int var8 = MathHelper.floor_double(par2AxisAlignedBB.minZ);
+        int var9 = MathHelper.floor_double(par2AxisAlignedBB.maxZ + 1.0D);
+
+        for (int var10 = var4; var10 < var5; ++var10)
+        {
+            for (int var11 = var8; var11 < var9; ++var11)
+            {
+                if (this.blockExists(var10, 64, var11))
+                {
+                    for (int var12 = var6 - 1; var12 < var7; ++var12)
+                    {
+                        int var13 = this.getBlockId(var10, var12, var11);
+
+                        if (Block.fullCubeCollisionLookup[var13])
+                        {
+                            if (par2AxisAlignedBB.maxX > (double)var10 && par2AxisAlignedBB.minX < (double)(var10 + 1) && par2AxisAlignedBB.maxY > (double)var12 && par2AxisAlignedBB.minY < (double)(var12 + 1) && par2AxisAlignedBB.maxZ > (double)var11 && par2AxisAlignedBB.minZ < (double)(var11 + 1))
+                            {
+                                var3.addBox((double)var10, (double)var12, (double)var11, (double)(var10 + 1), (double)(var12 + 1), (double)(var11 + 1));
+                            }
+                        }
+                        else
+                        {
+                            Block var14 = Block.blocksList[var13];
+
+                            if (var14 != null)
+                            {
+                                var14.addCollisionBoxesToBuffer(this, var10, var12, var11, par2AxisAlignedBB, var3, par1Entity);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        double var18 = 0.25D;
+        List var16 = this.getEntitiesWithinAABBExcludingEntity(par1Entity, par2AxisAlignedBB.expand(var18, var18, var18));
+
+        for (int var17 = 0; var17 < var16.size(); ++var17)
+        {
+            AxisAlignedBB var15 = ((Entity)var16.get(var17)).getBoundingBox();
+
+            if (var15 != null && var15.intersectsWith(par2AxisAlignedBB))
+            {
+                var3.addBox(var15);
+            }
+
+            var15 = par1Entity.getCollisionBox((Entity)var16.get(var17));
+
+            if (var15 != null && var15.intersectsWith(par2AxisAlignedBB))
+            {
+                var3.addBox(var15);
+            }
+        }
+
+        return var3;
+    }
+
     /**
      * calculates and returns a list of colliding bounding boxes within a given AABB
      */
@@ -2089,6 +2195,7 @@ public abstract class World implements IBlockAccess
 
         this.theProfiler.endSection();
         this.theProfiler.endSection();
+        this.flushLightUpdates();
     }
 
     public void addTileEntity(Collection par1Collection)
@@ -2190,6 +2297,10 @@ public abstract class World implements IBlockAccess
                     par1Entity.addedToChunk = false;
                 }
             }
+            else if (this.chunkExists(var6, var8))
+            {
+                this.getChunkFromChunkCoords(var6, var8).updateEntityCell(par1Entity);
+            }
 
             this.theProfiler.endSection();
 
@@ -2602,6 +2713,14 @@ public abstract class World implements IBlockAccess
         return "All: " + this.loadedEntityList.size();
     }
 
+    /**
+     * Returns the chunk lighting counts of the lighting engine, viewable by pressing F3
+     */
+    public String getDebugLighting()
+    {
+        return this.lightingEngine.getDebugInfo();
+    }
+
     /**
      * Returns the name of the current chunk provider, by calling chunkprovider.makeString()
      */
@@ -3167,191 +3286,37 @@ public abstract class World implements IBlockAccess
         this.updateLightByType(EnumSkyBlock.Block, par1, par2, par3);
     }
 
-    private int func_98179_a(int par1, int par2, int par3, EnumSkyBlock par4EnumSkyBlock)
+    /**
+     * Queues a check of the light at the position. Checks are processed together when light is next read or at the end
+     * of the tick.
+     */
+    public void updateLightByType(EnumSkyBlock par1EnumSkyBlock, int par2, int par3, int par4)
     {
-        if (par4EnumSkyBlock == EnumSkyBlock.Sky && this.canBlockSeeTheSky(par1, par2, par3))
-        {
-            return 15;
-        }
-        else
-        {
-            int var5 = this.getBlockId(par1, par2, par3);
-            int var6 = par4EnumSkyBlock == EnumSkyBlock.Sky ? 0 : Block.lightValue[var5];
-            int var7 = Block.lightOpacity[var5];
-
-            if (var7 >= 15 && Block.lightValue[var5] > 0)
-            {
-                var7 = 1;
-            }
-
-            if (var7 < 1)
-            {
-                var7 = 1;
-            }
-
-            if (var7 >= 15)
-            {
-                return 0;
-            }
-            else if (var6 >= 14)
-            {
-                return var6;
-            }
-            else
-            {
-                for (int var8 = 0; var8 < 6; ++var8)
-                {
-                    int var9 = par1 + Facing.offsetsXForSide[var8];
-                    int var10 = par2 + Facing.offsetsYForSide[var8];
-                    int var11 = par3 + Facing.offsetsZForSide[var8];
-                    int var12 = this.getSavedLightValue(par4EnumSkyBlock, var9, var10, var11) - var7;
-
-                    if (var12 > var6)
-                    {
-                        var6 = var12;
-                    }
-
-                    if (var6 >= 14)
-                    {
-                        return var6;
-                    }
-                }
-
-                return var6;
-            }
-        }
+        this.lightingEngine.queueLightCheck(par1EnumSkyBlock, par2, par3, par4);
     }
 
-    public void updateLightByType(EnumSkyBlock par1EnumSkyBlock, int par2, int par3, int par4)
+    /**
+     * Processes the queued light checks
+     */
+    public void flushLightUpdates()
     {
-        if (this.doChunksNearChunkExist(par2, par3, par4, 17))
-        {
-            int var5 = 0;
-            int var6 = 0;
-            this.theProfiler.startSection("getBrightness");
-            int var7 = this.getSavedLightValue(par1EnumSkyBlock, par2, par3, par4);
-            int var8 = this.func_98179_a(par2, par3, par4, par1EnumSkyBlock);
-            int var9;
-            int var10;
-            int var11;
-            int var12;
-            int var13;
-            int var14;
-            int var15;
-            int var17;
-            int var16;
-
-            if (var8 > var7)
-            {
-                this.lightUpdateBlockList[var6++] = 133152;
-            }
-            else if (var8 < var7)
-            {
-                this.lightUpdateBlockList[var6++] = 133152 | var7 << 18;
-
-                while (var5 < var6)
-                {
-                    var9 = this.lightUpdateBlockList[var5++];
-                    var10 = (var9 & 63) - 32 + par2;
-                    var11 = (var9 >> 6 & 63) - 32 + par3;
-                    var12 = (var9 >> 12 & 63) - 32 + par4;
-                    var13 = var9 >> 18 & 15;
-                    var14 = this.getSavedLightValue(par1EnumSkyBlock, var10, var11, var12);
-
-                    if (var14 == var13)
-                    {
-                        this.setLightValue(par1EnumSkyBlock, var10, var11, var12, 0);
-
-                        if (var13 > 0)
-                        {
-                            var15 = MathHelper.abs_int(var10 - par2);
-                            var16 = MathHelper.abs_int(var11 - par3);
-                            var17 = MathHelper.abs_int(var12 - par4);
-
-                            if (var15 + var16 + var17 < 17)
-                            {
-                                for (int var18 = 0; var18 < 6; ++var18)
-                                {
-                                    int var19 = var10 + Facing.offsetsXForSide[var18];
-                                    int var20 = var11 + Facing.offsetsYForSide[var18];
-                                    int var21 = var12 + Facing.offsetsZForSide[var18];
-                                    int var22 = Math.max(1, Block.lightOpacity[this.getBlockId(var19, var20, var21)]);
-                                    var14 = this.getSavedLightValue(par1EnumSkyBlock, var19, var20, var21);
-
-                                    if (var14 == var13 - var22 && var6 < this.lightUpdateBlockList.length)
-                                    {
-                                        this.lightUpdateBlockList[var6++] = var19 - par2 + 32 | var20 - par3 + 32 << 6 | var21 - par4 + 32 << 12 | var13 - var22 << 18;
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
-
-                var5 = 0;
-            }
-
-            this.theProfiler.endSection();
-            this.theProfiler.startSection("checkedPosition < toCheckCount");
-
-            while (var5 < var6)
-            {
-                var9 = this.lightUpdateBlockList[var5++];
-                var10 = (var9 & 63) - 32 + par2;
-                var11 = (var9 >> 6 & 63) - 32 + par3;
-                var12 = (var9 >> 12 & 63) - 32 + par4;
-                var13 = this.getSavedLightValue(par1EnumSkyBlock, var10, var11, var12);
-                var14 = this.func_98179_a(var10, var11, var12, par1EnumSkyBlock);
-
-                if (var14 != var13)
-                {
-                    this.setLightValue(par1EnumSkyBlock, var10, var11, var12, var14);
-
-                    if (var14 > var13)
-                    {
-                        var15 = Math.abs(var10 - par2);
-                        var16 = Math.abs(var11 - par3);
-                        var17 = Math.abs(var12 - par4);
-                        boolean var23 = var6 < this.lightUpdateBlockList.length - 6;
-
-                        if (var15 + var16 + var17 < 17 && var23)
-                        {
-                            if (this.getSavedLightValue(par1EnumSkyBlock, var10 - 1, var11, var12) < var14)
-                            {
-                                this.lightUpdateBlockList[var6++] = var10 - 1 - par2 + 32 + (var11 - par3 + 32 << 6) + (var12 - par4 + 32 << 12);
-                            }
-
-                            if (this.getSavedLightValue(par1EnumSkyBlock, var10 + 1, var11, var12) < var14)
-                            {
-                                this.lightUpdateBlockList[var6++] = var10 + 1 - par2 + 32 + (var11 - par3 + 32 << 6) + (var12 - par4 + 32 << 12);
-                            }
-
-                            if (this.getSavedLightValue(par1EnumSkyBlock, var10, var11 - 1, var12) < var14)
-                            {
-                                this.lightUpdateBlockList[var6++] = var10 - par2 + 32 + (var11 - 1 - par3 + 32 << 6) + (var12 - par4 + 32 << 12);
-                            }
-
-                            if (this.getSavedLightValue(par1EnumSkyBlock, var10, var11 + 1, var12) < var14)
-                            {
-                                this.lightUpdateBlockList[var6++] = var10 - par2 + 32 + (var11 + 1 - par3 + 32 << 6) + (var12 - par4 + 32 << 12);
-                            }
-
-                            if (this.getSavedLightValue(par1EnumSkyBlock, var10, var11, var12 - 1) < var14)
-                            {
-                                this.lightUpdateBlockList[var6++] = var10 - par2 + 32 + (var11 - par3 + 32 << 6) + (var12 - 1 - par4 + 32 << 12);
-                            }
+        this.lightingEngine.flush();
+    }
 
-                            if (this.getSavedLightValue(par1EnumSkyBlock, var10, var11, var12 + 1) < var14)
-                            {
-                                this.lightUpdateBlockList[var6++] = var10 - par2 + 32 + (var11 - par3 + 32 << 6) + (var12 + 1 - par4 + 32 << 12);
-                            }
-                        }
-                    }
-                }
-            }
+    /**
+     * Computes the light of a new chunk in the background, it is marked for a render update once the light is published
+     */
+    public void queueChunkLighting(Chunk par1Chunk)
+    {
+        this.lightingEngine.queueChunkLighting(par1Chunk);
+    }
 
-            this.theProfiler.endSection();
-        }
+    /**
+     * Called for each loaded chunk the population of a chunk placed blocks into
+     */
+    public void onChunkPopulated(Chunk par1Chunk)
+    {
+        this.lightingEngine.onChunkPopulated(par1Chunk);
     }
 
     /**
@@ -66,6 +66,8 @@ public class WorldClient extends World
         this.clientChunkProvider.unloadQueuedChunks();
         this.theProfiler.endStartSection("tiles");
         this.tickBlocksAndAmbiance();
+        this.lightingEngine.updateChunkLighting();
+        this.flushLightUpdates();
         this.theProfiler.endSection();
     }
 
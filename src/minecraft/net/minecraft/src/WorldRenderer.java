@@ -84,6 +84,18 @@ public class WorldRenderer
     public static int globalChunkOffsetX = 0;
     public static int globalChunkOffsetZ = 0;
 
+    /** Arena holding the vertex buffers of this renderer, null when display lists are used */
+    public VboArena vboArena = null;
+
+    /** Vertex buffer regions holding the geometry of each render pass */
+    public VboRegion[] vboRegions = new VboRegion[2];
+
+    /** Which faces of this section can be seen from each other, see WrVisibilityGraph */
+    public long visibility = WrVisibilityGraph.ALL_CONNECTED;
+
+    /** Last frame in which this renderer was reached by the visibility graph search */
+    public int visibleFrame = 0;
+
     public WorldRenderer(World par1World, List par2List, int par3, int par4, int par5, int par6)
     {
         this.worldObj = par1World;
@@ -117,6 +129,7 @@ public class WorldRenderer
             float var4 = 0.0F;
             this.rendererBoundingBox = AxisAlignedBB.getBoundingBox((double)((float)par1 - var4), (double)((float)par2 - var4), (double)((float)par3 - var4), (double)((float)(par1 + 16) + var4), (double)((float)(par2 + 16) + var4), (double)((float)(par3 + 16) + var4));
             this.needsBoxUpdate = true;
+            this.visibility = WrVisibilityGraph.ALL_CONNECTED;
             this.markDirty();
             this.isVisibleFromPosition = false;
         }
@@ -174,13 +187,19 @@ public class WorldRenderer
                 byte var8 = 1;
                 ChunkCache var9 = new ChunkCache(this.worldObj, var24 - var8, var2 - var8, var3 - var8, var4 + var8, var5 + var8, var6 + var8, var8);
 
-                if (!var9.extendedLevelsInChunkCache())
+                if (var9.extendedLevelsInChunkCache())
                 {
+                    this.visibility = WrVisibilityGraph.ALL_CONNECTED;
+                }
+                else
+                {
+                    this.visibility = WrVisibilityGraph.computeVisibility(var9, var24, var2, var3);
                     ++chunksUpdated;
                     RenderBlocks var10 = new RenderBlocks(var9);
                     this.bytesDrawn = 0;
                     Tessellator var11 = Tessellator.instance;
                     boolean var12 = Reflector.ForgeHooksClient.exists();
+                    boolean var29 = this.isVboEnabled();
 
                     for (int var13 = 0; var13 < 2; ++var13)
                     {
@@ -201,7 +220,12 @@ public class WorldRenderer
                                         if (!var16)
                                         {
                                             var16 = true;
-                                            GL11.glNewList(this.glRenderList + var13, GL11.GL_COMPILE);
+
+                                            if (!var29)
+                                            {
+                                                GL11.glNewList(this.glRenderList + var13, GL11.GL_COMPILE);
+                                            }
+
                                             var11.setRenderingChunk(true);
                                             var11.startDrawingQuads();
                                             var11.setTranslation((double)(-globalChunkOffsetX), 0.0D, (double)(-globalChunkOffsetZ));
@@ -247,9 +271,19 @@ public class WorldRenderer
 
                         if (var16)
                         {
-                            this.bytesDrawn += var11.draw();
-                            GL11.glEndList();
-                            var11.setRenderingChunk(false);
+                            if (var29)
+                            {
+                                WrMeshData var30 = var11.drawToMesh();
+                                var11.setRenderingChunk(false);
+                                this.compileRenderPass(var13, var30);
+                            }
+                            else
+                            {
+                                this.bytesDrawn += var11.draw();
+                                GL11.glEndList();
+                                var11.setRenderingChunk(false);
+                            }
+
                             var11.setTranslation(0.0D, 0.0D, 0.0D);
                         }
                         else
@@ -269,6 +303,7 @@ public class WorldRenderer
                     }
                 }
 
+                this.releaseSkippedRenderPasses();
                 HashSet var27 = new HashSet();
                 var27.addAll(this.tileEntityRenderers);
                 var27.removeAll(var25);
@@ -311,6 +346,11 @@ public class WorldRenderer
     {
         this.setDontDraw();
         this.worldObj = null;
+
+        for (int var1 = 0; var1 < this.vboRegions.length; ++var1)
+        {
+            this.releaseRenderPassVbo(var1);
+        }
     }
 
     /**
@@ -318,7 +358,84 @@ public class WorldRenderer
      */
     public int getGLCallListForPass(int par1)
     {
-        return !this.isInFrustum ? -1 : (!this.skipRenderPass[par1] ? this.glRenderList + par1 : -1);
+        return !this.isInFrustum ? -1 : (!this.skipRenderPass[par1] && this.vboRegions[par1] == null ? this.glRenderList + par1 : -1);
+    }
+
+    /**
+     * Returns the vertex buffer region to draw for the given pass, or null if the pass is drawn from a display list.
+     * Args: renderPass
+     */
+    public VboRegion getVboRegionForPass(int par1)
+    {
+        return !this.isInFrustum ? null : (!this.skipRenderPass[par1] ? this.vboRegions[par1] : null);
+    }
+
+    protected boolean isVboEnabled()
+    {
+        return this.vboArena != null && Config.isUseVbo();
+    }
+
+    /**
+     * Stores the mesh of the opaque render pass in a vertex buffer region when possible, otherwise compiles it into the
+     * display list of the pass. The translucent pass always uses the display list: the arena draws its regions page by
+     * page, which would lose the back to front order of the sorted renderers. Args: renderPass, mesh
+     */
+    protected void compileRenderPass(int par1, WrMeshData par2WrMeshData)
+    {
+        VboRegion var3 = null;
+
+        if (par1 == 0 && par2WrMeshData != null && this.isVboEnabled() && VboArena.canStore(par2WrMeshData))
+        {
+            var3 = this.vboArena.upload(this.vboRegions[par1], par2WrMeshData, (float)(this.posX - globalChunkOffsetX), (float)this.posY, (float)(this.posZ - globalChunkOffsetZ));
+        }
+
+        if (var3 != null)
+        {
+            this.vboRegions[par1] = var3;
+            this.bytesDrawn += var3.vertexCount * VboArena.VERTEX_SIZE;
+        }
+        else
+        {
+            this.releaseRenderPassVbo(par1);
+            GL11.glNewList(this.glRenderList + par1, GL11.GL_COMPILE);
+
+            if (par2WrMeshData != null)
+            {
+                Tessellator var4 = Tessellator.instance;
+                var4.setRenderingChunk(true);
+                this.bytesDrawn += var4.drawMesh(par2WrMeshData);
+                var4.setRenderingChunk(false);
+            }
+
+            GL11.glEndList();
+        }
+    }
+
+    protected void releaseRenderPassVbo(int par1)
+    {
+        if (this.vboRegions[par1] != null)
+        {
+            if (this.vboArena != null)
+            {
+                this.vboArena.free(this.vboRegions[par1]);
+            }
+
+            this.vboRegions[par1] = null;
+        }
+    }
+
+    /**
+     * Frees the vertex buffer regions of the render passes that have nothing to draw
+     */
+    protected void releaseSkippedRenderPasses()
+    {
+        for (int var1 = 0; var1 < this.vboRegions.length; ++var1)
+        {
+            if (this.skipRenderPass[var1])
+            {
+                this.releaseRenderPassVbo(var1);
+            }
+        }
     }
 
     public void updateInFrustum(ICamera par1ICamera)
@@ -109,6 +109,7 @@ public class WorldRendererSmooth extends WorldRenderer
                 byte var27 = 1;
                 var9 = new ChunkCache(this.worldObj, var26 - var27, var4 - var27, var5 - var27, var6 + var27, var7 + var27, var8 + var27, var27);
                 var10 = new RenderBlocks(var9);
+                this.visibility = var9.extendedLevelsInChunkCache() ? WrVisibilityGraph.ALL_CONNECTED : WrVisibilityGraph.computeVisibility(var9, var26, var4, var5);
                 var11 = new HashSet();
                 var11.addAll(this.tileEntityRenderers);
                 this.tileEntityRenderers.clear();
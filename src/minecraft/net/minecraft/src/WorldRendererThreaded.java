@@ -1,5 +1,6 @@
 package net.minecraft.src;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import org.lwjgl.opengl.GL11;
@@ -8,6 +9,16 @@ public class WorldRendererThreaded extends WorldRenderer
 {
     private int glRenderListStable;
     private int glRenderListBoundingBox;
+    private ChunkCacheSnapshot buildChunkCache = null;
+    private int buildPosX;
+    private int buildPosY;
+    private int buildPosZ;
+    private WrMeshData[] buildMeshes = new WrMeshData[2];
+    private boolean[] buildSkipRenderPass = new boolean[2];
+    private List buildTileEntityPositions = new ArrayList();
+    private boolean buildChunkLit = false;
+    private long buildVisibility = WrVisibilityGraph.ALL_CONNECTED;
+    private boolean buildCancelled = false;
 
     public WorldRendererThreaded(World var1, List var2, int var3, int var4, int var5, int var6)
     {
@@ -21,190 +32,256 @@ public class WorldRendererThreaded extends WorldRenderer
      */
     public void updateRenderer()
     {
-        if (this.worldObj != null)
+        if (this.prepareBuild())
         {
-            this.updateRenderer((IWrUpdateListener)null);
+            this.buildMesh(Tessellator.instance, (Vec3Pool)null);
             this.finishUpdate();
         }
     }
 
-    public void updateRenderer(IWrUpdateListener var1)
+    public boolean prepareBuild()
     {
-        if (this.worldObj != null)
+        if (this.worldObj == null)
+        {
+            return false;
+        }
+        else
         {
             this.needsUpdate = false;
-            int var2 = this.posX;
-            int var3 = this.posY;
-            int var4 = this.posZ;
-            int var5 = this.posX + 16;
-            int var6 = this.posY + 16;
-            int var7 = this.posZ + 16;
-            boolean[] var8 = new boolean[2];
-
-            for (int var9 = 0; var9 < var8.length; ++var9)
+            this.buildPosX = this.posX;
+            this.buildPosY = this.posY;
+            this.buildPosZ = this.posZ;
+            this.buildCancelled = false;
+            this.buildChunkCache = new ChunkCacheSnapshot(this.worldObj, this.posX, this.posY, this.posZ);
+            return true;
+        }
+    }
+
+    public boolean isBuildObsolete()
+    {
+        return this.worldObj == null || this.buildPosX != this.posX || this.buildPosY != this.posY || this.buildPosZ != this.posZ;
+    }
+
+    public void cancelBuild()
+    {
+        this.buildCancelled = true;
+        this.buildChunkCache = null;
+
+        for (int var1 = 0; var1 < this.buildMeshes.length; ++var1)
+        {
+            this.buildMeshes[var1] = null;
+        }
+    }
+
+    public void buildMesh(Tessellator var1, Vec3Pool var2)
+    {
+        ChunkCacheSnapshot var3 = this.buildChunkCache;
+
+        if (var3 != null)
+        {
+            if (var2 != null)
+            {
+                var3.setWorldVec3Pool(var2);
+            }
+
+            int var4 = this.buildPosX;
+            int var5 = this.buildPosY;
+            int var6 = this.buildPosZ;
+            int var7 = var4 + 16;
+            int var8 = var5 + 16;
+            int var9 = var6 + 16;
+
+            for (int var10 = 0; var10 < 2; ++var10)
             {
-                var8[var9] = true;
+                this.buildSkipRenderPass[var10] = true;
+                this.buildMeshes[var10] = null;
             }
 
-            if (Reflector.LightCache.exists())
+            this.buildTileEntityPositions.clear();
+
+            if (Reflector.LightCache.exists() && Config.isMinecraftThread())
             {
-                Object var28 = Reflector.getFieldValue(Reflector.LightCache_cache);
-                Reflector.callVoid(var28, Reflector.LightCache_clear, new Object[0]);
+                Object var26 = Reflector.getFieldValue(Reflector.LightCache_cache);
+                Reflector.callVoid(var26, Reflector.LightCache_clear, new Object[0]);
                 Reflector.callVoid(Reflector.BlockCoord_resetPool, new Object[0]);
             }
 
-            Chunk.isLit = false;
-            HashSet var27 = new HashSet();
-            var27.addAll(this.tileEntityRenderers);
-            this.tileEntityRenderers.clear();
-            byte var10 = 1;
-            ChunkCache var11 = new ChunkCache(this.worldObj, var2 - var10, var3 - var10, var4 - var10, var5 + var10, var6 + var10, var7 + var10, var10);
+            this.buildVisibility = WrVisibilityGraph.ALL_CONNECTED;
 
-            if (!var11.extendedLevelsInChunkCache())
+            if (!var3.extendedLevelsInChunkCache())
             {
+                this.buildVisibility = WrVisibilityGraph.computeVisibility(var3, var4, var5, var6);
                 ++chunksUpdated;
-                RenderBlocks var12 = new RenderBlocks(var11);
-                this.bytesDrawn = 0;
-                Tessellator var13 = Tessellator.instance;
-                boolean var14 = Reflector.ForgeHooksClient.exists();
-                WrUpdateControl var15 = new WrUpdateControl();
+                RenderBlocks var11 = new RenderBlocks(var3, var1);
+                boolean var12 = Reflector.ForgeHooksClient.exists();
+                WrUpdateControl var13 = new WrUpdateControl();
 
-                for (int var16 = 0; var16 < 2; ++var16)
+                for (int var14 = 0; var14 < 2; ++var14)
                 {
-                    var15.setRenderPass(var16);
+                    var13.setRenderPass(var14);
+                    var13.resume();
+                    boolean var15 = false;
+                    boolean var16 = false;
                     boolean var17 = false;
-                    boolean var18 = false;
-                    boolean var19 = false;
 
-                    for (int var20 = var3; var20 < var6; ++var20)
+                    for (int var18 = var5; var18 < var8; ++var18)
                     {
-                        if (var18 && var1 != null)
-                        {
-                            var1.updating(var15);
-                        }
-
-                        for (int var21 = var4; var21 < var7; ++var21)
+                        for (int var19 = var6; var19 < var9; ++var19)
                         {
-                            for (int var22 = var2; var22 < var5; ++var22)
+                            for (int var20 = var4; var20 < var7; ++var20)
                             {
-                                int var23 = var11.getBlockId(var22, var20, var21);
+                                int var21 = var3.getBlockId(var20, var18, var19);
 
-                                if (var23 > 0)
+                                if (var21 > 0)
                                 {
-                                    if (!var19)
+                                    if (!var17)
                                     {
-                                        var19 = true;
-                                        GL11.glNewList(this.glRenderList + var16, GL11.GL_COMPILE);
-                                        var13.setRenderingChunk(true);
-                                        var13.startDrawingQuads();
-                                        var13.setTranslation((double)(-globalChunkOffsetX), 0.0D, (double)(-globalChunkOffsetZ));
+                                        var17 = true;
+                                        var1.setRenderingChunk(true);
+                                        var1.startDrawingQuads();
+                                        var1.setTranslation((double)(-globalChunkOffsetX), 0.0D, (double)(-globalChunkOffsetZ));
                                     }
 
-                                    Block var24 = Block.blocksList[var23];
+                                    Block var22 = Block.blocksList[var21];
 
-                                    if (var16 == 0 && var24.hasTileEntity())
+                                    if (var22 != null)
                                     {
-                                        TileEntity var25 = var11.getBlockTileEntity(var22, var20, var21);
-
-                                        if (TileEntityRenderer.instance.hasSpecialRenderer(var25))
+                                        if (var14 == 0 && var22.hasTileEntity())
                                         {
-                                            this.tileEntityRenderers.add(var25);
+                                            this.buildTileEntityPositions.add(new ChunkPosition(var20, var18, var19));
                                         }
-                                    }
 
-                                    int var31 = var24.getRenderBlockPass();
-                                    boolean var26 = true;
+                                        int var23 = var22.getRenderBlockPass();
+                                        boolean var24 = true;
 
-                                    if (var31 != var16)
-                                    {
-                                        var17 = true;
-                                        var26 = false;
-                                    }
+                                        if (var23 != var14)
+                                        {
+                                            var15 = true;
+                                            var24 = false;
+                                        }
 
-                                    if (var14)
-                                    {
-                                        var26 = Reflector.callBoolean(var24, Reflector.ForgeBlock_canRenderInPass, new Object[] {Integer.valueOf(var16)});
-                                    }
+                                        if (var12)
+                                        {
+                                            var24 = Reflector.callBoolean(var22, Reflector.ForgeBlock_canRenderInPass, new Object[] {Integer.valueOf(var14)});
+                                        }
 
-                                    if (var26)
-                                    {
-                                        var18 |= var12.renderBlockByRenderType(var24, var22, var20, var21);
+                                        if (var24)
+                                        {
+                                            var16 |= var11.renderBlockByRenderType(var22, var20, var18, var19);
+                                        }
                                     }
                                 }
                             }
                         }
                     }
 
-                    if (var19)
-                    {
-                        if (var1 != null)
-                        {
-                            var1.updating(var15);
-                        }
+                    var13.pause();
 
-                        this.bytesDrawn += var13.draw();
-                        GL11.glEndList();
-                        var13.setRenderingChunk(false);
-                        var13.setTranslation(0.0D, 0.0D, 0.0D);
+                    if (var17)
+                    {
+                        this.buildMeshes[var14] = var1.drawToMesh();
+                        var1.setRenderingChunk(false);
+                        var1.setTranslation(0.0D, 0.0D, 0.0D);
                     }
                     else
                     {
-                        var18 = false;
+                        var16 = false;
                     }
 
-                    if (var18)
+                    if (var16)
                     {
-                        var8[var16] = false;
+                        this.buildSkipRenderPass[var14] = false;
                     }
 
-                    if (!var17)
+                    if (!var15)
                     {
                         break;
                     }
                 }
             }
 
-            for (int var29 = 0; var29 < 2; ++var29)
-            {
-                this.skipRenderPass[var29] = var8[var29];
-            }
-
-            HashSet var30 = new HashSet();
-            var30.addAll(this.tileEntityRenderers);
-            var30.removeAll(var27);
-            this.tileEntities.addAll(var30);
-            var27.removeAll(this.tileEntityRenderers);
-            this.tileEntities.removeAll(var27);
-            this.isChunkLit = Chunk.isLit;
-            this.isInitialized = true;
-            this.isVisible = true;
-            this.isVisibleFromPosition = false;
+            this.buildChunkLit = var3.isLit();
         }
     }
 
     public void finishUpdate()
     {
-        int var1 = this.glRenderList;
-        this.glRenderList = this.glRenderListStable;
-        this.glRenderListStable = var1;
-
-        for (int var2 = 0; var2 < 2; ++var2)
+        if (!this.buildCancelled && this.buildChunkCache != null && !this.isBuildObsolete())
         {
-            if (!this.skipRenderPass[var2])
+            this.bytesDrawn = 0;
+            int var2;
+
+            for (var2 = 0; var2 < 2; ++var2)
+            {
+                WrMeshData var3 = this.buildMeshes[var2];
+
+                if (var3 != null)
+                {
+                    this.compileRenderPass(var2, var3);
+                }
+
+                this.skipRenderPass[var2] = this.buildSkipRenderPass[var2];
+                this.buildMeshes[var2] = null;
+            }
+
+            this.releaseSkippedRenderPasses();
+            var2 = this.glRenderList;
+            this.glRenderList = this.glRenderListStable;
+            this.glRenderListStable = var2;
+
+            for (int var4 = 0; var4 < 2; ++var4)
+            {
+                if (!this.skipRenderPass[var4])
+                {
+                    GL11.glNewList(this.glRenderList + var4, GL11.GL_COMPILE);
+                    GL11.glEndList();
+                }
+            }
+
+            if (this.needsBoxUpdate && !this.skipAllRenderPasses())
             {
-                GL11.glNewList(this.glRenderList + var2, GL11.GL_COMPILE);
+                float var5 = 0.0F;
+                GL11.glNewList(this.glRenderListBoundingBox, GL11.GL_COMPILE);
+                RenderItem.renderAABB(AxisAlignedBB.getAABBPool().getAABB((double)((float)this.posXClip - var5), (double)((float)this.posYClip - var5), (double)((float)this.posZClip - var5), (double)((float)(this.posXClip + 16) + var5), (double)((float)(this.posYClip + 16) + var5), (double)((float)(this.posZClip + 16) + var5)));
                 GL11.glEndList();
+                this.needsBoxUpdate = false;
+            }
+
+            HashSet var10 = new HashSet();
+            var10.addAll(this.tileEntityRenderers);
+            this.tileEntityRenderers.clear();
+
+            for (int var6 = 0; var6 < this.buildTileEntityPositions.size(); ++var6)
+            {
+                ChunkPosition var7 = (ChunkPosition)this.buildTileEntityPositions.get(var6);
+                TileEntity var8 = this.worldObj.getBlockTileEntity(var7.x, var7.y, var7.z);
+
+                if (TileEntityRenderer.instance.hasSpecialRenderer(var8))
+                {
+                    this.tileEntityRenderers.add(var8);
+                }
             }
-        }
 
-        if (this.needsBoxUpdate && !this.skipAllRenderPasses())
+            HashSet var9 = new HashSet();
+            var9.addAll(this.tileEntityRenderers);
+            var9.removeAll(var10);
+            this.tileEntities.addAll(var9);
+            var10.removeAll(this.tileEntityRenderers);
+            this.tileEntities.removeAll(var10);
+            this.isChunkLit = this.buildChunkLit;
+            this.visibility = this.buildVisibility;
+            this.isInitialized = true;
+            this.isVisible = true;
+            this.isVisibleFromPosition = false;
+        }
+        else if (this.worldObj != null)
         {
-            float var3 = 0.0F;
-            GL11.glNewList(this.glRenderListBoundingBox, GL11.GL_COMPILE);
-            RenderItem.renderAABB(AxisAlignedBB.getAABBPool().getAABB((double)((float)this.posXClip - var3), (double)((float)this.posYClip - var3), (double)((float)this.posZClip - var3), (double)((float)(this.posXClip + 16) + var3), (double)((float)(this.posYClip + 16) + var3), (double)((float)(this.posZClip + 16) + var3)));
-            GL11.glEndList();
-            this.needsBoxUpdate = false;
+            this.needsUpdate = true;
         }
+
+        this.buildTileEntityPositions.clear();
+        this.buildChunkCache = null;
+        this.buildCancelled = false;
     }
 
     /**
@@ -212,7 +289,7 @@ public class WorldRendererThreaded extends WorldRenderer
      */
     public int getGLCallListForPass(int var1)
     {
-        return !this.isInFrustum ? -1 : (!this.skipRenderPass[var1] ? this.glRenderListStable + var1 : -1);
+        return !this.isInFrustum ? -1 : (!this.skipRenderPass[var1] && this.vboRegions[var1] == null ? this.glRenderListStable + var1 : -1);
     }
 
     /**
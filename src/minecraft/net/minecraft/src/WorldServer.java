@@ -1,12 +1,9 @@
 package net.minecraft.src;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
-import java.util.Set;
-import java.util.TreeSet;
 import net.minecraft.server.MinecraftServer;
 
 public class WorldServer extends World
@@ -14,10 +11,12 @@ public class WorldServer extends World
     private final MinecraftServer mcServer;
     private final EntityTracker theEntityTracker;
     private final PlayerManager thePlayerManager;
-    private Set field_73064_N;
+    /** Maximum time spent on scheduled block ticks per tick in nanoseconds, after at least MIN_TICK_UPDATES ticks */
+    private static final long MAX_TICK_UPDATE_TIME = 10000000L;
+    private static final int MIN_TICK_UPDATES = 1000;
 
     /** All work to do in future ticks. */
-    private TreeSet pendingTickListEntries;
+    private ScheduledTickList scheduledTicks;
     public ChunkProviderServer theChunkProviderServer;
 
     /** set by CommandServerSave{all,Off,On} */
@@ -39,7 +38,6 @@ public class WorldServer extends World
      */
     private int blockEventCacheIndex = 0;
     private static final WeightedRandomChestContent[] bonusChestContent = new WeightedRandomChestContent[] {new WeightedRandomChestContent(Item.stick.itemID, 0, 1, 3, 10), new WeightedRandomChestContent(Block.planks.blockID, 0, 1, 3, 10), new WeightedRandomChestContent(Block.wood.blockID, 0, 1, 3, 10), new WeightedRandomChestContent(Item.axeStone.itemID, 0, 1, 1, 3), new WeightedRandomChestContent(Item.axeWood.itemID, 0, 1, 1, 5), new WeightedRandomChestContent(Item.pickaxeStone.itemID, 0, 1, 1, 3), new WeightedRandomChestContent(Item.pickaxeWood.itemID, 0, 1, 1, 5), new WeightedRandomChestContent(Item.appleRed.itemID, 0, 2, 3, 5), new WeightedRandomChestContent(Item.bread.itemID, 0, 2, 3, 3)};
-    private ArrayList field_94579_S = new ArrayList();
 
     /** An IntHashMap of entity IDs (integers) to their Entity objects. */
     private IntHashMap entityIdMap;
@@ -56,14 +54,9 @@ public class WorldServer extends World
             this.entityIdMap = new IntHashMap();
         }
 
-        if (this.field_73064_N == null)
+        if (this.scheduledTicks == null)
         {
-            this.field_73064_N = new HashSet();
-        }
-
-        if (this.pendingTickListEntries == null)
-        {
-            this.pendingTickListEntries = new TreeSet();
+            this.scheduledTicks = new ScheduledTickList();
         }
 
         this.field_85177_Q = new Teleporter(this);
@@ -119,6 +112,7 @@ public class WorldServer extends World
         }
 
         this.theProfiler.endStartSection("chunkSource");
+        this.theChunkProviderServer.processChunkLoads();
         this.chunkProvider.unloadQueuedChunks();
         int var4 = this.calculateSkylightSubtracted(1.0F);
 
@@ -133,6 +127,8 @@ public class WorldServer extends World
         this.tickUpdates(false);
         this.theProfiler.endStartSection("tickTiles");
         this.tickBlocksAndAmbiance();
+        this.lightingEngine.updateChunkLighting();
+        this.flushLightUpdates();
         this.theProfiler.endStartSection("chunkMap");
         this.thePlayerManager.updatePlayerInstances();
         this.theProfiler.endStartSection("village");
@@ -372,8 +368,7 @@ public class WorldServer extends World
      */
     public boolean isBlockTickScheduled(int par1, int par2, int par3, int par4)
     {
-        NextTickListEntry var5 = new NextTickListEntry(par1, par2, par3, par4);
-        return this.field_94579_S.contains(var5);
+        return this.scheduledTicks.isDue(par1, par2, par3, par4);
     }
 
     /**
@@ -386,20 +381,19 @@ public class WorldServer extends World
 
     public void func_82740_a(int par1, int par2, int par3, int par4, int par5, int par6)
     {
-        NextTickListEntry var7 = new NextTickListEntry(par1, par2, par3, par4);
-        byte var8 = 0;
+        byte var7 = 0;
 
         if (this.scheduledUpdatesAreImmediate && par4 > 0)
         {
             if (Block.blocksList[par4].func_82506_l())
             {
-                if (this.checkChunksExist(var7.xCoord - var8, var7.yCoord - var8, var7.zCoord - var8, var7.xCoord + var8, var7.yCoord + var8, var7.zCoord + var8))
+                if (this.checkChunksExist(par1 - var7, par2 - var7, par3 - var7, par1 + var7, par2 + var7, par3 + var7))
                 {
-                    int var9 = this.getBlockId(var7.xCoord, var7.yCoord, var7.zCoord);
+                    int var8 = this.getBlockId(par1, par2, par3);
 
-                    if (var9 == var7.blockID && var9 > 0)
+                    if (var8 == par4 && var8 > 0)
                     {
-                        Block.blocksList[var9].updateTick(this, var7.xCoord, var7.yCoord, var7.zCoord, this.rand);
+                        Block.blocksList[var8].updateTick(this, par1, par2, par3, this.rand);
                     }
                 }
 
@@ -409,18 +403,15 @@ public class WorldServer extends World
             par5 = 1;
         }
 
-        if (this.checkChunksExist(par1 - var8, par2 - var8, par3 - var8, par1 + var8, par2 + var8, par3 + var8))
+        if (this.checkChunksExist(par1 - var7, par2 - var7, par3 - var7, par1 + var7, par2 + var7, par3 + var7))
         {
             if (par4 > 0)
             {
-                var7.setScheduledTime((long)par5 + this.worldInfo.getWorldTotalTime());
-                var7.func_82753_a(par6);
+                this.scheduledTicks.add(par1, par2, par3, par4, (long)par5 + this.worldInfo.getWorldTotalTime(), par6);
             }
-
-            if (!this.field_73064_N.contains(var7))
+            else
             {
-                this.field_73064_N.add(var7);
-                this.pendingTickListEntries.add(var7);
+                this.scheduledTicks.add(par1, par2, par3, par4, 0L, 0);
             }
         }
     }
@@ -430,19 +421,7 @@ public class WorldServer extends World
      */
     public void scheduleBlockUpdateFromLoad(int par1, int par2, int par3, int par4, int par5, int par6)
     {
-        NextTickListEntry var7 = new NextTickListEntry(par1, par2, par3, par4);
-        var7.func_82753_a(par6);
-
-        if (par4 > 0)
-        {
-            var7.setScheduledTime((long)par5 + this.worldInfo.getWorldTotalTime());
-        }
-
-        if (!this.field_73064_N.contains(var7))
-        {
-            this.field_73064_N.add(var7);
-            this.pendingTickListEntries.add(var7);
-        }
+        this.scheduledTicks.add(par1, par2, par3, par4, par4 > 0 ? (long)par5 + this.worldInfo.getWorldTotalTime() : 0L, par6);
     }
 
     /**
@@ -474,142 +453,84 @@ public class WorldServer extends World
     }
 
     /**
-     * Runs through the list of updates to run and ticks them
+     * Runs through the list of updates to run and ticks them. Due ticks left over when the time budget runs out are
+     * ticked first in the next tick.
      */
     public boolean tickUpdates(boolean par1)
     {
-        int var2 = this.pendingTickListEntries.size();
+        this.theProfiler.startSection("cleaning");
+        this.scheduledTicks.gatherDueEntries(this.worldInfo.getWorldTotalTime(), par1);
+        this.theProfiler.endSection();
+        this.theProfiler.startSection("ticking");
+        long var2 = System.nanoTime() + MAX_TICK_UPDATE_TIME;
 
-        if (var2 != this.field_73064_N.size())
-        {
-            throw new IllegalStateException("TickNextTick list out of synch");
-        }
-        else
+        for (int var4 = 0; this.scheduledTicks.hasDueEntries(); ++var4)
         {
-            if (var2 > 1000)
+            if (var4 >= MIN_TICK_UPDATES && (var4 & 31) == 0 && System.nanoTime() > var2)
             {
-                var2 = 1000;
+                break;
             }
 
-            this.theProfiler.startSection("cleaning");
-            NextTickListEntry var4;
+            int var5 = this.scheduledTicks.pollDueEntry();
 
-            for (int var3 = 0; var3 < var2; ++var3)
+            if (var5 < 0)
             {
-                var4 = (NextTickListEntry)this.pendingTickListEntries.first();
-
-                if (!par1 && var4.scheduledTime > this.worldInfo.getWorldTotalTime())
-                {
-                    break;
-                }
-
-                this.pendingTickListEntries.remove(var4);
-                this.field_73064_N.remove(var4);
-                this.field_94579_S.add(var4);
+                break;
             }
 
-            this.theProfiler.endSection();
-            this.theProfiler.startSection("ticking");
-            Iterator var14 = this.field_94579_S.iterator();
+            int var6 = this.scheduledTicks.getXCoord(var5);
+            int var7 = this.scheduledTicks.getYCoord(var5);
+            int var8 = this.scheduledTicks.getZCoord(var5);
+            int var9 = this.scheduledTicks.getBlockID(var5);
+            this.scheduledTicks.freeEntry(var5);
+            byte var10 = 0;
 
-            while (var14.hasNext())
+            if (this.checkChunksExist(var6 - var10, var7 - var10, var8 - var10, var6 + var10, var7 + var10, var8 + var10))
             {
-                var4 = (NextTickListEntry)var14.next();
-                var14.remove();
-                byte var5 = 0;
+                int var11 = this.getBlockId(var6, var7, var8);
 
-                if (this.checkChunksExist(var4.xCoord - var5, var4.yCoord - var5, var4.zCoord - var5, var4.xCoord + var5, var4.yCoord + var5, var4.zCoord + var5))
+                if (var11 > 0 && Block.isAssociatedBlockID(var11, var9))
                 {
-                    int var6 = this.getBlockId(var4.xCoord, var4.yCoord, var4.zCoord);
-
-                    if (var6 > 0 && Block.isAssociatedBlockID(var6, var4.blockID))
+                    try
+                    {
+                        Block.blocksList[var11].updateTick(this, var6, var7, var8, this.rand);
+                    }
+                    catch (Throwable var16)
                     {
+                        CrashReport var13 = CrashReport.makeCrashReport(var16, "Exception while ticking a block");
+                        CrashReportCategory var14 = var13.makeCategory("Block being ticked");
+                        int var15;
+
                         try
                         {
-                            Block.blocksList[var6].updateTick(this, var4.xCoord, var4.yCoord, var4.zCoord, this.rand);
+                            var15 = this.getBlockMetadata(var6, var7, var8);
                         }
-                        catch (Throwable var13)
+                        catch (Throwable var17)
                         {
-                            CrashReport var8 = CrashReport.makeCrashReport(var13, "Exception while ticking a block");
-                            CrashReportCategory var9 = var8.makeCategory("Block being ticked");
-                            int var10;
-
-                            try
-                            {
-                                var10 = this.getBlockMetadata(var4.xCoord, var4.yCoord, var4.zCoord);
-                            }
-                            catch (Throwable var12)
-                            {
-                                var10 = -1;
-                            }
-
-                            CrashReportCategory.func_85068_a(var9, var4.xCoord, var4.yCoord, var4.zCoord, var6, var10);
-                            throw new ReportedException(var8);
+                            var15 = -1;
                         }
+
+                        CrashReportCategory.func_85068_a(var14, var6, var7, var8, var11, var15);
+                        throw new ReportedException(var13);
                     }
                 }
-                else
-                {
-                    this.scheduleBlockUpdate(var4.xCoord, var4.yCoord, var4.zCoord, var4.blockID, 0);
-                }
-            }
-
-            this.theProfiler.endSection();
-            this.field_94579_S.clear();
-            return !this.pendingTickListEntries.isEmpty();
-        }
-    }
-
-    public List getPendingBlockUpdates(Chunk par1Chunk, boolean par2)
-    {
-        ArrayList var3 = null;
-        ChunkCoordIntPair var4 = par1Chunk.getChunkCoordIntPair();
-        int var5 = (var4.chunkXPos << 4) - 2;
-        int var6 = var5 + 16 + 2;
-        int var7 = (var4.chunkZPos << 4) - 2;
-        int var8 = var7 + 16 + 2;
-
-        for (int var9 = 0; var9 < 2; ++var9)
-        {
-            Iterator var10;
-
-            if (var9 == 0)
-            {
-                var10 = this.pendingTickListEntries.iterator();
             }
             else
             {
-                var10 = this.field_94579_S.iterator();
-
-                if (!this.field_94579_S.isEmpty())
-                {
-                    System.out.println(this.field_94579_S.size());
-                }
-            }
-
-            while (var10.hasNext())
-            {
-                NextTickListEntry var11 = (NextTickListEntry)var10.next();
-
-                if (var11.xCoord >= var5 && var11.xCoord < var6 && var11.zCoord >= var7 && var11.zCoord < var8)
-                {
-                    if (par2)
-                    {
-                        this.field_73064_N.remove(var11);
-                        var10.remove();
-                    }
-
-                    if (var3 == null)
-                    {
-                        var3 = new ArrayList();
-                    }
-
-                    var3.add(var11);
-                }
+                this.scheduleBlockUpdate(var6, var7, var8, var9, 0);
             }
         }
 
-        return var3;
+        this.theProfiler.endSection();
+        return this.scheduledTicks.size() > 0;
+    }
+
+    /**
+     * Returns the scheduled ticks in the chunk, removing them if par2 is set
+     */
+    public List getPendingBlockUpdates(Chunk par1Chunk, boolean par2)
+    {
+        return this.scheduledTicks.getEntriesInChunk(par1Chunk.xPosition, par1Chunk.zPosition, par2);
     }
 
     /**
@@ -687,14 +608,9 @@ public class WorldServer extends World
             this.entityIdMap = new IntHashMap();
         }
 
-        if (this.field_73064_N == null)
-        {
-            this.field_73064_N = new HashSet();
-        }
-
-        if (this.pendingTickListEntries == null)
+        if (this.scheduledTicks == null)
         {
-            this.pendingTickListEntries = new TreeSet();
+            this.scheduledTicks = new ScheduledTickList();
         }
 
         this.createSpawnPosition(par1WorldSettings);
@@ -0,0 +1,96 @@
+package net.minecraft.src;
+
+public class WrDistanceSorter
+{
+    private int[] keys = new int[0];
+    private int[] bucketStarts = new int[0];
+    private int sectionX = Integer.MIN_VALUE;
+    private int sectionY = Integer.MIN_VALUE;
+    private int sectionZ = Integer.MIN_VALUE;
+    private boolean dirty = true;
+
+    /**
+     * Forces the next sort, called when the renderers have been moved or reloaded
+     */
+    public void markDirty()
+    {
+        this.dirty = true;
+    }
+
+    /**
+     * Sorts the renderers by the squared distance of their sections to the section containing the given position.
+     * The renderers are distributed into one bucket per distance with a counting sort, so the ordering costs linear
+     * time and is only rebuilt when the position enters another section or the renderers moved. Returns true if the
+     * order changed. Args: renderers, sortedRenderers, x, y, z
+     */
+    public boolean sort(WorldRenderer[] var1, WorldRenderer[] var2, double var3, double var5, double var7)
+    {
+        int var9 = MathHelper.floor_double(var3) >> 4;
+        int var10 = MathHelper.floor_double(var5) >> 4;
+        int var11 = MathHelper.floor_double(var7) >> 4;
+
+        if (!this.dirty && var9 == this.sectionX && var10 == this.sectionY && var11 == this.sectionZ)
+        {
+            return false;
+        }
+        else
+        {
+            this.dirty = false;
+            this.sectionX = var9;
+            this.sectionY = var10;
+            this.sectionZ = var11;
+
+            if (this.keys.length != var1.length)
+            {
+                this.keys = new int[var1.length];
+            }
+
+            int var12 = 0;
+            int var13;
+
+            for (var13 = 0; var13 < var1.length; ++var13)
+            {
+                WorldRenderer var14 = var1[var13];
+                int var15 = (var14.posX >> 4) - var9;
+                int var16 = (var14.posY >> 4) - var10;
+                int var17 = (var14.posZ >> 4) - var11;
+                int var18 = var15 * var15 + var16 * var16 + var17 * var17;
+                this.keys[var13] = var18;
+
+                if (var18 > var12)
+                {
+                    var12 = var18;
+                }
+            }
+
+            if (this.bucketStarts.length < var12 + 2)
+            {
+                this.bucketStarts = new int[var12 + 2];
+            }
+            else
+            {
+                for (var13 = 0; var13 < var12 + 2; ++var13)
+                {
+                    this.bucketStarts[var13] = 0;
+                }
+            }
+
+            for (var13 = 0; var13 < var1.length; ++var13)
+            {
+                ++this.bucketStarts[this.keys[var13] + 1];
+            }
+
+            for (var13 = 1; var13 < var12 + 2; ++var13)
+            {
+                this.bucketStarts[var13] += this.bucketStarts[var13 - 1];
+            }
+
+            for (var13 = 0; var13 < var1.length; ++var13)
+            {
+                var2[this.bucketStarts[this.keys[var13]]++] = var1[var13];
+            }
+
+            return true;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package net.minecraft.src;
+
+public class WrMeshData
+{
+    public int[] rawBuffer;
+    public int rawBufferIndex;
+    public int vertexCount;
+    public int addedVertices;
+    public int drawMode;
+    public boolean hasTexture;
+    public boolean hasBrightness;
+    public boolean hasColor;
+    public boolean hasNormals;
+    public int[] vertexIconIndex;
+}
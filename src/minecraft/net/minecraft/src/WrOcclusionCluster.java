@@ -0,0 +1,103 @@
+package net.minecraft.src;
+
+public class WrOcclusionCluster
+{
+    /** The world renderers covered by this cluster */
+    public WorldRenderer[] renderers;
+    public int renderersCount = 0;
+
+    /** Ring of occlusion queries, one entry can be in flight per frame */
+    public int[] queries;
+
+    /** Frame in which each query was issued, -1 if the query is free */
+    public int[] queryFrames;
+    public int nextQuery = 0;
+
+    /** Frame of the query the current visibility was taken from */
+    public int resultFrame = -1;
+    public boolean isVisible = true;
+    public boolean isInFrustum = false;
+    public double minX;
+    public double minY;
+    public double minZ;
+    public double maxX;
+    public double maxY;
+    public double maxZ;
+
+    public WrOcclusionCluster(int var1, int var2)
+    {
+        this.renderers = new WorldRenderer[var1];
+        this.queries = new int[var2];
+        this.queryFrames = new int[var2];
+
+        for (int var3 = 0; var3 < var2; ++var3)
+        {
+            this.queryFrames[var3] = -1;
+        }
+    }
+
+    public void addRenderer(WorldRenderer var1)
+    {
+        this.renderers[this.renderersCount++] = var1;
+    }
+
+    /**
+     * Updates the bounds and the frustum state from the renderers of the cluster. Results of queries issued before the
+     * cluster was moved or entered the frustum are discarded. Args: frame
+     */
+    public void updateBounds(int var1)
+    {
+        double var2 = this.minX;
+        double var4 = this.minY;
+        double var6 = this.minZ;
+        boolean var8 = this.isInFrustum;
+        this.isInFrustum = false;
+        this.minX = this.minY = this.minZ = Double.MAX_VALUE;
+        this.maxX = this.maxY = this.maxZ = -Double.MAX_VALUE;
+
+        for (int var9 = 0; var9 < this.renderersCount; ++var9)
+        {
+            WorldRenderer var10 = this.renderers[var9];
+            this.minX = Math.min(this.minX, (double)var10.posX);
+            this.minY = Math.min(this.minY, (double)var10.posY);
+            this.minZ = Math.min(this.minZ, (double)var10.posZ);
+            this.maxX = Math.max(this.maxX, (double)(var10.posX + 16));
+            this.maxY = Math.max(this.maxY, (double)(var10.posY + 16));
+            this.maxZ = Math.max(this.maxZ, (double)(var10.posZ + 16));
+
+            if (var10.isInFrustum && !var10.skipAllRenderPasses())
+            {
+                this.isInFrustum = true;
+            }
+        }
+
+        if (!this.isInFrustum || !var8 || var2 != this.minX || var4 != this.minY || var6 != this.minZ)
+        {
+            this.isVisible = true;
+            this.resultFrame = var1;
+        }
+    }
+
+    public boolean isInside(double var1, double var3, double var5, double var7)
+    {
+        return var1 >= this.minX - var7 && var1 <= this.maxX + var7 && var3 >= this.minY - var7 && var3 <= this.maxY + var7 && var5 >= this.minZ - var7 && var5 <= this.maxZ + var7;
+    }
+
+    /**
+     * Returns the index of a free query in the ring or -1 if all queries are still in flight
+     */
+    public int getFreeQuery()
+    {
+        for (int var1 = 0; var1 < this.queries.length; ++var1)
+        {
+            int var2 = (this.nextQuery + var1) % this.queries.length;
+
+            if (this.queryFrames[var2] < 0)
+            {
+                return var2;
+            }
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,219 @@
+package net.minecraft.src;
+
+import java.nio.IntBuffer;
+import org.lwjgl.opengl.ARBOcclusionQuery;
+import org.lwjgl.opengl.GL11;
+
+public class WrOcclusionCuller
+{
+    /** Number of queries in flight per cluster */
+    public static final int QUERY_RING_SIZE = 3;
+
+    /** Minimum number of frames before a query result is read, so the pipeline never stalls on it */
+    public static final int QUERY_FRAME_DELAY = 1;
+
+    /** Size of a cluster in world renderers along each axis */
+    public static final int CLUSTER_SIZE = 2;
+    private WorldRenderer[] worldRenderers;
+    private WrOcclusionCluster[] clusters;
+    private int clustersX;
+    private int clustersY;
+    private int clustersZ;
+    private IntBuffer queryResult = GLAllocation.createDirectIntBuffer(64);
+    private int frame = 0;
+    public int clustersVisible = 0;
+    public int clustersCulled = 0;
+    public int queriesIssued = 0;
+
+    /**
+     * Creates the clusters for the given renderer grid and assigns each one a ring of queries from the given buffer.
+     * The grid wraps around horizontally, so there is one more cluster along X and Z than the renderers fill. Args:
+     * worldRenderers, renderChunksWide, renderChunksTall, renderChunksDeep, queries
+     */
+    public WrOcclusionCuller(WorldRenderer[] var1, int var2, int var3, int var4, IntBuffer var5)
+    {
+        this.worldRenderers = var1;
+        this.clustersX = var2 / CLUSTER_SIZE + 1;
+        this.clustersY = (var3 + CLUSTER_SIZE - 1) / CLUSTER_SIZE;
+        this.clustersZ = var4 / CLUSTER_SIZE + 1;
+        this.clusters = new WrOcclusionCluster[this.clustersX * this.clustersY * this.clustersZ];
+        int var9 = CLUSTER_SIZE * CLUSTER_SIZE * CLUSTER_SIZE;
+
+        for (int var10 = 0; var10 < this.clusters.length; ++var10)
+        {
+            WrOcclusionCluster var11 = new WrOcclusionCluster(var9, QUERY_RING_SIZE);
+
+            for (int var12 = 0; var12 < QUERY_RING_SIZE; ++var12)
+            {
+                var11.queries[var12] = var5.get(var10 * QUERY_RING_SIZE + var12);
+            }
+
+            this.clusters[var10] = var11;
+        }
+
+        this.updateClusters();
+    }
+
+    /**
+     * Regroups the world renderers into clusters by their world aligned chunk coordinates, must be called whenever the
+     * renderers have been moved. A cluster which ends up at a new position discards its query results in
+     * updateVisibility.
+     */
+    public void updateClusters()
+    {
+        for (int var1 = 0; var1 < this.clusters.length; ++var1)
+        {
+            this.clusters[var1].renderersCount = 0;
+        }
+
+        int var2 = CLUSTER_SIZE * 16;
+
+        for (int var3 = 0; var3 < this.worldRenderers.length; ++var3)
+        {
+            WorldRenderer var4 = this.worldRenderers[var3];
+            int var5 = MathHelper.bucketInt(var4.posX, var2);
+            int var6 = MathHelper.clamp_int(var4.posY / var2, 0, this.clustersY - 1);
+            int var7 = MathHelper.bucketInt(var4.posZ, var2);
+            var5 -= MathHelper.bucketInt(var5, this.clustersX) * this.clustersX;
+            var7 -= MathHelper.bucketInt(var7, this.clustersZ) * this.clustersZ;
+            this.clusters[(var7 * this.clustersY + var6) * this.clustersX + var5].addRenderer(var4);
+        }
+    }
+
+    /**
+     * Starts a new frame, collects the results of the queries issued in previous frames which are already available
+     * and updates the visibility of the world renderers. Args: cameraX, cameraY, cameraZ, fancy
+     */
+    public void updateVisibility(double var1, double var3, double var5, boolean var7)
+    {
+        ++this.frame;
+        this.clustersVisible = 0;
+        this.clustersCulled = 0;
+
+        for (int var8 = 0; var8 < this.clusters.length; ++var8)
+        {
+            WrOcclusionCluster var9 = this.clusters[var8];
+            var9.updateBounds(this.frame);
+            this.checkQueryResults(var9);
+
+            if (var9.isInside(var1, var3, var5, 2.0D))
+            {
+                var9.isVisible = true;
+            }
+
+            if (var9.isInFrustum)
+            {
+                if (var9.isVisible)
+                {
+                    ++this.clustersVisible;
+                }
+                else
+                {
+                    ++this.clustersCulled;
+                }
+            }
+
+            for (int var10 = 0; var10 < var9.renderersCount; ++var10)
+            {
+                WorldRenderer var11 = var9.renderers[var10];
+                var11.isVisible = var9.isVisible || var11.isUpdating || var7 && !var11.isInFrustrumFully;
+            }
+        }
+    }
+
+    private void checkQueryResults(WrOcclusionCluster var1)
+    {
+        for (int var2 = 0; var2 < var1.queries.length; ++var2)
+        {
+            int var3 = var1.queryFrames[var2];
+
+            if (var3 >= 0 && this.frame - var3 >= QUERY_FRAME_DELAY)
+            {
+                this.queryResult.clear();
+                ARBOcclusionQuery.glGetQueryObjectuARB(var1.queries[var2], ARBOcclusionQuery.GL_QUERY_RESULT_AVAILABLE_ARB, this.queryResult);
+
+                if (this.queryResult.get(0) != 0)
+                {
+                    this.queryResult.clear();
+                    ARBOcclusionQuery.glGetQueryObjectuARB(var1.queries[var2], ARBOcclusionQuery.GL_QUERY_RESULT_ARB, this.queryResult);
+                    var1.queryFrames[var2] = -1;
+
+                    if (var3 >= var1.resultFrame)
+                    {
+                        var1.resultFrame = var3;
+                        var1.isVisible = this.queryResult.get(0) > 0;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Issues the occlusion queries of all clusters in the frustum against the current depth buffer. The results are
+     * read by updateVisibility in one of the next frames. Args: cameraX, cameraY, cameraZ
+     */
+    public void issueQueries(double var1, double var3, double var5)
+    {
+        this.queriesIssued = 0;
+        boolean var7 = GL11.glIsEnabled(GL11.GL_CULL_FACE);
+        GL11.glDisable(GL11.GL_TEXTURE_2D);
+        GL11.glDisable(GL11.GL_LIGHTING);
+        GL11.glDisable(GL11.GL_ALPHA_TEST);
+        GL11.glDisable(GL11.GL_FOG);
+        GL11.glDisable(GL11.GL_CULL_FACE);
+        GL11.glColorMask(false, false, false, false);
+        GL11.glDepthMask(false);
+
+        for (int var10 = 0; var10 < this.clusters.length; ++var10)
+        {
+            WrOcclusionCluster var8 = this.clusters[var10];
+
+            if (var8.isInFrustum && !var8.isInside(var1, var3, var5, 2.0D))
+            {
+                int var9 = var8.getFreeQuery();
+
+                if (var9 >= 0)
+                {
+                    ARBOcclusionQuery.glBeginQueryARB(ARBOcclusionQuery.GL_SAMPLES_PASSED_ARB, var8.queries[var9]);
+                    Render.renderAABB(AxisAlignedBB.getAABBPool().getAABB(var8.minX - var1, var8.minY - var3, var8.minZ - var5, var8.maxX - var1, var8.maxY - var3, var8.maxZ - var5));
+                    ARBOcclusionQuery.glEndQueryARB(ARBOcclusionQuery.GL_SAMPLES_PASSED_ARB);
+                    var8.queryFrames[var9] = this.frame;
+                    var8.nextQuery = (var9 + 1) % var8.queries.length;
+                    ++this.queriesIssued;
+                }
+            }
+        }
+
+        if (var7)
+        {
+            GL11.glEnable(GL11.GL_CULL_FACE);
+        }
+
+        GL11.glColorMask(true, true, true, true);
+        GL11.glDepthMask(true);
+        GL11.glEnable(GL11.GL_TEXTURE_2D);
+        GL11.glEnable(GL11.GL_ALPHA_TEST);
+        GL11.glEnable(GL11.GL_FOG);
+    }
+
+    /**
+     * Waits for and discards all queries still in flight
+     */
+    public void clear()
+    {
+        for (int var1 = 0; var1 < this.clusters.length; ++var1)
+        {
+            WrOcclusionCluster var2 = this.clusters[var1];
+
+            for (int var3 = 0; var3 < var2.queries.length; ++var3)
+            {
+                if (var2.queryFrames[var3] >= 0)
+                {
+                    this.queryResult.clear();
+                    ARBOcclusionQuery.glGetQueryObjectuARB(var2.queries[var3], ARBOcclusionQuery.GL_QUERY_RESULT_ARB, this.queryResult);
+                    var2.queryFrames[var3] = -1;
+                }
+            }
+        }
+    }
+}
@@ -22,11 +22,15 @@ public class WrUpdateControl implements IWrUpdateControl
     public void pause()
     {
         AxisAlignedBB.getAABBPool().cleanPool();
-        WorldClient var1 = Config.getMinecraft().theWorld;
 
-        if (var1 != null)
+        if (Config.isMinecraftThread())
         {
-            var1.getWorldVec3Pool().clear();
+            WorldClient var1 = Config.getMinecraft().theWorld;
+
+            if (var1 != null)
+            {
+                var1.getWorldVec3Pool().clear();
+            }
         }
 
         if (this.hasForge)
@@ -1,5 +0,0 @@
-package net.minecraft.src;
-
-class WrUpdateThread$1
-{
-}
@@ -1,376 +1,96 @@
 package net.minecraft.src;
 
-import java.util.LinkedList;
-import java.util.List;
-import net.minecraft.src.WrUpdateThread$1;
-import net.minecraft.src.WrUpdateThread$ThreadUpdateListener;
-import org.lwjgl.opengl.Pbuffer;
-
 public class WrUpdateThread extends Thread
 {
-    private Pbuffer pbuffer = null;
-    private Object lock = new Object();
-    private List updateList = new LinkedList();
-    private List updatedList = new LinkedList();
-    private int updateCount = 0;
-    private Tessellator mainTessellator;
-    private Tessellator threadTessellator;
-    private boolean working;
-    private WorldRendererThreaded currentRenderer;
-    private boolean canWork;
-    private boolean canWorkToEndOfUpdate;
-    private boolean terminated;
-    private static final int MAX_UPDATE_CAPACITY = 10;
+    private WrUpdaterThreaded updater;
+    private Tessellator tessellator;
+    private Vec3Pool vec3Pool;
+    private volatile boolean terminated;
+
+    /** Bounds of the blocks set on this thread by block ID, the shared bounds of the blocks are only set on the main thread */
+    private double[][] blockBounds = new double[4096][];
 
-    public WrUpdateThread(Pbuffer var1)
+    public WrUpdateThread(WrUpdaterThreaded var1, int var2)
     {
-        super("WrUpdateThread");
-        this.mainTessellator = Tessellator.instance;
-        this.threadTessellator = new Tessellator(2097152);
-        this.working = false;
-        this.currentRenderer = null;
-        this.canWork = false;
-        this.canWorkToEndOfUpdate = false;
+        super("WrUpdateThread " + var2);
+        this.updater = var1;
+        this.tessellator = new Tessellator(2097152);
+        this.vec3Pool = new Vec3Pool(300, 2000);
         this.terminated = false;
-        this.pbuffer = var1;
+        this.setDaemon(true);
     }
 
     public void run()
     {
-        try
+        while (!this.terminated)
         {
-            this.pbuffer.makeCurrent();
-        }
-        catch (Exception var8)
-        {
-            var8.printStackTrace();
-        }
+            WorldRendererThreaded var1 = this.updater.takeRendererToBuild();
 
-        WrUpdateThread$ThreadUpdateListener var1 = new WrUpdateThread$ThreadUpdateListener(this, (WrUpdateThread$1)null);
-
-        while (!Thread.interrupted() && !this.terminated)
-        {
-            try
+            if (var1 == null)
             {
-                WorldRendererThreaded var2 = this.getRendererToUpdate();
-
-                if (var2 == null)
-                {
-                    return;
-                }
-
-                this.checkCanWork((IWrUpdateControl)null);
-
-                try
-                {
-                    this.currentRenderer = var2;
-                    Tessellator.instance = this.threadTessellator;
-                    var2.updateRenderer(var1);
-                }
-                finally
-                {
-                    Tessellator.instance = this.mainTessellator;
-                }
-
-                this.rendererUpdated(var2);
+                return;
             }
-            catch (Exception var9)
-            {
-                var9.printStackTrace();
 
-                if (this.currentRenderer != null)
-                {
-                    this.currentRenderer.isUpdating = false;
-                    this.currentRenderer.needsUpdate = true;
-                }
-
-                this.currentRenderer = null;
-                this.working = false;
-            }
-        }
-    }
-
-    public void addRendererToUpdate(WorldRenderer var1, boolean var2)
-    {
-        Object var3 = this.lock;
-
-        synchronized (this.lock)
-        {
-            if (var1.isUpdating)
-            {
-                throw new IllegalArgumentException("Renderer already updating");
-            }
-            else
+            try
             {
-                if (var2)
+                if (var1.isBuildObsolete())
                 {
-                    this.updateList.add(0, var1);
+                    var1.cancelBuild();
                 }
                 else
                 {
-                    this.updateList.add(var1);
-                }
-
-                var1.isUpdating = true;
-                this.lock.notifyAll();
-            }
-        }
-    }
-
-    private WorldRendererThreaded getRendererToUpdate()
-    {
-        Object var1 = this.lock;
-
-        synchronized (this.lock)
-        {
-            while (this.updateList.size() <= 0)
-            {
-                try
-                {
-                    this.lock.wait(2000L);
-
-                    if (this.terminated)
-                    {
-                        Object var10000 = null;
-                        return (WorldRendererThreaded)var10000;
-                    }
-                }
-                catch (InterruptedException var4)
-                {
-                    ;
-                }
-            }
-
-            WorldRendererThreaded var2 = (WorldRendererThreaded)this.updateList.remove(0);
-            this.lock.notifyAll();
-            return var2;
-        }
-    }
-
-    public boolean hasWorkToDo()
-    {
-        Object var1 = this.lock;
-
-        synchronized (this.lock)
-        {
-            return this.updateList.size() > 0 ? true : (this.currentRenderer != null ? true : this.working);
-        }
-    }
-
-    public int getUpdateCapacity()
-    {
-        Object var1 = this.lock;
-
-        synchronized (this.lock)
-        {
-            return this.updateList.size() > 10 ? 0 : 10 - this.updateList.size();
-        }
-    }
-
-    private void rendererUpdated(WorldRenderer var1)
-    {
-        Object var2 = this.lock;
-
-        synchronized (this.lock)
-        {
-            this.updatedList.add(var1);
-            ++this.updateCount;
-            this.currentRenderer = null;
-            this.working = false;
-            this.lock.notifyAll();
-        }
-    }
-
-    private void finishUpdatedRenderers()
-    {
-        Object var1 = this.lock;
-
-        synchronized (this.lock)
-        {
-            for (int var2 = 0; var2 < this.updatedList.size(); ++var2)
-            {
-                WorldRendererThreaded var3 = (WorldRendererThreaded)this.updatedList.get(var2);
-                var3.finishUpdate();
-                var3.isUpdating = false;
-            }
-
-            this.updatedList.clear();
-        }
-    }
-
-    public void pause()
-    {
-        Object var1 = this.lock;
-
-        synchronized (this.lock)
-        {
-            this.canWork = false;
-            this.canWorkToEndOfUpdate = false;
-            this.lock.notifyAll();
-
-            while (this.working)
-            {
-                try
-                {
-                    this.lock.wait();
-                }
-                catch (InterruptedException var4)
-                {
-                    ;
+                    var1.buildMesh(this.tessellator, this.vec3Pool);
                 }
             }
-
-            this.finishUpdatedRenderers();
-        }
-    }
-
-    public void unpause()
-    {
-        Object var1 = this.lock;
-
-        synchronized (this.lock)
-        {
-            if (this.working)
-            {
-                Config.dbg("UpdateThread still working in unpause()!!!");
-            }
-
-            this.canWork = true;
-            this.canWorkToEndOfUpdate = false;
-            this.lock.notifyAll();
-        }
-    }
-
-    public void unpauseToEndOfUpdate()
-    {
-        Object var1 = this.lock;
-
-        synchronized (this.lock)
-        {
-            if (this.working)
+            catch (Exception var6)
             {
-                Config.dbg("UpdateThread still working in unpause()!!!");
-            }
+                var6.printStackTrace();
+                var1.cancelBuild();
 
-            if (this.currentRenderer != null)
-            {
-                while (this.currentRenderer != null)
+                if (this.tessellator.isDrawing)
                 {
-                    this.canWork = false;
-                    this.canWorkToEndOfUpdate = true;
-                    this.lock.notifyAll();
-
-                    try
-                    {
-                        this.lock.wait();
-                    }
-                    catch (InterruptedException var4)
-                    {
-                        ;
-                    }
+                    this.tessellator.drawToMesh();
                 }
 
-                this.pause();
+                this.tessellator.setRenderingChunk(false);
+                this.tessellator.setTranslation(0.0D, 0.0D, 0.0D);
             }
-        }
-    }
-
-    private void checkCanWork(IWrUpdateControl var1)
-    {
-        Thread.yield();
-        Object var2 = this.lock;
-
-        synchronized (this.lock)
-        {
-            while (!this.canWork && (!this.canWorkToEndOfUpdate || this.currentRenderer == null))
-            {
-                if (var1 != null)
-                {
-                    var1.pause();
-                }
-
-                this.working = false;
-                this.lock.notifyAll();
-
-                try
-                {
-                    this.lock.wait();
-                }
-                catch (InterruptedException var5)
-                {
-                    ;
-                }
-            }
-
-            this.working = true;
-
-            if (var1 != null)
+            finally
             {
-                var1.resume();
+                this.vec3Pool.clear();
+                this.updater.rendererBuilt(var1);
             }
-
-            this.lock.notifyAll();
         }
     }
 
-    public void clearAllUpdates()
+    /**
+     * Returns the bounds last set for the block on this thread, or null if they were never set here
+     */
+    public double[] getBlockBounds(Block par1Block)
     {
-        Object var1 = this.lock;
-
-        synchronized (this.lock)
-        {
-            this.unpauseToEndOfUpdate();
-            this.updateList.clear();
-            this.lock.notifyAll();
-        }
+        return this.blockBounds[par1Block.blockID];
     }
 
-    public int getPendingUpdatesCount()
+    public void setBlockBounds(Block par1Block, double par2, double par4, double par6, double par8, double par10, double par12)
     {
-        Object var1 = this.lock;
+        double[] var14 = this.blockBounds[par1Block.blockID];
 
-        synchronized (this.lock)
+        if (var14 == null)
         {
-            int var2 = this.updateList.size();
-
-            if (this.currentRenderer != null)
-            {
-                ++var2;
-            }
-
-            return var2;
+            var14 = new double[6];
+            this.blockBounds[par1Block.blockID] = var14;
         }
-    }
 
-    public int resetUpdateCount()
-    {
-        Object var1 = this.lock;
-
-        synchronized (this.lock)
-        {
-            int var2 = this.updateCount;
-            this.updateCount = 0;
-            return var2;
-        }
+        var14[0] = par2;
+        var14[1] = par4;
+        var14[2] = par6;
+        var14[3] = par8;
+        var14[4] = par10;
+        var14[5] = par12;
     }
 
     public void terminate()
     {
         this.terminated = true;
     }
-
-    static Tessellator access$000(WrUpdateThread var0)
-    {
-        return var0.mainTessellator;
-    }
-
-    static Tessellator access$100(WrUpdateThread var0)
-    {
-        return var0.threadTessellator;
-    }
-
-    static void access$300(WrUpdateThread var0, IWrUpdateControl var1)
-    {
-        var0.checkCanWork(var1);
-    }
 }
@@ -1,25 +1,56 @@
 package net.minecraft.src;
 
+import java.util.ArrayList;
+import java.util.LinkedList;
 import java.util.List;
-import org.lwjgl.opengl.Display;
-import org.lwjgl.opengl.Drawable;
-import org.lwjgl.opengl.Pbuffer;
-import org.lwjgl.opengl.PixelFormat;
 
 public class WrUpdaterThreaded implements IWrUpdater
 {
-    private WrUpdateThread updateThread = null;
-    private float timePerUpdateMs = 10.0F;
-    private long updateStartTimeNs = 0L;
+    private WrUpdateThread[] updateThreads = null;
+    private Object lock = new Object();
+    private LinkedList updateList = new LinkedList();
+    private List updatedList = new ArrayList();
+    private List finishList = new ArrayList();
+    private int buildingCount = 0;
+    private boolean paused = false;
+    private boolean terminated = false;
     private boolean firstUpdate = true;
-    private int updateTargetNum = 0;
+    private static final int MAX_UPDATE_CAPACITY_PER_THREAD = 4;
+    private static final long MAX_FINISH_TIME_NS = 4000000L;
 
     public void terminate()
     {
-        if (this.updateThread != null)
+        Object var1 = this.lock;
+
+        synchronized (this.lock)
         {
-            this.updateThread.terminate();
-            this.updateThread.unpauseToEndOfUpdate();
+            this.terminated = true;
+
+            if (this.updateThreads != null)
+            {
+                for (int var2 = 0; var2 < this.updateThreads.length; ++var2)
+                {
+                    this.updateThreads[var2].terminate();
+                }
+            }
+
+            for (int var3 = 0; var3 < this.updateList.size(); ++var3)
+            {
+                WorldRendererThreaded var4 = (WorldRendererThreaded)this.updateList.get(var3);
+                var4.cancelBuild();
+                var4.isUpdating = false;
+            }
+
+            for (int var5 = 0; var5 < this.updatedList.size(); ++var5)
+            {
+                WorldRendererThreaded var6 = (WorldRendererThreaded)this.updatedList.get(var5);
+                var6.cancelBuild();
+                var6.isUpdating = false;
+            }
+
+            this.updateList.clear();
+            this.updatedList.clear();
+            this.lock.notifyAll();
         }
     }
 
@@ -27,9 +58,9 @@ public class WrUpdaterThreaded implements IWrUpdater
 
     private void delayedInit()
     {
-        if (this.updateThread == null)
+        if (this.updateThreads == null)
         {
-            this.createUpdateThread(Display.getDrawable());
+            this.createUpdateThreads(Config.getChunkBuilderThreads());
         }
     }
 
@@ -38,33 +69,32 @@ public class WrUpdaterThreaded implements IWrUpdater
         return new WorldRendererThreaded(var1, var2, var3, var4, var5, var6);
     }
 
-    public WrUpdateThread createUpdateThread(Drawable var1)
+    public WrUpdateThread[] createUpdateThreads(int var1)
     {
-        if (this.updateThread != null)
+        if (this.updateThreads != null)
         {
-            throw new IllegalStateException("UpdateThread is already existing");
+            throw new IllegalStateException("UpdateThreads are already existing");
         }
         else
         {
-            try
-            {
-                Pbuffer var2 = new Pbuffer(1, 1, new PixelFormat(), var1);
-                this.updateThread = new WrUpdateThread(var2);
-                this.updateThread.setPriority(1);
-                this.updateThread.start();
-                this.updateThread.pause();
-                return this.updateThread;
-            }
-            catch (Exception var3)
+            WrUpdateThread[] var2 = new WrUpdateThread[var1];
+
+            for (int var3 = 0; var3 < var2.length; ++var3)
             {
-                throw new RuntimeException(var3);
+                var2[var3] = new WrUpdateThread(this, var3 + 1);
+                var2[var3].setPriority(1);
+                var2[var3].start();
             }
+
+            Config.dbg("Chunk builder threads: " + var2.length);
+            this.updateThreads = var2;
+            return var2;
         }
     }
 
     public boolean isUpdateThread()
     {
-        return Thread.currentThread() == this.updateThread;
+        return Thread.currentThread() instanceof WrUpdateThread;
     }
 
     public static boolean isBackgroundChunkLoading()
@@ -72,91 +102,135 @@ public class WrUpdaterThreaded implements IWrUpdater
         return true;
     }
 
-    public void preRender(RenderGlobal var1, EntityLiving var2)
+    public void addRendererToUpdate(WorldRenderer var1, boolean var2)
     {
-        this.updateTargetNum = 0;
+        WorldRendererThreaded var3 = (WorldRendererThreaded)var1;
+        Object var4 = this.lock;
 
-        if (this.updateThread != null)
+        synchronized (this.lock)
         {
-            if (this.updateStartTimeNs == 0L)
+            if (var3.isUpdating)
             {
-                this.updateStartTimeNs = System.nanoTime();
+                throw new IllegalArgumentException("Renderer already updating");
             }
-
-            if (this.updateThread.hasWorkToDo())
+            else if (var3.prepareBuild())
             {
-                this.updateTargetNum = Config.getUpdatesPerFrame();
-
-                if (Config.isDynamicUpdates() && !var1.isMoving(var2))
+                if (var2)
                 {
-                    this.updateTargetNum *= 3;
+                    this.updateList.addFirst(var3);
                 }
-
-                this.updateTargetNum = Math.min(this.updateTargetNum, this.updateThread.getPendingUpdatesCount());
-
-                if (this.updateTargetNum > 0)
+                else
                 {
-                    this.updateThread.unpause();
+                    this.updateList.addLast(var3);
                 }
+
+                var3.isUpdating = true;
+                this.lock.notifyAll();
             }
         }
     }
 
-    public void postRender()
+    public WorldRendererThreaded takeRendererToBuild()
     {
-        if (this.updateThread != null)
-        {
-            float var1 = 0.0F;
-
-            if (this.updateTargetNum > 0)
-            {
-                long var2 = System.nanoTime() - this.updateStartTimeNs;
-                float var4 = this.timePerUpdateMs * (1.0F + (float)(this.updateTargetNum - 1) / 2.0F);
-
-                if (var4 > 0.0F)
-                {
-                    int var5 = (int)var4;
-                    Config.sleep((long)var5);
-                }
-
-                this.updateThread.pause();
-            }
-
-            float var6 = 0.2F;
+        Object var1 = this.lock;
 
-            if (this.updateTargetNum > 0)
+        synchronized (this.lock)
+        {
+            while (!this.terminated && (this.paused || this.updateList.isEmpty()))
             {
-                int var3 = this.updateThread.resetUpdateCount();
-
-                if (var3 < this.updateTargetNum)
+                try
                 {
-                    this.timePerUpdateMs += var6;
+                    this.lock.wait();
                 }
-
-                if (var3 > this.updateTargetNum)
+                catch (InterruptedException var4)
                 {
-                    this.timePerUpdateMs -= var6;
+                    ;
                 }
+            }
 
-                if (var3 == this.updateTargetNum)
-                {
-                    this.timePerUpdateMs -= var6;
-                }
+            if (this.terminated)
+            {
+                return null;
             }
             else
             {
-                this.timePerUpdateMs -= var6 / 5.0F;
+                ++this.buildingCount;
+                return (WorldRendererThreaded)this.updateList.removeFirst();
             }
+        }
+    }
+
+    public void rendererBuilt(WorldRendererThreaded var1)
+    {
+        Object var2 = this.lock;
+
+        synchronized (this.lock)
+        {
+            --this.buildingCount;
+            this.updatedList.add(var1);
+            this.lock.notifyAll();
+        }
+    }
 
-            if (this.timePerUpdateMs < 0.0F)
+    public int getUpdateCapacity()
+    {
+        Object var1 = this.lock;
+
+        synchronized (this.lock)
+        {
+            int var2 = this.updateThreads.length * MAX_UPDATE_CAPACITY_PER_THREAD;
+            return this.updateList.size() >= var2 ? 0 : var2 - this.updateList.size();
+        }
+    }
+
+    public int getPendingUpdatesCount()
+    {
+        Object var1 = this.lock;
+
+        synchronized (this.lock)
+        {
+            return this.updateList.size() + this.buildingCount;
+        }
+    }
+
+    private void finishUpdatedRenderers(long var1)
+    {
+        Object var3 = this.lock;
+
+        synchronized (this.lock)
+        {
+            this.finishList.addAll(this.updatedList);
+            this.updatedList.clear();
+        }
+
+        long var4 = System.nanoTime();
+        int var6;
+
+        for (var6 = 0; var6 < this.finishList.size(); ++var6)
+        {
+            if (var6 > 0 && System.nanoTime() - var4 > var1)
             {
-                this.timePerUpdateMs = 0.0F;
+                break;
             }
 
-            this.updateStartTimeNs = System.nanoTime();
+            WorldRendererThreaded var7 = (WorldRendererThreaded)this.finishList.get(var6);
+            var7.finishUpdate();
+            var7.isUpdating = false;
+        }
+
+        this.finishList.subList(0, var6).clear();
+    }
+
+    public void preRender(RenderGlobal var1, EntityLiving var2)
+    {
+        if (this.updateThreads != null)
+        {
+            this.finishUpdatedRenderers(this.firstUpdate ? Long.MAX_VALUE : MAX_FINISH_TIME_NS);
         }
     }
 
+    public void postRender() {}
+
     public boolean updateRenderers(RenderGlobal var1, EntityLiving var2, boolean var3)
     {
         this.delayedInit();
@@ -198,11 +272,6 @@ public class WrUpdaterThreaded implements IWrUpdater
                             {
                                 if (var12 < 256.0F && var1.isActingNow() && var11.isInFrustum || this.firstUpdate)
                                 {
-                                    if (this.updateThread != null)
-                                    {
-                                        this.updateThread.unpauseToEndOfUpdate();
-                                    }
-
                                     var11.updateRenderer();
                                     var11.needsUpdate = false;
                                     var1.worldRenderersToUpdate.set(var10, (Object)null);
@@ -210,9 +279,9 @@ public class WrUpdaterThreaded implements IWrUpdater
                                     continue;
                                 }
 
-                                if (this.updateThread != null)
+                                if (this.updateThreads != null)
                                 {
-                                    this.updateThread.addRendererToUpdate(var11, true);
+                                    this.addRendererToUpdate(var11, true);
                                     var11.needsUpdate = false;
                                     var1.worldRenderersToUpdate.set(var10, (Object)null);
                                     ++var4;
@@ -251,9 +320,9 @@ public class WrUpdaterThreaded implements IWrUpdater
                 var17 = true;
             }
 
-            if (this.updateThread != null)
+            if (this.updateThreads != null)
             {
-                var10 = this.updateThread.getUpdateCapacity();
+                var10 = this.getUpdateCapacity();
 
                 if (var10 <= 0)
                 {
@@ -332,12 +401,9 @@ public class WrUpdaterThreaded implements IWrUpdater
 
     private void updateRenderer(WorldRenderer var1)
     {
-        WrUpdateThread var2 = this.updateThread;
-
-        if (var2 != null)
+        if (this.updateThreads != null)
         {
-            var2.addRendererToUpdate(var1, false);
-            var1.needsUpdate = false;
+            this.addRendererToUpdate(var1, false);
         }
         else
         {
@@ -349,25 +415,39 @@ public class WrUpdaterThreaded implements IWrUpdater
 
     public void finishCurrentUpdate()
     {
-        if (this.updateThread != null)
+        if (this.updateThreads != null)
         {
-            this.updateThread.unpauseToEndOfUpdate();
-        }
-    }
+            Object var1 = this.lock;
 
-    public void resumeBackgroundUpdates()
-    {
-        if (this.updateThread != null)
-        {
-            this.updateThread.unpause();
-        }
-    }
+            synchronized (this.lock)
+            {
+                this.paused = true;
 
-    public void pauseBackgroundUpdates()
-    {
-        if (this.updateThread != null)
-        {
-            this.updateThread.pause();
+                while (this.buildingCount > 0)
+                {
+                    try
+                    {
+                        this.lock.wait();
+                    }
+                    catch (InterruptedException var4)
+                    {
+                        ;
+                    }
+                }
+            }
+
+            this.finishUpdatedRenderers(Long.MAX_VALUE);
+            var1 = this.lock;
+
+            synchronized (this.lock)
+            {
+                this.paused = false;
+                this.lock.notifyAll();
+            }
         }
     }
+
+    public void resumeBackgroundUpdates() {}
+
+    public void pauseBackgroundUpdates() {}
 }
@@ -0,0 +1,174 @@
+package net.minecraft.src;
+
+public class WrVisibilityGraph
+{
+    /** Face connectivity of a section through which everything can be seen */
+    public static final long ALL_CONNECTED = (1L << 36) - 1L;
+
+    /** Offsets of the six faces in the order down, up, north, south, west, east */
+    public static final int[] FACE_OFFSET_X = new int[] {0, 0, 0, 0, -1, 1};
+    public static final int[] FACE_OFFSET_Y = new int[] { -1, 1, 0, 0, 0, 0};
+    public static final int[] FACE_OFFSET_Z = new int[] {0, 0, -1, 1, 0, 0};
+    public static final int[] FACE_OPPOSITE = new int[] {1, 0, 3, 2, 5, 4};
+
+    /** A section with fewer opaque blocks than a full layer can not separate any two faces */
+    private static final int MIN_SEPARATING_BLOCKS = 256;
+
+    /**
+     * Flood fills the non opaque blocks of the 16x16x16 section at the given position and returns a bit set where bit
+     * (a * 6 + b) tells that face b can be seen from face a. Args: blockAccess, x, y, z
+     */
+    public static long computeVisibility(IBlockAccess var0, int var1, int var2, int var3)
+    {
+        boolean[] var4 = new boolean[4096];
+        int var5 = 0;
+
+        for (int var6 = 0; var6 < 16; ++var6)
+        {
+            for (int var7 = 0; var7 < 16; ++var7)
+            {
+                for (int var8 = 0; var8 < 16; ++var8)
+                {
+                    int var9 = var0.getBlockId(var1 + var8, var2 + var6, var3 + var7);
+
+                    if (var9 > 0 && Block.opaqueCubeLookup[var9])
+                    {
+                        var4[var6 << 8 | var7 << 4 | var8] = true;
+                        ++var5;
+                    }
+                }
+            }
+        }
+
+        if (var5 < MIN_SEPARATING_BLOCKS)
+        {
+            return ALL_CONNECTED;
+        }
+        else
+        {
+            long var16 = 0L;
+            int[] var17 = new int[4096];
+
+            for (int var10 = 0; var10 < 4096; ++var10)
+            {
+                if (!var4[var10])
+                {
+                    int var11 = floodFill(var4, var17, var10);
+
+                    for (int var12 = 0; var12 < 6; ++var12)
+                    {
+                        if ((var11 & 1 << var12) != 0)
+                        {
+                            for (int var13 = 0; var13 < 6; ++var13)
+                            {
+                                if ((var11 & 1 << var13) != 0)
+                                {
+                                    var16 |= 1L << var12 * 6 + var13;
+                                }
+                            }
+                        }
+                    }
+
+                    if (var16 == ALL_CONNECTED)
+                    {
+                        break;
+                    }
+                }
+            }
+
+            return var16;
+        }
+    }
+
+    /**
+     * Fills the region of non opaque blocks containing the given block, marking it as filled, and returns the faces
+     * of the section it touches as a bit mask.
+     */
+    private static int floodFill(boolean[] var0, int[] var1, int var2)
+    {
+        int var3 = 0;
+        int var4 = 0;
+        int var5 = 0;
+        var0[var2] = true;
+        var1[var4++] = var2;
+
+        while (var3 < var4)
+        {
+            int var6 = var1[var3++];
+            int var7 = var6 & 15;
+            int var8 = var6 >> 8 & 15;
+            int var9 = var6 >> 4 & 15;
+
+            if (var8 == 0)
+            {
+                var5 |= 1;
+            }
+            else if (!var0[var6 - 256])
+            {
+                var0[var6 - 256] = true;
+                var1[var4++] = var6 - 256;
+            }
+
+            if (var8 == 15)
+            {
+                var5 |= 2;
+            }
+            else if (!var0[var6 + 256])
+            {
+                var0[var6 + 256] = true;
+                var1[var4++] = var6 + 256;
+            }
+
+            if (var9 == 0)
+            {
+                var5 |= 4;
+            }
+            else if (!var0[var6 - 16])
+            {
+                var0[var6 - 16] = true;
+                var1[var4++] = var6 - 16;
+            }
+
+            if (var9 == 15)
+            {
+                var5 |= 8;
+            }
+            else if (!var0[var6 + 16])
+            {
+                var0[var6 + 16] = true;
+                var1[var4++] = var6 + 16;
+            }
+
+            if (var7 == 0)
+            {
+                var5 |= 16;
+            }
+            else if (!var0[var6 - 1])
+            {
+                var0[var6 - 1] = true;
+                var1[var4++] = var6 - 1;
+            }
+
+            if (var7 == 15)
+            {
+                var5 |= 32;
+            }
+            else if (!var0[var6 + 1])
+            {
+                var0[var6 + 1] = true;
+                var1[var4++] = var6 + 1;
+            }
+        }
+
+        return var5;
+    }
+
+    /**
+     * Returns true if the second face can be seen from the first one through the section. Args: visibility, face,
+     * face
+     */
+    public static boolean isConnected(long var0, int var2, int var3)
+    {
+        return (var0 & 1L << var2 * 6 + var3) != 0L;
+    }
+}